@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+# Compila la aplicación y los benchmarks, ejecuta JMH y guarda el resultado
+# en results/jmh-<commit>.json para comparar entre commits.
+# Los argumentos adicionales se pasan a JMH (por ejemplo: -p filas=1000 Validacion).
+set -euo pipefail
+cd "$(dirname "$0")"
+
+(cd ../Taller-Garaje && mvn -B -q install -DskipTests)
+mvn -B -q package
+
+# El motor de validación debe dar los mismos mensajes que la cadena original
+java -cp target/benchmarks.jar com.garaje.benchmarks.EquivalenciaValidacion
+java -cp target/benchmarks.jar com.garaje.benchmarks.EquivalenciaValidacion --idioma tr
+
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+mkdir -p results
+java -jar target/benchmarks.jar -rf json -rff "results/jmh-${commit}.json" "$@"
+echo "Resultados en results/jmh-${commit}.json"
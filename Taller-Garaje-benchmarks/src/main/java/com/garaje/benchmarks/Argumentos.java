@@ -0,0 +1,39 @@
+package com.garaje.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Argumentos de línea de comandos con la forma {@code --nombre valor} de los
+ * programas del módulo (GeneradorFlota, GeneradorCarga).
+ */
+final class Argumentos {
+
+    private final Map<String, String> valores = new HashMap<>();
+
+    Argumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Argumento inválido: " + args[i] + " (se espera --nombre valor)");
+            }
+            valores.put(args[i].substring(2), args[++i]);
+        }
+    }
+
+    String texto(String nombre, String porDefecto) {
+        return valores.getOrDefault(nombre, porDefecto);
+    }
+
+    long entero(String nombre, long porDefecto) {
+        String valor = valores.get(nombre);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            // Admite separadores de miles con guion bajo: 1_000_000
+            return Long.parseLong(valor.replace("_", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + nombre + " debe ser un número: " + valor);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.garaje.benchmarks;
+
+import com.garaje.model.Vehiculo;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Year;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base de datos H2 en memoria (modo MySQL) con la tabla vehiculos, usada
+ * como sustituto local de MySQL en los benchmarks.
+ */
+public final class BaseDatosEmbebida {
+
+    static final String[] MARCAS = {"Mazda", "Toyota", "Renault", "Chevrolet", "Kia", "Nissan", "Ferrari", "Ford"};
+    static final String[] COLORES = {"Rojo", "Blanco", "Negro", "Azul", "Gris"};
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    private final JdbcDataSource ds;
+    // Conexión abierta para que H2 no descarte la base en memoria
+    private final Connection ancla;
+
+    private BaseDatosEmbebida(JdbcDataSource ds, Connection ancla) {
+        this.ds = ds;
+        this.ancla = ancla;
+    }
+
+    /**
+     * Crea una base nueva con la tabla vehiculos y {@code filas} vehículos válidos.
+     */
+    public static BaseDatosEmbebida crear(int filas) throws SQLException {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:garaje" + SECUENCIA.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        Connection ancla = ds.getConnection();
+        crearTabla(ancla, true);
+        BaseDatosEmbebida base = new BaseDatosEmbebida(ds, ancla);
+        base.poblar(filas);
+        return base;
+    }
+
+    /**
+     * Crea la tabla vehiculos.
+     *
+     * @param claveUnica false para crearla sin la clave única de la placa
+     *        (carga masiva: se agrega después con agregarClaveUnica())
+     */
+    public static void crearTabla(Connection con, boolean claveUnica) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE vehiculos ("
+                    + " id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + " placa VARCHAR(20) NOT NULL,"
+                    + " marca VARCHAR(50) NOT NULL,"
+                    + " modelo VARCHAR(10) NOT NULL,"
+                    + " color VARCHAR(20),"
+                    + " propietario VARCHAR(100) NOT NULL,"
+                    + " version INT NOT NULL DEFAULT 0)");
+        }
+        if (claveUnica) {
+            agregarClaveUnica(con);
+        }
+    }
+
+    /**
+     * Agrega la clave única de la placa (falla si hay placas repetidas).
+     */
+    public static void agregarClaveUnica(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("ALTER TABLE vehiculos ADD CONSTRAINT uk_vehiculos_placa UNIQUE (placa)");
+        }
+    }
+
+    /**
+     * @return true si la tabla vehiculos ya existe
+     */
+    public static boolean existeTabla(Connection con) throws SQLException {
+        try (ResultSet rs = con.getMetaData().getTables(null, null, "vehiculos", new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * @return DataSource de la base en memoria
+     */
+    public JdbcDataSource getDataSource() {
+        return ds;
+    }
+
+    /**
+     * Genera un vehículo válido y determinístico para el índice dado.
+     */
+    public static Vehiculo vehiculo(int i) {
+        int anioActual = Year.now().getValue();
+        return new Vehiculo(0, placa(i), MARCAS[i % MARCAS.length],
+                Integer.toString(anioActual - (i % 20)), COLORES[i % COLORES.length],
+                "Propietario " + (i % 5000));
+    }
+
+    /**
+     * Placa única para el índice dado (tres letras y cuatro dígitos).
+     */
+    public static String placa(int i) {
+        char[] p = new char[7];
+        int resto = i / 10_000;
+        p[0] = (char) ('A' + (resto / 676) % 26);
+        p[1] = (char) ('A' + (resto / 26) % 26);
+        p[2] = (char) ('A' + resto % 26);
+        int numero = i % 10_000;
+        for (int k = 6; k >= 3; k--) {
+            p[k] = (char) ('0' + numero % 10);
+            numero /= 10;
+        }
+        return new String(p);
+    }
+
+    private void poblar(int filas) throws SQLException {
+        String sql = "INSERT INTO vehiculos (placa, marca, modelo, color, propietario) VALUES (?, ?, ?, ?, ?)";
+        ancla.setAutoCommit(false);
+        try (PreparedStatement ps = ancla.prepareStatement(sql)) {
+            for (int i = 0; i < filas; i++) {
+                Vehiculo v = vehiculo(i);
+                ps.setString(1, v.getPlaca());
+                ps.setString(2, v.getMarca());
+                ps.setString(3, v.getModelo());
+                ps.setString(4, v.getColor());
+                ps.setString(5, v.getPropietario());
+                ps.addBatch();
+                if (i % 5_000 == 4_999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        ancla.commit();
+        ancla.setAutoCommit(true);
+    }
+
+    /**
+     * Elimina la base en memoria.
+     */
+    public void cerrar() throws SQLException {
+        try (Statement st = ancla.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+        ancla.close();
+    }
+}
@@ -0,0 +1,122 @@
+package com.garaje.benchmarks;
+
+import com.garaje.exceptions.BusinessException;
+import com.garaje.model.Vehiculo;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Cadena de métodos validar* tal como estaba en VehiculoFacade antes de
+ * ValidadorVehiculo, copiada sin cambios (mensajes, orden de reglas,
+ * Calendar, Integer.parseInt y toLowerCase() con el idioma por defecto). Es
+ * la referencia de EquivalenciaValidacion; no debe "mejorarse".
+ */
+final class CadenaOriginal {
+
+    // Lista predefinida de colores válidos
+    private static final List<String> COLORES_VALIDOS = Arrays.asList(
+        "Rojo", "Blanco", "Negro", "Azul", "Gris"
+    );
+
+    private CadenaOriginal() {
+    }
+
+    /**
+     * @param v vehículo a validar
+     * @return mensaje de la BusinessException de la cadena original o null si es válido
+     */
+    static String primerError(Vehiculo v) {
+        try {
+            validarReglas(v);
+            return null;
+        } catch (BusinessException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private static void validarReglas(Vehiculo v) throws BusinessException {
+        validarCamposBasicos(v);
+        validarPropietario(v.getPropietario());
+        validarLongitudMinima(v.getMarca(), "marca", 3);
+        validarLongitudMinima(v.getModelo(), "modelo", 3);
+        validarLongitudMinima(v.getPlaca(), "placa", 3);
+        validarColor(v.getColor());
+        validarAntiguedadModelo(v.getModelo());
+        validarSQLInjection(v);
+    }
+
+    private static void validarCamposBasicos(Vehiculo v) throws BusinessException {
+        if (v == null) {
+            throw new BusinessException("El vehículo no puede ser nulo");
+        }
+        if (v.getPlaca() == null || v.getPlaca().trim().isEmpty()) {
+            throw new BusinessException("La placa es obligatoria");
+        }
+        if (v.getMarca() == null || v.getMarca().trim().isEmpty()) {
+            throw new BusinessException("La marca es obligatoria");
+        }
+        if (v.getModelo() == null || v.getModelo().trim().isEmpty()) {
+            throw new BusinessException("El modelo es obligatorio");
+        }
+        if (v.getColor() == null || v.getColor().trim().isEmpty()) {
+            throw new BusinessException("El color es obligatorio");
+        }
+        if (v.getPropietario() == null || v.getPropietario().trim().isEmpty()) {
+            throw new BusinessException("El propietario es obligatorio");
+        }
+    }
+
+    private static void validarPropietario(String propietario) throws BusinessException {
+        if (propietario == null || propietario.trim().length() < 5) {
+            throw new BusinessException("El propietario debe tener al menos 5 caracteres");
+        }
+    }
+
+    private static void validarLongitudMinima(String campo, String nombreCampo, int longitudMinima)
+            throws BusinessException {
+        if (campo == null || campo.trim().length() < longitudMinima) {
+            throw new BusinessException("El " + nombreCampo + " debe tener al menos " + longitudMinima + " caracteres");
+        }
+    }
+
+    private static void validarColor(String color) throws BusinessException {
+        if (color == null || !COLORES_VALIDOS.contains(color)) {
+            throw new BusinessException("El color debe ser uno de: " + COLORES_VALIDOS);
+        }
+    }
+
+    private static void validarAntiguedadModelo(String modelo) throws BusinessException {
+        if (modelo == null) {
+            throw new BusinessException("El modelo es obligatorio");
+        }
+        try {
+            int añoModelo = Integer.parseInt(modelo);
+            int añoActual = Calendar.getInstance().get(Calendar.YEAR);
+            int añoLimite = añoActual - 20;
+
+            if (añoModelo < añoLimite) {
+                throw new BusinessException("El modelo no puede tener más de 20 años de antigüedad. Año mínimo permitido: " + añoLimite);
+            }
+        } catch (NumberFormatException e) {
+            throw new BusinessException("El modelo debe ser un año válido (formato numérico)");
+        }
+    }
+
+    private static void validarSQLInjection(Vehiculo v) throws BusinessException {
+        String[] camposSospechosos = {v.getPlaca(), v.getMarca(), v.getModelo(), v.getColor(), v.getPropietario()};
+        String[] patronesSospechosos = {"'", "\"", ";", "--", "/*", "*/", "xp_", "sp_", "exec", "execute", "union", "select", "insert", "update", "delete", "drop", "create", "alter"};
+
+        for (String campo : camposSospechosos) {
+            if (campo != null) {
+                String campoLower = campo.toLowerCase();
+                for (String patron : patronesSospechosos) {
+                    if (campoLower.contains(patron.toLowerCase())) {
+                        throw new BusinessException("El campo contiene caracteres o patrones sospechosos que podrían indicar SQL Injection");
+                    }
+                }
+            }
+        }
+    }
+}
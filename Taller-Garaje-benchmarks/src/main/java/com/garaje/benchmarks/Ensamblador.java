@@ -0,0 +1,69 @@
+package com.garaje.benchmarks;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.inject.Inject;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ensambla los EJB de la aplicación fuera del contenedor: crea una instancia
+ * por tipo, inyecta los campos {@code @EJB}, {@code @Inject} y
+ * {@code @Resource DataSource} y ejecuta los métodos {@code @PostConstruct},
+ * igual que haría GlassFish con los Singleton.
+ */
+public final class Ensamblador {
+
+    private final DataSource ds;
+    private final Map<Class<?>, Object> instancias = new HashMap<>();
+
+    public Ensamblador(DataSource ds) {
+        this.ds = ds;
+        // Las notificaciones de las altas medidas quedan en memoria, no en un archivo
+        System.getProperties().putIfAbsent("garaje.notificaciones.destino", "memoria");
+        // La flota de las mediciones la genera cada benchmark, sin los datos de ejemplo
+        System.getProperties().putIfAbsent("garaje.esquema.datosEjemplo", "false");
+    }
+
+    /**
+     * Obtiene (o crea) la instancia única del tipo indicado.
+     */
+    public <T> T obtener(Class<T> tipo) {
+        Object existente = instancias.get(tipo);
+        if (existente != null) {
+            return tipo.cast(existente);
+        }
+        try {
+            T instancia = tipo.getDeclaredConstructor().newInstance();
+            instancias.put(tipo, instancia);
+            for (Class<?> c = tipo; c != Object.class; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    Object valor = null;
+                    if (f.isAnnotationPresent(Resource.class) && f.getType() == DataSource.class) {
+                        valor = ds;
+                    } else if (f.isAnnotationPresent(EJB.class) || f.isAnnotationPresent(Inject.class)) {
+                        valor = obtener(f.getType());
+                    }
+                    if (valor != null) {
+                        f.setAccessible(true);
+                        f.set(instancia, valor);
+                    }
+                }
+            }
+            for (Method m : tipo.getDeclaredMethods()) {
+                if (m.isAnnotationPresent(PostConstruct.class)) {
+                    m.setAccessible(true);
+                    m.invoke(instancia);
+                }
+            }
+            return instancia;
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("No se pudo ensamblar " + tipo.getName(), ex);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.garaje.benchmarks;
+
+import com.garaje.exceptions.BusinessException;
+import com.garaje.model.Vehiculo;
+import com.garaje.validation.ValidadorVehiculo;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Comprueba que ValidadorVehiculo devuelve, para cada vehículo, el mismo
+ * primer mensaje de BusinessException que la cadena validar* original
+ * (CadenaOriginal).
+ *
+ * Recorre primero casos de borde escritos a mano (nulos, espacios y
+ * controles en los extremos, años en el límite, números que
+ * Integer.parseInt acepta o rechaza, colores con otra capitalización,
+ * patrones en mayúsculas y letras cuya minúscula depende del idioma) y
+ * luego vehículos aleatorios armados con esas mismas piezas. Cada caso se
+ * evalúa con primerError(), validar() y validarLote().
+ *
+ * Uso (desde Taller-Garaje-benchmarks, después de mvn package):
+ *   java -cp target/benchmarks.jar com.garaje.benchmarks.EquivalenciaValidacion
+ *       [--casos 500000] [--semilla 7] [--idioma tr]
+ *
+ * --idioma cambia el idioma por defecto antes de crear el validador (la
+ * cadena original pasaba los campos a minúsculas con ese idioma). Termina
+ * con código 1 si encuentra diferencias; run-benchmarks.sh lo ejecuta antes
+ * de JMH.
+ */
+public final class EquivalenciaValidacion {
+
+    // Diferencias que se muestran antes de cortar el listado
+    private static final int MAX_DIFERENCIAS_MOSTRADAS = 20;
+
+    private static final String[] PATRONES = {"'", "\"", ";", "--", "/*", "*/", "xp_", "sp_", "exec", "execute",
+        "union", "select", "insert", "update", "delete", "drop", "create", "alter"};
+
+    // Caracteres fuera de ASCII o de la tabla del autómata que cambian (o no) al pasar a minúsculas
+    private static final String[] RAROS = {
+        "\u0130", // I con punto: en casi todos los idiomas su minúscula es "i" + punto combinante
+        "\u0131", // i sin punto
+        "I", "i",
+        "\u212A", // signo Kelvin (minúscula: k)
+        "\u017F", "\u00DF", "\u00C9", "\u00F1", "\u03A3",
+        "\u0307", // punto combinante
+        "\uFF33", // S de ancho completo
+        "\uFF10", // 0 de ancho completo (Integer.parseInt lo acepta)
+        "\u0662", // 2 arábigo-índico
+        "\uD835\uDC00", // letra matemática (par sustituto)
+        "\uD800", // sustituto suelto
+        "\t", "\n", "\u000B", "\u001F", "\u00A0", "\u2007", "\u3000", "\u007F", "_", "-", "/", "*"
+    };
+
+    private static final String[] MARCAS = {"Ferrari", "Toyota", "BMW", "Kia", "Mazda", "Ex", "Audi"};
+    private static final String[] COLORES = {"Rojo", "Blanco", "Negro", "Azul", "Gris", "rojo", "ROJO", "Rojo ",
+        " Gris", "Verde", "Rójo", ""};
+    private static final String[] PROPIETARIOS = {"Juan Pérez", "Ana", "Administrador", "O'Brien", "María  ",
+        "  Luisa", "Exequiel Díaz", "Unión Temporal", "Créate SAS", "Sp_Rentas"};
+
+    private final ValidadorVehiculo validador = ValidadorVehiculo.getInstancia();
+    private final int anioActual = Year.now().getValue();
+    private final List<String> diferencias = new ArrayList<>();
+    private long casos;
+
+    public static void main(String[] args) {
+        Argumentos argumentos = new Argumentos(args);
+        String idioma = argumentos.texto("idioma", null);
+        if (idioma != null) {
+            // Antes de la primera referencia a ValidadorVehiculo
+            Locale.setDefault(Locale.forLanguageTag(idioma));
+        }
+        EquivalenciaValidacion prueba = new EquivalenciaValidacion();
+        prueba.casosDeBorde();
+        prueba.aleatorios(argumentos.entero("casos", 500_000), argumentos.entero("semilla", 7));
+
+        System.out.printf("%,d vehículos comparados (idioma %s): %,d diferencias%n",
+                prueba.casos, Locale.getDefault().toLanguageTag(), prueba.diferencias.size());
+        for (int i = 0; i < Math.min(MAX_DIFERENCIAS_MOSTRADAS, prueba.diferencias.size()); i++) {
+            System.out.println("  " + prueba.diferencias.get(i));
+        }
+        if (!prueba.diferencias.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private void casosDeBorde() {
+        comparar(null);
+        Vehiculo base = new Vehiculo(0, "ABC123", "Toyota", Integer.toString(anioActual), "Rojo", "Juan Pérez");
+        comparar(base);
+
+        String[] textos = {null, "", " ", "\t\n", "\u0000ab", "ab", "abc", " abc ", "\u001Fabc\u001F", " ab",
+            "abcd", "abcde", " abcd ", " abcde"};
+        String[] modelos = {null, "", "  ", "abc", Integer.toString(anioActual - 21), Integer.toString(anioActual - 20),
+            Integer.toString(anioActual), Integer.toString(anioActual + 1), "+" + anioActual, "-" + anioActual, "+",
+            "-", "0" + anioActual, " " + anioActual, anioActual + " ", "20 20", "2147483647", "2147483648",
+            "-2147483648", "-2147483649", "99999999999", "\uFF12\uFF10\uFF12\uFF15", "\u0662\u0660\u0662\u0665",
+            "1e3", "20_20", "0x7E9"};
+        for (String texto : textos) {
+            comparar(con(base, 0, texto));
+            comparar(con(base, 1, texto));
+            comparar(con(base, 2, texto));
+            comparar(con(base, 3, texto));
+            comparar(con(base, 4, texto));
+        }
+        for (String modelo : modelos) {
+            comparar(con(base, 2, modelo));
+        }
+        for (String color : COLORES) {
+            comparar(con(base, 3, color));
+        }
+        for (String patron : PATRONES) {
+            for (String variante : new String[]{patron, patron.toUpperCase(Locale.ROOT), capitalizar(patron)}) {
+                for (int campo = 0; campo < 5; campo++) {
+                    String valor = campo == 3 ? "Rojo" : "x" + variante + "yz";
+                    comparar(con(base, campo, campo == 2 ? anioActual + variante : valor));
+                }
+            }
+        }
+        // Letras que dependen del idioma dentro de los patrones
+        for (String raro : RAROS) {
+            for (String patron : new String[]{"union", "insert", "exec", "execute", "sp_", "xp_", "alter", "delete"}) {
+                for (int i = 0; i <= patron.length(); i++) {
+                    comparar(con(base, 4, "Propietario " + patron.substring(0, i) + raro + patron.substring(i)));
+                }
+                comparar(con(base, 4, "Propietario " + patron.toUpperCase(Locale.ROOT).replace("I", raro)));
+            }
+        }
+    }
+
+    private void aleatorios(long cantidad, long semilla) {
+        SplittableRandom r = new SplittableRandom(semilla);
+        for (long i = 0; i < cantidad; i++) {
+            if (r.nextInt(1000) == 0) {
+                comparar(null);
+                continue;
+            }
+            comparar(new Vehiculo(0, campo(r, "ABC" + r.nextInt(1000)), campo(r, MARCAS[r.nextInt(MARCAS.length)]),
+                    campo(r, Integer.toString(anioActual - 25 + r.nextInt(28))),
+                    campo(r, COLORES[r.nextInt(COLORES.length)]),
+                    campo(r, PROPIETARIOS[r.nextInt(PROPIETARIOS.length)])));
+        }
+    }
+
+    /**
+     * Valor del campo: casi siempre el valor base, a veces vacío, recortado o
+     * con un patrón o un carácter raro insertado en cualquier posición.
+     */
+    private static String campo(SplittableRandom r, String valor) {
+        switch (r.nextInt(12)) {
+            case 0:
+                return r.nextBoolean() ? null : " ".repeat(r.nextInt(3));
+            case 1:
+                return valor.substring(0, r.nextInt(valor.length() + 1));
+            case 2:
+            case 3: {
+                String patron = PATRONES[r.nextInt(PATRONES.length)];
+                patron = r.nextBoolean() ? patron : patron.toUpperCase(Locale.ROOT);
+                int posicion = r.nextInt(valor.length() + 1);
+                return valor.substring(0, posicion) + patron + valor.substring(posicion);
+            }
+            case 4:
+            case 5: {
+                StringBuilder sb = new StringBuilder(valor);
+                for (int k = r.nextInt(3); k >= 0; k--) {
+                    sb.insert(r.nextInt(sb.length() + 1), RAROS[r.nextInt(RAROS.length)]);
+                }
+                return sb.toString();
+            }
+            default:
+                return valor;
+        }
+    }
+
+    private void comparar(Vehiculo v) {
+        casos++;
+        String esperado = CadenaOriginal.primerError(v);
+        String obtenido = validador.primerError(v);
+        String lanzado;
+        try {
+            validador.validar(v);
+            lanzado = null;
+        } catch (BusinessException ex) {
+            lanzado = ex.getMessage();
+        }
+        List<Vehiculo> lote = new ArrayList<>(1);
+        lote.add(v);
+        String deLote = validador.validarLote(lote)[0];
+        if (!Objects.equals(esperado, obtenido) || !Objects.equals(esperado, lanzado)
+                || !Objects.equals(esperado, deLote)) {
+            diferencias.add(describir(v) + ": original=" + esperado + " | motor=" + obtenido
+                    + " | validar=" + lanzado + " | lote=" + deLote);
+        }
+    }
+
+    /**
+     * Copia del vehículo con un campo reemplazado (0 placa, 1 marca, 2 modelo,
+     * 3 color, 4 propietario).
+     */
+    private static Vehiculo con(Vehiculo base, int campo, String valor) {
+        return new Vehiculo(0,
+                campo == 0 ? valor : base.getPlaca(),
+                campo == 1 ? valor : base.getMarca(),
+                campo == 2 ? valor : base.getModelo(),
+                campo == 3 ? valor : base.getColor(),
+                campo == 4 ? valor : base.getPropietario());
+    }
+
+    private static String capitalizar(String texto) {
+        return texto.substring(0, 1).toUpperCase(Locale.ROOT) + texto.substring(1);
+    }
+
+    private static String describir(Vehiculo v) {
+        if (v == null) {
+            return "null";
+        }
+        return "[" + escapar(v.getPlaca()) + ", " + escapar(v.getMarca()) + ", " + escapar(v.getModelo()) + ", "
+                + escapar(v.getColor()) + ", " + escapar(v.getPropietario()) + "]";
+    }
+
+    private static String escapar(String texto) {
+        if (texto == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < ' ' || c > '~') {
+                sb.append(String.format("\\u%04X", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,552 @@
+package com.garaje.benchmarks;
+
+import com.garaje.metrics.Histograma;
+import com.garaje.model.Vehiculo;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generador de carga HTTP: reproduce una mezcla de operaciones (listar,
+ * buscar, agregar, actualizar, eliminar) contra el servlet (/vehicles) y la
+ * API REST (/resources/vehiculos...) de una instancia desplegada y reporta
+ * el throughput y los percentiles de latencia por operación y canal.
+ *
+ * Conoce la flota porque usa el mismo GeneradorFlota (y la misma semilla)
+ * con el que se cargó la base: los ids 1..filas y sus placas. Las altas usan
+ * índices fuera de la flota y las bajas eliminan solo vehículos agregados
+ * por la propia prueba (los que devuelve la API REST), así la flota conserva
+ * su tamaño.
+ *
+ * Modelos de carga:
+ *  - Cerrado (por defecto): --usuarios hilos que repiten operaciones, con
+ *    --pausaMs entre una y otra.
+ *  - Abierto (--tasa N): N operaciones por segundo a intervalos fijos, sin
+ *    esperar a que terminen las anteriores. La latencia se mide desde el
+ *    momento en que la operación debía empezar, de modo que las demoras del
+ *    servidor no se esconden detrás de un cliente que dejó de enviar.
+ *
+ * Uso:
+ *   java -cp target/benchmarks.jar com.garaje.benchmarks.GeneradorCarga
+ *       --url http://localhost:8080/Taller-Garaje --filas 1000000 [--semilla 42]
+ *       [--escenario consulta|mixto|escritura|listar=50,buscar=20,...] [--canal ambos|servlet|rest]
+ *       [--usuarios 32] [--tasa 0] [--duracion 60] [--calentamiento 10] [--pausaMs 0]
+ */
+public final class GeneradorCarga {
+
+    /**
+     * Operaciones de la mezcla.
+     */
+    enum Operacion {
+        LISTAR, BUSCAR, AGREGAR, ACTUALIZAR, ELIMINAR;
+
+        String nombre() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Canal por el que se ejecuta cada operación.
+     */
+    enum Canal {
+        SERVLET, REST;
+
+        String nombre() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Resultado de una operación, según el código HTTP (o la excepción).
+     */
+    enum Resultado {
+        /** 2xx o 3xx (los POST del servlet responden 303). */
+        EXITO,
+        /** 4xx o un lote rechazado: regla de negocio, conflicto de versión, id inexistente. */
+        RECHAZO,
+        /** 503: el servidor rechazó por sobrecarga (control de admisión o espera vencida). */
+        SOBRECARGA,
+        /** Otro 5xx o error de red. */
+        ERROR
+    }
+
+    private static final Map<String, int[]> ESCENARIOS = Map.of(
+            // listar, buscar, agregar, actualizar, eliminar
+            "consulta", new int[]{60, 30, 4, 5, 1},
+            "mixto", new int[]{40, 20, 15, 20, 5},
+            "escritura", new int[]{10, 10, 40, 30, 10});
+
+    private static final String[] COLORES = {"Rojo", "Blanco", "Negro", "Azul", "Gris"};
+    private static final String[] MARCAS = {"Chevrolet", "Renault", "Mazda", "Toyota", "Kia"};
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern TOTAL = Pattern.compile("\"total\"\\s*:\\s*(\\d+)");
+
+    private static final int TAMANO_PAGINA = 20;
+    private static final int MAXIMO_EN_CURSO_ABIERTO = 10_000;
+
+    private final String base;
+    private final HttpClient http;
+    private final GeneradorFlota flota;
+    private final long filas;
+    private final int[] pesos;
+    private final int sumaPesos;
+    private final List<Canal> canales;
+
+    // Altas de esta prueba: índice de la próxima placa y ids disponibles para eliminar
+    private final AtomicLong proximoIndice;
+    private final ConcurrentLinkedQueue<Integer> agregados = new ConcurrentLinkedQueue<>();
+
+    // Solo se registran las operaciones que empiezan después del calentamiento
+    private volatile long medirDesde;
+    private final Map<Operacion, Map<Canal, Estadistica>> estadisticas = new EnumMap<>(Operacion.class);
+    private final Estadistica total = new Estadistica();
+    private final LongAdder sinDatos = new LongAdder();
+    private final LongAdder omitidas = new LongAdder();
+
+    GeneradorCarga(String base, GeneradorFlota flota, long filas, int[] pesos, List<Canal> canales) {
+        this.base = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.http = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.flota = flota;
+        this.filas = filas;
+        this.pesos = pesos;
+        int suma = 0;
+        for (int p : pesos) {
+            suma += p;
+        }
+        this.sumaPesos = suma;
+        this.canales = canales;
+        // Índices de alta lejos de la flota y distintos en cada ejecución
+        long libres = GeneradorFlota.ESPACIO_PLACAS - filas;
+        this.proximoIndice = new AtomicLong(filas + ThreadLocalRandom.current().nextLong(Math.max(1, libres / 2)));
+        for (Operacion op : Operacion.values()) {
+            Map<Canal, Estadistica> porCanal = new EnumMap<>(Canal.class);
+            for (Canal canal : Canal.values()) {
+                porCanal.put(canal, new Estadistica());
+            }
+            estadisticas.put(op, porCanal);
+        }
+    }
+
+    /**
+     * Ejecuta una operación elegida según la mezcla y registra su resultado.
+     *
+     * @param inicioPlanificado instante (nanoTime) desde el que se mide la latencia
+     */
+    void ejecutarUna(long inicioPlanificado) {
+        SplittableRandom r = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+        Operacion op = elegir(r);
+        Canal canal = canales.get(r.nextInt(canales.size()));
+        Resultado resultado;
+        try {
+            resultado = ejecutar(op, canal, r);
+        } catch (IOException ex) {
+            resultado = Resultado.ERROR;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (resultado == null) {
+            sinDatos.increment();
+            return;
+        }
+        long fin = System.nanoTime();
+        if (inicioPlanificado - medirDesde >= 0) {
+            estadisticas.get(op).get(canal).registrar(fin - inicioPlanificado, resultado);
+            total.registrar(fin - inicioPlanificado, resultado);
+        }
+    }
+
+    private Operacion elegir(SplittableRandom r) {
+        int valor = r.nextInt(sumaPesos);
+        for (Operacion op : Operacion.values()) {
+            valor -= pesos[op.ordinal()];
+            if (valor < 0) {
+                return op;
+            }
+        }
+        return Operacion.LISTAR;
+    }
+
+    /**
+     * @return resultado o null si no había datos para la operación (no hay
+     *         vehículos agregados por la prueba para eliminar)
+     */
+    private Resultado ejecutar(Operacion op, Canal canal, SplittableRandom r)
+            throws IOException, InterruptedException {
+        switch (op) {
+            case LISTAR:
+                return listar(canal, r);
+            case BUSCAR:
+                return buscar(canal, r);
+            case AGREGAR:
+                return agregar(canal);
+            case ACTUALIZAR:
+                return actualizar(canal, r);
+            default:
+                return eliminar(canal);
+        }
+    }
+
+    private Resultado listar(Canal canal, SplittableRandom r) throws IOException, InterruptedException {
+        long cursor = r.nextLong(Math.max(1, filas));
+        String consulta = "?cursor=" + cursor + "&size=" + TAMANO_PAGINA;
+        // Una de cada cuatro con filtro por marca
+        boolean filtrar = r.nextInt(4) == 0;
+        String marca = MARCAS[r.nextInt(MARCAS.length)];
+        if (canal == Canal.SERVLET) {
+            return resultado(obtener("/vehicles" + consulta + (filtrar ? "&filtroMarca=" + marca : "")).statusCode());
+        }
+        return resultado(obtener("/resources/vehiculos" + consulta + (filtrar ? "&marca=" + marca : "")).statusCode());
+    }
+
+    private Resultado buscar(Canal canal, SplittableRandom r) throws IOException, InterruptedException {
+        if (canal == Canal.SERVLET) {
+            // Búsqueda con los filtros del formulario: marca y color
+            return resultado(obtener("/vehicles?filtroMarca=" + MARCAS[r.nextInt(MARCAS.length)]
+                    + "&filtroColor=" + COLORES[r.nextInt(COLORES.length)]).statusCode());
+        }
+        // Fragmento de una placa existente, como lo teclearía un usuario
+        String placa = flota.placa(r.nextLong(Math.max(1, filas)));
+        String texto = placa.substring(0, 3 + r.nextInt(3));
+        return resultado(obtener("/resources/vehiculos/placas?limit=10&q=" + codificar(texto)).statusCode());
+    }
+
+    private Resultado agregar(Canal canal) throws IOException, InterruptedException {
+        Vehiculo v = flota.vehiculo(proximoIndice.getAndIncrement() % GeneradorFlota.ESPACIO_PLACAS);
+        if (canal == Canal.SERVLET) {
+            return resultado(enviarFormulario("action=add&placa=" + codificar(v.getPlaca())
+                    + "&marca=" + codificar(v.getMarca()) + "&modelo=" + codificar(v.getModelo())
+                    + "&color=" + codificar(v.getColor()) + "&propietario=" + codificar(v.getPropietario()))
+                    .statusCode());
+        }
+        HttpResponse<String> respuesta = enviarLote("[{\"operacion\":\"agregar\",\"vehiculo\":" + json(v) + "}]");
+        Resultado resultado = resultadoLote(respuesta);
+        if (resultado == Resultado.EXITO) {
+            Matcher m = ID.matcher(respuesta.body());
+            if (m.find()) {
+                agregados.add(Integer.valueOf(m.group(1)));
+            }
+        }
+        return resultado;
+    }
+
+    private Resultado actualizar(Canal canal, SplittableRandom r) throws IOException, InterruptedException {
+        int id = 1 + (int) r.nextLong(Math.max(1, filas));
+        String color = COLORES[r.nextInt(COLORES.length)];
+        // Lectura previa, como el formulario de edición o un cliente REST con If-Match
+        HttpResponse<String> actual = http.send(HttpRequest.newBuilder(uri("/resources/vehiculos/" + id))
+                .header("Accept", "application/json").GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (actual.statusCode() != 200) {
+            return resultado(actual.statusCode());
+        }
+        String etag = actual.headers().firstValue("ETag").orElse("\"0\"");
+        if (canal == Canal.REST) {
+            HttpRequest patch = HttpRequest.newBuilder(uri("/resources/vehiculos/" + id))
+                    .header("Content-Type", "application/merge-patch+json")
+                    .header("If-Match", etag)
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"color\":\"" + color + "\"}"))
+                    .build();
+            return resultado(http.send(patch, HttpResponse.BodyHandlers.discarding()).statusCode());
+        }
+        String cuerpo = actual.body();
+        String version = etag.replace("W/", "").replace("\"", "");
+        return resultado(enviarFormulario("action=update&id=" + id + "&version=" + version
+                + "&placa=" + codificar(campo(cuerpo, "placa")) + "&marca=" + codificar(campo(cuerpo, "marca"))
+                + "&modelo=" + codificar(campo(cuerpo, "modelo")) + "&color=" + color
+                + "&propietario=" + codificar(campo(cuerpo, "propietario"))).statusCode());
+    }
+
+    private Resultado eliminar(Canal canal) throws IOException, InterruptedException {
+        Integer id = agregados.poll();
+        if (id == null) {
+            return null;
+        }
+        if (canal == Canal.SERVLET) {
+            return resultado(enviarFormulario("action=delete&id=" + id).statusCode());
+        }
+        return resultadoLote(enviarLote("[{\"operacion\":\"eliminar\",\"id\":" + id + "}]"));
+    }
+
+    private HttpResponse<Void> obtener(String ruta) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(uri(ruta)).GET().build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpResponse<Void> enviarFormulario(String cuerpo) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri("/vehicles"))
+                .header("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpResponse<String> enviarLote(String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri("/resources/vehiculos/lote"))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String ruta) {
+        return URI.create(base + ruta);
+    }
+
+    private static Resultado resultado(int estado) {
+        if (estado < 400) {
+            return Resultado.EXITO;
+        }
+        if (estado == 503) {
+            return Resultado.SOBRECARGA;
+        }
+        return estado < 500 ? Resultado.RECHAZO : Resultado.ERROR;
+    }
+
+    /**
+     * Un lote de una operación responde 200 aunque la operación se rechace:
+     * el resultado está en el cuerpo.
+     */
+    private static Resultado resultadoLote(HttpResponse<String> respuesta) {
+        Resultado resultado = resultado(respuesta.statusCode());
+        if (resultado == Resultado.EXITO && !respuesta.body().replace(" ", "").contains("\"exito\":true")) {
+            return Resultado.RECHAZO;
+        }
+        return resultado;
+    }
+
+    private static String json(Vehiculo v) {
+        return "{\"placa\":\"" + v.getPlaca() + "\",\"marca\":\"" + v.getMarca() + "\",\"modelo\":\""
+                + v.getModelo() + "\",\"color\":\"" + v.getColor() + "\",\"propietario\":\""
+                + v.getPropietario() + "\"}";
+    }
+
+    /**
+     * Valor de un campo de texto de un objeto JSON plano (sin escapes).
+     */
+    private static String campo(String json, String nombre) {
+        Matcher m = Pattern.compile("\"" + nombre + "\"\\s*:\\s*\"([^\"]*)\"").matcher(json);
+        return m.find() ? m.group(1) : "";
+    }
+
+    private static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Carga cerrada: cada usuario ejecuta una operación tras otra.
+     */
+    void ejecutarCerrado(int usuarios, long pausaMs, long finNanos) throws InterruptedException {
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < usuarios; u++) {
+                ejecutor.execute(() -> {
+                    while (System.nanoTime() - finNanos < 0 && !Thread.currentThread().isInterrupted()) {
+                        ejecutarUna(System.nanoTime());
+                        if (pausaMs > 0) {
+                            try {
+                                Thread.sleep(pausaMs);
+                            } catch (InterruptedException ex) {
+                                return;
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Carga abierta: una operación cada 1/tasa segundos, sin esperar a las
+     * anteriores. Si se acumulan más de 10.000 en curso, las nuevas se
+     * cuentan como omitidas.
+     */
+    void ejecutarAbierto(double tasa, long finNanos) throws InterruptedException {
+        Semaphore enCurso = new Semaphore(MAXIMO_EN_CURSO_ABIERTO);
+        long intervalo = (long) (1e9 / tasa);
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long proxima = System.nanoTime();
+            while (proxima - finNanos < 0) {
+                long espera = proxima - System.nanoTime();
+                if (espera > 0) {
+                    TimeUnit.NANOSECONDS.sleep(espera);
+                }
+                long planificado = proxima;
+                proxima += intervalo;
+                if (!enCurso.tryAcquire()) {
+                    omitidas.increment();
+                    continue;
+                }
+                ejecutor.execute(() -> {
+                    try {
+                        ejecutarUna(planificado);
+                    } finally {
+                        enCurso.release();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Tabla de resultados por operación y canal, más el total.
+     */
+    void reportar(double segundos) {
+        System.out.printf("%n%-11s %-8s %9s %9s %8s %8s %8s %8s %8s %8s %7s %7s %7s%n", "operación", "canal",
+                "total", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "máx ms", "éxito", "rechazo",
+                "503", "error");
+        for (Map.Entry<Operacion, Map<Canal, Estadistica>> porOp : estadisticas.entrySet()) {
+            for (Map.Entry<Canal, Estadistica> porCanal : porOp.getValue().entrySet()) {
+                if (porCanal.getValue().cuenta() > 0) {
+                    porCanal.getValue().imprimir(porOp.getKey().nombre(), porCanal.getKey().nombre(), segundos);
+                }
+            }
+        }
+        total.imprimir("TOTAL", "", segundos);
+        if (sinDatos.sum() > 0) {
+            System.out.printf("%,d bajas no ejecutadas: no había vehículos agregados por la prueba para eliminar%n",
+                    sinDatos.sum());
+        }
+        if (omitidas.sum() > 0) {
+            System.out.printf("%,d operaciones omitidas: más de %,d en curso (el servidor no da abasto a esa tasa)%n",
+                    omitidas.sum(), MAXIMO_EN_CURSO_ABIERTO);
+        }
+    }
+
+    /**
+     * Latencias y resultados de una operación en un canal.
+     */
+    static final class Estadistica {
+
+        private final Histograma latencia = new Histograma();
+        private final LongAccumulator maxima = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] porResultado = new LongAdder[Resultado.values().length];
+
+        Estadistica() {
+            for (int i = 0; i < porResultado.length; i++) {
+                porResultado[i] = new LongAdder();
+            }
+        }
+
+        void registrar(long nanos, Resultado resultado) {
+            latencia.registrar(nanos);
+            maxima.accumulate(nanos);
+            porResultado[resultado.ordinal()].increment();
+        }
+
+        long cuenta() {
+            return latencia.getCuenta();
+        }
+
+        private long resultado(Resultado r) {
+            return porResultado[r.ordinal()].sum();
+        }
+
+        void imprimir(String operacion, String canal, double segundos) {
+            System.out.printf("%-11s %-8s %,9d %,9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %8d %7d %7d %7d%n",
+                    operacion, canal, cuenta(), cuenta() / segundos, percentil(0.5), percentil(0.9),
+                    percentil(0.99), percentil(0.999), maxima.get() / 1e6, resultado(Resultado.EXITO),
+                    resultado(Resultado.RECHAZO), resultado(Resultado.SOBRECARGA), resultado(Resultado.ERROR));
+        }
+
+        /**
+         * Percentil en milisegundos. El histograma devuelve el límite superior
+         * de la cubeta, que puede pasar del máximo observado.
+         */
+        private double percentil(double cuantil) {
+            return Math.min(latencia.percentil(cuantil), maxima.get()) / 1e6;
+        }
+    }
+
+    /**
+     * Lee el total de vehículos de la instancia (para --filas por defecto).
+     */
+    private static long totalRemoto(String base) throws IOException, InterruptedException {
+        HttpResponse<String> r = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(base + "/resources/vehiculos/estadisticas"))
+                        .header("Accept", "application/json").GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher m = TOTAL.matcher(r.body());
+        if (r.statusCode() != 200 || !m.find()) {
+            throw new IOException("No se pudo leer el total de vehículos (HTTP " + r.statusCode() + ")");
+        }
+        return Long.parseLong(m.group(1));
+    }
+
+    private static int[] pesos(String escenario) {
+        int[] predefinido = ESCENARIOS.get(escenario);
+        if (predefinido != null) {
+            return predefinido.clone();
+        }
+        int[] pesos = new int[Operacion.values().length];
+        for (String parte : escenario.split(",")) {
+            String[] claveValor = parte.split("=");
+            if (claveValor.length != 2) {
+                throw new IllegalArgumentException("Escenario inválido: " + escenario
+                        + " (use consulta, mixto, escritura o listar=50,buscar=20,...)");
+            }
+            pesos[Operacion.valueOf(claveValor[0].trim().toUpperCase(Locale.ROOT)).ordinal()] =
+                    Integer.parseInt(claveValor[1].trim());
+        }
+        return pesos;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Argumentos a = new Argumentos(args);
+        String base = a.texto("url", "http://localhost:8080/Taller-Garaje");
+        String escenario = a.texto("escenario", "mixto");
+        String canal = a.texto("canal", "ambos");
+        long usuarios = a.entero("usuarios", 32);
+        long tasa = a.entero("tasa", 0);
+        long duracion = a.entero("duracion", 60);
+        long calentamiento = a.entero("calentamiento", 10);
+        long filas = a.entero("filas", -1);
+        if (filas < 0) {
+            filas = totalRemoto(base);
+        }
+        List<Canal> canales = "ambos".equals(canal) ? List.of(Canal.values())
+                : List.of(Canal.valueOf(canal.toUpperCase(Locale.ROOT)));
+
+        GeneradorCarga carga = new GeneradorCarga(base, new GeneradorFlota(a.entero("semilla", 42)), filas,
+                pesos(escenario), canales);
+        System.out.printf("Escenario %s, canal %s, flota de %,d vehículos, %s, %d s (+%d s de calentamiento)%n",
+                escenario, canal, filas, tasa > 0 ? tasa + " ops/s (carga abierta)" : usuarios + " usuarios",
+                duracion, calentamiento);
+
+        long inicio = System.nanoTime();
+        carga.medirDesde = inicio + TimeUnit.SECONDS.toNanos(calentamiento);
+        long fin = carga.medirDesde + TimeUnit.SECONDS.toNanos(duracion);
+        if (tasa > 0) {
+            carga.ejecutarAbierto(tasa, fin);
+        } else {
+            carga.ejecutarCerrado((int) usuarios, a.entero("pausaMs", 0), fin);
+        }
+        carga.reportar(duracion);
+    }
+}
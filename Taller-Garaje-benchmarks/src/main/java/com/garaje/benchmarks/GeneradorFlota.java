@@ -0,0 +1,296 @@
+package com.garaje.benchmarks;
+
+import com.garaje.model.Vehiculo;
+import com.garaje.validation.ValidadorVehiculo;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Year;
+import java.util.SplittableRandom;
+
+/**
+ * Generador de flotas sintéticas con la forma de los datos de producción,
+ * para reproducir localmente el comportamiento con 10 mil a 10 millones de
+ * vehículos.
+ *
+ * Cada vehículo depende solo de la semilla y de su índice, así que la misma
+ * flota se puede regenerar (o generar por partes) en cualquier máquina:
+ *  - Placas únicas "ABC123": el índice se recorre con una permutación del
+ *    espacio de placas (17.576.000), sin repetir y sin orden aparente.
+ *  - Marcas con frecuencias decrecientes (pocas marcas concentran la flota).
+ *  - Solo los cinco colores válidos, con Blanco y Gris más frecuentes.
+ *  - Años dentro de la regla de 20 años de antigüedad, más densos en los
+ *    recientes.
+ *  - Propietarios: personas (muchos con más de un vehículo), empresas con
+ *    flotas grandes y algunos vehículos del Administrador (no se eliminan).
+ * Todos los vehículos pasan ValidadorVehiculo.
+ *
+ * Uso (desde Taller-Garaje-benchmarks, después de mvn package):
+ *   java -cp target/benchmarks.jar com.garaje.benchmarks.GeneradorFlota --filas 1000000
+ *       [--semilla 42] [--url jdbc:h2:file:./target/flota/garaje] [--sql flota.sql]
+ *
+ * Con --url carga una base H2 embebida en archivo (modo MySQL); con --sql
+ * escribe en cambio un script de INSERT multi-fila para cargar en MySQL
+ * (mysql garage &lt; flota.sql).
+ */
+public final class GeneradorFlota {
+
+    /** Cantidad de placas distintas: tres letras y tres dígitos. */
+    public static final long ESPACIO_PLACAS = 26L * 26 * 26 * 1000;
+
+    private static final String[] MARCAS = {
+        "Chevrolet", "Renault", "Mazda", "Toyota", "Kia", "Nissan", "Hyundai", "Suzuki", "Ford",
+        "Volkswagen", "Mitsubishi", "Honda", "Peugeot", "Jeep", "Subaru", "Volvo", "Audi", "BMW",
+        "Mercedes-Benz", "Ferrari"
+    };
+    private static final String[] COLORES = {"Blanco", "Gris", "Negro", "Rojo", "Azul"};
+    private static final int[] PESOS_COLORES = {30, 25, 20, 15, 10};
+
+    private static final String[] NOMBRES = {
+        "Ana", "Carlos", "María", "Juan", "Luisa", "Andrés", "Camila", "Jorge", "Valentina", "Diego",
+        "Laura", "Felipe", "Daniela", "Santiago", "Paula", "Mateo", "Sofía", "Julián", "Natalia", "Sebastián",
+        "Carolina", "Alejandro", "Isabel", "Ricardo", "Manuela", "Hernán", "Lucía", "Gabriel", "Marta", "Óscar"
+    };
+    private static final String[] APELLIDOS = {
+        "Rodríguez", "Gómez", "González", "Martínez", "García", "López", "Hernández", "Sánchez", "Ramírez",
+        "Pérez", "Díaz", "Muñoz", "Rojas", "Moreno", "Jiménez", "Vargas", "Castro", "Ortiz", "Rubio", "Mejía",
+        "Ríos", "Torres", "Suárez", "Cárdenas", "Restrepo", "Guzmán", "Salazar", "Herrera", "Medina", "Aguilar"
+    };
+    private static final String[] EMPRESAS = {
+        "Transportes", "Logística", "Rentacar", "Distribuidora", "Mensajería", "Taxis", "Servicios",
+        "Comercializadora"
+    };
+    private static final String[] REGIONES = {
+        "Andina", "del Valle", "del Caribe", "del Norte", "Central", "del Pacífico", "del Sur", "Oriental"
+    };
+
+    // Mezcla de la semilla con el índice (constante de SplitMix64)
+    private static final long PROPORCION_AUREA = 0x9E3779B97F4A7C15L;
+
+    private final long semilla;
+    private final long multiplicador;
+    private final long desplazamiento;
+    private final int anioActual = Year.now().getValue();
+    private final double[] acumuladoMarcas;
+
+    /**
+     * @param semilla semilla de la flota (la misma semilla genera la misma flota)
+     */
+    public GeneradorFlota(long semilla) {
+        this.semilla = semilla;
+        SplittableRandom r = new SplittableRandom(semilla);
+        // Multiplicador coprimo con el espacio de placas (2^6 * 5^3 * 13^3): permutación
+        long m = ESPACIO_PLACAS / 3 + r.nextLong(ESPACIO_PLACAS / 3);
+        while (m % 2 == 0 || m % 5 == 0 || m % 13 == 0) {
+            m++;
+        }
+        this.multiplicador = m;
+        this.desplazamiento = r.nextLong(ESPACIO_PLACAS);
+        // Frecuencia de la marca k proporcional a 1 / (k + 1)
+        acumuladoMarcas = new double[MARCAS.length];
+        double total = 0;
+        for (int k = 0; k < MARCAS.length; k++) {
+            total += 1.0 / (k + 1);
+            acumuladoMarcas[k] = total;
+        }
+        for (int k = 0; k < MARCAS.length; k++) {
+            acumuladoMarcas[k] /= total;
+        }
+    }
+
+    /**
+     * Genera el vehículo del índice dado (id 0: lo asigna la base de datos).
+     *
+     * @param indice posición en la flota, entre 0 y ESPACIO_PLACAS - 1
+     */
+    public Vehiculo vehiculo(long indice) {
+        SplittableRandom r = new SplittableRandom(semilla ^ (indice * PROPORCION_AUREA));
+        String marca = MARCAS[elegir(acumuladoMarcas, r.nextDouble())];
+        String color = COLORES[elegirPeso(PESOS_COLORES, r.nextInt(100))];
+        // Densidad que baja linealmente con la antigüedad: más autos recientes
+        int antiguedad = (int) (21 * (1 - Math.sqrt(1 - r.nextDouble())));
+        String modelo = Integer.toString(anioActual - Math.min(antiguedad, 20));
+        return new Vehiculo(0, placa(indice), marca, modelo, color, propietario(r));
+    }
+
+    /**
+     * Placa única del índice dado: "ABC123".
+     */
+    public String placa(long indice) {
+        long codigo = (multiplicarModulo(indice) + desplazamiento) % ESPACIO_PLACAS;
+        long letras = codigo / 1000;
+        int numero = (int) (codigo % 1000);
+        char[] p = new char[6];
+        p[0] = (char) ('A' + letras / 676);
+        p[1] = (char) ('A' + (letras / 26) % 26);
+        p[2] = (char) ('A' + letras % 26);
+        p[3] = (char) ('0' + numero / 100);
+        p[4] = (char) ('0' + (numero / 10) % 10);
+        p[5] = (char) ('0' + numero % 10);
+        return new String(p);
+    }
+
+    private long multiplicarModulo(long indice) {
+        // indice y multiplicador son menores que 2^25: el producto cabe en un long
+        return Math.floorMod(indice, ESPACIO_PLACAS) * multiplicador % ESPACIO_PLACAS;
+    }
+
+    private static String propietario(SplittableRandom r) {
+        int tipo = r.nextInt(1000);
+        if (tipo < 5) {
+            return "Administrador";
+        }
+        if (tipo < 125) {
+            // Pocas empresas con muchos vehículos cada una
+            int empresa = (int) Math.min(EMPRESAS.length * REGIONES.length - 1,
+                    Math.floor(Math.pow(r.nextDouble(), 3) * EMPRESAS.length * REGIONES.length));
+            return EMPRESAS[empresa % EMPRESAS.length] + " " + REGIONES[empresa / EMPRESAS.length] + " S.A.S.";
+        }
+        return NOMBRES[r.nextInt(NOMBRES.length)] + " " + APELLIDOS[r.nextInt(APELLIDOS.length)] + " "
+                + APELLIDOS[r.nextInt(APELLIDOS.length)];
+    }
+
+    private static int elegir(double[] acumulado, double u) {
+        for (int k = 0; k < acumulado.length - 1; k++) {
+            if (u < acumulado[k]) {
+                return k;
+            }
+        }
+        return acumulado.length - 1;
+    }
+
+    private static int elegirPeso(int[] pesos, int valor) {
+        int acumulado = 0;
+        for (int k = 0; k < pesos.length; k++) {
+            acumulado += pesos[k];
+            if (valor < acumulado) {
+                return k;
+            }
+        }
+        return pesos.length - 1;
+    }
+
+    /**
+     * Inserta los vehículos [desde, desde + filas) en la tabla vehiculos, en
+     * lotes de 1000 con un commit cada 50.000. Si la tabla no existe se crea
+     * y la clave única de la placa se agrega al final: insertar placas al azar
+     * con el índice ya creado es varias veces más lento.
+     *
+     * @return filas insertadas
+     */
+    public long poblar(Connection con, long desde, long filas) throws SQLException {
+        boolean nueva = !BaseDatosEmbebida.existeTabla(con);
+        if (nueva) {
+            BaseDatosEmbebida.crearTabla(con, false);
+        }
+        ValidadorVehiculo validador = ValidadorVehiculo.getInstancia();
+        String sql = "INSERT INTO vehiculos (placa, marca, modelo, color, propietario) VALUES (?, ?, ?, ?, ?)";
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        long inicio = System.nanoTime();
+        long avance = Math.max(1, filas / 10);
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (long i = 0; i < filas; i++) {
+                Vehiculo v = vehiculo(desde + i);
+                String error = validador.primerError(v);
+                if (error != null) {
+                    throw new IllegalStateException("Vehículo generado inválido (" + v.getPlaca() + "): " + error);
+                }
+                ps.setString(1, v.getPlaca());
+                ps.setString(2, v.getMarca());
+                ps.setString(3, v.getModelo());
+                ps.setString(4, v.getColor());
+                ps.setString(5, v.getPropietario());
+                ps.addBatch();
+                if (i % 1_000 == 999) {
+                    ps.executeBatch();
+                }
+                if (i % 50_000 == 49_999) {
+                    con.commit();
+                }
+                if ((i + 1) % avance == 0) {
+                    System.out.printf("  %,d / %,d filas (%,.0f filas/s)%n", i + 1, filas,
+                            (i + 1) / ((System.nanoTime() - inicio) / 1e9));
+                }
+            }
+            ps.executeBatch();
+            con.commit();
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+        if (nueva) {
+            long inicioIndice = System.nanoTime();
+            BaseDatosEmbebida.agregarClaveUnica(con);
+            System.out.printf("  clave única de la placa creada (%.1f s)%n", (System.nanoTime() - inicioIndice) / 1e9);
+        }
+        return filas;
+    }
+
+    /**
+     * Escribe los vehículos [desde, desde + filas) como script SQL para MySQL:
+     * INSERT de 1000 filas por sentencia, un commit cada 50.000.
+     */
+    public void escribirSql(Writer w, long desde, long filas) throws IOException {
+        w.write("-- Flota sintética generada por GeneradorFlota (semilla " + semilla + ", " + filas + " filas)\n");
+        w.write("SET autocommit = 0;\n");
+        for (long i = 0; i < filas; i++) {
+            Vehiculo v = vehiculo(desde + i);
+            if (i % 1_000 == 0) {
+                w.write("INSERT INTO vehiculos (placa, marca, modelo, color, propietario) VALUES\n");
+            }
+            w.write("('" + sql(v.getPlaca()) + "','" + sql(v.getMarca()) + "','" + sql(v.getModelo()) + "','"
+                    + sql(v.getColor()) + "','" + sql(v.getPropietario()) + "')");
+            boolean finSentencia = i % 1_000 == 999 || i == filas - 1;
+            w.write(finSentencia ? ";\n" : ",\n");
+            if (i % 50_000 == 49_999) {
+                w.write("COMMIT;\n");
+            }
+        }
+        w.write("COMMIT;\nSET autocommit = 1;\n");
+    }
+
+    private static String sql(String valor) {
+        return valor.replace("\\", "\\\\").replace("'", "''");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Argumentos a = new Argumentos(args);
+        long filas = a.entero("filas", 10_000);
+        if (filas < 1 || filas > ESPACIO_PLACAS) {
+            throw new IllegalArgumentException("--filas debe estar entre 1 y " + ESPACIO_PLACAS);
+        }
+        long desde = a.entero("desde", 0);
+        GeneradorFlota generador = new GeneradorFlota(a.entero("semilla", 42));
+        long inicio = System.nanoTime();
+
+        String archivoSql = a.texto("sql", null);
+        if (archivoSql != null) {
+            Path destino = Paths.get(archivoSql);
+            try (BufferedWriter w = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+                generador.escribirSql(w, desde, filas);
+            }
+            System.out.printf("%,d vehículos escritos en %s (%.1f s)%n", filas, destino.toAbsolutePath(),
+                    (System.nanoTime() - inicio) / 1e9);
+            return;
+        }
+
+        String url = a.texto("url", "jdbc:h2:file:./target/flota/garaje");
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL(url.startsWith("jdbc:h2:") && !url.contains("MODE=")
+                ? url + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE" : url);
+        System.out.printf("Generando %,d vehículos en %s%n", filas, url);
+        try (Connection con = ds.getConnection()) {
+            generador.poblar(con, desde, filas);
+        }
+        System.out.printf("%,d vehículos insertados (%.1f s)%n", filas, (System.nanoTime() - inicio) / 1e9);
+    }
+}
@@ -0,0 +1,89 @@
+package com.garaje.benchmarks;
+
+import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.Vehiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de listar y renderizar la tabla de vehicles.jsp: la lista completa
+ * (comportamiento anterior) frente a una página de la paginación por clave.
+ * El render reproduce el HTML de cada fila de la JSP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ListadoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int filas;
+
+    private BaseDatosEmbebida base;
+    private VehiculoFacade facade;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        base = BaseDatosEmbebida.crear(filas);
+        facade = new Ensamblador(base.getDataSource()).obtener(VehiculoFacade.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        base.cerrar();
+    }
+
+    @Benchmark
+    public int listarYRenderizarCompleto() throws SQLException {
+        return renderizar(facade.listar());
+    }
+
+    @Benchmark
+    public int listarYRenderizarPagina() throws SQLException {
+        return renderizar(facade.listarPagina(filas / 2, VehiculoFacade.TAMANO_PAGINA_POR_DEFECTO).getVehiculos());
+    }
+
+    /**
+     * Arma el HTML de las filas igual que el c:forEach de vehicles.jsp.
+     *
+     * @return largo del HTML generado
+     */
+    static int renderizar(List<Vehiculo> vehiculos) {
+        StringBuilder html = new StringBuilder(vehiculos.size() * 900);
+        for (Vehiculo v : vehiculos) {
+            html.append("<tr>\n<td>#").append(v.getId()).append("</td>\n")
+                    .append("<td>").append(v.getMarca()).append("</td>\n")
+                    .append("<td>").append(v.getModelo()).append("</td>\n")
+                    .append("<td>").append(v.getColor()).append("</td>\n")
+                    .append("<td>").append(v.getPlaca()).append("</td>\n")
+                    .append("<td>").append(v.getPropietario()).append("</td>\n")
+                    .append("<td>\n<form action=\"vehicles\" method=\"get\" style=\"display:inline;\">\n")
+                    .append("<input type=\"hidden\" name=\"action\" value=\"edit\"/>\n")
+                    .append("<input type=\"hidden\" name=\"id\" value=\"").append(v.getId()).append("\"/>\n")
+                    .append("<button type=\"submit\" class=\"btn-small\" style=\"background:#f39c12;\">Editar</button>\n")
+                    .append("</form>\n<form action=\"vehicles\" method=\"post\" style=\"display:inline;\">\n")
+                    .append("<input type=\"hidden\" name=\"action\" value=\"delete\"/>\n")
+                    .append("<input type=\"hidden\" name=\"id\" value=\"").append(v.getId()).append("\"/>\n")
+                    .append("<button type=\"submit\" class=\"btn-small\" style=\"background:#e74c3c;\">Eliminar</button>\n")
+                    .append("</form>\n</td>\n</tr>\n");
+        }
+        return html.length();
+    }
+}
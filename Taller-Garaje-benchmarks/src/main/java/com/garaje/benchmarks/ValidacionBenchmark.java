@@ -0,0 +1,120 @@
+package com.garaje.benchmarks;
+
+import com.garaje.model.Vehiculo;
+import com.garaje.validation.ValidadorVehiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la cadena de validación de reglas de negocio: el motor
+ * precompilado frente a la cadena original de validar* (reproducida aquí
+ * como referencia), para un vehículo válido, uno con patrón sospechoso y un
+ * lote de importación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    private static final List<String> COLORES_VALIDOS = Arrays.asList("Rojo", "Blanco", "Negro", "Azul", "Gris");
+    private static final String[] PATRONES = {"'", "\"", ";", "--", "/*", "*/", "xp_", "sp_", "exec", "execute",
+        "union", "select", "insert", "update", "delete", "drop", "create", "alter"};
+
+    private final ValidadorVehiculo validador = ValidadorVehiculo.getInstancia();
+    private Vehiculo valido;
+    private Vehiculo sospechoso;
+    private List<Vehiculo> lote;
+
+    @Setup
+    public void preparar() {
+        valido = BaseDatosEmbebida.vehiculo(42);
+        sospechoso = BaseDatosEmbebida.vehiculo(43);
+        sospechoso.setPropietario("Robert'); DROP TABLE vehiculos;--");
+        lote = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            lote.add(BaseDatosEmbebida.vehiculo(i));
+        }
+    }
+
+    @Benchmark
+    public String motorValido() {
+        return validador.primerError(valido);
+    }
+
+    @Benchmark
+    public String motorSospechoso() {
+        return validador.primerError(sospechoso);
+    }
+
+    @Benchmark
+    public String[] motorLote1000() {
+        return validador.validarLote(lote);
+    }
+
+    @Benchmark
+    public String cadenaOriginalValido() {
+        return cadenaOriginal(valido);
+    }
+
+    @Benchmark
+    public String cadenaOriginalSospechoso() {
+        return cadenaOriginal(sospechoso);
+    }
+
+    /**
+     * Cadena de validación tal como estaba en VehiculoFacade antes del motor
+     * precompilado (sin excepciones, para medir solo las comprobaciones).
+     */
+    private static String cadenaOriginal(Vehiculo v) {
+        String[] obligatorios = {v.getPlaca(), v.getMarca(), v.getModelo(), v.getColor(), v.getPropietario()};
+        for (String campo : obligatorios) {
+            if (campo == null || campo.trim().isEmpty()) {
+                return "obligatorio";
+            }
+        }
+        if (v.getPropietario().trim().length() < 5) {
+            return "propietario";
+        }
+        for (String campo : new String[]{v.getMarca(), v.getModelo(), v.getPlaca()}) {
+            if (campo.trim().length() < 3) {
+                return "longitud";
+            }
+        }
+        if (!COLORES_VALIDOS.contains(v.getColor())) {
+            return "color";
+        }
+        try {
+            if (Integer.parseInt(v.getModelo()) < Calendar.getInstance().get(Calendar.YEAR) - 20) {
+                return "antiguedad";
+            }
+        } catch (NumberFormatException e) {
+            return "formato";
+        }
+        for (String campo : obligatorios) {
+            String campoLower = campo.toLowerCase();
+            for (String patron : PATRONES) {
+                if (campoLower.contains(patron.toLowerCase())) {
+                    return "sql";
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.garaje.benchmarks;
+
+import com.garaje.model.Vehiculo;
+import com.garaje.persistence.VehiculoDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas y escrituras de VehiculoDAO (incluido el mapeo de filas) contra
+ * H2 en memoria, para distintos tamaños de flota.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehiculoDAOBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int filas;
+
+    private BaseDatosEmbebida base;
+    private Connection con;
+    private VehiculoDAO dao;
+    private int siguientePlaca;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        base = BaseDatosEmbebida.crear(filas);
+        con = base.getDataSource().getConnection();
+        dao = new VehiculoDAO(con);
+        siguientePlaca = filas;
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        dao.close();
+        con.close();
+        base.cerrar();
+    }
+
+    @Benchmark
+    public Vehiculo buscarPorId() throws SQLException {
+        return dao.buscarPorId(1 + ThreadLocalRandom.current().nextInt(filas));
+    }
+
+    @Benchmark
+    public boolean existePlaca() throws SQLException {
+        return dao.existePlaca(BaseDatosEmbebida.placa(ThreadLocalRandom.current().nextInt(filas)));
+    }
+
+    @Benchmark
+    public List<Vehiculo> listarPagina50() throws SQLException {
+        return dao.listarDesde(ThreadLocalRandom.current().nextInt(filas), 51);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public List<Vehiculo> listarCompleto() throws SQLException {
+        return dao.listar();
+    }
+
+    @Benchmark
+    public void agregarYEliminar() throws SQLException {
+        Vehiculo v = BaseDatosEmbebida.vehiculo(siguientePlaca++);
+        dao.agregar(v);
+        Vehiculo guardado = dao.buscarPorPlaca(v.getPlaca());
+        dao.eliminar(guardado.getId());
+    }
+}
@@ -0,0 +1,86 @@
+package com.garaje.benchmarks;
+
+import com.garaje.exceptions.BusinessException;
+import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.PaginaVehiculos;
+import com.garaje.model.Vehiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones completas de VehiculoFacade (reglas de negocio, caché, índice
+ * de placas y DAO) ensambladas fuera del contenedor sobre H2 en memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehiculoFacadeBenchmark {
+
+    @Param({"1000", "100000"})
+    public int filas;
+
+    private BaseDatosEmbebida base;
+    private VehiculoFacade facade;
+    private int siguientePlaca;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        base = BaseDatosEmbebida.crear(filas);
+        facade = new Ensamblador(base.getDataSource()).obtener(VehiculoFacade.class);
+        siguientePlaca = filas;
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        base.cerrar();
+    }
+
+    @Benchmark
+    public Vehiculo buscarPorId() throws SQLException {
+        return facade.buscarPorId(1 + ThreadLocalRandom.current().nextInt(filas));
+    }
+
+    @Benchmark
+    public PaginaVehiculos listarPrimeraPagina() throws SQLException {
+        return facade.listarPagina(0, VehiculoFacade.TAMANO_PAGINA_POR_DEFECTO);
+    }
+
+    @Benchmark
+    public PaginaVehiculos listarPaginaAleatoria() throws SQLException {
+        return facade.listarPagina(ThreadLocalRandom.current().nextInt(filas), VehiculoFacade.TAMANO_PAGINA_POR_DEFECTO);
+    }
+
+    @Benchmark
+    public String agregarConPlacaDuplicada() throws SQLException {
+        try {
+            return facade.agregar(BaseDatosEmbebida.vehiculo(ThreadLocalRandom.current().nextInt(filas)));
+        } catch (BusinessException esperado) {
+            return esperado.getMessage();
+        }
+    }
+
+    @Benchmark
+    public void agregarYEliminar() throws SQLException, BusinessException {
+        Vehiculo v = BaseDatosEmbebida.vehiculo(siguientePlaca++);
+        facade.agregar(v);
+        facade.eliminar(facade.buscarPorPlaca(v.getPlaca()).getId());
+    }
+}
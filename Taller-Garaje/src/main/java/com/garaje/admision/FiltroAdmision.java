@@ -0,0 +1,227 @@
+package com.garaje.admision;
+
+import com.garaje.config.Configuracion;
+import com.garaje.metrics.Metricas;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Control de admisión delante del pool de conexiones (jdbc/garageDB).
+ *
+ * Cuando MySQL se pone lento, las peticiones que esperan ds.getConnection()
+ * se acumulan y la latencia sube para todos. Este filtro limita cuántas
+ * peticiones trabajan a la vez con un límite adaptativo (LimiteAdaptativo)
+ * por clase de trabajo: lecturas (GET, HEAD) y escrituras (el resto), con
+ * presupuestos separados para que una ráfaga de importaciones no deje sin
+ * lugar al listado, y al revés. Lo que no entra se rechaza de inmediato con
+ * 503 y Retry-After en lugar de quedar esperando.
+ *
+ * La muestra de latencia es la duración de cada petición admitida, que en
+ * estas rutas es casi toda espera de conexión y trabajo del DAO. No se toman
+ * muestras de las exportaciones e importaciones (su duración depende del
+ * volumen y del cliente) ni de las respuestas 304. El canal de eventos y las
+ * métricas quedan fuera del control.
+ *
+ * Propiedades (se releen cada segundo; con garaje.config.archivo pueden
+ * cambiarse sin volver a desplegar):
+ *   garaje.admision.activa                 true
+ *   garaje.admision.lectura.minimo/maximo  4 / 64 (inicial 16)
+ *   garaje.admision.escritura.minimo/maximo 2 / 32 (inicial 8)
+ *   garaje.admision.porcentajePorCliente   50
+ *   garaje.admision.toleranciaPorcentaje   150 (latencia reciente admitida sobre la base)
+ *   garaje.admision.cabeceraCliente        (vacío) p. ej. X-Forwarded-For detrás de un proxy
+ */
+@WebFilter(urlPatterns = {"/vehicles", "/resources/*"}, asyncSupported = true)
+public class FiltroAdmision extends HttpFilter {
+
+    private static final Logger LOG = Logger.getLogger(FiltroAdmision.class.getName());
+
+    static final String PROP_ACTIVA = "garaje.admision.activa";
+    static final String PROP_PORCENTAJE_POR_CLIENTE = "garaje.admision.porcentajePorCliente";
+    static final String PROP_TOLERANCIA_PORCENTAJE = "garaje.admision.toleranciaPorcentaje";
+    static final String PROP_CABECERA_CLIENTE = "garaje.admision.cabeceraCliente";
+
+    private static final long REVISION_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private LimiteAdaptativo lecturas;
+    private LimiteAdaptativo escrituras;
+
+    // Configuración vigente; se revisa a lo sumo una vez por segundo
+    private volatile boolean activa;
+    private volatile String cabeceraCliente;
+    private volatile long proximaRevision;
+
+    @Override
+    public void init(FilterConfig config) throws ServletException {
+        super.init(config);
+        lecturas = new LimiteAdaptativo("lectura", 16, parametros("lectura", 4, 64));
+        escrituras = new LimiteAdaptativo("escritura", 8, parametros("escritura", 2, 32));
+        revisarConfiguracion(System.nanoTime());
+        publicarMetricas(lecturas);
+        publicarMetricas(escrituras);
+    }
+
+    @Override
+    protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        long inicio = System.nanoTime();
+        if (inicio - proximaRevision >= 0) {
+            revisarConfiguracion(inicio);
+        }
+        String ruta = request.getPathInfo() == null ? "" : request.getPathInfo();
+        if (!activa || fueraDeControl(request.getServletPath(), ruta)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String metodo = request.getMethod();
+        LimiteAdaptativo limite = "GET".equals(metodo) || "HEAD".equals(metodo) ? lecturas : escrituras;
+        String cliente = cliente(request);
+        LimiteAdaptativo.Rechazo rechazo = limite.admitir(cliente);
+        if (rechazo != null) {
+            rechazar(response, limite, rechazo);
+            return;
+        }
+
+        boolean medir = !ruta.startsWith("/vehiculos/export") && !ruta.startsWith("/vehiculos/import");
+        // Evita liberar dos veces el lugar (fin síncrono y eventos del modo asíncrono)
+        AtomicBoolean liberado = new AtomicBoolean();
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            if (liberado.compareAndSet(false, true)) {
+                limite.terminar(cliente, -1, true);
+            }
+            throw ex;
+        }
+        if (!request.isAsyncStarted()) {
+            liberar(limite, cliente, inicio, response, medir, liberado, false);
+            return;
+        }
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                liberar(limite, cliente, inicio, response, medir, liberado, false);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                liberar(limite, cliente, inicio, response, medir, liberado, true);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                liberar(limite, cliente, inicio, response, medir, liberado, true);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                event.getAsyncContext().addListener(this);
+            }
+        });
+    }
+
+    /**
+     * Rutas que no pasan por el control: conexiones largas (eventos) y las
+     * que deben responder aun con el sistema saturado (métricas).
+     */
+    private static boolean fueraDeControl(String servletPath, String ruta) {
+        return "/resources".equals(servletPath)
+                && (ruta.startsWith("/vehiculos/eventos") || ruta.startsWith("/metrics"));
+    }
+
+    private static void liberar(LimiteAdaptativo limite, String cliente, long inicio, HttpServletResponse response,
+            boolean medir, AtomicBoolean liberado, boolean vencida) {
+        if (!liberado.compareAndSet(false, true)) {
+            return;
+        }
+        int estado = response.getStatus();
+        boolean error = vencida || estado >= 500;
+        boolean muestra = medir && estado != HttpServletResponse.SC_NOT_MODIFIED;
+        limite.terminar(cliente, muestra ? System.nanoTime() - inicio : -1, error);
+    }
+
+    private static void rechazar(HttpServletResponse response, LimiteAdaptativo limite,
+            LimiteAdaptativo.Rechazo rechazo) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", Long.toString(limite.segundosParaReintentar()));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(rechazo == LimiteAdaptativo.Rechazo.CUOTA_CLIENTE
+                ? "Demasiadas peticiones en curso desde este cliente, intente nuevamente en unos segundos."
+                : "El servidor está ocupado, intente nuevamente en unos segundos.");
+    }
+
+    /**
+     * Identifica al cliente: la primera dirección de la cabecera configurada
+     * (solo detrás de un proxy confiable), el usuario autenticado o la
+     * dirección remota.
+     */
+    private String cliente(HttpServletRequest request) {
+        String cabecera = cabeceraCliente;
+        if (cabecera != null) {
+            String valor = request.getHeader(cabecera);
+            if (valor != null && !valor.isBlank()) {
+                int coma = valor.indexOf(',');
+                return (coma < 0 ? valor : valor.substring(0, coma)).trim();
+            }
+        }
+        String usuario = request.getRemoteUser();
+        return usuario != null ? "usuario:" + usuario : request.getRemoteAddr();
+    }
+
+    private void revisarConfiguracion(long ahora) {
+        proximaRevision = ahora + REVISION_NANOS;
+        boolean activaAntes = activa;
+        activa = Configuracion.booleano(PROP_ACTIVA, true);
+        String cabecera = Configuracion.texto(PROP_CABECERA_CLIENTE, "").trim();
+        cabeceraCliente = cabecera.isEmpty() ? null : cabecera;
+        lecturas.setParametros(parametros("lectura", 4, 64));
+        escrituras.setParametros(parametros("escritura", 2, 32));
+        if (activaAntes != activa) {
+            LOG.log(Level.INFO, "Control de admisión {0}", activa ? "activado" : "desactivado");
+        }
+    }
+
+    private static LimiteAdaptativo.Parametros parametros(String clase, int minimo, int maximo) {
+        return new LimiteAdaptativo.Parametros(
+                Configuracion.entero("garaje.admision." + clase + ".minimo", minimo),
+                Configuracion.entero("garaje.admision." + clase + ".maximo", maximo),
+                Configuracion.entero(PROP_PORCENTAJE_POR_CLIENTE, 50),
+                Configuracion.entero(PROP_TOLERANCIA_PORCENTAJE, 150) / 100.0);
+    }
+
+    private static void publicarMetricas(LimiteAdaptativo limite) {
+        String prefijo = "garaje_admision_" + limite.getNombre();
+        Metricas.indicador(prefijo + "_limite", "gauge",
+                "Límite de concurrencia vigente (" + limite.getNombre() + ").", limite::getLimite);
+        Metricas.indicador(prefijo + "_en_curso", "gauge",
+                "Peticiones admitidas en curso (" + limite.getNombre() + ").", limite::getEnCurso);
+        Metricas.indicador(prefijo + "_latencia_reciente_nanos", "gauge",
+                "Latencia reciente de las peticiones admitidas (" + limite.getNombre() + ").",
+                limite::getLatenciaReciente);
+        Metricas.indicador(prefijo + "_latencia_base_nanos", "gauge",
+                "Latencia sin contención usada como referencia (" + limite.getNombre() + ").",
+                limite::getLatenciaBase);
+        Metricas.indicador(prefijo + "_admitidas_total", "counter",
+                "Peticiones admitidas (" + limite.getNombre() + ").", limite::getAdmitidas);
+        Metricas.indicador(prefijo + "_rechazadas_limite_total", "counter",
+                "Peticiones rechazadas por el límite (" + limite.getNombre() + ").", limite::getRechazadasLimite);
+        Metricas.indicador(prefijo + "_rechazadas_cuota_total", "counter",
+                "Peticiones rechazadas por la cuota del cliente (" + limite.getNombre() + ").",
+                limite::getRechazadasCuota);
+    }
+}
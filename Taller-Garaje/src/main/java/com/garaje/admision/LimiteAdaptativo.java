@@ -0,0 +1,239 @@
+package com.garaje.admision;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Límite de concurrencia adaptativo para una clase de trabajo (lecturas o
+ * escrituras) con reparto equitativo entre clientes.
+ *
+ * El límite se ajusta con cada petición terminada comparando la latencia
+ * reciente (promedio móvil corto) con la latencia base, la que se observa
+ * sin contención. Mientras la reciente se mantiene cerca de la base, el
+ * límite crece de a poco; cuando las peticiones empiezan a esperar (pool
+ * agotado, MySQL lento) la reciente sube y el límite baja en proporción. Los
+ * errores (5xx) lo reducen un 10 %. Las peticiones que no entran se rechazan
+ * de inmediato: no hay cola.
+ *
+ * La base sigue a la latencia reciente solo cuando el límite no se está
+ * usando (no hay espera causada por la carga) o ya está en el mínimo (la
+ * base de datos es más lenta ahora y hay que aceptarlo como lo normal).
+ *
+ * Reparto: cada cliente puede tener en curso hasta su cuota (un porcentaje
+ * del límite); por encima de ella solo se lo admite mientras quede libre al
+ * menos la mitad del límite, así un cliente insistente no deja sin lugar a
+ * los demás cuando el sistema está saturado.
+ *
+ * Es seguro para varios hilos; la contabilidad usa un lock propio porque
+ * cada operación es breve comparada con la petición que protege.
+ */
+public final class LimiteAdaptativo {
+
+    /**
+     * Motivo por el que no se admitió una petición.
+     */
+    public enum Rechazo {
+        LIMITE, CUOTA_CLIENTE
+    }
+
+    /**
+     * Parámetros del límite; se reemplazan completos al cambiar la configuración.
+     */
+    public static final class Parametros {
+
+        final int minimo;
+        final int maximo;
+        final int porcentajePorCliente;
+        final double tolerancia;
+
+        /**
+         * @param minimo límite mínimo (nunca se rechaza por debajo de él)
+         * @param maximo límite máximo
+         * @param porcentajePorCliente cuota de cada cliente, en porcentaje del límite
+         * @param tolerancia cuánto puede superar la latencia reciente a la base
+         *        sin reducir el límite (por ejemplo 1.5)
+         */
+        public Parametros(int minimo, int maximo, int porcentajePorCliente, double tolerancia) {
+            this.minimo = Math.max(1, minimo);
+            this.maximo = Math.max(this.minimo, maximo);
+            this.porcentajePorCliente = Math.min(100, Math.max(1, porcentajePorCliente));
+            this.tolerancia = Math.max(1.0, tolerancia);
+        }
+    }
+
+    // Peso de cada muestra en el promedio corto y en el ajuste de la base
+    private static final double PESO_CORTO = 0.1;
+    private static final double PESO_BASE = 0.01;
+
+    // Fracción del límite nuevo que se aplica en cada ajuste
+    private static final double SUAVIZADO = 0.2;
+
+    private final String nombre;
+    private volatile Parametros parametros;
+
+    // Protegidos por this
+    private double limite;
+    private int enCurso;
+    private final Map<String, int[]> porCliente = new HashMap<>();
+    private double latenciaCorta;
+    private double latenciaBase;
+    private int muestrasSinAjuste;
+
+    private final AtomicLong admitidas = new AtomicLong();
+    private final AtomicLong rechazadasLimite = new AtomicLong();
+    private final AtomicLong rechazadasCuota = new AtomicLong();
+
+    /**
+     * @param nombre nombre de la clase de trabajo ("lectura" o "escritura")
+     * @param inicial límite inicial
+     * @param parametros parámetros vigentes
+     */
+    public LimiteAdaptativo(String nombre, int inicial, Parametros parametros) {
+        this.nombre = nombre;
+        this.parametros = parametros;
+        this.limite = Math.min(parametros.maximo, Math.max(parametros.minimo, inicial));
+    }
+
+    /**
+     * Intenta admitir una petición.
+     *
+     * @param cliente identificador del cliente (dirección o usuario)
+     * @return null si se admitió (el llamador debe llamar a terminar()) o el
+     *         motivo del rechazo
+     */
+    public Rechazo admitir(String cliente) {
+        Parametros p = parametros;
+        synchronized (this) {
+            int tope = (int) limite;
+            if (enCurso >= tope) {
+                rechazadasLimite.incrementAndGet();
+                return Rechazo.LIMITE;
+            }
+            int[] delCliente = porCliente.get(cliente);
+            int cuota = Math.max(1, tope * p.porcentajePorCliente / 100);
+            if (delCliente != null && delCliente[0] >= cuota && enCurso >= tope / 2) {
+                rechazadasCuota.incrementAndGet();
+                return Rechazo.CUOTA_CLIENTE;
+            }
+            if (delCliente == null) {
+                delCliente = new int[1];
+                porCliente.put(cliente, delCliente);
+            }
+            delCliente[0]++;
+            enCurso++;
+        }
+        admitidas.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Libera el lugar de una petición admitida y ajusta el límite.
+     *
+     * @param cliente el mismo identificador usado en admitir()
+     * @param latenciaNanos duración de la petición, o un valor negativo si no
+     *        debe usarse como muestra (respuestas cuya duración depende del cliente)
+     * @param error true si la petición terminó con error del servidor
+     */
+    public void terminar(String cliente, long latenciaNanos, boolean error) {
+        Parametros p = parametros;
+        synchronized (this) {
+            int enCursoAntes = enCurso;
+            enCurso--;
+            int[] delCliente = porCliente.get(cliente);
+            if (delCliente != null && --delCliente[0] <= 0) {
+                porCliente.remove(cliente);
+            }
+
+            if (error) {
+                limite = Math.max(p.minimo, limite * 0.9);
+                return;
+            }
+            if (latenciaNanos < 0) {
+                return;
+            }
+            double muestra = Math.max(1, latenciaNanos);
+            if (latenciaBase == 0) {
+                latenciaCorta = muestra;
+                latenciaBase = muestra;
+                return;
+            }
+            latenciaCorta += (muestra - latenciaCorta) * PESO_CORTO;
+            boolean enUso = enCursoAntes * 2 >= limite;
+            if (latenciaCorta < latenciaBase) {
+                latenciaBase = latenciaCorta;
+            } else if (!enUso || (int) limite <= p.minimo) {
+                latenciaBase += (latenciaCorta - latenciaBase) * PESO_BASE;
+            }
+            // Un ajuste por "vuelta" (tantas muestras como el límite): ajustar
+            // con cada muestra reacciona antes de que la latencia refleje el
+            // ajuste anterior y el límite oscila
+            if (++muestrasSinAjuste < (int) limite) {
+                return;
+            }
+            muestrasSinAjuste = 0;
+
+            double gradiente = Math.max(0.5, Math.min(1.0, p.tolerancia * latenciaBase / latenciaCorta));
+            // Solo se crece si el límite se está usando; si no, crecería sin control en reposo
+            double margen = enUso ? Math.sqrt(limite) : 0;
+            double nuevo = limite * gradiente + margen;
+            limite = Math.min(p.maximo, Math.max(p.minimo, limite * (1 - SUAVIZADO) + nuevo * SUAVIZADO));
+        }
+    }
+
+    /**
+     * Reemplaza los parámetros (al cambiar la configuración).
+     */
+    public void setParametros(Parametros nuevos) {
+        this.parametros = nuevos;
+        synchronized (this) {
+            limite = Math.min(nuevos.maximo, Math.max(nuevos.minimo, limite));
+        }
+    }
+
+    /**
+     * Segundos sugeridos al cliente para reintentar: el doble de la latencia
+     * reciente, con un mínimo de 1.
+     */
+    public synchronized long segundosParaReintentar() {
+        return Math.max(1, (long) Math.ceil(latenciaCorta * 2 / 1e9));
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public synchronized int getLimite() {
+        return (int) limite;
+    }
+
+    public synchronized int getEnCurso() {
+        return enCurso;
+    }
+
+    /**
+     * @return latencia reciente (promedio móvil corto) en nanosegundos
+     */
+    public synchronized long getLatenciaReciente() {
+        return (long) latenciaCorta;
+    }
+
+    /**
+     * @return latencia base (sin contención) en nanosegundos
+     */
+    public synchronized long getLatenciaBase() {
+        return (long) latenciaBase;
+    }
+
+    public long getAdmitidas() {
+        return admitidas.get();
+    }
+
+    public long getRechazadasLimite() {
+        return rechazadasLimite.get();
+    }
+
+    public long getRechazadasCuota() {
+        return rechazadasCuota.get();
+    }
+}
@@ -0,0 +1,242 @@
+package com.garaje.cache;
+
+import com.garaje.config.Configuracion;
+import com.garaje.metrics.Metricas;
+import com.garaje.model.Vehiculo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de filas ya renderizadas de la tabla de vehicles.jsp.
+ *
+ * Armar cada fila con c:forEach, EL y dos formularios por vehículo era la
+ * mayor parte del trabajo de CPU del listado. Aquí se guarda el HTML de cada
+ * fila (con los valores ya escapados) por id y versión del vehículo, de modo
+ * que mostrar una página es casi solo concatenar textos.
+ *
+ * Los campos ocultos con la página y los filtros del listado
+ * (estado-listado.jspf) dependen de la petición y no del vehículo: la fila
+ * se guarda partida en tres partes y ese bloque se intercala al escribirla.
+ *
+ * Como la clave incluye la versión, una fila guardada nunca describe datos
+ * distintos de los que tenía esa versión; VehiculoFacade igualmente la
+ * descarta en cada actualización o baja para no ocupar memoria con filas que
+ * ya no se van a pedir. Es acotada por cantidad de entradas (se expulsa la
+ * menos usada); garaje.cache.maxFragmentos, por defecto 10000.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class FragmentosFilas {
+
+    private int maxFragmentos;
+
+    // Filas por id en orden de acceso (LRU); protegido por this
+    private Map<Integer, Fragmento> porId;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    @PostConstruct
+    void iniciar() {
+        maxFragmentos = Math.max(1, Configuracion.entero("garaje.cache.maxFragmentos", 10_000));
+        porId = new LinkedHashMap<Integer, Fragmento>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Fragmento> mayor) {
+                return size() > maxFragmentos;
+            }
+        };
+
+        Metricas.indicador("garaje_fragmentos_aciertos_total", "counter",
+                "Filas del listado tomadas ya renderizadas.", this::getAciertos);
+        Metricas.indicador("garaje_fragmentos_fallos_total", "counter",
+                "Filas del listado que hubo que renderizar.", this::getFallos);
+        Metricas.indicador("garaje_fragmentos_entradas", "gauge",
+                "Filas renderizadas actualmente en caché.", this::getTamano);
+    }
+
+    /**
+     * Devuelve las filas de una página, en el mismo orden. Las que faltan (o
+     * tienen otra versión) se renderizan fuera del lock y se guardan.
+     *
+     * @param vehiculos vehículos de la página
+     * @return un fragmento por vehículo
+     */
+    public List<Fragmento> obtener(List<Vehiculo> vehiculos) {
+        Fragmento[] filas = new Fragmento[vehiculos.size()];
+        int faltantes = 0;
+        synchronized (this) {
+            for (int i = 0; i < filas.length; i++) {
+                Vehiculo v = vehiculos.get(i);
+                Fragmento f = porId.get(v.getId());
+                if (f != null && f.version == v.getVersion()) {
+                    filas[i] = f;
+                } else {
+                    faltantes++;
+                }
+            }
+        }
+        aciertos.add(filas.length - faltantes);
+        if (faltantes == 0) {
+            return List.of(filas);
+        }
+        fallos.add(faltantes);
+
+        List<Fragmento> nuevos = new ArrayList<>(faltantes);
+        for (int i = 0; i < filas.length; i++) {
+            if (filas[i] == null) {
+                filas[i] = renderizar(vehiculos.get(i));
+                nuevos.add(filas[i]);
+            }
+        }
+        synchronized (this) {
+            for (Fragmento f : nuevos) {
+                // No reemplaza una versión más nueva guardada mientras tanto
+                Fragmento actual = porId.get(f.id);
+                if (actual == null || actual.version < f.version) {
+                    porId.put(f.id, f);
+                }
+            }
+        }
+        return List.of(filas);
+    }
+
+    /**
+     * Descarta la fila de un vehículo (por actualización o baja).
+     *
+     * @param id identificador del vehículo modificado
+     */
+    public synchronized void invalidar(int id) {
+        porId.remove(id);
+    }
+
+    /**
+     * @return cantidad de filas tomadas de la caché
+     */
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    /**
+     * @return cantidad de filas que hubo que renderizar
+     */
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    /**
+     * @return cantidad actual de filas en caché
+     */
+    public synchronized int getTamano() {
+        return porId.size();
+    }
+
+    /**
+     * Escapa un texto para usarlo en HTML (contenido o valor de atributo), con
+     * las mismas entidades que c:out.
+     *
+     * @param texto texto a escapar; null se trata como vacío
+     * @return texto escapado
+     */
+    public static String escapar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < texto.length(); i++) {
+            String entidad = switch (texto.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&#034;";
+                case '\'' -> "&#039;";
+                default -> null;
+            };
+            if (entidad != null && sb == null) {
+                sb = new StringBuilder(texto.length() + 16).append(texto, 0, i);
+            }
+            if (sb != null) {
+                if (entidad != null) {
+                    sb.append(entidad);
+                } else {
+                    sb.append(texto.charAt(i));
+                }
+            }
+        }
+        return sb == null ? texto : sb.toString();
+    }
+
+    /**
+     * Arma el HTML de la fila; debe mantenerse igual a la tabla de vehicles.jsp.
+     */
+    private static Fragmento renderizar(Vehiculo v) {
+        String id = Integer.toString(v.getId());
+        String inicio = "<tr data-id=\"" + id + "\">\n"
+                + "    <td>#" + id + "</td>\n"
+                + "    <td data-campo=\"marca\">" + escapar(v.getMarca()) + "</td>\n"
+                + "    <td data-campo=\"modelo\">" + escapar(v.getModelo()) + "</td>\n"
+                + "    <td data-campo=\"color\">" + escapar(v.getColor()) + "</td>\n"
+                + "    <td data-campo=\"placa\">" + escapar(v.getPlaca()) + "</td>\n"
+                + "    <td data-campo=\"propietario\">" + escapar(v.getPropietario()) + "</td>\n"
+                + "    <td>\n"
+                + "        <form action=\"vehicles\" method=\"get\" style=\"display:inline;\">\n"
+                + "            <input type=\"hidden\" name=\"action\" value=\"edit\"/>\n"
+                + "            <input type=\"hidden\" name=\"id\" value=\"" + id + "\"/>\n";
+        String medio = "            <button type=\"submit\" class=\"btn-small\" style=\"background:#f39c12;\">✏️ Editar</button>\n"
+                + "        </form>\n"
+                + "        <form action=\"vehicles\" method=\"post\" style=\"display:inline;\"\n"
+                + "              onsubmit=\"return confirm('¿Estás seguro de eliminar este vehículo?');\">\n"
+                + "            <input type=\"hidden\" name=\"action\" value=\"delete\"/>\n"
+                + "            <input type=\"hidden\" name=\"id\" value=\"" + id + "\"/>\n";
+        String fin = "            <button type=\"submit\" class=\"btn-small\" style=\"background:#e74c3c;\">🗑️ Eliminar</button>\n"
+                + "        </form>\n"
+                + "    </td>\n"
+                + "</tr>\n";
+        return new Fragmento(v.getId(), v.getVersion(), inicio, medio, fin);
+    }
+
+    /**
+     * Fila renderizada de una versión de un vehículo. Es inmutable.
+     */
+    public static final class Fragmento {
+
+        private final int id;
+        private final int version;
+        private final String inicio;
+        private final String medio;
+        private final String fin;
+
+        private Fragmento(int id, int version, String inicio, String medio, String fin) {
+            this.id = id;
+            this.version = version;
+            this.inicio = inicio;
+            this.medio = medio;
+            this.fin = fin;
+        }
+
+        /**
+         * Escribe la fila intercalando el estado del listado en los dos
+         * formularios.
+         *
+         * @param out destino
+         * @param estado campos ocultos con la página y los filtros, ya escapados
+         */
+        public void escribir(Writer out, String estado) throws IOException {
+            out.write(inicio);
+            out.write(estado);
+            out.write(medio);
+            out.write(estado);
+            out.write(fin);
+        }
+    }
+}
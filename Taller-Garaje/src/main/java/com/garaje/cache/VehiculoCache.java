@@ -0,0 +1,354 @@
+package com.garaje.cache;
+
+import com.garaje.config.Configuracion;
+import com.garaje.metrics.Metricas;
+import com.garaje.model.PaginaVehiculos;
+import com.garaje.model.Vehiculo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché en memoria de vehículos (por id y por placa) y de páginas del listado.
+ *
+ * Es acotada por cantidad de entradas (se expulsa la menos usada) y por
+ * tiempo de vida. VehiculoFacade la consulta antes de ir al DAO y la
+ * invalida después de confirmar cada escritura. Las páginas se descartan
+ * completas ante cualquier escritura, porque un alta o baja desplaza su
+ * contenido.
+ *
+ * Cada invalidación avanza un número de generación. Quien lee de la base de
+ * datos toma antes la generación (generacion()) y la entrega al guardar: si
+ * el vehículo o las páginas se invalidaron mientras tanto, lo leído puede ser
+ * la fila anterior al cambio y no se guarda. Con cada invalidación se
+ * recuerda también la versión más nueva confirmada del vehículo, para que
+ * reemplazar() no pueda volver a poner una versión anterior cuando dos
+ * escrituras confirman en otro orden.
+ *
+ * Parámetros (propiedades del sistema):
+ *  - garaje.cache.maxEntradas: máximo de vehículos en caché (por defecto 10000).
+ *  - garaje.cache.maxPaginas: máximo de páginas en caché (por defecto 200).
+ *  - garaje.cache.ttlSegundos: tiempo de vida de cada entrada (por defecto 60).
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class VehiculoCache {
+
+    private int maxEntradas;
+    private int maxPaginas;
+    private long ttlNanos;
+
+    // Entradas por id en orden de acceso (LRU) y placa normalizada -> id
+    private Map<Integer, Entrada<Vehiculo>> porId;
+    private Map<String, Integer> idPorPlaca;
+    private Map<Long, Entrada<PaginaVehiculos>> paginas;
+
+    // Última invalidación por id (acotado a maxEntradas; de los expulsados
+    // solo se recuerda la mayor generación) y generación de las páginas
+    private long generacion;
+    private Map<Integer, Invalidacion> invalidadoEn;
+    private long generacionOlvidada;
+    private long paginasInvalidadasEn;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsiones = new LongAdder();
+
+    @PostConstruct
+    void iniciar() {
+        maxEntradas = Math.max(1, Configuracion.entero("garaje.cache.maxEntradas", 10_000));
+        maxPaginas = Math.max(1, Configuracion.entero("garaje.cache.maxPaginas", 200));
+        ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, Configuracion.entero("garaje.cache.ttlSegundos", 60)));
+
+        idPorPlaca = new HashMap<>();
+        porId = new LinkedHashMap<Integer, Entrada<Vehiculo>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entrada<Vehiculo>> mayor) {
+                if (size() > maxEntradas) {
+                    idPorPlaca.remove(normalizarPlaca(mayor.getValue().valor.getPlaca()), mayor.getKey());
+                    expulsiones.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        paginas = new LinkedHashMap<Long, Entrada<PaginaVehiculos>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada<PaginaVehiculos>> mayor) {
+                if (size() > maxPaginas) {
+                    expulsiones.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        invalidadoEn = new LinkedHashMap<Integer, Invalidacion>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Invalidacion> mayor) {
+                if (size() > maxEntradas) {
+                    generacionOlvidada = Math.max(generacionOlvidada, mayor.getValue().generacion());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Metricas.indicador("garaje_cache_aciertos_total", "counter",
+                "Consultas resueltas desde la caché de vehículos.", this::getAciertos);
+        Metricas.indicador("garaje_cache_fallos_total", "counter",
+                "Consultas de la caché que fueron a la base de datos.", this::getFallos);
+        Metricas.indicador("garaje_cache_expulsiones_total", "counter",
+                "Entradas expulsadas por tamaño o tiempo de vida.", this::getExpulsiones);
+        Metricas.indicador("garaje_cache_entradas", "gauge",
+                "Vehículos actualmente en caché.", this::getTamano);
+    }
+
+    /**
+     * Busca un vehículo por id.
+     *
+     * @param id identificador del vehículo
+     * @return copia del vehículo en caché o null si no está o expiró
+     */
+    public synchronized Vehiculo obtener(int id) {
+        Entrada<Vehiculo> entrada = porId.get(id);
+        if (entrada != null && entrada.expirada()) {
+            quitar(id);
+            expulsiones.increment();
+            entrada = null;
+        }
+        return registrar(entrada == null ? null : copiar(entrada.valor));
+    }
+
+    /**
+     * Busca un vehículo por placa (sin distinguir mayúsculas).
+     *
+     * @param placa placa del vehículo
+     * @return copia del vehículo en caché o null si no está o expiró
+     */
+    public synchronized Vehiculo obtenerPorPlaca(String placa) {
+        Integer id = idPorPlaca.get(normalizarPlaca(placa));
+        if (id == null) {
+            return registrar(null);
+        }
+        return obtener(id);
+    }
+
+    /**
+     * @return generación actual; se toma antes de leer de la base de datos
+     *         lo que luego se guardará con poner() o ponerPagina()
+     */
+    public synchronized long generacion() {
+        return generacion;
+    }
+
+    /**
+     * Guarda (o reemplaza) un vehículo leído de la base de datos, salvo que se
+     * haya invalidado después de empezar la lectura.
+     *
+     * @param v vehículo a guardar
+     * @param leidoEn generación tomada antes de leerlo
+     */
+    public synchronized void poner(Vehiculo v, long leidoEn) {
+        if (v == null || invalidadoDespues(v.getId(), leidoEn)) {
+            return;
+        }
+        quitar(v.getId());
+        porId.put(v.getId(), new Entrada<>(copiar(v), ttlNanos));
+        idPorPlaca.put(normalizarPlaca(v.getPlaca()), v.getId());
+    }
+
+    /**
+     * Busca una página del listado.
+     *
+     * @return la página en caché o null si no está o expiró
+     */
+    public synchronized PaginaVehiculos obtenerPagina(int cursor, int tamano) {
+        long clave = clavePagina(cursor, tamano);
+        Entrada<PaginaVehiculos> entrada = paginas.get(clave);
+        if (entrada != null && entrada.expirada()) {
+            paginas.remove(clave);
+            expulsiones.increment();
+            entrada = null;
+        }
+        return registrar(entrada == null ? null : entrada.valor);
+    }
+
+    /**
+     * Guarda una página del listado. Sus vehículos también quedan disponibles
+     * para las búsquedas por id y placa. Con la misma condición que poner():
+     * la página no se guarda si hubo una escritura después de empezar la
+     * lectura, y cada vehículo solo si no se invalidó.
+     *
+     * @param leidoEn generación tomada antes de leer la página
+     */
+    public synchronized void ponerPagina(PaginaVehiculos pagina, long leidoEn) {
+        List<Vehiculo> vehiculos = new ArrayList<>(pagina.getVehiculos().size());
+        for (Vehiculo v : pagina.getVehiculos()) {
+            vehiculos.add(copiar(v));
+            poner(v, leidoEn);
+        }
+        if (paginasInvalidadasEn > leidoEn) {
+            return;
+        }
+        PaginaVehiculos inmutable = new PaginaVehiculos(Collections.unmodifiableList(vehiculos),
+                pagina.getCursor(), pagina.getTamano(), pagina.getSiguienteCursor());
+        paginas.put(clavePagina(pagina.getCursor(), pagina.getTamano()), new Entrada<>(inmutable, ttlNanos));
+    }
+
+    /**
+     * Reemplaza un vehículo recién escrito y confirmado, e invalida todas las
+     * páginas. Si ya se confirmó una versión más nueva del mismo vehículo (o
+     * se eliminó), se deja lo que haya.
+     *
+     * @param v vehículo tal como quedó guardado, con su versión
+     */
+    public synchronized void reemplazar(Vehiculo v) {
+        if (registrarInvalidacion(v.getId(), v.getVersion()) > v.getVersion()) {
+            return;
+        }
+        quitar(v.getId());
+        porId.put(v.getId(), new Entrada<>(copiar(v), ttlNanos));
+        idPorPlaca.put(normalizarPlaca(v.getPlaca()), v.getId());
+    }
+
+    /**
+     * Invalida un vehículo eliminado y todas las páginas. Una escritura
+     * anterior que se confirme después ya no lo vuelve a poner.
+     *
+     * @param id identificador del vehículo eliminado
+     */
+    public synchronized void invalidar(int id) {
+        quitar(id);
+        registrarInvalidacion(id, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Invalida todas las páginas (por ejemplo, tras un alta).
+     */
+    public synchronized void invalidarPaginas() {
+        paginasInvalidadasEn = ++generacion;
+        paginas.clear();
+    }
+
+    /**
+     * @return cantidad de consultas resueltas desde la caché
+     */
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    /**
+     * @return cantidad de consultas que tuvieron que ir a la base de datos
+     */
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    /**
+     * @return cantidad de entradas expulsadas por tamaño o tiempo de vida
+     */
+    public long getExpulsiones() {
+        return expulsiones.sum();
+    }
+
+    /**
+     * @return cantidad actual de vehículos en caché
+     */
+    public synchronized int getTamano() {
+        return porId.size();
+    }
+
+    private <T> T registrar(T valor) {
+        if (valor == null) {
+            fallos.increment();
+        } else {
+            aciertos.increment();
+        }
+        return valor;
+    }
+
+    /**
+     * Anota la invalidación de un vehículo con una nueva generación y
+     * descarta las páginas.
+     *
+     * @return versión más nueva confirmada del vehículo
+     */
+    private int registrarInvalidacion(int id, int version) {
+        Invalidacion anterior = invalidadoEn.remove(id);
+        int mayor = anterior == null ? version : Math.max(anterior.version(), version);
+        invalidadoEn.put(id, new Invalidacion(++generacion, mayor));
+        paginasInvalidadasEn = generacion;
+        paginas.clear();
+        return mayor;
+    }
+
+    /**
+     * @return true si el vehículo pudo invalidarse después de la generación
+     *         indicada (también si ya no se recuerda su invalidación)
+     */
+    private boolean invalidadoDespues(int id, long leidoEn) {
+        if (generacionOlvidada > leidoEn) {
+            return true;
+        }
+        Invalidacion en = invalidadoEn.get(id);
+        return en != null && en.generacion() > leidoEn;
+    }
+
+    private void quitar(int id) {
+        Entrada<Vehiculo> anterior = porId.remove(id);
+        if (anterior != null) {
+            idPorPlaca.remove(normalizarPlaca(anterior.valor.getPlaca()), id);
+        }
+    }
+
+    private static long clavePagina(int cursor, int tamano) {
+        return ((long) cursor << 32) | (tamano & 0xffffffffL);
+    }
+
+    private static String normalizarPlaca(String placa) {
+        return placa == null ? "" : placa.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static Vehiculo copiar(Vehiculo v) {
+        return new Vehiculo(v.getId(), v.getPlaca(), v.getMarca(), v.getModelo(), v.getColor(),
+                v.getPropietario(), v.getVersion());
+    }
+
+    /**
+     * Generación de la última invalidación de un vehículo y versión más
+     * nueva confirmada (Integer.MAX_VALUE si se eliminó).
+     */
+    private record Invalidacion(long generacion, int version) {
+    }
+
+    /**
+     * Valor en caché con su instante de expiración.
+     */
+    private static final class Entrada<T> {
+
+        private final T valor;
+        private final long expira;
+
+        private Entrada(T valor, long ttlNanos) {
+            this.valor = valor;
+            this.expira = System.nanoTime() + ttlNanos;
+        }
+
+        private boolean expirada() {
+            return System.nanoTime() - expira > 0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.garaje.cache;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión monótona de la flota, usada como ETag del listado.
+ *
+ * VehiculoFacade la incrementa en cada escritura (agregar, importar,
+ * actualizar, eliminar). El valor incluye el instante de arranque de la
+ * aplicación, de modo que un ETag emitido antes de un redespliegue nunca
+ * coincide con uno nuevo aunque el contador vuelva a empezar.
+ *
+ * Las escrituras hechas fuera de la aplicación solo se reflejan cuando
+ * IndicePlacas recarga la flota (al desplegar y cada noche).
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class VersionFlota {
+
+    private final long arranque = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Registra un cambio en la flota.
+     */
+    public void incrementar() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return versión actual desde el arranque de la aplicación
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Arma el valor opaco de un ETag (sin comillas) para la versión actual.
+     * Debe obtenerse antes de leer los datos que describe: si hay una
+     * escritura en el medio, el ETag queda más viejo que el contenido y la
+     * siguiente petición simplemente no coincide.
+     *
+     * @param variante parte que distingue representaciones de la misma
+     *        versión (por ejemplo, cursor y tamaño de página)
+     * @return valor del ETag
+     */
+    public String etiqueta(String variante) {
+        return Long.toString(arranque, 36) + "-" + version.get() + "-" + variante;
+    }
+}
@@ -0,0 +1,168 @@
+package com.garaje.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Acceso a los parámetros de configuración de la aplicación.
+ *
+ * Los valores se leen de propiedades del sistema (por ejemplo, opciones
+ * -D de la JVM de GlassFish) y, si no existen, se usa el valor por defecto.
+ *
+ * Si la propiedad del sistema garaje.config.archivo apunta a un archivo
+ * .properties, sus valores tienen prioridad y el archivo se vuelve a leer
+ * cuando cambia (se revisa a lo sumo una vez por segundo), de modo que los
+ * parámetros que se consultan en cada uso (por ejemplo, los del control de
+ * admisión) pueden ajustarse sin reiniciar ni volver a desplegar.
+ */
+public final class Configuracion {
+
+    private static final Logger LOG = Logger.getLogger(Configuracion.class.getName());
+
+    public static final String PROP_ARCHIVO = "garaje.config.archivo";
+
+    private static final long REVISION_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // Último contenido leído del archivo (null si no hay archivo configurado)
+    private static volatile Archivo archivo;
+
+    private Configuracion() {
+    }
+
+    /**
+     * Lee un parámetro entero.
+     *
+     * @param nombre nombre de la propiedad (por ejemplo "garaje.cache.maxEntradas")
+     * @param porDefecto valor usado si la propiedad no existe o no es numérica
+     * @return valor configurado
+     */
+    public static int entero(String nombre, int porDefecto) {
+        String valor = texto(nombre, null);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            return porDefecto;
+        }
+    }
+
+    /**
+     * Lee un parámetro booleano ("true" / "false").
+     *
+     * @param nombre nombre de la propiedad
+     * @param porDefecto valor usado si la propiedad no existe
+     * @return valor configurado
+     */
+    public static boolean booleano(String nombre, boolean porDefecto) {
+        String valor = texto(nombre, null);
+        return valor == null ? porDefecto : Boolean.parseBoolean(valor.trim());
+    }
+
+    /**
+     * Lee un parámetro de texto.
+     *
+     * @param nombre nombre de la propiedad
+     * @param porDefecto valor usado si la propiedad no existe
+     * @return valor configurado
+     */
+    public static String texto(String nombre, String porDefecto) {
+        Properties delArchivo = propiedadesArchivo();
+        String valor = delArchivo == null ? null : delArchivo.getProperty(nombre);
+        return valor != null ? valor : System.getProperty(nombre, porDefecto);
+    }
+
+    /**
+     * Propiedades del archivo garaje.config.archivo, releídas si cambió su
+     * fecha de modificación desde la última revisión.
+     *
+     * @return propiedades vigentes o null si no hay archivo configurado
+     */
+    private static Properties propiedadesArchivo() {
+        String ruta = System.getProperty(PROP_ARCHIVO);
+        if (ruta == null || ruta.isBlank()) {
+            return null;
+        }
+        Archivo actual = archivo;
+        long ahora = System.nanoTime();
+        if (actual != null && actual.ruta.equals(ruta) && ahora - actual.revisado < REVISION_NANOS) {
+            return actual.valores;
+        }
+        synchronized (Configuracion.class) {
+            actual = archivo;
+            if (actual != null && actual.ruta.equals(ruta) && ahora - actual.revisado < REVISION_NANOS) {
+                return actual.valores;
+            }
+            archivo = revisar(ruta, actual != null && actual.ruta.equals(ruta) ? actual : null, ahora);
+            return archivo.valores;
+        }
+    }
+
+    /**
+     * Vuelve a leer el archivo si cambió. Si no se puede leer se conservan
+     * los valores anteriores (o ninguno, si es la primera lectura).
+     */
+    private static Archivo revisar(String ruta, Archivo anterior, long ahora) {
+        Path path = Paths.get(ruta);
+        long modificado;
+        try {
+            modificado = Files.getLastModifiedTime(path).toMillis();
+        } catch (NoSuchFileException ex) {
+            modificado = -1;
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "No se pudo revisar el archivo de configuración " + ruta, ex);
+            return new Archivo(ruta, anterior == null ? new Properties() : anterior.valores,
+                    anterior == null ? -1 : anterior.modificado, ahora);
+        }
+        if (anterior != null && anterior.modificado == modificado) {
+            return new Archivo(ruta, anterior.valores, modificado, ahora);
+        }
+        Properties valores = new Properties();
+        if (modificado >= 0) {
+            try (InputStream in = Files.newInputStream(path);
+                    Reader lector = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                valores.load(lector);
+                LOG.log(Level.INFO, "Configuración leída de {0} ({1} parámetros)",
+                        new Object[]{ruta, valores.size()});
+            } catch (IOException | IllegalArgumentException ex) {
+                LOG.log(Level.WARNING, "No se pudo leer el archivo de configuración " + ruta
+                        + "; se conservan los valores anteriores", ex);
+                return new Archivo(ruta, anterior == null ? new Properties() : anterior.valores, modificado, ahora);
+            }
+        } else if (anterior != null && anterior.modificado >= 0) {
+            LOG.log(Level.WARNING, "El archivo de configuración {0} ya no existe; se usan las propiedades del sistema",
+                    ruta);
+        }
+        return new Archivo(ruta, valores, modificado, ahora);
+    }
+
+    /**
+     * Contenido del archivo tal como se leyó en la última revisión.
+     */
+    private static final class Archivo {
+
+        private final String ruta;
+        private final Properties valores;
+        private final long modificado;
+        private final long revisado;
+
+        private Archivo(String ruta, Properties valores, long modificado, long revisado) {
+            this.ruta = ruta;
+            this.valores = valores;
+            this.modificado = modificado;
+            this.revisado = revisado;
+        }
+    }
+}
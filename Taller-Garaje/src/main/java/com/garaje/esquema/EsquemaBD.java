@@ -0,0 +1,169 @@
+package com.garaje.esquema;
+
+import com.garaje.config.Configuracion;
+import com.garaje.metrics.Metricas;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prepara la base de datos al desplegar, antes que los índices en memoria
+ * (que dependen de este bean con @DependsOn):
+ *
+ *  1. Aplica las migraciones pendientes del esquema (MigradorEsquema): la
+ *     tabla vehiculos, el índice único de placa y los índices secundarios.
+ *  2. Carga los datos de ejemplo de META-INF/sql/init.sql (INSERT IGNORE,
+ *     se puede repetir), salvo con garaje.esquema.datosEjemplo=false.
+ *  3. Revisa con EXPLAIN el plan de cada consulta de VehiculoDAO
+ *     (RevisorPlanes) y avisa con un WARNING por cada una que recorre la
+ *     tabla completa sin que se espere; se desactiva con
+ *     garaje.esquema.revisarPlanes=false.
+ *
+ * Un error no impide el despliegue: se registra como SEVERE y la aplicación
+ * sigue con el esquema que haya (las reglas de negocio no dependen de los
+ * índices, solo el rendimiento). La excepción es el índice único de placa:
+ * mientras el esquema esté por debajo de la versión 2 (la migración falló o
+ * no se aplicó) o el índice falte, isPlacaUnica() es false y VehiculoFacade
+ * ignora garaje.escritura.porRestricciones, porque ese modo deja la
+ * detección de placas repetidas a la base de datos.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class EsquemaBD {
+
+    private static final Logger LOG = Logger.getLogger(EsquemaBD.class.getName());
+
+    static final String PROP_MIGRAR = "garaje.esquema.migrar";
+    static final String PROP_DATOS_EJEMPLO = "garaje.esquema.datosEjemplo";
+    static final String PROP_REVISAR_PLANES = "garaje.esquema.revisarPlanes";
+
+    private static final String SCRIPT_DATOS_EJEMPLO = "META-INF/sql/init.sql";
+
+    @Resource(lookup = "jdbc/garageDB")
+    private DataSource ds;
+
+    private volatile int version;
+    private volatile String indicePlaca;
+    private volatile int recorridosInesperados;
+
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    void iniciar() {
+        Metricas.indicador("garaje_esquema_version", "gauge",
+                "Versión del esquema aplicada en la base de datos.", () -> version);
+        Metricas.indicador("garaje_esquema_recorridos_inesperados", "gauge",
+                "Consultas de VehiculoDAO que recorren la tabla completa sin que se espere.",
+                () -> recorridosInesperados);
+
+        try (Connection con = ds.getConnection()) {
+            MigradorEsquema migrador = new MigradorEsquema(con);
+            if (Configuracion.booleano(PROP_MIGRAR, true)) {
+                migrar(migrador);
+            }
+            version = migrador.versionActual();
+            if (version < MigradorEsquema.versionEsperada()) {
+                LOG.log(Level.SEVERE, "El esquema está en la versión {0} y la aplicación espera la {1}",
+                        new Object[]{version, MigradorEsquema.versionEsperada()});
+            }
+            indicePlaca = migrador.indiceUnico("vehiculos", "placa");
+            if (!isPlacaUnica()) {
+                LOG.log(Level.SEVERE, "Esquema en la versión {0} {1}: se ignora garaje.escritura.porRestricciones"
+                        + " y las placas repetidas solo se detectan con la verificación previa",
+                        new Object[]{version, indicePlaca == null
+                                ? "y sin índice único sobre vehiculos.placa"
+                                : "(el índice único de placa llega en la " + MigradorEsquema.VERSION_PLACA_UNICA + ")"});
+            }
+            if (Configuracion.booleano(PROP_DATOS_EJEMPLO, true)) {
+                cargarDatosEjemplo(migrador);
+            }
+            if (Configuracion.booleano(PROP_REVISAR_PLANES, true)) {
+                revisarPlanes(con);
+            }
+        } catch (SQLException ex) {
+            LOG.log(Level.SEVERE, "No se pudo preparar la base de datos", ex);
+        }
+    }
+
+    /**
+     * @return versión del esquema leída al desplegar (0 si no se pudo leer);
+     *         también se publica como la métrica garaje_esquema_version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return nombre del índice único sobre vehiculos.placa, o null si no
+     *         existe (o no se pudo leer el esquema)
+     */
+    public String getIndicePlaca() {
+        return indicePlaca;
+    }
+
+    /**
+     * @return true si el esquema llegó a la versión del índice único de placa
+     *         y el índice existe: la base de datos rechaza por sí misma las
+     *         placas repetidas
+     */
+    public boolean isPlacaUnica() {
+        return version >= MigradorEsquema.VERSION_PLACA_UNICA && indicePlaca != null;
+    }
+
+    private static void migrar(MigradorEsquema migrador) {
+        try {
+            List<Migracion> aplicadas = migrador.aplicarPendientes();
+            if (aplicadas.isEmpty()) {
+                LOG.log(Level.INFO, "Esquema al día (versión {0})", MigradorEsquema.versionEsperada());
+            }
+        } catch (SQLException ex) {
+            LOG.log(Level.SEVERE, "No se pudo migrar el esquema; la aplicación sigue con el esquema actual", ex);
+        }
+    }
+
+    private static void cargarDatosEjemplo(MigradorEsquema migrador) {
+        try {
+            int sentencias = migrador.ejecutarScript(SCRIPT_DATOS_EJEMPLO);
+            LOG.log(Level.FINE, "Datos de ejemplo: {0} sentencias", sentencias);
+        } catch (SQLException | IOException ex) {
+            LOG.log(Level.WARNING, "No se pudieron cargar los datos de ejemplo", ex);
+        }
+    }
+
+    private void revisarPlanes(Connection con) {
+        int inesperados = 0;
+        for (RevisorPlanes.Plan plan : new RevisorPlanes(con).revisar()) {
+            if (plan.isRecorridoInesperado()) {
+                inesperados++;
+                LOG.log(Level.WARNING, "RECORRIDO COMPLETO DE TABLA en VehiculoDAO.{0}: falta un índice para"
+                        + " \"{1}\" (plan: {2})",
+                        new Object[]{plan.consulta().nombre(), plan.consulta().sql(), plan.plan()});
+            } else if (plan.recorreTabla() == null) {
+                LOG.log(Level.INFO, "Plan de VehiculoDAO.{0} sin clasificar: {1}",
+                        new Object[]{plan.consulta().nombre(), plan.plan()});
+            } else {
+                LOG.log(Level.FINE, "Plan de VehiculoDAO.{0}: {1}",
+                        new Object[]{plan.consulta().nombre(), plan.plan()});
+            }
+        }
+        recorridosInesperados = inesperados;
+        if (inesperados > 0) {
+            LOG.log(Level.WARNING, "{0} consultas de VehiculoDAO recorren la tabla completa; revise los índices"
+                    + " (tabla esquema_version y MigradorEsquema)", inesperados);
+        }
+    }
+}
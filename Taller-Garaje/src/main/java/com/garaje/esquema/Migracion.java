@@ -0,0 +1,55 @@
+package com.garaje.esquema;
+
+import java.sql.SQLException;
+
+/**
+ * Cambio del esquema con número de versión. Se aplica una sola vez por base
+ * de datos y queda registrado en la tabla esquema_version.
+ *
+ * MySQL confirma cada sentencia DDL por su cuenta, de modo que una migración
+ * que falla a mitad de camino no se deshace: los pasos deben poder repetirse
+ * sin error (IF NOT EXISTS, MigradorEsquema.crearIndice(), ...).
+ */
+public final class Migracion {
+
+    /**
+     * Trabajo de la migración.
+     */
+    @FunctionalInterface
+    public interface Paso {
+
+        void aplicar(MigradorEsquema migrador) throws SQLException;
+    }
+
+    private final int version;
+    private final String descripcion;
+    private final Paso paso;
+
+    /**
+     * @param version número de versión (creciente, sin repetir)
+     * @param descripcion texto que se guarda en esquema_version
+     * @param paso cambios a aplicar
+     */
+    public Migracion(int version, String descripcion, Paso paso) {
+        this.version = version;
+        this.descripcion = descripcion;
+        this.paso = paso;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    void aplicar(MigradorEsquema migrador) throws SQLException {
+        paso.aplicar(migrador);
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " (" + descripcion + ")";
+    }
+}
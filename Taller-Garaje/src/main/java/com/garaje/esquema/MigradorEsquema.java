@@ -0,0 +1,356 @@
+package com.garaje.esquema;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Aplica las migraciones pendientes del esquema sobre una conexión.
+ *
+ * La versión aplicada se guarda en la tabla esquema_version (una fila por
+ * migración, con su descripción, fecha y duración). Las migraciones se
+ * aplican en orden y cada una se registra apenas termina, así que un
+ * despliegue que falla a mitad de camino continúa desde la última registrada
+ * en el siguiente arranque. En MySQL varios servidores que arrancan a la vez
+ * se turnan con GET_LOCK para no aplicar la misma migración dos veces.
+ *
+ * No depende del contenedor: también lo usan los programas del módulo de
+ * benchmarks con una base H2.
+ */
+public final class MigradorEsquema {
+
+    private static final Logger LOG = Logger.getLogger(MigradorEsquema.class.getName());
+
+    static final String TABLA_VERSION = "esquema_version";
+
+    private static final String NOMBRE_BLOQUEO = "garaje_esquema";
+    private static final int ESPERA_BLOQUEO_SEGUNDOS = 60;
+
+    /**
+     * Versión que crea el índice único de placa. Por debajo de ella la
+     * aplicación no confía en la base de datos para rechazar placas repetidas.
+     */
+    public static final int VERSION_PLACA_UNICA = 2;
+
+    /**
+     * Migraciones del esquema, en orden. Nunca se modifica una ya publicada:
+     * los cambios nuevos van en una migración con el siguiente número.
+     */
+    public static final List<Migracion> MIGRACIONES = List.of(
+            new Migracion(1, "Tabla vehiculos", m -> {
+                m.ejecutar("CREATE TABLE IF NOT EXISTS vehiculos ("
+                        + " id INT AUTO_INCREMENT PRIMARY KEY,"
+                        + " placa VARCHAR(20) NOT NULL,"
+                        + " marca VARCHAR(50) NOT NULL,"
+                        + " modelo VARCHAR(10) NOT NULL,"
+                        + " color VARCHAR(20),"
+                        + " propietario VARCHAR(100) NOT NULL,"
+                        + " version INT NOT NULL DEFAULT 0)");
+                // Tablas creadas antes de la concurrencia optimista
+                m.agregarColumna("vehiculos", "version", "INT NOT NULL DEFAULT 0");
+            }),
+            // existePlaca, buscarPorPlaca y placasExistentes buscan por placa;
+            // el índice único es además la garantía final contra placas repetidas
+            new Migracion(VERSION_PLACA_UNICA, "Índice único de placa",
+                    m -> m.crearIndice("vehiculos", "uk_vehiculos_placa", true, "placa")),
+            // Filtros del listado y estadísticas por marca y por color
+            new Migracion(3, "Índices de marca y color", m -> {
+                m.crearIndice("vehiculos", "ix_vehiculos_marca_color", false, "marca", "color");
+                m.crearIndice("vehiculos", "ix_vehiculos_color", false, "color");
+            }));
+
+    private final Connection con;
+
+    /**
+     * @param con conexión con permisos de DDL; el llamador la cierra
+     */
+    public MigradorEsquema(Connection con) {
+        this.con = con;
+    }
+
+    /**
+     * Aplica las migraciones que faltan.
+     *
+     * @return migraciones aplicadas en esta llamada (vacía si el esquema ya
+     *         estaba al día)
+     * @throws SQLException si una migración falla; las anteriores quedan registradas
+     */
+    public List<Migracion> aplicarPendientes() throws SQLException {
+        boolean autoCommitOriginal = con.getAutoCommit();
+        con.setAutoCommit(true);
+        boolean bloqueado = bloquear();
+        try {
+            crearTablaVersion();
+            int actual = versionActual();
+            List<Migracion> aplicadas = new ArrayList<>();
+            for (Migracion migracion : MIGRACIONES) {
+                if (migracion.getVersion() <= actual) {
+                    continue;
+                }
+                long inicio = System.nanoTime();
+                try {
+                    migracion.aplicar(this);
+                } catch (SQLException ex) {
+                    throw new SQLException("Falló la migración " + migracion + ": " + ex.getMessage(),
+                            ex.getSQLState(), ex.getErrorCode(), ex);
+                }
+                long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+                registrar(migracion, milisegundos);
+                LOG.log(Level.INFO, "Migración {0} aplicada en {1} ms", new Object[]{migracion, milisegundos});
+                aplicadas.add(migracion);
+            }
+            return aplicadas;
+        } finally {
+            if (bloqueado) {
+                desbloquear();
+            }
+            con.setAutoCommit(autoCommitOriginal);
+        }
+    }
+
+    /**
+     * @return última versión registrada en esquema_version (0 si la tabla no
+     *         existe o está vacía)
+     */
+    public int versionActual() throws SQLException {
+        if (!existeTabla(TABLA_VERSION)) {
+            return 0;
+        }
+        try (Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery("SELECT MAX(version) FROM " + TABLA_VERSION)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * @return versión más nueva que conoce esta aplicación
+     */
+    public static int versionEsperada() {
+        return MIGRACIONES.get(MIGRACIONES.size() - 1).getVersion();
+    }
+
+    /**
+     * Ejecuta una sentencia DDL o DML.
+     */
+    public void ejecutar(String sql) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    /**
+     * Agrega una columna si la tabla todavía no la tiene.
+     *
+     * @param definicion tipo y restricciones de la columna
+     */
+    public void agregarColumna(String tabla, String columna, String definicion) throws SQLException {
+        DatabaseMetaData meta = con.getMetaData();
+        try (ResultSet rs = meta.getColumns(con.getCatalog(), null, tabla, null)) {
+            while (rs.next()) {
+                if (columna.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                    return;
+                }
+            }
+        }
+        ejecutar("ALTER TABLE " + tabla + " ADD COLUMN " + columna + " " + definicion);
+    }
+
+    /**
+     * Crea un índice salvo que ya exista uno sobre las mismas columnas (con
+     * cualquier nombre, por ejemplo la clave única que creaba el script
+     * anterior a las migraciones). Un índice único falla si la tabla tiene
+     * valores repetidos: hay que corregirlos y volver a desplegar.
+     */
+    public void crearIndice(String tabla, String nombre, boolean unico, String... columnas) throws SQLException {
+        List<String> buscadas = minusculas(columnas);
+        for (Map.Entry<String, Indice> existente : indices(tabla).entrySet()) {
+            Indice indice = existente.getValue();
+            if (indice.columnas.equals(buscadas) && (indice.unico || !unico)) {
+                if (!existente.getKey().equalsIgnoreCase(nombre)) {
+                    LOG.log(Level.INFO, "El índice {0} ya existe como {1}; no se crea",
+                            new Object[]{nombre, existente.getKey()});
+                }
+                return;
+            }
+        }
+        ejecutar("CREATE " + (unico ? "UNIQUE " : "") + "INDEX " + nombre + " ON " + tabla
+                + " (" + String.join(", ", columnas) + ")");
+    }
+
+    /**
+     * Busca un índice único formado exactamente por las columnas indicadas,
+     * con cualquier nombre.
+     *
+     * @return nombre del índice o null si la tabla no tiene ninguno así
+     */
+    public String indiceUnico(String tabla, String... columnas) throws SQLException {
+        List<String> buscadas = minusculas(columnas);
+        for (Map.Entry<String, Indice> existente : indices(tabla).entrySet()) {
+            if (existente.getValue().unico && existente.getValue().columnas.equals(buscadas)) {
+                return existente.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ejecuta un script SQL del classpath con una sentencia por línea (las
+     * líneas vacías y las que empiezan con "--" se ignoran).
+     *
+     * @param recurso ruta del script, por ejemplo META-INF/sql/init.sql
+     * @return cantidad de sentencias ejecutadas
+     */
+    public int ejecutarScript(String recurso) throws SQLException, IOException {
+        InputStream entrada = MigradorEsquema.class.getClassLoader().getResourceAsStream(recurso);
+        if (entrada == null) {
+            throw new IOException("No se encontró el script " + recurso);
+        }
+        int sentencias = 0;
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+                Statement st = con.createStatement()) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("--")) {
+                    continue;
+                }
+                if (linea.endsWith(";")) {
+                    linea = linea.substring(0, linea.length() - 1);
+                }
+                st.execute(linea);
+                sentencias++;
+            }
+        }
+        return sentencias;
+    }
+
+    private void crearTablaVersion() throws SQLException {
+        ejecutar("CREATE TABLE IF NOT EXISTS " + TABLA_VERSION + " ("
+                + " version INT NOT NULL PRIMARY KEY,"
+                + " descripcion VARCHAR(200) NOT NULL,"
+                + " aplicada TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,"
+                + " milisegundos BIGINT NOT NULL)");
+    }
+
+    private void registrar(Migracion migracion, long milisegundos) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO " + TABLA_VERSION + " (version, descripcion, milisegundos) VALUES (?, ?, ?)")) {
+            ps.setInt(1, migracion.getVersion());
+            ps.setString(2, migracion.getDescripcion());
+            ps.setLong(3, milisegundos);
+            ps.executeUpdate();
+        }
+    }
+
+    private boolean existeTabla(String tabla) throws SQLException {
+        try (ResultSet rs = con.getMetaData().getTables(con.getCatalog(), null, tabla, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Índices de la tabla por nombre, con sus columnas en orden.
+     */
+    private Map<String, Indice> indices(String tabla) throws SQLException {
+        Map<String, Indice> indices = new LinkedHashMap<>();
+        try (ResultSet rs = con.getMetaData().getIndexInfo(con.getCatalog(), null, tabla, false, false)) {
+            while (rs.next()) {
+                String nombre = rs.getString("INDEX_NAME");
+                String columna = rs.getString("COLUMN_NAME");
+                if (nombre == null || columna == null) {
+                    continue;
+                }
+                Indice indice = indices.computeIfAbsent(nombre, n -> new Indice());
+                indice.unico = indice.unico || !rs.getBoolean("NON_UNIQUE");
+                int posicion = rs.getShort("ORDINAL_POSITION");
+                while (indice.columnas.size() < posicion) {
+                    indice.columnas.add(null);
+                }
+                indice.columnas.set(posicion - 1, columna.toLowerCase(Locale.ROOT));
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Evita que dos servidores migren a la vez (solo MySQL; con otras bases
+     * se asume un único servidor).
+     *
+     * @return true si se tomó el bloqueo
+     */
+    private boolean bloquear() throws SQLException {
+        if (!esMySQL()) {
+            return false;
+        }
+        try (PreparedStatement ps = con.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, NOMBRE_BLOQUEO);
+            ps.setInt(2, ESPERA_BLOQUEO_SEGUNDOS);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 1) {
+                    return true;
+                }
+            }
+        }
+        throw new SQLException("Otro servidor está migrando el esquema desde hace más de "
+                + ESPERA_BLOQUEO_SEGUNDOS + " segundos");
+    }
+
+    /**
+     * Libera el bloqueo tomado por bloquear(). GET_LOCK pertenece a la sesión
+     * de MySQL, y con un pool cerrar la conexión solo la devuelve: la sesión
+     * física sigue abierta. Si no se libera aquí, el bloqueo queda tomado
+     * hasta que el pool descarte esa conexión y los demás servidores no
+     * pueden migrar mientras tanto.
+     */
+    private void desbloquear() {
+        try (PreparedStatement ps = con.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, NOMBRE_BLOQUEO);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 1) {
+                    return;
+                }
+            }
+            LOG.log(Level.SEVERE, "El bloqueo {0} del esquema no estaba tomado por esta conexión", NOMBRE_BLOQUEO);
+        } catch (SQLException ex) {
+            LOG.log(Level.SEVERE, "No se pudo liberar el bloqueo " + NOMBRE_BLOQUEO + " del esquema: queda tomado"
+                    + " por la conexión física del pool hasta que se cierre (o con RELEASE_LOCK desde esa sesión)",
+                    ex);
+        }
+    }
+
+    private static List<String> minusculas(String... columnas) {
+        List<String> resultado = new ArrayList<>(columnas.length);
+        for (String columna : columnas) {
+            resultado.add(columna.toLowerCase(Locale.ROOT));
+        }
+        return resultado;
+    }
+
+    private boolean esMySQL() throws SQLException {
+        return con.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+    }
+
+    /**
+     * Índice existente: si es único y sus columnas en orden.
+     */
+    private static final class Indice {
+
+        private boolean unico;
+        private final List<String> columnas = new ArrayList<>();
+    }
+}
@@ -0,0 +1,152 @@
+package com.garaje.esquema;
+
+import com.garaje.persistence.VehiculoDAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Revisa con EXPLAIN el plan de ejecución de las consultas de VehiculoDAO
+ * para detectar las que recorren la tabla completa por falta de un índice.
+ *
+ * Entiende la salida de MySQL (columna "type": ALL es un recorrido de la
+ * tabla e "index" uno del índice completo) y la de H2 (comentario de acceso
+ * con "tableScan" o con un índice sin condición). Con otras bases el plan
+ * se informa sin clasificar.
+ *
+ * EXPLAIN no ejecuta la sentencia, por lo que también se revisan los UPDATE
+ * y DELETE sin modificar datos. Con pocas filas el optimizador puede elegir
+ * un recorrido aunque exista el índice; el resultado es más representativo
+ * con la flota real.
+ */
+public final class RevisorPlanes {
+
+    /**
+     * Plan de una consulta.
+     *
+     * @param consulta consulta revisada
+     * @param plan resumen del plan devuelto por EXPLAIN
+     * @param recorreTabla true si el plan recorre toda la tabla (o todo un
+     *        índice); null si no se pudo interpretar o EXPLAIN falló
+     */
+    public record Plan(VehiculoDAO.Consulta consulta, String plan, Boolean recorreTabla) {
+
+        /**
+         * @return true si recorre la tabla sin que la consulta lo espere
+         */
+        public boolean isRecorridoInesperado() {
+            return Boolean.TRUE.equals(recorreTabla) && !consulta.recorreTabla();
+        }
+    }
+
+    private static final Pattern ACCESO_H2 = Pattern.compile("/\\* ([\\w\"]+\\.[^*]*?) \\*/");
+
+    private final Connection con;
+
+    /**
+     * @param con conexión a la base de datos; el llamador la cierra
+     */
+    public RevisorPlanes(Connection con) {
+        this.con = con;
+    }
+
+    /**
+     * Revisa todas las consultas de VehiculoDAO.
+     *
+     * @return un plan por consulta, en el orden de VehiculoDAO.consultas()
+     */
+    public List<Plan> revisar() {
+        List<Plan> planes = new ArrayList<>();
+        for (VehiculoDAO.Consulta consulta : VehiculoDAO.consultas()) {
+            planes.add(revisar(consulta));
+        }
+        return planes;
+    }
+
+    /**
+     * Revisa una consulta. Un EXPLAIN que falla no interrumpe la revisión: se
+     * informa en el plan.
+     */
+    public Plan revisar(VehiculoDAO.Consulta consulta) {
+        try (PreparedStatement ps = con.prepareStatement("EXPLAIN " + consulta.sql())) {
+            int i = 1;
+            for (Object valor : consulta.ejemplo()) {
+                ps.setObject(i++, valor);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return interpretar(consulta, rs);
+            }
+        } catch (SQLException ex) {
+            return new Plan(consulta, "EXPLAIN falló: " + ex.getMessage(), null);
+        }
+    }
+
+    private static Plan interpretar(VehiculoDAO.Consulta consulta, ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int tipo = columna(meta, "type");
+        if (tipo > 0) {
+            // MySQL: una fila por tabla de la consulta
+            int clave = columna(meta, "key");
+            int filas = columna(meta, "rows");
+            int extra = columna(meta, "Extra");
+            StringBuilder plan = new StringBuilder();
+            boolean recorre = false;
+            while (rs.next()) {
+                String acceso = rs.getString(tipo);
+                recorre |= "ALL".equalsIgnoreCase(acceso) || "index".equalsIgnoreCase(acceso);
+                if (plan.length() > 0) {
+                    plan.append("; ");
+                }
+                plan.append("type=").append(acceso);
+                if (clave > 0) {
+                    plan.append(" key=").append(rs.getString(clave));
+                }
+                if (filas > 0) {
+                    plan.append(" rows=").append(rs.getString(filas));
+                }
+                if (extra > 0 && rs.getString(extra) != null) {
+                    plan.append(" (").append(rs.getString(extra)).append(')');
+                }
+            }
+            return new Plan(consulta, plan.toString(), recorre);
+        }
+
+        StringBuilder plan = new StringBuilder();
+        while (rs.next()) {
+            if (plan.length() > 0) {
+                plan.append(' ');
+            }
+            plan.append(rs.getString(1).replaceAll("\\s+", " ").trim());
+        }
+        String texto = plan.toString();
+        // H2 indica el acceso en un comentario tras la tabla: /* esquema.tabla.tableScan */
+        // o /* esquema.indice: condición */; un índice sin condición se recorre completo
+        Boolean recorre = null;
+        Matcher acceso = ACCESO_H2.matcher(texto);
+        while (acceso.find()) {
+            String detalle = acceso.group(1);
+            boolean completo = detalle.endsWith(".tableScan") || !detalle.contains(":");
+            recorre = Boolean.TRUE.equals(recorre) || completo;
+        }
+        return new Plan(consulta, texto, recorre);
+    }
+
+    /**
+     * @return posición de la columna (sin distinguir mayúsculas) o 0 si no está
+     */
+    private static int columna(ResultSetMetaData meta, String nombre) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (nombre.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,282 @@
+package com.garaje.eventos;
+
+import com.garaje.config.Configuracion;
+import com.garaje.metrics.Metricas;
+import com.garaje.model.EventoVehiculo;
+import com.garaje.model.Vehiculo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Canal de cambios de la flota para las pantallas abiertas (ver
+ * VehiculoEventosResource). VehiculoFacade publica cada alta, cambio y baja
+ * una vez confirmada la transacción (nunca una que se revierte) y el canal
+ * los reparte a los suscriptores.
+ *
+ * Publicar nunca bloquea: cada suscriptor tiene un buffer acotado
+ * (garaje.eventos.bufferPorSuscriptor) que se envía desde un hilo virtual.
+ * Si un cliente lento lo llena, sus eventos pendientes se descartan y recibe
+ * un aviso de resincronización; si un envío tarda más que
+ * garaje.eventos.timeoutEnvioMs se cierra la conexión.
+ *
+ * Los últimos garaje.eventos.historial eventos se conservan para que un
+ * cliente que reconecta con Last-Event-ID reciba lo que se perdió; si ese
+ * evento ya no está (o es de antes de un redespliegue) se le pide
+ * resincronizar.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CanalEventos {
+
+    private static final Logger LOG = Logger.getLogger(CanalEventos.class.getName());
+
+    static final String PROP_BUFFER_POR_SUSCRIPTOR = "garaje.eventos.bufferPorSuscriptor";
+    static final String PROP_HISTORIAL = "garaje.eventos.historial";
+    static final String PROP_TIMEOUT_ENVIO_MS = "garaje.eventos.timeoutEnvioMs";
+
+    // Distingue los identificadores de eventos de esta ejecución de los de un despliegue anterior
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong resincronizaciones = new AtomicLong();
+
+    // Protegidos por el monitor del singleton
+    private final ArrayDeque<EventoVehiculo> historial = new ArrayDeque<>();
+    private volatile long secuencia;
+
+    private int bufferPorSuscriptor;
+    private int maxHistorial;
+    private long timeoutEnvioMs;
+    private ExecutorService ejecutor;
+
+    @PostConstruct
+    void iniciar() {
+        bufferPorSuscriptor = Math.max(1, Configuracion.entero(PROP_BUFFER_POR_SUSCRIPTOR, 256));
+        maxHistorial = Math.max(0, Configuracion.entero(PROP_HISTORIAL, 1024));
+        timeoutEnvioMs = Math.max(1, Configuracion.entero(PROP_TIMEOUT_ENVIO_MS, 10_000));
+        ejecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("garaje-eventos-", 0).factory());
+        Metricas.indicador("garaje_eventos_suscriptores", "gauge",
+                "Pantallas suscritas al canal de cambios de la flota.", suscriptores::size);
+        Metricas.indicador("garaje_eventos_publicados_total", "counter",
+                "Cambios de la flota publicados en el canal de eventos.", () -> secuencia);
+        Metricas.indicador("garaje_eventos_resincronizaciones_total", "counter",
+                "Suscriptores que perdieron eventos y debieron resincronizar.", resincronizaciones::get);
+    }
+
+    @PreDestroy
+    void detener() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.cerrar();
+        }
+        suscriptores.clear();
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Publica un vehículo agregado.
+     */
+    public void registrarAlta(Vehiculo v) {
+        publicar(EventoVehiculo.Tipo.AGREGADO, v.getId(), v);
+    }
+
+    /**
+     * Publica un vehículo actualizado.
+     *
+     * @param v datos tal como quedaron guardados
+     */
+    public void registrarCambio(Vehiculo v) {
+        publicar(EventoVehiculo.Tipo.ACTUALIZADO, v.getId(), v);
+    }
+
+    /**
+     * Publica un vehículo eliminado.
+     */
+    public void registrarBaja(int id) {
+        publicar(EventoVehiculo.Tipo.ELIMINADO, id, null);
+    }
+
+    /**
+     * Suscribe una pantalla al canal.
+     *
+     * @param destino conexión por la que se envían los eventos
+     * @param ultimoIdentificador cabecera Last-Event-ID al reconectar (o null)
+     */
+    public void suscribir(DestinoEventos destino, String ultimoIdentificador) {
+        Suscriptor suscriptor = new Suscriptor(destino, bufferPorSuscriptor);
+        synchronized (this) {
+            if (ultimoIdentificador != null) {
+                reponer(suscriptor, secuenciaDe(ultimoIdentificador));
+            }
+            suscriptores.add(suscriptor);
+        }
+        programar(suscriptor);
+    }
+
+    /**
+     * Pide un latido a cada suscriptor para descubrir (y soltar) las
+     * conexiones que el cliente cerró sin avisar.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/30", persistent = false)
+    public void latir() {
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.isCerrado()) {
+                quitar(suscriptor);
+            } else {
+                suscriptor.pedirLatido();
+                programar(suscriptor);
+            }
+        }
+    }
+
+    private void publicar(EventoVehiculo.Tipo tipo, int id, Vehiculo v) {
+        // Copia: el llamador puede seguir modificando su objeto
+        Vehiculo datos = v == null ? null : new Vehiculo(v.getId(), v.getPlaca(), v.getMarca(), v.getModelo(),
+                v.getColor(), v.getPropietario(), v.getVersion());
+        List<Suscriptor> aProgramar;
+        synchronized (this) {
+            EventoVehiculo evento = new EventoVehiculo(tipo, secuencia + 1, id, datos);
+            secuencia = evento.getSecuencia();
+            if (maxHistorial > 0) {
+                if (historial.size() == maxHistorial) {
+                    historial.removeFirst();
+                }
+                historial.addLast(evento);
+            }
+            if (suscriptores.isEmpty()) {
+                return;
+            }
+            aProgramar = new ArrayList<>(suscriptores.size());
+            for (Suscriptor suscriptor : suscriptores) {
+                if (suscriptor.encolar(evento)) {
+                    resincronizaciones.incrementAndGet();
+                }
+                aProgramar.add(suscriptor);
+            }
+        }
+        for (Suscriptor suscriptor : aProgramar) {
+            programar(suscriptor);
+        }
+    }
+
+    /**
+     * Encola los eventos posteriores al último que recibió el cliente o, si
+     * ya no están en el historial, una resincronización.
+     */
+    private void reponer(Suscriptor suscriptor, long ultima) {
+        EventoVehiculo primero = historial.peekFirst();
+        long primeraDisponible = primero == null ? secuencia + 1 : primero.getSecuencia();
+        if (ultima < 0 || ultima > secuencia || ultima + 1 < primeraDisponible) {
+            suscriptor.pedirResincronizacion(secuencia);
+            resincronizaciones.incrementAndGet();
+            return;
+        }
+        for (EventoVehiculo evento : historial) {
+            if (evento.getSecuencia() > ultima && suscriptor.encolar(evento)) {
+                resincronizaciones.incrementAndGet();
+            }
+        }
+    }
+
+    private void programar(Suscriptor suscriptor) {
+        if (!suscriptor.iniciarDespacho()) {
+            return;
+        }
+        try {
+            ejecutor.execute(() -> despachar(suscriptor));
+        } catch (RejectedExecutionException ex) {
+            // Aplicación deteniéndose
+            suscriptor.terminarDespacho();
+        }
+    }
+
+    /**
+     * Envía los pendientes de un suscriptor, uno por vez. Solo un hilo por
+     * suscriptor está aquí a la vez (iniciarDespacho()).
+     */
+    private void despachar(Suscriptor suscriptor) {
+        do {
+            try {
+                while (!suscriptor.isCerrado()) {
+                    long resincronizar = suscriptor.tomarResincronizacion();
+                    if (resincronizar >= 0) {
+                        esperar(suscriptor.getDestino().resincronizar(identificador(resincronizar)));
+                        continue;
+                    }
+                    EventoVehiculo evento = suscriptor.tomarEvento();
+                    if (evento != null) {
+                        esperar(suscriptor.getDestino().enviar(identificador(evento.getSecuencia()), evento));
+                        continue;
+                    }
+                    if (!suscriptor.tomarLatido()) {
+                        break;
+                    }
+                    esperar(suscriptor.getDestino().latido());
+                }
+            } catch (ExecutionException | TimeoutException | RuntimeException ex) {
+                LOG.log(Level.FINE, "Se cierra un suscriptor de eventos", ex);
+                quitar(suscriptor);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                quitar(suscriptor);
+            } finally {
+                suscriptor.terminarDespacho();
+            }
+            if (suscriptor.isCerrado()) {
+                quitar(suscriptor);
+                return;
+            }
+            // Un evento encolado justo después de vaciar el buffer
+        } while (suscriptor.hayPendientes() && suscriptor.iniciarDespacho());
+    }
+
+    private void esperar(CompletionStage<?> envio)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        envio.toCompletableFuture().get(timeoutEnvioMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void quitar(Suscriptor suscriptor) {
+        if (suscriptores.remove(suscriptor)) {
+            suscriptor.cerrar();
+        }
+    }
+
+    private String identificador(long secuencia) {
+        return arranque + "-" + secuencia;
+    }
+
+    /**
+     * @return secuencia de un identificador de esta ejecución o -1 si no lo es
+     */
+    private long secuenciaDe(String identificador) {
+        String prefijo = arranque + "-";
+        if (!identificador.startsWith(prefijo)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(identificador.substring(prefijo.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.garaje.eventos;
+
+import com.garaje.model.EventoVehiculo;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Conexión de una pantalla suscrita al canal de eventos (por ejemplo, un
+ * SseEventSink de JAX-RS). CanalEventos nunca llama a dos métodos a la vez
+ * sobre el mismo destino y espera cada envío antes del siguiente.
+ */
+public interface DestinoEventos {
+
+    /**
+     * Envía un cambio de la flota.
+     *
+     * @param identificador valor para Last-Event-ID al reconectar
+     */
+    CompletionStage<?> enviar(String identificador, EventoVehiculo evento);
+
+    /**
+     * Avisa que se perdieron eventos y la pantalla debe recargar sus datos.
+     *
+     * @param identificador valor para Last-Event-ID al reconectar
+     */
+    CompletionStage<?> resincronizar(String identificador);
+
+    /**
+     * Envía un comentario sin datos, para detectar conexiones cerradas.
+     */
+    CompletionStage<?> latido();
+
+    /**
+     * @return true si el cliente ya cerró la conexión
+     */
+    boolean isCerrado();
+
+    /**
+     * Cierra la conexión.
+     */
+    void cerrar();
+}
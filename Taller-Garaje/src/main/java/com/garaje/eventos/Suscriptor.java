@@ -0,0 +1,106 @@
+package com.garaje.eventos;
+
+import com.garaje.model.EventoVehiculo;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pantalla suscrita al canal, con su propio buffer acotado de eventos
+ * pendientes de enviar.
+ *
+ * Si el cliente no lee a tiempo y el buffer se llena, se descartan todos los
+ * eventos pendientes y en su lugar se envía un único aviso de
+ * resincronización: la memoria por suscriptor nunca supera el buffer y un
+ * cliente lento no frena a los demás ni a las escrituras.
+ */
+final class Suscriptor {
+
+    private static final long SIN_RESINCRONIZAR = -1;
+
+    private final DestinoEventos destino;
+    private final ArrayBlockingQueue<EventoVehiculo> cola;
+    // Secuencia hasta la que cubre la resincronización pendiente (-1 si no hay)
+    private final AtomicLong resincronizarEn = new AtomicLong(SIN_RESINCRONIZAR);
+    private final AtomicBoolean latido = new AtomicBoolean();
+    private final AtomicBoolean despachando = new AtomicBoolean();
+    private volatile boolean cerrado;
+
+    Suscriptor(DestinoEventos destino, int capacidad) {
+        this.destino = destino;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+    }
+
+    DestinoEventos getDestino() {
+        return destino;
+    }
+
+    /**
+     * Agrega un evento al buffer; si está lleno lo vacía y deja pendiente
+     * una resincronización.
+     *
+     * @return true si el buffer se desbordó
+     */
+    boolean encolar(EventoVehiculo evento) {
+        if (cola.offer(evento)) {
+            return false;
+        }
+        cola.clear();
+        resincronizarEn.set(evento.getSecuencia());
+        return true;
+    }
+
+    /**
+     * Deja pendiente una resincronización sin descartar nada (por ejemplo, al
+     * reconectar con un Last-Event-ID que ya no está en el historial).
+     */
+    void pedirResincronizacion(long secuencia) {
+        cola.clear();
+        resincronizarEn.set(secuencia);
+    }
+
+    void pedirLatido() {
+        latido.set(true);
+    }
+
+    /**
+     * @return secuencia de la resincronización pendiente o -1, y la retira
+     */
+    long tomarResincronizacion() {
+        return resincronizarEn.getAndSet(SIN_RESINCRONIZAR);
+    }
+
+    EventoVehiculo tomarEvento() {
+        return cola.poll();
+    }
+
+    boolean tomarLatido() {
+        return latido.getAndSet(false);
+    }
+
+    boolean hayPendientes() {
+        return resincronizarEn.get() != SIN_RESINCRONIZAR || !cola.isEmpty() || latido.get();
+    }
+
+    /**
+     * @return true si el llamador queda a cargo de enviar los pendientes
+     */
+    boolean iniciarDespacho() {
+        return !cerrado && despachando.compareAndSet(false, true);
+    }
+
+    void terminarDespacho() {
+        despachando.set(false);
+    }
+
+    boolean isCerrado() {
+        return cerrado || destino.isCerrado();
+    }
+
+    void cerrar() {
+        cerrado = true;
+        cola.clear();
+        destino.cerrar();
+    }
+}
@@ -0,0 +1,25 @@
+package com.garaje.exceptions;
+
+/**
+ * El vehículo fue modificado por otro usuario desde que se leyó: la versión
+ * esperada ya no es la vigente y la actualización no se aplicó.
+ *
+ * La capa de presentación debe volver a leer el vehículo y reintentar con la
+ * versión actual.
+ */
+public class ConflictoVersionException extends BusinessException {
+
+    private final int versionActual;
+
+    public ConflictoVersionException(String message, int versionActual) {
+        super(message);
+        this.versionActual = versionActual;
+    }
+
+    /**
+     * @return versión vigente del vehículo en la base de datos
+     */
+    public int getVersionActual() {
+        return versionActual;
+    }
+}
@@ -0,0 +1,310 @@
+package com.garaje.facade;
+
+import com.garaje.config.Configuracion;
+import com.garaje.esquema.EsquemaBD;
+import com.garaje.exceptions.BusinessException;
+import com.garaje.indices.IndicePlacas;
+import com.garaje.metrics.Metricas;
+import com.garaje.model.Vehiculo;
+import com.garaje.persistence.VehiculoDAO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Confirmación agrupada de altas (group commit) para las horas pico de
+ * ingreso al taller, cuando llegan muchos agregar() a la vez.
+ *
+ * En lugar de una conexión y un commit por vehículo, las altas se encolan y
+ * un único escritor las junta durante hasta garaje.altas.maxEsperaMs
+ * milisegundos (o hasta garaje.altas.maxLote vehículos) y las inserta con un
+ * solo batch JDBC en una sola transacción. Mientras un lote se escribe, las
+ * altas que llegan forman el siguiente, así que con carga alta los lotes
+ * crecen solos y con carga baja la espera agregada es como mucho maxEsperaMs.
+ *
+ * Cada llamador recibe su propio resultado: las placas repetidas dentro del
+ * lote o ya existentes fallan con BusinessException sin afectar a las demás,
+ * y si el batch falla en la base de datos se revierte y se reintenta fila
+ * por fila para saber cuál falló. Un llamador espera su lote como mucho
+ * garaje.altas.esperaConfirmacionMs milisegundos.
+ *
+ * El escritor confirma cada lote en una transacción local propia, fuera de
+ * la transacción JTA del llamador: cuando agregar() vuelve, el vehículo ya
+ * está guardado aunque esa transacción se revierta después.
+ *
+ * Lo usa VehiculoFacade.agregar() con garaje.altas.agrupadas=true.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AgrupadorAltas {
+
+    private static final Logger LOG = Logger.getLogger(AgrupadorAltas.class.getName());
+
+    static final String PROP_MAX_LOTE = "garaje.altas.maxLote";
+    static final String PROP_MAX_ESPERA_MS = "garaje.altas.maxEsperaMs";
+    static final String PROP_ESPERA_CONFIRMACION_MS = "garaje.altas.esperaConfirmacionMs";
+
+    @Resource(lookup = "jdbc/garageDB")
+    private DataSource ds;
+
+    // Hilo del escritor con el contexto del contenedor (usa el DataSource);
+    // nulo fuera del contenedor (benchmarks): se usa un hilo virtual
+    @Resource
+    private ManagedThreadFactory fabricaHilos;
+
+    @EJB
+    private IndicePlacas indicePlacas;
+
+    @EJB
+    private EsquemaBD esquema;
+
+    private final LinkedBlockingQueue<Solicitud> cola = new LinkedBlockingQueue<>();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong altas = new AtomicLong();
+
+    private int maxLote;
+    private long maxEsperaNanos;
+    private long esperaConfirmacionMs;
+    private Thread escritor;
+    private volatile boolean detenido;
+
+    @PostConstruct
+    void iniciar() {
+        maxLote = Math.max(1, Configuracion.entero(PROP_MAX_LOTE, 64));
+        maxEsperaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, Configuracion.entero(PROP_MAX_ESPERA_MS, 5)));
+        esperaConfirmacionMs = Math.max(1, Configuracion.entero(PROP_ESPERA_CONFIRMACION_MS, 10_000));
+        Metricas.indicador("garaje_altas_agrupadas_lotes_total", "counter",
+                "Lotes escritos por la confirmación agrupada de altas.", lotes::get);
+        Metricas.indicador("garaje_altas_agrupadas_total", "counter",
+                "Vehículos insertados por la confirmación agrupada de altas.", altas::get);
+        Metricas.indicador("garaje_altas_agrupadas_en_espera", "gauge",
+                "Altas encoladas esperando el siguiente lote.", cola::size);
+        escritor = fabricaHilos != null
+                ? fabricaHilos.newThread(this::escribir)
+                : Thread.ofVirtual().unstarted(this::escribir);
+        escritor.setName("garaje-altas");
+        escritor.start();
+    }
+
+    @PreDestroy
+    void detener() {
+        detenido = true;
+        escritor.interrupt();
+    }
+
+    /**
+     * Inserta el vehículo en el próximo lote y espera a que se confirme. El
+     * vehículo ya debe haber pasado las reglas de campos (ValidadorVehiculo).
+     * La inserción se confirma en la transacción del lote, no en la del
+     * llamador.
+     *
+     * @param v vehículo a insertar; recibe el id generado
+     * @throws BusinessException si la placa ya existe (en la base o en el lote)
+     * @throws SQLException si falla la base de datos, se interrumpe la espera
+     *         o el lote no se confirma en garaje.altas.esperaConfirmacionMs (si
+     *         el escritor ya lo había tomado, el vehículo puede haber quedado
+     *         guardado)
+     */
+    public void agregar(Vehiculo v) throws SQLException, BusinessException {
+        if (detenido) {
+            throw new SQLException("La aplicación se está deteniendo");
+        }
+        Solicitud solicitud = new Solicitud(v, new CompletableFuture<>());
+        cola.add(solicitud);
+        try {
+            solicitud.resultado().get(esperaConfirmacionMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (cola.remove(solicitud)) {
+                throw new SQLException("El lote de altas no empezó en " + esperaConfirmacionMs
+                        + " ms; el vehículo no se guardó", ex);
+            }
+            throw new SQLException("El lote de altas no se confirmó en " + esperaConfirmacionMs
+                    + " ms; el vehículo puede haber quedado guardado", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Se interrumpió la espera del lote de altas", ex);
+        } catch (ExecutionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof BusinessException be) {
+                throw be;
+            }
+            if (causa instanceof SQLException se) {
+                throw se;
+            }
+            throw new SQLException("Error al escribir el lote de altas", causa);
+        }
+    }
+
+    /**
+     * Bucle del escritor: toma la primera alta, junta las que lleguen hasta
+     * el tamaño o la espera máxima y escribe el lote.
+     */
+    private void escribir() {
+        List<Solicitud> lote = new ArrayList<>(maxLote);
+        while (!detenido) {
+            try {
+                lote.add(cola.take());
+                long limite = System.nanoTime() + maxEsperaNanos;
+                while (lote.size() < maxLote) {
+                    long resta = limite - System.nanoTime();
+                    // Vencida la espera, se suman sin esperar las que ya están en la cola
+                    Solicitud siguiente = resta > 0 ? cola.poll(resta, TimeUnit.NANOSECONDS) : cola.poll();
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+                escribirLote(lote);
+            } catch (InterruptedException ex) {
+                fallar(lote, new SQLException("La aplicación se está deteniendo"));
+                break;
+            } catch (RuntimeException ex) {
+                LOG.log(Level.SEVERE, "Error inesperado al escribir un lote de altas", ex);
+                fallar(lote, new SQLException("Error al escribir el lote de altas", ex));
+            } finally {
+                lote.clear();
+            }
+        }
+        List<Solicitud> pendientes = new ArrayList<>();
+        cola.drainTo(pendientes);
+        fallar(pendientes, new SQLException("La aplicación se está deteniendo"));
+    }
+
+    /**
+     * Verifica placas y escribe un lote en una sola transacción.
+     */
+    private void escribirLote(List<Solicitud> lote) {
+        try (Connection con = ds.getConnection(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            // Placas repetidas dentro del lote: gana la primera en llegar
+            Map<String, Solicitud> candidatos = new LinkedHashMap<>();
+            for (Solicitud solicitud : lote) {
+                String placa = solicitud.vehiculo().getPlaca();
+                if (candidatos.putIfAbsent(placa.toUpperCase(Locale.ROOT), solicitud) != null) {
+                    solicitud.resultado().completeExceptionally(placaExistente(placa, null));
+                }
+            }
+
+            // Una sola consulta para las placas que el índice no descarta
+            List<String> placas = new ArrayList<>(candidatos.size());
+            for (Solicitud solicitud : candidatos.values()) {
+                if (indicePlacas.puedeExistir(solicitud.vehiculo().getPlaca())) {
+                    placas.add(solicitud.vehiculo().getPlaca());
+                }
+            }
+            Set<String> existentes = new HashSet<>();
+            if (!placas.isEmpty()) {
+                for (String placa : dao.placasExistentes(placas)) {
+                    existentes.add(placa.toUpperCase(Locale.ROOT));
+                }
+            }
+
+            List<Solicitud> aInsertar = new ArrayList<>(candidatos.size());
+            for (Map.Entry<String, Solicitud> candidato : candidatos.entrySet()) {
+                Solicitud solicitud = candidato.getValue();
+                if (existentes.contains(candidato.getKey())) {
+                    solicitud.resultado().completeExceptionally(
+                            placaExistente(solicitud.vehiculo().getPlaca(), null));
+                } else {
+                    aInsertar.add(solicitud);
+                }
+            }
+            if (!aInsertar.isEmpty()) {
+                insertar(con, dao, aInsertar);
+            }
+        } catch (SQLException ex) {
+            fallar(lote, ex);
+        }
+    }
+
+    /**
+     * Inserta el lote con un batch en una transacción; si falla, lo revierte
+     * e inserta fila por fila para dar a cada llamador su propio resultado.
+     */
+    private void insertar(Connection con, VehiculoDAO dao, List<Solicitud> aInsertar) throws SQLException {
+        List<Vehiculo> vehiculos = new ArrayList<>(aInsertar.size());
+        for (Solicitud solicitud : aInsertar) {
+            vehiculos.add(solicitud.vehiculo());
+        }
+        boolean autoCommitOriginal = con.getAutoCommit();
+        try {
+            con.setAutoCommit(false);
+            try {
+                dao.agregarLote(vehiculos);
+                con.commit();
+            } catch (SQLException ex) {
+                con.rollback();
+                con.setAutoCommit(true);
+                LOG.log(Level.FINE, "Lote de altas revertido; se reintenta fila por fila", ex);
+                insertarUnoPorUno(dao, aInsertar);
+                return;
+            }
+        } finally {
+            con.setAutoCommit(autoCommitOriginal);
+        }
+        lotes.incrementAndGet();
+        altas.addAndGet(aInsertar.size());
+        for (Solicitud solicitud : aInsertar) {
+            solicitud.resultado().complete(null);
+        }
+    }
+
+    private void insertarUnoPorUno(VehiculoDAO dao, List<Solicitud> aInsertar) {
+        for (Solicitud solicitud : aInsertar) {
+            Vehiculo v = solicitud.vehiculo();
+            try {
+                dao.agregar(v);
+                altas.incrementAndGet();
+                solicitud.resultado().complete(null);
+            } catch (SQLException ex) {
+                solicitud.resultado().completeExceptionally(
+                        VehiculoDAO.esPlacaDuplicada(ex, esquema.getIndicePlaca())
+                                ? placaExistente(v.getPlaca(), ex) : ex);
+            }
+        }
+    }
+
+    private static BusinessException placaExistente(String placa, SQLException causa) {
+        String mensaje = "La placa " + placa + " ya existe en el sistema";
+        return causa == null ? new BusinessException(mensaje) : new BusinessException(mensaje, causa);
+    }
+
+    /**
+     * Termina con error las solicitudes que aún no tienen resultado.
+     */
+    private static void fallar(List<Solicitud> solicitudes, SQLException ex) {
+        for (Solicitud solicitud : solicitudes) {
+            solicitud.resultado().completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Un alta esperando su lote.
+     */
+    private record Solicitud(Vehiculo vehiculo, CompletableFuture<Void> resultado) {
+    }
+}
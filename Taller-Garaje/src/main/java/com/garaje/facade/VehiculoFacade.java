@@ -1,32 +1,146 @@
 package com.garaje.facade;
 
+import com.garaje.cache.VehiculoCache;
+import com.garaje.cache.FragmentosFilas;
+import com.garaje.cache.VersionFlota;
+import com.garaje.config.Configuracion;
+import com.garaje.esquema.EsquemaBD;
+import com.garaje.eventos.CanalEventos;
+import com.garaje.indices.EstadisticasFlota;
+import com.garaje.indices.IndiceFacetas;
+import com.garaje.indices.IndicePlacas;
+import com.garaje.indices.IndiceTrigramasPlacas;
+import com.garaje.metrics.MetricaOperacion;
+import com.garaje.metrics.Metricas;
+import com.garaje.metrics.MetricasInterceptor;
+import com.garaje.model.CampoVehiculo;
+import com.garaje.model.CoincidenciaPlaca;
+import com.garaje.model.EstadisticasVehiculos;
+import com.garaje.model.FiltroVehiculos;
+import com.garaje.model.OperacionVehiculo;
+import com.garaje.model.PaginaVehiculos;
+import com.garaje.model.ReporteImportacion;
+import com.garaje.model.ReporteLote;
+import com.garaje.model.ResultadoImportacion;
+import com.garaje.model.ResultadoOperacion;
 import com.garaje.model.Vehiculo;
+import com.garaje.notificaciones.ColaNotificaciones;
+import com.garaje.persistence.ConsumidorVehiculo;
 import com.garaje.persistence.VehiculoDAO;
+import com.garaje.validation.ValidadorVehiculo;
 import com.garaje.exceptions.BusinessException;
+import com.garaje.exceptions.ConflictoVersionException;
 
 import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.interceptor.Interceptors;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Arrays;
-import java.util.Calendar;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Fachada para operaciones sobre vehículos. Deben agregarse reglas de negocio
  * antes de llamar al DAO.
  */
 @Stateless
+@Interceptors(MetricasInterceptor.class)
 public class VehiculoFacade {
 
+    private static final Logger LOG = Logger.getLogger(VehiculoFacade.class.getName());
+
+    // Tiempo de espera por una conexión del pool jdbc/garageDB
+    private static final MetricaOperacion M_CONEXION = Metricas.operacion("datasource", "getConnection");
+
     @Resource(lookup = "jdbc/garageDB")
     private DataSource ds;
 
-    // Lista predefinida de colores válidos
-    private static final List<String> COLORES_VALIDOS = Arrays.asList(
-        "Rojo", "Blanco", "Negro", "Azul", "Gris"
-    );
+    // Nulo fuera del contenedor (benchmarks): los cambios en memoria se aplican de inmediato
+    @Resource
+    private TransactionSynchronizationRegistry transacciones;
+
+    @EJB
+    private VehiculoCache cache;
+
+    @EJB
+    private IndicePlacas indicePlacas;
+
+    @EJB
+    private IndiceFacetas indiceFacetas;
+
+    @EJB
+    private IndiceTrigramasPlacas indiceTrigramas;
+
+    @EJB
+    private EstadisticasFlota estadisticas;
+
+    @EJB
+    private CanalEventos canalEventos;
+
+    @EJB
+    private AgrupadorAltas agrupadorAltas;
+
+    @EJB
+    private ColaNotificaciones notificaciones;
+
+    @EJB
+    private VersionFlota versionFlota;
+
+    @EJB
+    private FragmentosFilas fragmentosFilas;
+
+    @EJB
+    private EsquemaBD esquema;
+
+    // Reglas de negocio precompiladas (colores válidos, antigüedad, SQL Injection)
+    private static final ValidadorVehiculo VALIDADOR = ValidadorVehiculo.getInstancia();
+
+    // Tamaños de página para el listado paginado
+    public static final int TAMANO_PAGINA_POR_DEFECTO = 50;
+    public static final int TAMANO_PAGINA_MAXIMO = 500;
+
+    // Resultados de la búsqueda parcial de placas
+    public static final int RESULTADOS_PLACAS_POR_DEFECTO = 10;
+    public static final int RESULTADOS_PLACAS_MAXIMO = 50;
+
+    // Filas leídas por consulta al filtrar en la base de datos (índice de facetas no cargado)
+    private static final int TAMANO_BLOQUE_FILTRO = 1000;
+
+    // Filas por bloque (consulta de placas + batch + commit) en la importación masiva
+    private static final int TAMANO_BLOQUE_IMPORTACION = 500;
+
+    // Operaciones aceptadas en un lote de escrituras (ejecutarLote())
+    public static final int OPERACIONES_LOTE_MAXIMO = 1000;
+
+    // Si es true, agregar/actualizar/eliminar usan una sola sentencia y delegan
+    // las reglas de unicidad y existencia en las restricciones de la base de
+    // datos; se ignora si falta el índice único de placa (EsquemaBD)
+    static final String PROP_ESCRITURA_POR_RESTRICCIONES = "garaje.escritura.porRestricciones";
+
+    // Si es true, las altas concurrentes se confirman juntas en lotes (ver AgrupadorAltas)
+    static final String PROP_ALTAS_AGRUPADAS = "garaje.altas.agrupadas";
+
+    // Resultado de agregar() cuando ninguna regla de notificación se cumple
+    public static final String MENSAJE_AGREGADO = "Vehículo agregado exitosamente.";
 
     /**
      * Lista todos los vehículos.
@@ -38,14 +152,143 @@ public class VehiculoFacade {
      * @throws SQLException error en acceso a datos
      */
     public List<Vehiculo> listar() throws SQLException {
-        try (Connection con = ds.getConnection()) {
-            VehiculoDAO dao = new VehiculoDAO(con);
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
             return dao.listar();
         }
     }
 
     /**
-     * Busca vehículo por id.
+     * Lista una página de vehículos a partir de un cursor (paginación por clave).
+     * Se sirve desde la copia en memoria de la flota (IndiceFacetas) si está
+     * cargada; si no, desde la caché de páginas mientras no haya escrituras.
+     *
+     * Se consulta una fila más que el tamaño pedido para saber si existe una
+     * página siguiente sin necesidad de un COUNT(*) sobre toda la tabla.
+     *
+     * Manejo de excepciones:
+     * - Lanza SQLException si hay problemas con la conexión/DAO.
+     *
+     * @param cursor último id de la página anterior (0 o negativo para la primera)
+     * @param tamano tamaño de página; se ajusta al rango [1, TAMANO_PAGINA_MAXIMO]
+     * @return página de vehículos (puede ser vacía)
+     * @throws SQLException error en acceso a datos
+     */
+    public PaginaVehiculos listarPagina(int cursor, int tamano) throws SQLException {
+        int desde = Math.max(cursor, 0);
+        int limite = normalizarTamanoPagina(tamano);
+        if (indiceFacetas.isCargado()) {
+            return indiceFacetas.buscar(null, desde, limite);
+        }
+        PaginaVehiculos enCache = cache.obtenerPagina(desde, limite);
+        if (enCache != null) {
+            return enCache;
+        }
+        long leidoEn = cache.generacion();
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            List<Vehiculo> vehiculos = dao.listarDesde(desde, limite + 1);
+            Integer siguienteCursor = null;
+            if (vehiculos.size() > limite) {
+                vehiculos.remove(limite);
+                siguienteCursor = vehiculos.get(limite - 1).getId();
+            }
+            PaginaVehiculos pagina = new PaginaVehiculos(vehiculos, desde, limite, siguienteCursor);
+            cache.ponerPagina(pagina, leidoEn);
+            return pagina;
+        }
+    }
+
+    /**
+     * Lista una página de vehículos que cumplen el filtro (marca, color, rango
+     * de años del modelo, prefijo del propietario), con el mismo cursor que
+     * listarPagina(int, int).
+     *
+     * Los filtros se resuelven con el índice de facetas en memoria; si aún no
+     * está cargado, se recorre la tabla por bloques aplicando el filtro.
+     *
+     * Manejo de excepciones:
+     * - Lanza SQLException si hay problemas con la conexión/DAO.
+     *
+     * @param filtro criterios (null o vacío lista todo)
+     * @param cursor último id de la página anterior (0 o negativo para la primera)
+     * @param tamano tamaño de página; se ajusta al rango [1, TAMANO_PAGINA_MAXIMO]
+     * @return página de vehículos que cumplen el filtro (puede ser vacía)
+     * @throws SQLException error en acceso a datos
+     */
+    public PaginaVehiculos listarPagina(FiltroVehiculos filtro, int cursor, int tamano) throws SQLException {
+        if (filtro == null || filtro.isVacio()) {
+            return listarPagina(cursor, tamano);
+        }
+        int desde = Math.max(cursor, 0);
+        int limite = normalizarTamanoPagina(tamano);
+        if (indiceFacetas.isCargado()) {
+            return indiceFacetas.buscar(filtro, desde, limite);
+        }
+
+        List<Vehiculo> vehiculos = new ArrayList<>();
+        Integer siguienteCursor = null;
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            int ultimo = desde;
+            recorrido:
+            while (true) {
+                List<Vehiculo> bloque = dao.listarDesde(ultimo, TAMANO_BLOQUE_FILTRO);
+                for (Vehiculo v : bloque) {
+                    if (!filtro.coincide(v)) {
+                        continue;
+                    }
+                    if (vehiculos.size() == limite) {
+                        siguienteCursor = vehiculos.get(limite - 1).getId();
+                        break recorrido;
+                    }
+                    vehiculos.add(v);
+                }
+                if (bloque.size() < TAMANO_BLOQUE_FILTRO) {
+                    break;
+                }
+                ultimo = bloque.get(bloque.size() - 1).getId();
+            }
+        }
+        return new PaginaVehiculos(vehiculos, desde, limite, siguienteCursor);
+    }
+
+    /**
+     * Recorre toda la flota entregando cada vehículo al consumidor, con memoria
+     * constante sin importar el tamaño de la tabla.
+     *
+     * Se ejecuta fuera de una transacción JTA: es una lectura larga de solo
+     * avance y no debe retener una transacción abierta mientras el cliente
+     * descarga la respuesta.
+     *
+     * Manejo de excepciones:
+     * - Lanza SQLException si hay problemas con la conexión/DAO.
+     * - Lanza IOException si el consumidor falla al escribir.
+     *
+     * @param consumidor receptor de cada vehículo
+     * @return cantidad de vehículos exportados
+     * @throws SQLException error en acceso a datos
+     * @throws IOException error al escribir en el destino
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public long exportar(ConsumidorVehiculo consumidor) throws SQLException, IOException {
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            return dao.recorrer(consumidor);
+        }
+    }
+
+    /**
+     * Ajusta el tamaño de página solicitado a los límites permitidos.
+     *
+     * @param tamano tamaño solicitado (0 o negativo usa el valor por defecto)
+     * @return tamaño efectivo de página
+     */
+    public static int normalizarTamanoPagina(int tamano) {
+        if (tamano <= 0) {
+            return TAMANO_PAGINA_POR_DEFECTO;
+        }
+        return Math.min(tamano, TAMANO_PAGINA_MAXIMO);
+    }
+
+    /**
+     * Busca vehículo por id, consultando primero la caché.
      *
      * Manejo de excepciones:
      * - Lanza SQLException si hay problemas con la conexión/DAO.
@@ -55,23 +298,103 @@ public class VehiculoFacade {
      * @throws SQLException error en acceso a datos
      */
     public Vehiculo buscarPorId(int id) throws SQLException {
-        try (Connection con = ds.getConnection()) {
-            VehiculoDAO dao = new VehiculoDAO(con);
-            return dao.buscarPorId(id);
+        Vehiculo enCache = cache.obtener(id);
+        if (enCache != null) {
+            return enCache;
+        }
+        long leidoEn = cache.generacion();
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            Vehiculo v = dao.buscarPorId(id);
+            cache.poner(v, leidoEn);
+            return v;
+        }
+    }
+
+    /**
+     * Busca vehículo por placa, consultando primero la caché.
+     *
+     * Manejo de excepciones:
+     * - Lanza SQLException si hay problemas con la conexión/DAO.
+     *
+     * @param placa placa del vehículo
+     * @return Vehiculo encontrado o null si no existe
+     * @throws SQLException error en acceso a datos
+     */
+    public Vehiculo buscarPorPlaca(String placa) throws SQLException {
+        if (placa == null || placa.trim().isEmpty()) {
+            return null;
+        }
+        Vehiculo enCache = cache.obtenerPorPlaca(placa);
+        if (enCache != null) {
+            return enCache;
+        }
+        long leidoEn = cache.generacion();
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            Vehiculo v = dao.buscarPorPlaca(placa.trim());
+            cache.poner(v, leidoEn);
+            return v;
+        }
+    }
+
+    /**
+     * Búsqueda parcial de placas para el mostrador: ignora mayúsculas y
+     * separadores y tolera una letra equivocada. Con menos de 3 caracteres
+     * busca por prefijo.
+     *
+     * Se resuelve con el índice de trigramas; si aún no está cargado se usa
+     * un LIKE sobre la tabla (sin tolerancia a errores).
+     *
+     * Manejo de excepciones:
+     * - Lanza SQLException si hay problemas con la conexión/DAO.
+     *
+     * @param texto placa o parte de ella
+     * @param limite resultados máximos; se ajusta al rango [1, RESULTADOS_PLACAS_MAXIMO]
+     * @return coincidencias de mejor a peor (puede ser vacía)
+     * @throws SQLException error en acceso a datos
+     */
+    public List<CoincidenciaPlaca> buscarPlacas(String texto, int limite) throws SQLException {
+        int maximo = limite <= 0 ? RESULTADOS_PLACAS_POR_DEFECTO : Math.min(limite, RESULTADOS_PLACAS_MAXIMO);
+        if (texto == null || texto.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (indiceTrigramas.isCargado()) {
+            return indiceTrigramas.buscar(texto, maximo);
+        }
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            return dao.buscarPlacasQueContienen(texto.trim(), maximo);
         }
     }
 
+    /**
+     * Conteos de la flota por marca, color y año del modelo. No consulta la
+     * base de datos: los mantiene EstadisticasFlota con cada escritura de
+     * esta fachada y se reconcilian periódicamente con la tabla.
+     *
+     * @return estadísticas actuales
+     */
+    public EstadisticasVehiculos estadisticas() {
+        return estadisticas.consultar();
+    }
+
     /**
      * Agrega vehículo. Debe validar con reglas de negocio antes de agregar.
      *
      * Reglas de negocio implementadas en este método:
-     *  - No permitir agregar un vehículo con la placa duplicada (usa dao.existePlaca()).
+     *  - No permitir agregar un vehículo con la placa duplicada (usa dao.existePlaca()
+     *    solo si el índice de placas no descarta la placa de antemano; con
+     *    garaje.escritura.porRestricciones=true lo detecta la clave única).
      *  - No aceptar propietario vacío o con menos de 5 caracteres.
      *  - Marca, modelo y placa deben tener al menos 3 caracteres.
      *  - El color debe estar dentro de la lista predefinida (Rojo, Blanco, Negro, Azul, Gris).
      *  - No aceptar vehículos con más de 20 años de antigüedad (modelo < año actual - 20).
      *  - Validar patrones sospechosos de SQL Injection en los campos (validación simulada).
-     *  - Al agregar un vehículo con marca "Ferrari", se simula una notificación.
+     *  - Si el vehículo cumple alguna regla de notificación (por defecto, marca
+     *    "Ferrari"), el aviso se encola en ColaNotificaciones y se envía en
+     *    segundo plano, después de confirmar la transacción.
+     *  - Con garaje.altas.agrupadas=true la inserción se confirma en un lote
+     *    junto con las altas concurrentes (AgrupadorAltas), con las mismas
+     *    verificaciones de placa y el mismo resultado por llamador. El lote
+     *    se confirma en su propia transacción local, no en la de este método.
      *
      * Excepciones:
      *  - Lanza BusinessException si alguna regla de negocio falla.
@@ -82,36 +405,180 @@ public class VehiculoFacade {
      * @throws BusinessException si falla alguna regla de negocio
      */
     public String agregar(Vehiculo v) throws SQLException, BusinessException {
-    System.out.println("DEBUG: Entrando a VehiculoFacade.agregar()");
-    System.out.println("DEBUG: DataSource = " + ds);
+    LOG.log(Level.FINE, "Agregando vehículo con placa {0}", v == null ? null : v.getPlaca());
 
-    validarCamposBasicos(v);
-    validarPropietario(v.getPropietario());
-    validarLongitudMinima(v.getMarca(), "marca", 3);
-    validarLongitudMinima(v.getModelo(), "modelo", 3);
-    validarLongitudMinima(v.getPlaca(), "placa", 3);
-    validarColor(v.getColor());
-    validarAntiguedadModelo(v.getModelo());
-    validarSQLInjection(v);
+    validarReglas(v);
 
-    try (Connection con = ds.getConnection()) {
-        VehiculoDAO dao = new VehiculoDAO(con);
-
-        if (dao.existePlaca(v.getPlaca())) {
-            throw new BusinessException("La placa " + v.getPlaca() + " ya existe en el sistema");
+    if (Configuracion.booleano(PROP_ALTAS_AGRUPADAS, false)) {
+        agrupadorAltas.agregar(v);
+    } else {
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            insertar(dao, v, null);
         }
+    }
+    registrarAlta(v);
+    alConfirmar(() -> {
+        cache.invalidarPaginas();
+        versionFlota.incrementar();
+    });
 
-        dao.agregar(v);
+    if (notificaciones.registrarAlta(v)) {
+        return "Se registró un " + v.getMarca() + " correctamente; la notificación se enviará en segundo plano.";
+    }
+    return MENSAJE_AGREGADO;
+    }
 
-        if ("Ferrari".equalsIgnoreCase(v.getMarca())) {
-            enviarNotificacionFerrari(v);
-            return "¡Notificación enviada! Se registró un Ferrari correctamente.";
+    /**
+     * Inserta un vehículo ya validado, verificando antes la placa o
+     * apoyándose en la clave única.
+     *
+     * @param placasDelLote placas ya escritas en el mismo lote (null fuera de un lote)
+     */
+    private void insertar(VehiculoDAO dao, Vehiculo v, Set<String> placasDelLote)
+            throws SQLException, BusinessException {
+        if (escrituraPorRestricciones()) {
+            // Un solo INSERT: la clave única sobre placa detecta el duplicado
+            try {
+                dao.agregar(v);
+            } catch (SQLException ex) {
+                if (esPlacaDuplicada(ex)) {
+                    throw new BusinessException("La placa " + v.getPlaca() + " ya existe en el sistema", ex);
+                }
+                throw ex;
+            }
         } else {
-            return "Vehículo agregado exitosamente.";
+            if (placaPuedeExistir(v.getPlaca(), placasDelLote) && dao.existePlaca(v.getPlaca())) {
+                throw new BusinessException("La placa " + v.getPlaca() + " ya existe en el sistema");
+            }
+            dao.agregar(v);
         }
     }
-}
 
+    /**
+     * Importa un lote grande de vehículos.
+     *
+     * Cada fila pasa por las mismas reglas de negocio que agregar(). Las filas
+     * válidas se procesan en bloques de TAMANO_BLOQUE_IMPORTACION: por bloque
+     * se verifica la duplicidad de placas con una sola consulta (dao.placasExistentes())
+     * y se insertan con un batch JDBC dentro de una transacción local. Si un
+     * bloque falla en la base de datos se revierte solo ese bloque y la
+     * importación continúa con el siguiente.
+     *
+     * Excepciones:
+     *  - Los errores de reglas de negocio y de base de datos no se lanzan: se
+     *    reportan por fila en el resultado.
+     *  - Lanza SQLException solo si no se puede obtener la conexión.
+     *
+     * @param vehiculos vehículos a importar, en el orden de la carga
+     * @return reporte con el resultado de cada fila
+     * @throws SQLException si no se puede abrir la conexión
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ReporteImportacion importar(List<Vehiculo> vehiculos) throws SQLException {
+        long inicio = System.nanoTime();
+        ResultadoImportacion[] resultados = new ResultadoImportacion[vehiculos.size()];
+        int importados = 0;
+
+        try (Connection con = conectar()) {
+            boolean autoCommitOriginal = con.getAutoCommit();
+            con.setAutoCommit(false);
+            // Un solo DAO para todos los bloques: INSERT y consultas de placas se preparan una vez
+            try (VehiculoDAO dao = new VehiculoDAO(con)) {
+                for (int desde = 0; desde < vehiculos.size(); desde += TAMANO_BLOQUE_IMPORTACION) {
+                    int hasta = Math.min(desde + TAMANO_BLOQUE_IMPORTACION, vehiculos.size());
+                    importados += importarBloque(dao, con, vehiculos, desde, hasta, resultados);
+                }
+            } finally {
+                con.setAutoCommit(autoCommitOriginal);
+            }
+        }
+
+        if (importados > 0) {
+            cache.invalidarPaginas();
+            versionFlota.incrementar();
+        }
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        return new ReporteImportacion(Arrays.asList(resultados), importados, milisegundos);
+    }
+
+    /**
+     * Valida, verifica duplicados e inserta un bloque de la importación en una
+     * única transacción.
+     *
+     * @return cantidad de filas insertadas del bloque
+     */
+    private int importarBloque(VehiculoDAO dao, Connection con, List<Vehiculo> vehiculos,
+            int desde, int hasta, ResultadoImportacion[] resultados) throws SQLException {
+        // Reglas de campos y placas repetidas dentro del mismo bloque
+        Map<String, Integer> candidatos = new LinkedHashMap<>();
+        for (int i = desde; i < hasta; i++) {
+            Vehiculo v = vehiculos.get(i);
+            String error = VALIDADOR.primerError(v);
+            if (error != null) {
+                resultados[i] = new ResultadoImportacion(i + 1, v == null ? null : v.getPlaca(), false, error);
+                continue;
+            }
+            String clave = v.getPlaca().toUpperCase(Locale.ROOT);
+            if (candidatos.putIfAbsent(clave, i) != null) {
+                resultados[i] = new ResultadoImportacion(i + 1, v.getPlaca(), false,
+                        "La placa " + v.getPlaca() + " está repetida en la carga");
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return 0;
+        }
+
+        List<Vehiculo> aInsertar = new ArrayList<>(candidatos.size());
+        List<Integer> filasInsertadas = new ArrayList<>(candidatos.size());
+        try {
+            // Una sola consulta para las placas del bloque que el índice no descarta
+            List<String> placas = new ArrayList<>(candidatos.size());
+            for (int i : candidatos.values()) {
+                String placa = vehiculos.get(i).getPlaca();
+                if (indicePlacas.puedeExistir(placa)) {
+                    placas.add(placa);
+                }
+            }
+            Set<String> existentes = new HashSet<>();
+            for (String placa : dao.placasExistentes(placas)) {
+                existentes.add(placa.toUpperCase(Locale.ROOT));
+            }
+
+            for (Map.Entry<String, Integer> candidato : candidatos.entrySet()) {
+                int i = candidato.getValue();
+                Vehiculo v = vehiculos.get(i);
+                if (existentes.contains(candidato.getKey())) {
+                    resultados[i] = new ResultadoImportacion(i + 1, v.getPlaca(), false,
+                            "La placa " + v.getPlaca() + " ya existe en el sistema");
+                } else {
+                    aInsertar.add(v);
+                    filasInsertadas.add(i);
+                }
+            }
+
+            if (!aInsertar.isEmpty()) {
+                dao.agregarLote(aInsertar);
+            }
+            con.commit();
+        } catch (SQLException se) {
+            con.rollback();
+            for (int i : candidatos.values()) {
+                if (resultados[i] == null) {
+                    resultados[i] = new ResultadoImportacion(i + 1, vehiculos.get(i).getPlaca(), false,
+                            "Error en base de datos: " + se.getMessage());
+                }
+            }
+            return 0;
+        }
+
+        for (int i : filasInsertadas) {
+            Vehiculo v = vehiculos.get(i);
+            registrarAlta(v);
+            resultados[i] = new ResultadoImportacion(i + 1, v.getPlaca(), true, "Vehículo importado");
+            notificaciones.registrarAlta(v);
+        }
+        return aInsertar.size();
+    }
 
     /**
      * Actualiza vehículo; incluir reglas de negocio.
@@ -121,6 +588,9 @@ public class VehiculoFacade {
      *    validación SQL simulated).
      *  - Solo actualizar si el vehículo existe (dao.buscarPorId()).
      *  - No permitir que la placa quede duplicada en otro vehículo.
+     *  - Con garaje.escritura.porRestricciones=true todo se resuelve con un solo
+     *    UPDATE (filas afectadas + clave única sobre placa) y la lectura de
+     *    la versión nueva.
      *
      * Excepciones:
      *  - Lanza BusinessException si falla una regla de negocio.
@@ -132,30 +602,139 @@ public class VehiculoFacade {
      */
     public void actualizar(Vehiculo v) throws SQLException, BusinessException {
         // Validaciones de negocio
-        validarCamposBasicos(v);
-        validarPropietario(v.getPropietario());
-        validarLongitudMinima(v.getMarca(), "marca", 3);
-        validarLongitudMinima(v.getModelo(), "modelo", 3);
-        validarLongitudMinima(v.getPlaca(), "placa", 3);
-        validarColor(v.getColor());
-        validarAntiguedadModelo(v.getModelo());
-        validarSQLInjection(v);
-
-        try (Connection con = ds.getConnection()) {
-            VehiculoDAO dao = new VehiculoDAO(con);
-
-            // Verificar que el vehículo existe
-            Vehiculo vehiculoExistente = dao.buscarPorId(v.getId());
-            if (vehiculoExistente == null) {
-                throw new BusinessException("El vehículo con ID " + v.getId() + " no existe");
+        validarReglas(v);
+
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            Vehiculo anterior = escribirActualizacion(dao, v, null);
+            registrarCambio(v, anterior);
+        }
+    }
+
+    /**
+     * Escribe una actualización completa ya validada: verifica que el
+     * vehículo exista y que la placa no quede duplicada (o, con
+     * garaje.escritura.porRestricciones=true, lo deduce de un único UPDATE).
+     *
+     * @param placasDelLote placas ya escritas en el mismo lote (null fuera de un lote)
+     * @return datos anteriores del vehículo o null si no se leyeron
+     */
+    private Vehiculo escribirActualizacion(VehiculoDAO dao, Vehiculo v, Set<String> placasDelLote)
+            throws SQLException, BusinessException {
+        if (escrituraPorRestricciones()) {
+            actualizarPorRestricciones(dao, v);
+            return null;
+        }
+
+        // Verificar que el vehículo existe
+        Vehiculo vehiculoExistente = dao.buscarPorId(v.getId());
+        if (vehiculoExistente == null) {
+            throw new BusinessException("El vehículo con ID " + v.getId() + " no existe");
+        }
+
+        // Verificar que la placa no esté duplicada en otro vehículo
+        boolean cambiaPlaca = !v.getPlaca().equals(vehiculoExistente.getPlaca());
+        if (cambiaPlaca && placaPuedeExistir(v.getPlaca(), placasDelLote) && dao.existePlaca(v.getPlaca())) {
+            throw new BusinessException("La placa " + v.getPlaca() + " ya existe en otro vehículo");
+        }
+
+        dao.actualizar(v);
+        v.setVersion(vehiculoExistente.getVersion() + 1);
+        return vehiculoExistente;
+    }
+
+    /**
+     * Actualización parcial con concurrencia optimista: escribe solo los
+     * campos indicados y solo si el vehículo sigue en la versión que leyó el
+     * cliente, de modo que dos terminales editando a la vez no se pisan.
+     *
+     * Reglas de negocio implementadas:
+     *  - Si la caché tiene el vehículo en la versión esperada, se descartan los
+     *    campos que no cambian; en otro caso se escriben todos los indicados.
+     *  - Solo se validan los campos que se escriben (ValidadorVehiculo.errorCampo()).
+     *  - La unicidad de la placa solo se verifica si la placa se escribe.
+     *  - Un único UPDATE ... WHERE id=? AND version=?; si no afecta filas se
+     *    consulta el vehículo para distinguir inexistente de conflicto.
+     *
+     * Excepciones:
+     *  - Lanza ConflictoVersionException si la versión ya no es la vigente.
+     *  - Lanza BusinessException si falla una regla de negocio o el vehículo no existe.
+     *  - Lanza SQLException si hay error en la capa de persistencia.
+     *
+     * @param id identificador del vehículo
+     * @param versionEsperada versión del vehículo leída por el cliente
+     * @param cambios campos a modificar con su nuevo valor
+     * @return el vehículo tal como quedó, con su nueva versión
+     * @throws SQLException si hay error en la base de datos
+     * @throws BusinessException si falla alguna regla de negocio o hay conflicto de versión
+     */
+    public Vehiculo actualizarParcial(int id, int versionEsperada, Map<CampoVehiculo, String> cambios)
+            throws SQLException, BusinessException {
+        Vehiculo base = cache.obtener(id);
+        if (base != null && base.getVersion() != versionEsperada) {
+            base = null;
+        }
+        Map<CampoVehiculo, String> aEscribir = new EnumMap<>(CampoVehiculo.class);
+        for (Map.Entry<CampoVehiculo, String> cambio : cambios.entrySet()) {
+            CampoVehiculo campo = cambio.getKey();
+            if (base != null && Objects.equals(cambio.getValue(), campo.valor(base))) {
+                continue;
+            }
+            String error = VALIDADOR.errorCampo(campo, cambio.getValue());
+            if (error != null) {
+                throw new BusinessException(error);
+            }
+            aEscribir.put(campo, cambio.getValue());
+        }
+
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            if (aEscribir.isEmpty()) {
+                // Nada que escribir: basta confirmar que la versión sigue vigente
+                return base != null ? base : vigente(dao, id, versionEsperada);
             }
 
-            // Verificar que la placa no esté duplicada en otro vehículo
-            if (dao.existePlaca(v.getPlaca()) && !v.getPlaca().equals(vehiculoExistente.getPlaca())) {
-                throw new BusinessException("La placa " + v.getPlaca() + " ya existe en otro vehículo");
+            String placa = aEscribir.get(CampoVehiculo.PLACA);
+            if (placa != null && indicePlacas.puedeExistir(placa)) {
+                Vehiculo conPlaca = dao.buscarPorPlaca(placa);
+                if (conPlaca != null && conPlaca.getId() != id) {
+                    throw new BusinessException("La placa " + placa + " ya existe en otro vehículo");
+                }
             }
 
-            dao.actualizar(v);
+            int filas;
+            try {
+                filas = dao.actualizarCampos(id, versionEsperada, aEscribir);
+            } catch (SQLException ex) {
+                if (esPlacaDuplicada(ex)) {
+                    throw new BusinessException("La placa " + placa + " ya existe en otro vehículo", ex);
+                }
+                throw ex;
+            }
+            if (filas == 0) {
+                // Modificado o eliminado por otro usuario entre la lectura y el UPDATE
+                vigente(dao, id, versionEsperada);
+                throw new BusinessException("El vehículo con ID " + id + " cambió durante la actualización");
+            }
+
+            Vehiculo anterior = null;
+            Vehiculo actualizado;
+            if (base != null) {
+                anterior = new Vehiculo(base.getId(), base.getPlaca(), base.getMarca(), base.getModelo(),
+                        base.getColor(), base.getPropietario(), base.getVersion());
+                for (Map.Entry<CampoVehiculo, String> cambio : aEscribir.entrySet()) {
+                    cambio.getKey().asignar(base, cambio.getValue());
+                }
+                base.setVersion(versionEsperada + 1);
+                actualizado = base;
+            } else {
+                actualizado = dao.buscarPorId(id);
+                if (actualizado == null) {
+                    // Eliminado justo después de actualizarlo
+                    registrarBaja(id, null);
+                    throw new BusinessException("El vehículo con ID " + id + " no existe");
+                }
+            }
+            registrarCambio(actualizado, anterior);
+            return actualizado;
         }
     }
 
@@ -165,6 +744,8 @@ public class VehiculoFacade {
      * Reglas de negocio implementadas:
      *  - El vehículo debe existir.
      *  - No se puede eliminar si el propietario es "Administrador".
+     *  - Con garaje.escritura.porRestricciones=true se resuelve con un solo
+     *    DELETE que ya excluye al Administrador.
      *
      * Excepciones:
      *  - Lanza BusinessException si se viola alguna regla.
@@ -175,150 +756,463 @@ public class VehiculoFacade {
      * @throws BusinessException si falla alguna regla de negocio
      */
     public void eliminar(int id) throws SQLException, BusinessException {
-        try (Connection con = ds.getConnection()) {
-            VehiculoDAO dao = new VehiculoDAO(con);
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            Vehiculo eliminado = escribirBaja(dao, id);
+            registrarBaja(id, eliminado);
+        }
+    }
 
-            // Verificar que el vehículo existe
-            Vehiculo vehiculo = dao.buscarPorId(id);
-            if (vehiculo == null) {
-                throw new BusinessException("El vehículo con ID " + id + " no existe");
-            }
+    /**
+     * Elimina el vehículo si existe y su propietario no es "Administrador"
+     * (con garaje.escritura.porRestricciones=true, con un único DELETE).
+     *
+     * @return datos del vehículo eliminado o null si no se leyeron
+     */
+    private Vehiculo escribirBaja(VehiculoDAO dao, int id) throws SQLException, BusinessException {
+        if (escrituraPorRestricciones()) {
+            eliminarPorRestricciones(dao, id);
+            return null;
+        }
 
-            // No permitir eliminar si el propietario es "Administrador"
-            if ("Administrador".equalsIgnoreCase(vehiculo.getPropietario())) {
-                throw new BusinessException("No se puede eliminar un vehículo cuyo propietario es 'Administrador'");
-            }
+        // Verificar que el vehículo existe
+        Vehiculo vehiculo = dao.buscarPorId(id);
+        if (vehiculo == null) {
+            throw new BusinessException("El vehículo con ID " + id + " no existe");
+        }
 
-            dao.eliminar(id);
+        // No permitir eliminar si el propietario es "Administrador"
+        if ("Administrador".equalsIgnoreCase(vehiculo.getPropietario())) {
+            throw new BusinessException("No se puede eliminar un vehículo cuyo propietario es 'Administrador'");
         }
-    }
 
-    // Métodos de validación privados
-    // Todos ellos lanzan BusinessException cuando la validación falla.
+        dao.eliminar(id);
+        return vehiculo;
+    }
 
     /**
-     * Valida que los campos básicos no sean nulos o vacíos.
+     * Ejecuta un lote de altas, actualizaciones y bajas sobre una sola
+     * conexión y una sola transacción, con las mismas reglas de negocio que
+     * agregar(), actualizar() y eliminar(). Una actualización que indica
+     * versión se rechaza si el vehículo ya no está en esa versión.
      *
-     * @param v vehículo a validar
-     * @throws BusinessException si falta algún campo obligatorio
+     * Modos:
+     *  - todoONada=true: si una operación falla se revierte el lote completo
+     *    y las siguientes no se ejecutan.
+     *  - todoONada=false: cada operación corre dentro de un savepoint; las que
+     *    fallan se revierten solas y las demás se confirman al final.
+     *
+     * Los índices, las estadísticas, la caché, los eventos y las
+     * notificaciones se actualizan solo después de confirmar. Por eso una
+     * placa que agregó o asignó una operación anterior del mismo lote se
+     * verifica siempre con dao.existePlaca() sobre la conexión del lote; la
+     * clave única solo se usa con garaje.escritura.porRestricciones, que
+     * exige el esquema en la versión 2 o superior (EsquemaBD.isPlacaUnica()).
+     *
+     * Excepciones:
+     *  - Los errores de reglas de negocio y de base de datos de cada operación
+     *    no se lanzan: se reportan por operación en el resultado.
+     *  - Lanza SQLException si falla la conexión, el commit o un rollback.
+     *
+     * @param operaciones operaciones en el orden en que deben aplicarse
+     * @param todoONada true para confirmar todas o ninguna
+     * @return reporte con el resultado de cada operación
+     * @throws SQLException si no se puede completar la transacción
      */
-    private void validarCamposBasicos(Vehiculo v) throws BusinessException {
-        if (v == null) {
-            throw new BusinessException("El vehículo no puede ser nulo");
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ReporteLote ejecutarLote(List<OperacionVehiculo> operaciones, boolean todoONada) throws SQLException {
+        long inicio = System.nanoTime();
+        ResultadoOperacion[] resultados = new ResultadoOperacion[operaciones.size()];
+        List<OperacionAplicada> aplicadas = new ArrayList<>(operaciones.size());
+        // El índice de placas recién las conoce al confirmar el lote
+        Set<String> placasDelLote = new HashSet<>();
+
+        try (Connection con = conectar(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            boolean autoCommitOriginal = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                int fallida = -1;
+                for (int i = 0; i < operaciones.size() && fallida < 0; i++) {
+                    OperacionVehiculo operacion = operaciones.get(i);
+                    Savepoint punto = todoONada ? null : con.setSavepoint();
+                    String error;
+                    try {
+                        OperacionAplicada aplicada = aplicar(dao, operacion, placasDelLote);
+                        aplicadas.add(aplicada);
+                        resultados[i] = new ResultadoOperacion(i + 1, operacion.getOperacion(), true,
+                                aplicada.mensaje(), aplicada.vehiculo());
+                        if (punto != null) {
+                            con.releaseSavepoint(punto);
+                        }
+                        continue;
+                    } catch (BusinessException ex) {
+                        error = ex.getMessage();
+                    } catch (SQLException ex) {
+                        error = "Error en base de datos: " + ex.getMessage();
+                    }
+                    resultados[i] = new ResultadoOperacion(i + 1, operacion.getOperacion(), false, error, null);
+                    if (todoONada) {
+                        fallida = i;
+                    } else {
+                        con.rollback(punto);
+                    }
+                }
+
+                if (fallida >= 0) {
+                    con.rollback();
+                    aplicadas.clear();
+                    for (int i = 0; i < operaciones.size(); i++) {
+                        if (i != fallida) {
+                            resultados[i] = new ResultadoOperacion(i + 1, operaciones.get(i).getOperacion(), false,
+                                    (i < fallida ? "Revertida" : "No ejecutada")
+                                    + ": falló la operación " + (fallida + 1), null);
+                        }
+                    }
+                } else {
+                    con.commit();
+                }
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(autoCommitOriginal);
+            }
         }
-        if (v.getPlaca() == null || v.getPlaca().trim().isEmpty()) {
-            throw new BusinessException("La placa es obligatoria");
+
+        // Confirmado: recién ahora se reflejan en memoria y se avisan
+        for (OperacionAplicada aplicada : aplicadas) {
+            switch (aplicada.tipo()) {
+                case AGREGAR:
+                    registrarAlta(aplicada.vehiculo());
+                    notificaciones.registrarAlta(aplicada.vehiculo());
+                    break;
+                case ACTUALIZAR:
+                    registrarCambio(aplicada.vehiculo(), aplicada.anterior());
+                    break;
+                default:
+                    registrarBaja(aplicada.id(), aplicada.anterior());
+            }
         }
-        if (v.getMarca() == null || v.getMarca().trim().isEmpty()) {
-            throw new BusinessException("La marca es obligatoria");
+        if (!aplicadas.isEmpty()) {
+            cache.invalidarPaginas();
+            versionFlota.incrementar();
         }
-        if (v.getModelo() == null || v.getModelo().trim().isEmpty()) {
-            throw new BusinessException("El modelo es obligatorio");
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        return new ReporteLote(Arrays.asList(resultados), todoONada, aplicadas.size(), milisegundos);
+    }
+
+    /**
+     * Valida y escribe una operación del lote, sin confirmar.
+     *
+     * @param placasDelLote placas agregadas o asignadas por las operaciones
+     *                      anteriores del lote; se suma la de esta operación
+     */
+    private OperacionAplicada aplicar(VehiculoDAO dao, OperacionVehiculo operacion, Set<String> placasDelLote)
+            throws SQLException, BusinessException {
+        OperacionVehiculo.Tipo tipo = operacion.tipo();
+        if (tipo == null) {
+            throw new BusinessException("Operación desconocida: " + operacion.getOperacion()
+                    + " (se admite agregar, actualizar o eliminar)");
         }
-        if (v.getColor() == null || v.getColor().trim().isEmpty()) {
-            throw new BusinessException("El color es obligatorio");
+        Vehiculo v = operacion.getVehiculo();
+        if (tipo != OperacionVehiculo.Tipo.ELIMINAR && v == null) {
+            throw new BusinessException("Falta el vehículo de la operación " + tipo.getNombre());
         }
-        if (v.getPropietario() == null || v.getPropietario().trim().isEmpty()) {
-            throw new BusinessException("El propietario es obligatorio");
+        try {
+            switch (tipo) {
+                case AGREGAR:
+                    validarReglas(v);
+                    insertar(dao, v, placasDelLote);
+                    placasDelLote.add(normalizarPlaca(v.getPlaca()));
+                    return new OperacionAplicada(tipo, v.getId(), v, null, "Vehículo agregado");
+                case ACTUALIZAR: {
+                    if (operacion.getId() != null) {
+                        v.setId(operacion.getId());
+                    }
+                    if (v.getId() <= 0) {
+                        throw new BusinessException("Falta el id del vehículo a actualizar");
+                    }
+                    validarReglas(v);
+                    Vehiculo anterior = operacion.getVersion() == null
+                            ? escribirActualizacion(dao, v, placasDelLote)
+                            : escribirActualizacion(dao, v, operacion.getVersion(), placasDelLote);
+                    placasDelLote.add(normalizarPlaca(v.getPlaca()));
+                    return new OperacionAplicada(tipo, v.getId(), v, anterior, "Vehículo actualizado");
+                }
+                default: {
+                    Integer id = operacion.getId() != null ? operacion.getId() : v == null ? null : v.getId();
+                    if (id == null || id <= 0) {
+                        throw new BusinessException("Falta el id del vehículo a eliminar");
+                    }
+                    Vehiculo eliminado = escribirBaja(dao, id);
+                    return new OperacionAplicada(tipo, id, null, eliminado, "Vehículo eliminado");
+                }
+            }
+        } catch (SQLException ex) {
+            // Con garaje.escritura.porRestricciones el duplicado lo detecta la clave única
+            if (v != null && esPlacaDuplicada(ex)) {
+                throw new BusinessException("La placa " + v.getPlaca() + " ya existe en otro vehículo", ex);
+            }
+            throw ex;
         }
     }
 
     /**
-     * Valida que el propietario tenga al menos 5 caracteres.
+     * Escribe una actualización completa ya validada solo si el vehículo
+     * sigue en la versión esperada.
      *
-     * @param propietario texto del propietario
-     * @throws BusinessException si la longitud es menor a 5
+     * @return datos anteriores del vehículo
+     * @throws ConflictoVersionException si su versión es otra
      */
-    private void validarPropietario(String propietario) throws BusinessException {
-        if (propietario == null || propietario.trim().length() < 5) {
-            throw new BusinessException("El propietario debe tener al menos 5 caracteres");
+    private Vehiculo escribirActualizacion(VehiculoDAO dao, Vehiculo v, int versionEsperada,
+            Set<String> placasDelLote) throws SQLException, BusinessException {
+        Vehiculo existente = vigente(dao, v.getId(), versionEsperada);
+        boolean cambiaPlaca = !v.getPlaca().equals(existente.getPlaca());
+        if (cambiaPlaca && placaPuedeExistir(v.getPlaca(), placasDelLote) && dao.existePlaca(v.getPlaca())) {
+            throw new BusinessException("La placa " + v.getPlaca() + " ya existe en otro vehículo");
+        }
+        Map<CampoVehiculo, String> campos = new EnumMap<>(CampoVehiculo.class);
+        for (CampoVehiculo campo : CampoVehiculo.values()) {
+            campos.put(campo, campo.valor(v));
+        }
+        if (dao.actualizarCampos(v.getId(), versionEsperada, campos) == 0) {
+            // Modificado por otro usuario entre la lectura y el UPDATE
+            vigente(dao, v.getId(), versionEsperada);
+            throw new BusinessException("El vehículo con ID " + v.getId() + " cambió durante la actualización");
         }
+        v.setVersion(versionEsperada + 1);
+        return existente;
     }
 
     /**
-     * Valida que un campo tenga al menos la longitud mínima especificada.
+     * Indica si hay que confirmar la placa con la base de datos: el índice de
+     * placas no la descarta, o la escribió una operación anterior del mismo
+     * lote (el índice aún no la conoce, pero la conexión del lote sí ve sus
+     * propias filas sin confirmar).
+     */
+    private boolean placaPuedeExistir(String placa, Set<String> placasDelLote) {
+        return indicePlacas.puedeExistir(placa)
+                || (placasDelLote != null && placasDelLote.contains(normalizarPlaca(placa)));
+    }
+
+    private static String normalizarPlaca(String placa) {
+        return placa.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Lee el vehículo y verifica que siga en la versión esperada.
      *
-     * @param campo campo a validar
-     * @param nombreCampo nombre lógico del campo (para mensaje)
-     * @param longitudMinima longitud mínima permitida
-     * @throws BusinessException si la longitud es menor a la mínima
+     * @return el vehículo vigente
+     * @throws BusinessException si no existe
+     * @throws ConflictoVersionException si su versión es otra
      */
-    private void validarLongitudMinima(String campo, String nombreCampo, int longitudMinima) throws BusinessException {
-        if (campo == null || campo.trim().length() < longitudMinima) {
-            throw new BusinessException("El " + nombreCampo + " debe tener al menos " + longitudMinima + " caracteres");
+    private static Vehiculo vigente(VehiculoDAO dao, int id, int versionEsperada)
+            throws SQLException, BusinessException {
+        Vehiculo actual = dao.buscarPorId(id);
+        if (actual == null) {
+            throw new BusinessException("El vehículo con ID " + id + " no existe");
+        }
+        if (actual.getVersion() != versionEsperada) {
+            throw new ConflictoVersionException("El vehículo con ID " + id
+                    + " fue modificado por otro usuario; vuelva a cargarlo antes de guardar", actual.getVersion());
         }
+        return actual;
     }
 
     /**
-     * Valida que el color esté en la lista predefinida.
+     * Obtiene una conexión del pool registrando el tiempo de espera.
      *
-     * @param color color a validar
-     * @throws BusinessException si el color no está permitido
+     * @return conexión abierta; el llamador debe cerrarla
+     * @throws SQLException si el pool no entrega una conexión
      */
-    private void validarColor(String color) throws BusinessException {
-        if (color == null || !COLORES_VALIDOS.contains(color)) {
-            throw new BusinessException("El color debe ser uno de: " + COLORES_VALIDOS);
+    private Connection conectar() throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            Connection con = ds.getConnection();
+            M_CONEXION.exito(inicio);
+            return con;
+        } catch (SQLException ex) {
+            M_CONEXION.error(inicio);
+            throw ex;
         }
     }
 
     /**
-     * Valida que el modelo (año) no tenga más de 20 años de antigüedad.
-     *
-     * @param modelo texto con el año del modelo (se espera numérico)
-     * @throws BusinessException si el formato no es numérico o si el vehículo es muy antiguo
+     * @return true si las escrituras deben resolverse con una sola sentencia
+     *         apoyada en las restricciones de la base de datos (solo si el
+     *         índice único de placa existe)
      */
-    private void validarAntiguedadModelo(String modelo) throws BusinessException {
-        if (modelo == null) {
-            throw new BusinessException("El modelo es obligatorio");
+    private boolean escrituraPorRestricciones() {
+        return Configuracion.booleano(PROP_ESCRITURA_POR_RESTRICCIONES, false) && esquema.isPlacaUnica();
+    }
+
+    /**
+     * @return true si el error es la violación del índice único de placa
+     */
+    private boolean esPlacaDuplicada(SQLException ex) {
+        return VehiculoDAO.esPlacaDuplicada(ex, esquema.getIndicePlaca());
+    }
+
+    /**
+     * Ejecuta la acción cuando se confirme la transacción JTA en curso, para
+     * que lo que está en memoria nunca adelante a la base de datos: una
+     * lectura concurrente no puede volver a cargar la fila anterior después
+     * de la invalidación y un rollback no deja rastro. Sin transacción (los
+     * métodos NOT_SUPPORTED ya confirmaron su conexión, o fuera del
+     * contenedor) se ejecuta de inmediato.
+     */
+    private void alConfirmar(Runnable accion) {
+        if (transacciones == null || transacciones.getTransactionKey() == null) {
+            accion.run();
+            return;
         }
+        transacciones.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado == Status.STATUS_COMMITTED) {
+                    accion.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Actualiza con un único UPDATE. La existencia se deduce de las filas
+     * afectadas y el duplicado de placa de la clave única; los mensajes son
+     * los mismos que en el modo de verificación previa.
+     *
+     * Requiere que la base de datos devuelva filas encontradas (no solo
+     * modificadas), que es el comportamiento por defecto de Connector/J. La
+     * versión nueva la asigna el UPDATE, así que se vuelve a leer para que
+     * los índices y los eventos no publiquen la que traía el llamador.
+     */
+    private void actualizarPorRestricciones(VehiculoDAO dao, Vehiculo v) throws SQLException, BusinessException {
+        int filas;
         try {
-            int añoModelo = Integer.parseInt(modelo);
-            int añoActual = Calendar.getInstance().get(Calendar.YEAR);
-            int añoLimite = añoActual - 20;
+            filas = dao.actualizar(v);
+        } catch (SQLException ex) {
+            if (esPlacaDuplicada(ex)) {
+                throw new BusinessException("La placa " + v.getPlaca() + " ya existe en otro vehículo", ex);
+            }
+            throw ex;
+        }
+        if (filas == 0) {
+            throw new BusinessException("El vehículo con ID " + v.getId() + " no existe");
+        }
+        // La fila queda bloqueada por el UPDATE hasta el commit
+        Vehiculo escrito = dao.buscarPorId(v.getId());
+        if (escrito != null) {
+            v.setVersion(escrito.getVersion());
+        }
+        // Los datos anteriores se toman luego del índice de facetas; si no
+        // está cargado, la placa anterior puede quedar de más en el índice de
+        // placas (una consulta adicional en el futuro) y las estadísticas
+        // quedan inexactas hasta la siguiente reconciliación
+    }
 
-            if (añoModelo < añoLimite) {
-                throw new BusinessException("El modelo no puede tener más de 20 años de antigüedad. Año mínimo permitido: " + añoLimite);
+    /**
+     * Elimina con un único DELETE que ya excluye al Administrador. Solo si no
+     * se borró ninguna fila se consulta el vehículo para elegir el mensaje.
+     */
+    private void eliminarPorRestricciones(VehiculoDAO dao, int id) throws SQLException, BusinessException {
+        if (dao.eliminarSiNoEsAdministrador(id) == 0) {
+            if (dao.buscarPorId(id) == null) {
+                throw new BusinessException("El vehículo con ID " + id + " no existe");
             }
-        } catch (NumberFormatException e) {
-            throw new BusinessException("El modelo debe ser un año válido (formato numérico)");
+            throw new BusinessException("No se puede eliminar un vehículo cuyo propietario es 'Administrador'");
         }
     }
 
     /**
-     * Simula validación contra SQL Injection buscando patrones sospechosos en los campos.
+     * Al confirmar, registra un alta en los índices en memoria y las
+     * estadísticas y la publica a las pantallas abiertas (la caché y la
+     * versión de la flota se actualizan una vez por operación).
+     */
+    private void registrarAlta(Vehiculo v) {
+        alConfirmar(() -> {
+            indicePlacas.agregar(v.getPlaca());
+            indiceFacetas.poner(v);
+            indiceTrigramas.poner(v.getId(), v.getPlaca());
+            estadisticas.registrarAlta(v);
+            canalEventos.registrarAlta(v);
+        });
+    }
+
+    /**
+     * Al confirmar, registra una actualización en los índices, las
+     * estadísticas, las cachés y la versión, y la publica a las pantallas
+     * abiertas.
      *
-     * @param v vehículo cuyos campos se revisan
-     * @throws BusinessException si se detecta algún patrón sospechoso
+     * @param anterior datos antes del cambio o null si no se conocen (se
+     *                 buscan en el índice de facetas al confirmar)
      */
-    private void validarSQLInjection(Vehiculo v) throws BusinessException {
-        String[] camposSospechosos = {v.getPlaca(), v.getMarca(), v.getModelo(), v.getColor(), v.getPropietario()};
-        String[] patronesSospechosos = {"'", "\"", ";", "--", "/*", "*/", "xp_", "sp_", "exec", "execute", "union", "select", "insert", "update", "delete", "drop", "create", "alter"};
+    private void registrarCambio(Vehiculo v, Vehiculo anterior) {
+        alConfirmar(() -> {
+            Vehiculo previo = anterior != null ? anterior : indiceFacetas.obtener(v.getId());
+            String placaAnterior = previo == null ? null : previo.getPlaca();
+            if (placaAnterior == null) {
+                indicePlacas.agregar(v.getPlaca());
+            } else if (!placaAnterior.equals(v.getPlaca())) {
+                indicePlacas.quitar(placaAnterior);
+                indicePlacas.agregar(v.getPlaca());
+            }
+            indiceFacetas.poner(v);
+            indiceTrigramas.poner(v.getId(), v.getPlaca());
+            estadisticas.registrarCambio(previo, v);
+            // La siguiente edición parte de esta versión sin releer la fila
+            cache.reemplazar(v);
+            fragmentosFilas.invalidar(v.getId());
+            versionFlota.incrementar();
+            canalEventos.registrarCambio(v);
+        });
+    }
 
-        for (String campo : camposSospechosos) {
-            if (campo != null) {
-                String campoLower = campo.toLowerCase();
-                for (String patron : patronesSospechosos) {
-                    if (campoLower.contains(patron.toLowerCase())) {
-                        throw new BusinessException("El campo contiene caracteres o patrones sospechosos que podrían indicar SQL Injection");
-                    }
-                }
+    /**
+     * Al confirmar, registra una baja en los índices, las estadísticas, las
+     * cachés y la versión, y la publica a las pantallas abiertas.
+     *
+     * @param anterior datos del vehículo eliminado o null si no se conocen
+     *                 (se buscan en el índice de facetas al confirmar)
+     */
+    private void registrarBaja(int id, Vehiculo anterior) {
+        // Si la baja se revierte, nada de esto se aplica
+        alConfirmar(() -> {
+            Vehiculo eliminado = anterior != null ? anterior : indiceFacetas.obtener(id);
+            if (eliminado != null && eliminado.getPlaca() != null) {
+                indicePlacas.quitar(eliminado.getPlaca());
             }
-        }
+            estadisticas.registrarBaja(eliminado);
+            indiceFacetas.quitar(id);
+            indiceTrigramas.quitar(id);
+            cache.invalidar(id);
+            fragmentosFilas.invalidar(id);
+            versionFlota.incrementar();
+            canalEventos.registrarBaja(id);
+        });
     }
 
+    // Métodos de validación privados
+    // Todos ellos lanzan BusinessException cuando la validación falla.
+
     /**
-     * Simula el envío de notificación para vehículos Ferrari.
+     * Aplica en orden todas las reglas de validación de campos comunes a
+     * agregar, actualizar e importar (ver ValidadorVehiculo).
      *
-     * @param v vehículo agregado
+     * @param v vehículo a validar
+     * @throws BusinessException con el mensaje de la primera regla que falla
+     */
+    private void validarReglas(Vehiculo v) throws BusinessException {
+        VALIDADOR.validar(v);
+    }
+
+    /**
+     * Operación de un lote ya escrita, pendiente de reflejar en memoria al
+     * confirmar.
      */
-    private void enviarNotificacionFerrari(Vehiculo v) {
-        System.out.println("=== NOTIFICACIÓN FERRARI ===");
-        System.out.println("Se ha registrado un nuevo vehículo Ferrari:");
-        System.out.println("Placa: " + v.getPlaca());
-        System.out.println("Modelo: " + v.getModelo());
-        System.out.println("Color: " + v.getColor());
-        System.out.println("Propietario: " + v.getPropietario());
-        System.out.println("=============================");
-        // En una implementación real, aquí se enviaría un email, SMS, etc.
+    private record OperacionAplicada(OperacionVehiculo.Tipo tipo, int id, Vehiculo vehiculo, Vehiculo anterior,
+            String mensaje) {
     }
 }
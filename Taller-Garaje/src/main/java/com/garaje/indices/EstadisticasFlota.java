@@ -0,0 +1,283 @@
+package com.garaje.indices;
+
+import com.garaje.cache.VersionFlota;
+import com.garaje.metrics.Metricas;
+import com.garaje.model.EstadisticasVehiculos;
+import com.garaje.model.FiltroVehiculos;
+import com.garaje.model.Vehiculo;
+import com.garaje.persistence.EstadisticasDAO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Conteos de la flota por marca, color y año del modelo, mantenidos en
+ * memoria por VehiculoFacade con cada alta, cambio y baja una vez
+ * confirmada (una escritura revertida no los toca). Una consulta cuesta lo
+ * mismo que la cantidad de grupos, no que la cantidad de filas.
+ *
+ * Cada 15 minutos (y al desplegar) se reconcilian con GROUP BY sobre la
+ * tabla, dentro de una transacción REPEATABLE READ para que los tres conteos
+ * sean de la misma instantánea. Las escrituras hechas mientras tanto se
+ * aplican sobre el resultado; una escritura que se confirme justo antes de
+ * que empiece la instantánea puede quedar contada dos veces hasta la
+ * siguiente reconciliación.
+ *
+ * Si la fachada no conoce los datos anteriores de un vehículo modificado o
+ * eliminado, los conteos se marcan como no exactos hasta reconciliar.
+ */
+@Singleton
+@Startup
+@DependsOn("EsquemaBD")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class EstadisticasFlota {
+
+    private static final Logger LOG = Logger.getLogger(EstadisticasFlota.class.getName());
+
+    @Resource(lookup = "jdbc/garageDB")
+    private DataSource ds;
+
+    @EJB
+    private VersionFlota versionFlota;
+
+    private Conteos conteos = new Conteos();
+    // Cambios recibidos mientras se reconcilia (null si no hay reconciliación)
+    private List<Cambio> pendientes;
+    // false si hubo un cambio sin datos anteriores desde la última reconciliación
+    private boolean exacto;
+    private boolean inexactoDuranteReconciliacion;
+    private Instant reconciliadoEn;
+    private volatile long ultimaDiferencia;
+
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    void iniciar() {
+        Metricas.indicador("garaje_estadisticas_diferencia", "gauge",
+                "Vehículos mal contados encontrados en la última reconciliación de estadísticas.",
+                () -> ultimaDiferencia);
+        reconciliar();
+    }
+
+    /**
+     * Recalcula los conteos desde la base de datos.
+     */
+    @Schedule(hour = "*", minute = "*/15", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void reconciliar() {
+        synchronized (this) {
+            pendientes = new ArrayList<>();
+            inexactoDuranteReconciliacion = false;
+        }
+        try (Connection con = ds.getConnection(); EstadisticasDAO dao = new EstadisticasDAO(con)) {
+            Conteos nuevo = leer(con, dao);
+            long diferencia;
+            synchronized (this) {
+                for (Cambio cambio : pendientes) {
+                    nuevo.sumar(cambio);
+                }
+                diferencia = conteos.diferencia(nuevo);
+                conteos = nuevo;
+                pendientes = null;
+                exacto = !inexactoDuranteReconciliacion;
+                reconciliadoEn = Instant.now();
+            }
+            ultimaDiferencia = diferencia;
+            if (diferencia > 0) {
+                // Las respuestas en caché (ETag) describen los conteos anteriores
+                versionFlota.incrementar();
+                LOG.log(Level.INFO, "Estadísticas reconciliadas: {0} vehículos mal contados", diferencia);
+            }
+        } catch (SQLException ex) {
+            synchronized (this) {
+                pendientes = null;
+            }
+            LOG.log(Level.WARNING, "No se pudieron reconciliar las estadísticas de la flota", ex);
+        }
+    }
+
+    /**
+     * Cuenta un vehículo agregado.
+     */
+    public void registrarAlta(Vehiculo v) {
+        registrar(Cambio.de(v, 1));
+    }
+
+    /**
+     * Mueve un vehículo de sus grupos anteriores a los nuevos.
+     *
+     * @param anterior datos antes del cambio o null si no se conocen
+     * @param nuevo datos tal como quedaron guardados
+     */
+    public void registrarCambio(Vehiculo anterior, Vehiculo nuevo) {
+        if (anterior == null) {
+            marcarInexacto();
+            return;
+        }
+        registrar(Cambio.de(anterior, -1));
+        registrar(Cambio.de(nuevo, 1));
+    }
+
+    /**
+     * Descuenta un vehículo eliminado.
+     *
+     * @param anterior datos del vehículo eliminado o null si no se conocen
+     */
+    public void registrarBaja(Vehiculo anterior) {
+        if (anterior == null) {
+            marcarInexacto();
+            return;
+        }
+        registrar(Cambio.de(anterior, -1));
+    }
+
+    /**
+     * @return conteos actuales, ordenados por grupo
+     */
+    public synchronized EstadisticasVehiculos consultar() {
+        Map<String, Long> porAnio = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Long> anio : conteos.porAnio.entrySet()) {
+            porAnio.put(anio.getKey().toString(), anio.getValue());
+        }
+        return new EstadisticasVehiculos(conteos.total, new TreeMap<>(conteos.porMarca),
+                new TreeMap<>(conteos.porColor), porAnio, conteos.sinAnio, exacto,
+                reconciliadoEn == null ? null : reconciliadoEn.toString());
+    }
+
+    private synchronized void registrar(Cambio cambio) {
+        conteos.sumar(cambio);
+        if (pendientes != null) {
+            pendientes.add(cambio);
+        }
+    }
+
+    private synchronized void marcarInexacto() {
+        exacto = false;
+        if (pendientes != null) {
+            inexactoDuranteReconciliacion = true;
+        }
+    }
+
+    /**
+     * Lee los tres conteos de una misma instantánea de la base de datos.
+     */
+    private static Conteos leer(Connection con, EstadisticasDAO dao) throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        int aislamiento = con.getTransactionIsolation();
+        con.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        con.setAutoCommit(false);
+        try {
+            Conteos nuevo = new Conteos();
+            for (Map.Entry<String, Long> marca : dao.contarPorMarca().entrySet()) {
+                nuevo.total += marca.getValue();
+                nuevo.porMarca.merge(FiltroVehiculos.normalizar(marca.getKey()), marca.getValue(), Long::sum);
+            }
+            for (Map.Entry<String, Long> color : dao.contarPorColor().entrySet()) {
+                nuevo.porColor.merge(FiltroVehiculos.normalizar(color.getKey()), color.getValue(), Long::sum);
+            }
+            for (Map.Entry<String, Long> modelo : dao.contarPorModelo().entrySet()) {
+                Integer anio = FiltroVehiculos.anioModelo(modelo.getKey());
+                if (anio == null) {
+                    nuevo.sinAnio += modelo.getValue();
+                } else {
+                    nuevo.porAnio.merge(anio, modelo.getValue(), Long::sum);
+                }
+            }
+            con.commit();
+            return nuevo;
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+            con.setTransactionIsolation(aislamiento);
+        }
+    }
+
+    /**
+     * Un vehículo que entra (+1) o sale (-1) de sus grupos.
+     */
+    private record Cambio(String marca, String color, Integer anio, int signo) {
+
+        static Cambio de(Vehiculo v, int signo) {
+            return new Cambio(FiltroVehiculos.normalizar(v.getMarca()), FiltroVehiculos.normalizar(v.getColor()),
+                    FiltroVehiculos.anioModelo(v.getModelo()), signo);
+        }
+    }
+
+    /**
+     * Conteos por grupo. No es seguro para hilos: se protege con el monitor
+     * del singleton (o se arma aislado durante la reconciliación).
+     */
+    private static final class Conteos {
+
+        private long total;
+        private long sinAnio;
+        private final Map<String, Long> porMarca = new HashMap<>();
+        private final Map<String, Long> porColor = new HashMap<>();
+        private final TreeMap<Integer, Long> porAnio = new TreeMap<>();
+
+        void sumar(Cambio cambio) {
+            total += cambio.signo();
+            sumar(porMarca, cambio.marca(), cambio.signo());
+            sumar(porColor, cambio.color(), cambio.signo());
+            if (cambio.anio() == null) {
+                sinAnio += cambio.signo();
+            } else {
+                sumar(porAnio, cambio.anio(), cambio.signo());
+            }
+        }
+
+        /**
+         * @return vehículos contados de más o de menos respecto de otro conteo
+         *         (el mayor desajuste entre el total y cada agrupación)
+         */
+        long diferencia(Conteos otro) {
+            long diferencia = Math.abs(total - otro.total);
+            diferencia = Math.max(diferencia, desajuste(porMarca, otro.porMarca));
+            diferencia = Math.max(diferencia, desajuste(porColor, otro.porColor));
+            return Math.max(diferencia, desajuste(porAnio, otro.porAnio) + Math.abs(sinAnio - otro.sinAnio));
+        }
+
+        private static <K> void sumar(Map<K, Long> mapa, K clave, int signo) {
+            Long valor = mapa.merge(clave, (long) signo, Long::sum);
+            if (valor == 0) {
+                mapa.remove(clave);
+            }
+        }
+
+        private static <K> long desajuste(Map<K, Long> a, Map<K, Long> b) {
+            Set<K> claves = new HashSet<>(a.keySet());
+            claves.addAll(b.keySet());
+            long suma = 0;
+            for (K clave : claves) {
+                suma += Math.abs(a.getOrDefault(clave, 0L) - b.getOrDefault(clave, 0L));
+            }
+            // Cada vehículo mal agrupado aparece en dos grupos
+            return (suma + 1) / 2;
+        }
+    }
+}
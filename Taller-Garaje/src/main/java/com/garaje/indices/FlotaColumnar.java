@@ -0,0 +1,361 @@
+package com.garaje.indices;
+
+import com.garaje.model.Vehiculo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copia de la tabla vehiculos guardada por columnas, indexada por id.
+ *
+ * En lugar de un Vehiculo con cinco String por fila:
+ *  - marca, color y propietario se guardan como códigos de diccionario
+ *    (marca y color caben en un char: hay pocos valores distintos). Si un
+ *    diccionario de 16 bits se llena, los valores nuevos se guardan por id
+ *    en un mapa de desborde hasta la próxima recarga.
+ *  - modelo se guarda como año en un int; los modelos que no son un año
+ *    (o no se escriben igual que el número) van al diccionario de modelos
+ *    con código negativo.
+ *  - las placas se concatenan en un solo byte[] (UTF-8) con su posición y
+ *    largo por fila.
+ *  - id no se guarda: es la posición.
+ *
+ * Los cambios de placa dejan los bytes anteriores sin uso y los valores de
+ * diccionario no se liberan; la recarga nocturna arma una copia compacta.
+ *
+ * No es seguro para hilos: la protege el lock de IndiceFacetas.
+ */
+final class FlotaColumnar {
+
+    // Códigos de marca y color sin valor (la fila no existe)
+    private static final char SIN_CODIGO = Character.MAX_VALUE;
+    // Código de marca o color cuyo valor está en el mapa de desborde
+    private static final char DESBORDE = Character.MAX_VALUE - 1;
+
+    // Tamaños estimados en la JVM (64 bits, oops comprimidos)
+    private static final int CABECERA_OBJETO = 12;
+    private static final int CABECERA_ARREGLO = 16;
+    private static final int REFERENCIA = 4;
+    // Nodo del HashMap más el Integer del código
+    private static final int ENTRADA_HASHMAP = 32 + 16;
+
+    private final Diccionario marcas = new Diccionario();
+    private final Diccionario colores = new Diccionario();
+    private final Diccionario propietarios = new Diccionario();
+    private final Diccionario modelosTexto = new Diccionario();
+    // Marca y color por id de las filas con código DESBORDE
+    private final Map<Integer, String> marcasDesbordadas = new HashMap<>();
+    private final Map<Integer, String> coloresDesbordados = new HashMap<>();
+
+    private char[] marca = new char[0];
+    private char[] color = new char[0];
+    private int[] propietario = new int[0];
+    private int[] modelo = new int[0];
+    private int[] version = new int[0];
+    private int[] inicioPlaca = new int[0];
+    private byte[] largoPlaca = new byte[0];
+    private byte[] placas = new byte[4096];
+    private int finPlacas;
+    private int filas;
+
+    /**
+     * Guarda (o reemplaza) la fila del vehículo.
+     *
+     * @param v vehículo con id mayor que cero
+     */
+    void poner(Vehiculo v) {
+        int id = v.getId();
+        asegurarCapacidad(id + 1);
+        if (!existe(id)) {
+            filas++;
+        }
+        marca[id] = codigoCorto(marcas, marcasDesbordadas, id, v.getMarca());
+        color[id] = codigoCorto(colores, coloresDesbordados, id, v.getColor());
+        propietario[id] = propietarios.codigo(v.getPropietario());
+        modelo[id] = codificarModelo(v.getModelo());
+        version[id] = v.getVersion();
+        ponerPlaca(id, v.getPlaca());
+    }
+
+    /**
+     * Quita la fila del vehículo (si existe).
+     */
+    void quitar(int id) {
+        if (!existe(id)) {
+            return;
+        }
+        marca[id] = SIN_CODIGO;
+        marcasDesbordadas.remove(id);
+        coloresDesbordados.remove(id);
+        filas--;
+    }
+
+    /**
+     * @return true si hay una fila para el id
+     */
+    boolean existe(int id) {
+        return id > 0 && id < marca.length && marca[id] != SIN_CODIGO;
+    }
+
+    /**
+     * Arma un Vehiculo con los datos de la fila.
+     *
+     * @return el vehículo o null si no existe
+     */
+    Vehiculo fila(int id) {
+        if (!existe(id)) {
+            return null;
+        }
+        return new Vehiculo(id, placa(id), marca(id), modelo(id), color(id),
+                propietarios.valor(propietario[id]), version[id]);
+    }
+
+    String marca(int id) {
+        return marca[id] == DESBORDE ? marcasDesbordadas.get(id) : marcas.valor(marca[id]);
+    }
+
+    String color(int id) {
+        return color[id] == DESBORDE ? coloresDesbordados.get(id) : colores.valor(color[id]);
+    }
+
+    String propietario(int id) {
+        return propietarios.valor(propietario[id]);
+    }
+
+    String modelo(int id) {
+        int valor = modelo[id];
+        return valor >= 0 ? Integer.toString(valor) : modelosTexto.valor(-valor - 1);
+    }
+
+    /**
+     * @return año del modelo o null si el modelo no es un año
+     */
+    Integer anio(int id) {
+        int valor = modelo[id];
+        return valor >= 0 ? valor : null;
+    }
+
+    String placa(int id) {
+        int largo = largoPlaca[id] & 0xff;
+        if (largo == 0xff) {
+            return null;
+        }
+        return new String(placas, inicioPlaca[id], largo, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return cantidad de vehículos guardados
+     */
+    int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Memoria estimada de la copia por columnas: arreglos más diccionarios.
+     *
+     * @return bytes
+     */
+    long bytes() {
+        long total = arreglo(marca.length, 2) + arreglo(color.length, 2)
+                + arreglo(propietario.length, 4) + arreglo(modelo.length, 4) + arreglo(version.length, 4)
+                + arreglo(inicioPlaca.length, 4) + arreglo(largoPlaca.length, 1) + arreglo(placas.length, 1);
+        return total + marcas.bytes() + colores.bytes() + propietarios.bytes() + modelosTexto.bytes()
+                + bytesDesborde(marcasDesbordadas) + bytesDesborde(coloresDesbordados);
+    }
+
+    /**
+     * Memoria estimada de la misma flota como ArrayList&lt;Vehiculo&gt;: un
+     * objeto Vehiculo y cinco String (cada uno con su byte[]) por fila, más
+     * la referencia en la lista. Sirve de línea base para bytes().
+     *
+     * @return bytes
+     */
+    long bytesComoObjetos() {
+        long total = arreglo(filas, REFERENCIA);
+        long vehiculo = alinear(CABECERA_OBJETO + 4 + 5 * REFERENCIA + 4);
+        for (int id = 1; id < marca.length; id++) {
+            if (!existe(id)) {
+                continue;
+            }
+            int placa = largoPlaca[id] & 0xff;
+            total += vehiculo
+                    + (placa == 0xff ? 0 : bytesString(placa))
+                    + bytesString(marca[id] == DESBORDE
+                            ? largoUtf8(marcasDesbordadas.get(id))
+                            : marcas.valorUtf8(marca[id]))
+                    + bytesString(modelo[id] >= 0
+                            ? digitos(modelo[id])
+                            : modelosTexto.valorUtf8(-modelo[id] - 1))
+                    + bytesString(color[id] == DESBORDE
+                            ? largoUtf8(coloresDesbordados.get(id))
+                            : colores.valorUtf8(color[id]))
+                    + bytesString(propietarios.valorUtf8(propietario[id]));
+        }
+        return total;
+    }
+
+    private void asegurarCapacidad(int minimo) {
+        if (minimo <= marca.length) {
+            return;
+        }
+        int anterior = marca.length;
+        int capacidad = Math.max(minimo, Math.max(1024, anterior + (anterior >> 1)));
+        marca = Arrays.copyOf(marca, capacidad);
+        Arrays.fill(marca, anterior, capacidad, SIN_CODIGO);
+        color = Arrays.copyOf(color, capacidad);
+        propietario = Arrays.copyOf(propietario, capacidad);
+        modelo = Arrays.copyOf(modelo, capacidad);
+        version = Arrays.copyOf(version, capacidad);
+        inicioPlaca = Arrays.copyOf(inicioPlaca, capacidad);
+        largoPlaca = Arrays.copyOf(largoPlaca, capacidad);
+    }
+
+    private void ponerPlaca(int id, String placa) {
+        if (placa == null) {
+            largoPlaca[id] = (byte) 0xff;
+            return;
+        }
+        byte[] bytes = placa.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= 0xff) {
+            throw new IllegalArgumentException("Placa demasiado larga: " + placa);
+        }
+        int inicio = inicioPlaca[id];
+        int largo = largoPlaca[id] & 0xff;
+        // Misma placa o una más corta: se reescribe en su lugar
+        if (largo != 0xff && bytes.length <= largo) {
+            System.arraycopy(bytes, 0, placas, inicio, bytes.length);
+            largoPlaca[id] = (byte) bytes.length;
+            return;
+        }
+        if (finPlacas + bytes.length > placas.length) {
+            placas = Arrays.copyOf(placas, Math.max(finPlacas + bytes.length, placas.length * 2));
+        }
+        System.arraycopy(bytes, 0, placas, finPlacas, bytes.length);
+        inicioPlaca[id] = finPlacas;
+        largoPlaca[id] = (byte) bytes.length;
+        finPlacas += bytes.length;
+    }
+
+    private int codificarModelo(String texto) {
+        if (texto != null && !texto.isEmpty() && texto.length() <= 9) {
+            boolean digitos = texto.charAt(0) != '0' || texto.length() == 1;
+            for (int i = 0; i < texto.length() && digitos; i++) {
+                char c = texto.charAt(i);
+                digitos = c >= '0' && c <= '9';
+            }
+            // Solo si Integer.toString() lo devuelve igual
+            if (digitos) {
+                return Integer.parseInt(texto);
+            }
+        }
+        return -modelosTexto.codigo(texto) - 1;
+    }
+
+    /**
+     * Código de 16 bits del valor. Con el diccionario lleno, un valor nuevo se
+     * guarda en el mapa de desborde para ese id y se devuelve DESBORDE: poner()
+     * corre después del commit y no puede fallar.
+     */
+    private static char codigoCorto(Diccionario diccionario, Map<Integer, String> desborde, int id,
+            String valor) {
+        Integer codigo = diccionario.buscar(valor);
+        if (codigo == null && diccionario.tamano() >= DESBORDE) {
+            desborde.put(id, valor);
+            return DESBORDE;
+        }
+        desborde.remove(id);
+        return (char) (codigo != null ? codigo : diccionario.codigo(valor));
+    }
+
+    private static long bytesDesborde(Map<Integer, String> desborde) {
+        long total = 0;
+        for (String valor : desborde.values()) {
+            total += ENTRADA_HASHMAP + (valor == null ? 0 : bytesString(largoUtf8(valor)));
+        }
+        return total;
+    }
+
+    private static int largoUtf8(String valor) {
+        return valor == null ? 0 : valor.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int digitos(int valor) {
+        int digitos = 1;
+        while (valor >= 10) {
+            valor /= 10;
+            digitos++;
+        }
+        return digitos;
+    }
+
+    private static long arreglo(int elementos, int tamano) {
+        return alinear(CABECERA_ARREGLO + (long) elementos * tamano);
+    }
+
+    private static long bytesString(int largoUtf8) {
+        // String (cabecera, hash, coder, referencia al byte[]) + byte[] compacto
+        return alinear(CABECERA_OBJETO + 4 + 1 + 1 + REFERENCIA) + arreglo(largoUtf8, 1);
+    }
+
+    private static long alinear(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Diccionario de valores de texto a códigos consecutivos (null incluido).
+     */
+    private static final class Diccionario {
+
+        private final Map<String, Integer> codigos = new HashMap<>();
+        private final List<String> valores = new ArrayList<>();
+        // Largo en UTF-8 de cada valor, para estimar la memoria sin recorrer los String
+        private int[] largosUtf8 = new int[16];
+        private long bytesValores;
+
+        /**
+         * @return código del valor, o null si aún no está en el diccionario
+         */
+        Integer buscar(String valor) {
+            return codigos.get(valor);
+        }
+
+        int tamano() {
+            return valores.size();
+        }
+
+        int codigo(String valor) {
+            Integer codigo = codigos.get(valor);
+            if (codigo == null) {
+                codigo = valores.size();
+                valores.add(valor);
+                codigos.put(valor, codigo);
+                int largo = largoUtf8(valor);
+                if (codigo == largosUtf8.length) {
+                    largosUtf8 = Arrays.copyOf(largosUtf8, codigo * 2);
+                }
+                largosUtf8[codigo] = largo;
+                bytesValores += valor == null ? 0 : bytesString(largo);
+            }
+            return codigo;
+        }
+
+        String valor(int codigo) {
+            return valores.get(codigo);
+        }
+
+        int valorUtf8(int codigo) {
+            return largosUtf8[codigo];
+        }
+
+        long bytes() {
+            // Cada valor: el String, su entrada en el mapa y la referencia en la lista
+            return bytesValores + (long) valores.size() * (ENTRADA_HASHMAP + REFERENCIA)
+                    + arreglo(Integer.highestOneBit(Math.max(1, valores.size() * 2)), REFERENCIA)
+                    + arreglo(largosUtf8.length, 4);
+        }
+    }
+}
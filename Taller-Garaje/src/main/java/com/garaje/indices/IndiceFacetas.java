@@ -0,0 +1,381 @@
+package com.garaje.indices;
+
+import com.garaje.metrics.Metricas;
+import com.garaje.model.FiltroVehiculos;
+import com.garaje.model.PaginaVehiculos;
+import com.garaje.model.Vehiculo;
+import com.garaje.persistence.VehiculoDAO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Copia en memoria de la flota con un índice invertido para listar y filtrar
+ * por marca, color, año del modelo y prefijo del propietario sin recorrer la
+ * tabla.
+ *
+ * Las filas se guardan por columnas (FlotaColumnar): códigos de diccionario
+ * y arreglos de primitivos en lugar de un Vehiculo por fila; los Vehiculo se
+ * arman solo para la página pedida.
+ *
+ * Los vehículos se identifican por su id, que es además la posición en las
+ * columnas y en los mapas de bits:
+ *  - marca y color (pocos valores distintos): un BitSet por valor.
+ *  - año del modelo: un BitSet por año en un TreeMap, para rangos.
+ *  - propietario (muchos valores distintos): TreeMap de nombre a ids, para
+ *    prefijos.
+ * Un filtro combinado es la intersección de esos conjuntos y la página se
+ * arma recorriendo los bits a partir del cursor, en orden de id.
+ *
+ * Se carga al desplegar y cada noche, y se mantiene con las escrituras de
+ * VehiculoFacade, que llegan recién al confirmarse la transacción: un
+ * listado nunca muestra un cambio que luego se revierte. Mientras no esté
+ * cargado la fachada filtra desde la base de datos.
+ */
+@Singleton
+@Startup
+@DependsOn("EsquemaBD")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class IndiceFacetas {
+
+    private static final Logger LOG = Logger.getLogger(IndiceFacetas.class.getName());
+
+    @Resource(lookup = "jdbc/garageDB")
+    private DataSource ds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Facetas facetas = new Facetas();
+    // Cambios recibidos mientras se reconstruye el índice (null si no hay recarga)
+    private List<Cambio> pendientes;
+    private volatile boolean cargado;
+
+    @PostConstruct
+    void iniciar() {
+        Metricas.indicador("garaje_indice_facetas_tamano", "gauge",
+                "Vehículos registrados en el índice de facetas.", this::getTamano);
+        Metricas.indicador("garaje_flota_memoria_bytes", "gauge",
+                "Memoria estimada de la copia por columnas de la flota.", this::getBytes);
+        Metricas.indicador("garaje_flota_bytes_por_vehiculo", "gauge",
+                "Bytes por vehículo en la copia por columnas.", () -> bytesPorVehiculo(getBytes()));
+        Metricas.indicador("garaje_flota_bytes_por_vehiculo_objetos", "gauge",
+                "Bytes por vehículo estimados para la misma flota como ArrayList<Vehiculo>.",
+                () -> bytesPorVehiculo(getBytesComoObjetos()));
+        recargar();
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos (al desplegar y cada noche,
+     * por si hubo escrituras fuera de la aplicación).
+     */
+    @Schedule(hour = "3", minute = "10", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void recargar() {
+        Facetas nuevo = new Facetas();
+        lock.writeLock().lock();
+        try {
+            pendientes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try (Connection con = ds.getConnection(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            long total = dao.recorrer(nuevo::poner);
+            lock.writeLock().lock();
+            try {
+                // Las escrituras hechas durante el recorrido se aplican al final
+                for (Cambio cambio : pendientes) {
+                    aplicar(nuevo, cambio);
+                }
+                facetas = nuevo;
+                pendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            cargado = true;
+            LOG.log(Level.INFO, "Índice de facetas cargado con {0} vehículos", total);
+        } catch (SQLException | IOException ex) {
+            lock.writeLock().lock();
+            try {
+                pendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.log(Level.WARNING, "No se pudo cargar el índice de facetas; se filtrará en la base de datos", ex);
+        }
+    }
+
+    /**
+     * Registra un vehículo agregado o actualizado (debe tener id).
+     *
+     * @param v vehículo tal como quedó guardado
+     */
+    public void poner(Vehiculo v) {
+        registrar(new Cambio(v.getId(), copia(v)));
+    }
+
+    /**
+     * Quita un vehículo eliminado.
+     *
+     * @param id identificador del vehículo
+     */
+    public void quitar(int id) {
+        registrar(new Cambio(id, null));
+    }
+
+    /**
+     * Arma una página con los vehículos que cumplen el filtro, en orden de id.
+     *
+     * @param filtro criterios a aplicar (null o vacío lista todos)
+     * @param cursor último id de la página anterior (0 para la primera)
+     * @param limite tamaño de página
+     * @return página con los vehículos que cumplen el filtro
+     */
+    public PaginaVehiculos buscar(FiltroVehiculos filtro, int cursor, int limite) {
+        lock.readLock().lock();
+        try {
+            BitSet coincidencias = filtro == null || filtro.isVacio() ? facetas.todos : facetas.filtrar(filtro);
+            List<Vehiculo> vehiculos = new ArrayList<>(Math.min(limite, 64));
+            Integer siguienteCursor = null;
+            for (int id = coincidencias.nextSetBit(cursor + 1); id >= 0; id = coincidencias.nextSetBit(id + 1)) {
+                if (vehiculos.size() == limite) {
+                    siguienteCursor = vehiculos.get(limite - 1).getId();
+                    break;
+                }
+                vehiculos.add(facetas.filas.fila(id));
+            }
+            return new PaginaVehiculos(vehiculos, cursor, limite, siguienteCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Datos del vehículo según el índice, sin consultar la base de datos.
+     *
+     * @param id identificador del vehículo
+     * @return copia del vehículo o null si no está (o el índice no se cargó)
+     */
+    public Vehiculo obtener(int id) {
+        if (!cargado) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return facetas.filas.fila(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return cantidad de vehículos en el índice
+     */
+    public int getTamano() {
+        lock.readLock().lock();
+        try {
+            return facetas.todos.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return memoria estimada de la copia por columnas, en bytes
+     */
+    public long getBytes() {
+        lock.readLock().lock();
+        try {
+            return facetas.filas.bytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return memoria estimada de la misma flota como ArrayList&lt;Vehiculo&gt;, en bytes
+     */
+    public long getBytesComoObjetos() {
+        lock.readLock().lock();
+        try {
+            return facetas.filas.bytesComoObjetos();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true si el índice ya se cargó y puede responder filtros
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    private void registrar(Cambio cambio) {
+        lock.writeLock().lock();
+        try {
+            aplicar(facetas, cambio);
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void aplicar(Facetas destino, Cambio cambio) {
+        if (cambio.vehiculo() == null) {
+            destino.quitar(cambio.id());
+        } else {
+            destino.poner(cambio.vehiculo());
+        }
+    }
+
+    private long bytesPorVehiculo(long bytes) {
+        int tamano = getTamano();
+        return tamano == 0 ? 0 : bytes / tamano;
+    }
+
+    private static Vehiculo copia(Vehiculo v) {
+        return new Vehiculo(v.getId(), v.getPlaca(), v.getMarca(), v.getModelo(), v.getColor(),
+                v.getPropietario(), v.getVersion());
+    }
+
+    /**
+     * Alta o actualización (con el vehículo) o baja (vehículo null).
+     */
+    private record Cambio(int id, Vehiculo vehiculo) {
+    }
+
+    /**
+     * Estructuras del índice. No es seguro para hilos: se protege con el lock
+     * del singleton (o se arma aislado durante la recarga).
+     */
+    private static final class Facetas {
+
+        private final FlotaColumnar filas = new FlotaColumnar();
+        private final BitSet todos = new BitSet();
+        private final Map<String, BitSet> porMarca = new HashMap<>();
+        private final Map<String, BitSet> porColor = new HashMap<>();
+        private final NavigableMap<Integer, BitSet> porAnio = new TreeMap<>();
+        private final NavigableMap<String, Set<Integer>> porPropietario = new TreeMap<>();
+
+        void poner(Vehiculo v) {
+            int id = v.getId();
+            if (id <= 0) {
+                return;
+            }
+            quitar(id);
+            filas.poner(v);
+            todos.set(id);
+            porMarca.computeIfAbsent(FiltroVehiculos.normalizar(v.getMarca()), k -> new BitSet()).set(id);
+            porColor.computeIfAbsent(FiltroVehiculos.normalizar(v.getColor()), k -> new BitSet()).set(id);
+            Integer anio = FiltroVehiculos.anioModelo(v.getModelo());
+            if (anio != null) {
+                porAnio.computeIfAbsent(anio, k -> new BitSet()).set(id);
+            }
+            porPropietario.computeIfAbsent(FiltroVehiculos.normalizar(v.getPropietario()), k -> new HashSet<>())
+                    .add(id);
+        }
+
+        void quitar(int id) {
+            if (!filas.existe(id)) {
+                return;
+            }
+            todos.clear(id);
+            limpiar(porMarca, FiltroVehiculos.normalizar(filas.marca(id)), id);
+            limpiar(porColor, FiltroVehiculos.normalizar(filas.color(id)), id);
+            Integer anio = FiltroVehiculos.anioModelo(filas.modelo(id));
+            if (anio != null) {
+                limpiar(porAnio, anio, id);
+            }
+            String propietario = FiltroVehiculos.normalizar(filas.propietario(id));
+            filas.quitar(id);
+            Set<Integer> ids = porPropietario.get(propietario);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    porPropietario.remove(propietario);
+                }
+            }
+        }
+
+        /**
+         * @return conjunto nuevo con los ids que cumplen el filtro
+         */
+        BitSet filtrar(FiltroVehiculos filtro) {
+            BitSet resultado = (BitSet) todos.clone();
+            if (filtro.getMarca() != null) {
+                intersectar(resultado, porMarca.get(filtro.getMarca()));
+            }
+            if (filtro.getColor() != null) {
+                intersectar(resultado, porColor.get(filtro.getColor()));
+            }
+            if (filtro.isConRangoAnios()) {
+                int desde = filtro.getAnioDesde() == null ? Integer.MIN_VALUE : filtro.getAnioDesde();
+                int hasta = filtro.getAnioHasta() == null ? Integer.MAX_VALUE : filtro.getAnioHasta();
+                BitSet anios = new BitSet();
+                if (desde <= hasta) {
+                    for (BitSet delAnio : porAnio.subMap(desde, true, hasta, true).values()) {
+                        anios.or(delAnio);
+                    }
+                }
+                resultado.and(anios);
+            }
+            if (filtro.getPropietario() != null) {
+                String prefijo = filtro.getPropietario();
+                BitSet propietarios = new BitSet();
+                for (Set<Integer> ids : porPropietario.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false)
+                        .values()) {
+                    for (int id : ids) {
+                        propietarios.set(id);
+                    }
+                }
+                resultado.and(propietarios);
+            }
+            return resultado;
+        }
+
+        private static void intersectar(BitSet resultado, BitSet faceta) {
+            if (faceta == null) {
+                resultado.clear();
+            } else {
+                resultado.and(faceta);
+            }
+        }
+
+        private static <K> void limpiar(Map<K, BitSet> mapa, K clave, int id) {
+            BitSet bits = mapa.get(clave);
+            if (bits != null) {
+                bits.clear(id);
+                if (bits.isEmpty()) {
+                    mapa.remove(clave);
+                }
+            }
+        }
+    }
+}
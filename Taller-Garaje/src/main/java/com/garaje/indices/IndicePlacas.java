@@ -0,0 +1,158 @@
+package com.garaje.indices;
+
+import com.garaje.cache.VersionFlota;
+import com.garaje.metrics.Metricas;
+import com.garaje.persistence.VehiculoDAO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Índice en memoria de las placas registradas, para evitar la consulta
+ * dao.existePlaca() cuando la placa es con seguridad nueva.
+ *
+ * Se carga al desplegar la aplicación y se mantiene con las escrituras de
+ * VehiculoFacade, que llaman a agregar() y quitar() recién después de
+ * confirmar la transacción: una baja o un cambio de placa revertidos no
+ * quitan la placa. Solo responde "no existe" con certeza: si la placa está en
+ * el índice (o el índice aún no se cargó) la base de datos sigue siendo la
+ * autoridad. Por eso una placa que quede de más en el índice solo cuesta una
+ * consulta, nunca una validación incorrecta.
+ *
+ * Las placas se normalizan sin espacios externos y en mayúsculas, igual que
+ * compara MySQL con su collation por defecto (insensible a mayúsculas).
+ */
+@Singleton
+@Startup
+@DependsOn("EsquemaBD")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class IndicePlacas {
+
+    private static final Logger LOG = Logger.getLogger(IndicePlacas.class.getName());
+
+    @Resource(lookup = "jdbc/garageDB")
+    private DataSource ds;
+
+    @EJB
+    private VersionFlota versionFlota;
+
+    // Lecturas sin bloqueo; las escrituras se sincronizan para no perder
+    // altas mientras se reconstruye el índice
+    private volatile Set<String> placas = ConcurrentHashMap.newKeySet();
+    private Set<String> enConstruccion;
+    private volatile boolean cargado;
+
+    @PostConstruct
+    void iniciar() {
+        Metricas.indicador("garaje_indice_placas_tamano", "gauge",
+                "Placas registradas en el índice en memoria.", this::getTamano);
+        recargar();
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos (al desplegar y cada noche,
+     * por si hubo escrituras fuera de la aplicación).
+     */
+    @Schedule(hour = "3", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void recargar() {
+        Set<String> nuevo = ConcurrentHashMap.newKeySet();
+        // Una escritura confirmada antes de este punto la ve el recorrido;
+        // una posterior llega con agregar()/quitar() y se anota también en
+        // el índice nuevo, así que el reemplazo no pierde ninguna placa
+        synchronized (this) {
+            enConstruccion = nuevo;
+        }
+        try (Connection con = ds.getConnection(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            long total = dao.recorrer(v -> nuevo.add(normalizar(v.getPlaca())));
+            synchronized (this) {
+                placas = nuevo;
+                enConstruccion = null;
+            }
+            cargado = true;
+            // La recarga puede traer escrituras hechas fuera de la aplicación
+            versionFlota.incrementar();
+            LOG.log(Level.INFO, "Índice de placas cargado con {0} placas", total);
+        } catch (SQLException | IOException ex) {
+            synchronized (this) {
+                enConstruccion = null;
+            }
+            LOG.log(Level.WARNING, "No se pudo cargar el índice de placas; se consultará la base de datos", ex);
+        }
+    }
+
+    /**
+     * Indica si la placa podría estar registrada.
+     *
+     * @param placa placa a verificar
+     * @return false solo si la placa con seguridad no existe; true si hay que
+     *         confirmar con la base de datos
+     */
+    public boolean puedeExistir(String placa) {
+        return !cargado || placas.contains(normalizar(placa));
+    }
+
+    /**
+     * Registra una placa ya confirmada en la base de datos.
+     *
+     * @param placa placa agregada
+     */
+    public synchronized void agregar(String placa) {
+        String clave = normalizar(placa);
+        placas.add(clave);
+        if (enConstruccion != null) {
+            enConstruccion.add(clave);
+        }
+    }
+
+    /**
+     * Quita una placa que dejó de existir (baja o cambio de placa ya
+     * confirmados).
+     *
+     * @param placa placa eliminada
+     */
+    public synchronized void quitar(String placa) {
+        String clave = normalizar(placa);
+        placas.remove(clave);
+        if (enConstruccion != null) {
+            enConstruccion.remove(clave);
+        }
+    }
+
+    /**
+     * @return cantidad de placas en el índice
+     */
+    public int getTamano() {
+        return placas.size();
+    }
+
+    /**
+     * @return true si el índice ya se cargó y puede descartar placas nuevas
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    static String normalizar(String placa) {
+        return placa == null ? "" : placa.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,448 @@
+package com.garaje.indices;
+
+import com.garaje.metrics.Metricas;
+import com.garaje.model.CoincidenciaPlaca;
+import com.garaje.persistence.VehiculoDAO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Índice de trigramas sobre las placas, para la búsqueda parcial y tolerante
+ * a errores del mostrador.
+ *
+ * Las placas se normalizan a mayúsculas sin separadores ("abc-123" y
+ * "ABC 123" son "ABC123") y se indexan sus trigramas, con relleno al inicio
+ * y al final para favorecer los prefijos. Cada trigrama (36 símbolos más el
+ * relleno) se codifica como un entero y tiene su lista de posiciones.
+ *
+ * Búsqueda:
+ *  - Con menos de 3 caracteres se buscan prefijos (en orden de registro).
+ *  - Con 3 o más se cuentan, por placa, los trigramas del texto que contiene.
+ *    Son candidatas las que comparten al menos todos menos 3 (una letra
+ *    cambiada afecta hasta 3 trigramas), y se ordenan: primero las que
+ *    contienen el texto tal cual (antes si es prefijo), luego por trigramas
+ *    en común y por largo.
+ *
+ * Las bajas y cambios de placa dejan la posición anterior marcada como libre;
+ * la recarga nocturna compacta las listas.
+ */
+@Singleton
+@Startup
+@DependsOn("EsquemaBD")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class IndiceTrigramasPlacas {
+
+    private static final Logger LOG = Logger.getLogger(IndiceTrigramasPlacas.class.getName());
+
+    // Símbolos: 0-9, A-Z y el relleno
+    private static final int SIMBOLOS = 37;
+    private static final int RELLENO = 36;
+
+    // Trigramas que pueden faltar en una candidata (una sustitución)
+    private static final int TOLERANCIA = 3;
+
+    @Resource(lookup = "jdbc/garageDB")
+    private DataSource ds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Trigramas trigramas = new Trigramas();
+    // Cambios recibidos mientras se reconstruye el índice (null si no hay recarga)
+    private List<Cambio> pendientes;
+    private volatile boolean cargado;
+
+    @PostConstruct
+    void iniciar() {
+        Metricas.indicador("garaje_indice_trigramas_placas", "gauge",
+                "Placas registradas en el índice de trigramas.", this::getTamano);
+        recargar();
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos (al desplegar y cada noche;
+     * además compacta las posiciones libres).
+     */
+    @Schedule(hour = "3", minute = "20", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void recargar() {
+        Trigramas nuevo = new Trigramas();
+        lock.writeLock().lock();
+        try {
+            pendientes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try (Connection con = ds.getConnection(); VehiculoDAO dao = new VehiculoDAO(con)) {
+            long total = dao.recorrer(v -> nuevo.poner(v.getId(), v.getPlaca()));
+            lock.writeLock().lock();
+            try {
+                // Las escrituras hechas durante el recorrido se aplican al final
+                for (Cambio cambio : pendientes) {
+                    nuevo.aplicar(cambio);
+                }
+                trigramas = nuevo;
+                pendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            cargado = true;
+            LOG.log(Level.INFO, "Índice de trigramas cargado con {0} placas", total);
+        } catch (SQLException | IOException ex) {
+            lock.writeLock().lock();
+            try {
+                pendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.log(Level.WARNING, "No se pudo cargar el índice de trigramas de placas", ex);
+        }
+    }
+
+    /**
+     * Registra la placa (nueva o cambiada) de un vehículo.
+     *
+     * @param id identificador del vehículo
+     * @param placa placa tal como quedó guardada
+     */
+    public void poner(int id, String placa) {
+        registrar(new Cambio(id, placa));
+    }
+
+    /**
+     * Quita la placa de un vehículo eliminado.
+     *
+     * @param id identificador del vehículo
+     */
+    public void quitar(int id) {
+        registrar(new Cambio(id, null));
+    }
+
+    /**
+     * Busca las placas más parecidas al texto.
+     *
+     * @param texto placa o fragmento (se ignoran mayúsculas y separadores)
+     * @param limite cantidad máxima de resultados
+     * @return coincidencias de mejor a peor (vacía si el texto no tiene
+     *         letras ni dígitos)
+     */
+    public List<CoincidenciaPlaca> buscar(String texto, int limite) {
+        String consulta = normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return trigramas.buscar(consulta, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return cantidad de placas en el índice
+     */
+    public int getTamano() {
+        lock.readLock().lock();
+        try {
+            return trigramas.vivas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true si el índice ya se cargó y puede responder búsquedas
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    /**
+     * Normaliza una placa: mayúsculas y solo letras A-Z y dígitos.
+     *
+     * @param placa texto a normalizar
+     * @return placa normalizada ("" si es null)
+     */
+    public static String normalizar(String placa) {
+        if (placa == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(placa.length());
+        for (int i = 0; i < placa.length(); i++) {
+            char c = Character.toUpperCase(placa.charAt(i));
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private void registrar(Cambio cambio) {
+        lock.writeLock().lock();
+        try {
+            trigramas.aplicar(cambio);
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int simbolo(char c) {
+        return c <= '9' ? c - '0' : c - 'A' + 10;
+    }
+
+    private static int codigo(int a, int b, int c) {
+        return (a * SIMBOLOS + b) * SIMBOLOS + c;
+    }
+
+    /**
+     * Códigos de los trigramas de la placa normalizada, con dos símbolos de
+     * relleno al inicio y uno al final.
+     */
+    private static int[] trigramasConRelleno(String normalizada) {
+        int n = normalizada.length();
+        int[] s = new int[n + 3];
+        s[0] = RELLENO;
+        s[1] = RELLENO;
+        for (int i = 0; i < n; i++) {
+            s[i + 2] = simbolo(normalizada.charAt(i));
+        }
+        s[n + 2] = RELLENO;
+        int[] codigos = new int[n + 1];
+        for (int i = 0; i + 2 < s.length; i++) {
+            codigos[i] = codigo(s[i], s[i + 1], s[i + 2]);
+        }
+        return codigos;
+    }
+
+    /**
+     * Alta o cambio de placa (con la placa) o baja (placa null).
+     */
+    private record Cambio(int id, String placa) {
+    }
+
+    /**
+     * Estructuras del índice. No es seguro para hilos: se protege con el lock
+     * del singleton (o se arma aislado durante la recarga).
+     */
+    private static final class Trigramas {
+
+        // Listas de posiciones por código de trigrama
+        private final int[][] listas = new int[SIMBOLOS * SIMBOLOS * SIMBOLOS][];
+        private final int[] largos = new int[SIMBOLOS * SIMBOLOS * SIMBOLOS];
+
+        // Por posición: id del vehículo (0 si está libre) y placa original
+        private int[] ids = new int[1024];
+        private String[] placas = new String[1024];
+        private int posiciones;
+        private int vivas;
+
+        // Posición de cada id (0 si no está); la posición 0 no se usa
+        private int[] posicionPorId = new int[1024];
+
+        Trigramas() {
+            posiciones = 1;
+        }
+
+        void aplicar(Cambio cambio) {
+            if (cambio.placa() == null) {
+                quitar(cambio.id());
+            } else {
+                poner(cambio.id(), cambio.placa());
+            }
+        }
+
+        void poner(int id, String placa) {
+            if (id <= 0 || placa == null) {
+                return;
+            }
+            int actual = id < posicionPorId.length ? posicionPorId[id] : 0;
+            if (actual != 0 && placa.equals(placas[actual])) {
+                return;
+            }
+            quitar(id);
+            String normalizada = normalizar(placa);
+            if (normalizada.isEmpty()) {
+                return;
+            }
+            if (posiciones == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                placas = Arrays.copyOf(placas, placas.length * 2);
+            }
+            int posicion = posiciones++;
+            ids[posicion] = id;
+            placas[posicion] = placa;
+            if (id >= posicionPorId.length) {
+                posicionPorId = Arrays.copyOf(posicionPorId, Math.max(id + 1, posicionPorId.length * 2));
+            }
+            posicionPorId[id] = posicion;
+            vivas++;
+
+            int[] codigos = trigramasConRelleno(normalizada);
+            for (int i = 0; i < codigos.length; i++) {
+                if (!repetido(codigos, i)) {
+                    agregarPosicion(codigos[i], posicion);
+                }
+            }
+        }
+
+        void quitar(int id) {
+            if (id <= 0 || id >= posicionPorId.length || posicionPorId[id] == 0) {
+                return;
+            }
+            int posicion = posicionPorId[id];
+            ids[posicion] = 0;
+            placas[posicion] = null;
+            posicionPorId[id] = 0;
+            vivas--;
+        }
+
+        List<CoincidenciaPlaca> buscar(String consulta, int limite) {
+            if (consulta.length() < 3) {
+                return buscarPrefijo(consulta, limite);
+            }
+            int[] codigos = new int[consulta.length() - 2];
+            int distintos = 0;
+            for (int i = 0; i < codigos.length; i++) {
+                int codigo = codigo(simbolo(consulta.charAt(i)), simbolo(consulta.charAt(i + 1)),
+                        simbolo(consulta.charAt(i + 2)));
+                codigos[distintos] = codigo;
+                if (!repetido(codigos, distintos)) {
+                    distintos++;
+                }
+            }
+            int minimo = Math.max(1, distintos - TOLERANCIA);
+
+            // Las listas están ordenadas por posición: se recorren a la vez
+            // contando en cuántas aparece cada posición
+            int[] punteros = new int[distintos];
+            PriorityQueue<Candidata> mejores = new PriorityQueue<>(limite + 1, Candidata.ORDEN.reversed());
+            while (true) {
+                int menor = Integer.MAX_VALUE;
+                for (int i = 0; i < distintos; i++) {
+                    if (punteros[i] < largos[codigos[i]]) {
+                        menor = Math.min(menor, listas[codigos[i]][punteros[i]]);
+                    }
+                }
+                if (menor == Integer.MAX_VALUE) {
+                    break;
+                }
+                int comunes = 0;
+                for (int i = 0; i < distintos; i++) {
+                    if (punteros[i] < largos[codigos[i]] && listas[codigos[i]][punteros[i]] == menor) {
+                        comunes++;
+                        punteros[i]++;
+                    }
+                }
+                if (comunes < minimo || ids[menor] == 0) {
+                    continue;
+                }
+                String normalizada = normalizar(placas[menor]);
+                int indice = normalizada.indexOf(consulta);
+                mejores.add(new Candidata(menor, indice >= 0, indice == 0, comunes, normalizada.length()));
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+
+            List<Candidata> ordenadas = new ArrayList<>(mejores);
+            ordenadas.sort(Candidata.ORDEN);
+            List<CoincidenciaPlaca> resultado = new ArrayList<>(ordenadas.size());
+            for (Candidata c : ordenadas) {
+                double similitud = c.contiene ? 1.0 : (double) c.comunes / distintos;
+                resultado.add(new CoincidenciaPlaca(ids[c.posicion], placas[c.posicion], c.contiene, similitud));
+            }
+            return resultado;
+        }
+
+        /**
+         * Con 1 o 2 caracteres basta la lista de "$$A" o "$AB": solo aparecen
+         * al inicio de la placa. Se devuelven las primeras registradas.
+         */
+        private List<CoincidenciaPlaca> buscarPrefijo(String consulta, int limite) {
+            int codigo = consulta.length() == 1
+                    ? codigo(RELLENO, RELLENO, simbolo(consulta.charAt(0)))
+                    : codigo(RELLENO, simbolo(consulta.charAt(0)), simbolo(consulta.charAt(1)));
+            List<CoincidenciaPlaca> resultado = new ArrayList<>(Math.min(limite, 64));
+            int[] lista = listas[codigo];
+            for (int j = 0; j < largos[codigo] && resultado.size() < limite; j++) {
+                int posicion = lista[j];
+                if (ids[posicion] != 0) {
+                    resultado.add(new CoincidenciaPlaca(ids[posicion], placas[posicion], true, 1.0));
+                }
+            }
+            return resultado;
+        }
+
+        private void agregarPosicion(int codigo, int posicion) {
+            int[] lista = listas[codigo];
+            if (lista == null) {
+                lista = new int[4];
+                listas[codigo] = lista;
+            } else if (largos[codigo] == lista.length) {
+                lista = Arrays.copyOf(lista, lista.length * 2);
+                listas[codigo] = lista;
+            }
+            lista[largos[codigo]++] = posicion;
+        }
+
+        private static boolean repetido(int[] codigos, int i) {
+            for (int j = 0; j < i; j++) {
+                if (codigos[j] == codigos[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Candidata {
+
+        // De mejor a peor
+        static final Comparator<Candidata> ORDEN = Comparator
+                .comparing((Candidata c) -> !c.contiene)
+                .thenComparing(c -> !c.prefijo)
+                .thenComparing(c -> -c.comunes)
+                .thenComparingInt(c -> c.largo)
+                .thenComparingInt(c -> c.posicion);
+
+        final int posicion;
+        final boolean contiene;
+        final boolean prefijo;
+        final int comunes;
+        final int largo;
+
+        Candidata(int posicion, boolean contiene, boolean prefijo, int comunes, int largo) {
+            this.posicion = posicion;
+            this.contiene = contiene;
+            this.prefijo = prefijo;
+            this.comunes = comunes;
+            this.largo = largo;
+        }
+    }
+}
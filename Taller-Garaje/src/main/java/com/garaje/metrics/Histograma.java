@@ -0,0 +1,93 @@
+package com.garaje.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias log-lineal sin bloqueos.
+ *
+ * Cada potencia de dos se divide en 8 sub-cubetas, por lo que cualquier
+ * percentil se reporta con un error relativo máximo de 12,5 % usando un
+ * arreglo fijo de contadores. Registrar un valor es un incremento atómico
+ * (sin locks ni reservas de memoria); los percentiles se calculan sobre una
+ * lectura no atómica de los contadores, suficiente para monitoreo.
+ */
+public final class Histograma {
+
+    private static final int BITS_SUBCUBETA = 3;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder cuenta = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+
+    /**
+     * Registra un valor (por ejemplo, nanosegundos). Los negativos cuentan como 0.
+     */
+    public void registrar(long valor) {
+        long v = Math.max(valor, 0);
+        cubetas.incrementAndGet(indice(v));
+        cuenta.increment();
+        suma.add(v);
+    }
+
+    /**
+     * @return cantidad de valores registrados
+     */
+    public long getCuenta() {
+        return cuenta.sum();
+    }
+
+    /**
+     * @return suma de los valores registrados
+     */
+    public long getSuma() {
+        return suma.sum();
+    }
+
+    /**
+     * Calcula un percentil.
+     *
+     * @param cuantil valor entre 0 y 1 (por ejemplo 0.99)
+     * @return límite superior de la cubeta que contiene el percentil, o 0 si no hay datos
+     */
+    public long percentil(double cuantil) {
+        long[] copia = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rango = Math.max(1, (long) Math.ceil(cuantil * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= rango) {
+                return limiteSuperior(i);
+            }
+        }
+        return limiteSuperior(CUBETAS - 1);
+    }
+
+    static int indice(long v) {
+        if (v < SUBCUBETAS) {
+            return (int) v;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) ((v >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1));
+        return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + sub;
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        long inferior = (long) (SUBCUBETAS + indice % SUBCUBETAS) << desplazamiento;
+        return inferior + (1L << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,95 @@
+package com.garaje.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencia y contadores de resultado de una operación (un método de la
+ * fachada o una consulta del DAO).
+ *
+ * Uso típico:
+ * <pre>
+ *     long inicio = System.nanoTime();
+ *     ... operación ...
+ *     METRICA.exito(inicio);   // o error(inicio) / rechazo(inicio)
+ * </pre>
+ */
+public final class MetricaOperacion {
+
+    private final String capa;
+    private final String operacion;
+    private final Histograma latencia = new Histograma();
+    private final LongAdder exitos = new LongAdder();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+
+    MetricaOperacion(String capa, String operacion) {
+        this.capa = capa;
+        this.operacion = operacion;
+    }
+
+    /**
+     * Registra una ejecución exitosa iniciada en {@code inicioNanos}.
+     */
+    public void exito(long inicioNanos) {
+        latencia.registrar(System.nanoTime() - inicioNanos);
+        exitos.increment();
+    }
+
+    /**
+     * Registra una ejecución rechazada por una regla de negocio.
+     */
+    public void rechazo(long inicioNanos) {
+        latencia.registrar(System.nanoTime() - inicioNanos);
+        rechazos.increment();
+    }
+
+    /**
+     * Registra una ejecución terminada con error (base de datos, inesperado).
+     */
+    public void error(long inicioNanos) {
+        latencia.registrar(System.nanoTime() - inicioNanos);
+        errores.increment();
+    }
+
+    /**
+     * @return capa de la operación ("facade", "dao", "datasource")
+     */
+    public String getCapa() {
+        return capa;
+    }
+
+    /**
+     * @return nombre de la operación
+     */
+    public String getOperacion() {
+        return operacion;
+    }
+
+    /**
+     * @return histograma de latencias en nanosegundos
+     */
+    public Histograma getLatencia() {
+        return latencia;
+    }
+
+    /**
+     * @return ejecuciones exitosas
+     */
+    public long getExitos() {
+        return exitos.sum();
+    }
+
+    /**
+     * @return ejecuciones rechazadas por reglas de negocio
+     */
+    public long getRechazos() {
+        return rechazos.sum();
+    }
+
+    /**
+     * @return ejecuciones con error
+     */
+    public long getErrores() {
+        return errores.sum();
+    }
+}
@@ -0,0 +1,106 @@
+package com.garaje.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro global de métricas de la aplicación y su exposición en el formato
+ * de texto de Prometheus.
+ *
+ * Las operaciones se crean una sola vez (se guardan en campos estáticos o se
+ * obtienen por nombre) y registrar una medición no toma locks. Los
+ * componentes con estado propio (caché, índices) publican indicadores que se
+ * leen solo al exportar.
+ */
+public final class Metricas {
+
+    private static final double[] CUANTILES = {0.5, 0.99, 0.999};
+
+    private static final ConcurrentMap<String, MetricaOperacion> OPERACIONES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Indicador> INDICADORES = new ConcurrentHashMap<>();
+
+    private Metricas() {
+    }
+
+    /**
+     * Obtiene (o crea) la métrica de una operación.
+     *
+     * @param capa capa que ejecuta la operación ("facade", "dao", "datasource")
+     * @param operacion nombre de la operación
+     * @return métrica única para esa capa y operación
+     */
+    public static MetricaOperacion operacion(String capa, String operacion) {
+        return OPERACIONES.computeIfAbsent(capa + '/' + operacion, k -> new MetricaOperacion(capa, operacion));
+    }
+
+    /**
+     * Publica un indicador cuyo valor se lee al exportar.
+     *
+     * @param nombre nombre de la métrica en Prometheus (por ejemplo "garaje_cache_aciertos_total")
+     * @param tipo "counter" o "gauge"
+     * @param ayuda descripción corta
+     * @param valor proveedor del valor actual
+     */
+    public static void indicador(String nombre, String tipo, String ayuda, LongSupplier valor) {
+        INDICADORES.put(nombre, new Indicador(tipo, ayuda, valor));
+    }
+
+    /**
+     * Escribe todas las métricas en el formato de texto de Prometheus (0.0.4).
+     * Las latencias se expresan en segundos.
+     */
+    public static void escribirPrometheus(Writer w) throws IOException {
+        Map<String, MetricaOperacion> ordenadas = new TreeMap<>(OPERACIONES);
+
+        w.write("# HELP garaje_operacion_segundos Latencia por operación de la fachada, el DAO y el DataSource.\n");
+        w.write("# TYPE garaje_operacion_segundos summary\n");
+        for (MetricaOperacion m : ordenadas.values()) {
+            String etiquetas = "capa=\"" + m.getCapa() + "\",operacion=\"" + m.getOperacion() + "\"";
+            Histograma h = m.getLatencia();
+            for (double q : CUANTILES) {
+                w.write("garaje_operacion_segundos{" + etiquetas + ",quantile=\"" + q + "\"} "
+                        + segundos(h.percentil(q)) + "\n");
+            }
+            w.write("garaje_operacion_segundos_sum{" + etiquetas + "} " + segundos(h.getSuma()) + "\n");
+            w.write("garaje_operacion_segundos_count{" + etiquetas + "} " + h.getCuenta() + "\n");
+        }
+
+        w.write("# HELP garaje_operacion_total Ejecuciones por operación y resultado.\n");
+        w.write("# TYPE garaje_operacion_total counter\n");
+        for (MetricaOperacion m : ordenadas.values()) {
+            String etiquetas = "capa=\"" + m.getCapa() + "\",operacion=\"" + m.getOperacion() + "\"";
+            w.write("garaje_operacion_total{" + etiquetas + ",resultado=\"exito\"} " + m.getExitos() + "\n");
+            w.write("garaje_operacion_total{" + etiquetas + ",resultado=\"rechazo\"} " + m.getRechazos() + "\n");
+            w.write("garaje_operacion_total{" + etiquetas + ",resultado=\"error\"} " + m.getErrores() + "\n");
+        }
+
+        for (Map.Entry<String, Indicador> e : new TreeMap<>(INDICADORES).entrySet()) {
+            Indicador i = e.getValue();
+            w.write("# HELP " + e.getKey() + " " + i.ayuda + "\n");
+            w.write("# TYPE " + e.getKey() + " " + i.tipo + "\n");
+            w.write(e.getKey() + " " + i.valor.getAsLong() + "\n");
+        }
+    }
+
+    private static String segundos(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static final class Indicador {
+
+        private final String tipo;
+        private final String ayuda;
+        private final LongSupplier valor;
+
+        private Indicador(String tipo, String ayuda, LongSupplier valor) {
+            this.tipo = tipo;
+            this.ayuda = ayuda;
+            this.valor = valor;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.garaje.metrics;
+
+import com.garaje.exceptions.BusinessException;
+
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.InvocationContext;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interceptor EJB que mide la latencia y el resultado de cada método de
+ * negocio del bean (capa "facade"). Las BusinessException cuentan como
+ * rechazo; cualquier otra excepción, como error.
+ */
+public class MetricasInterceptor {
+
+    // Evita armar el nombre de la métrica en cada invocación
+    private static final ConcurrentMap<Method, MetricaOperacion> POR_METODO = new ConcurrentHashMap<>();
+
+    @AroundInvoke
+    public Object medir(InvocationContext ctx) throws Exception {
+        MetricaOperacion metrica = POR_METODO.get(ctx.getMethod());
+        if (metrica == null) {
+            metrica = Metricas.operacion("facade", ctx.getMethod().getName());
+            POR_METODO.put(ctx.getMethod(), metrica);
+        }
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = ctx.proceed();
+            metrica.exito(inicio);
+            return resultado;
+        } catch (BusinessException be) {
+            metrica.rechazo(inicio);
+            throw be;
+        } catch (Exception ex) {
+            metrica.error(inicio);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.garaje.model;
+
+/**
+ * Campos editables de un vehículo, con su columna en la tabla vehiculos. Se
+ * usa en las actualizaciones parciales para escribir y validar solo lo que
+ * cambió.
+ */
+public enum CampoVehiculo {
+
+    PLACA("placa"),
+    MARCA("marca"),
+    MODELO("modelo"),
+    COLOR("color"),
+    PROPIETARIO("propietario");
+
+    private final String nombre;
+
+    CampoVehiculo(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * @return nombre del campo, igual al de la columna y al de la propiedad JSON
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @param v vehículo
+     * @return valor del campo en el vehículo
+     */
+    public String valor(Vehiculo v) {
+        switch (this) {
+            case PLACA:
+                return v.getPlaca();
+            case MARCA:
+                return v.getMarca();
+            case MODELO:
+                return v.getModelo();
+            case COLOR:
+                return v.getColor();
+            default:
+                return v.getPropietario();
+        }
+    }
+
+    /**
+     * Asigna el valor del campo en el vehículo.
+     *
+     * @param v vehículo a modificar
+     * @param valor nuevo valor
+     */
+    public void asignar(Vehiculo v, String valor) {
+        switch (this) {
+            case PLACA:
+                v.setPlaca(valor);
+                break;
+            case MARCA:
+                v.setMarca(valor);
+                break;
+            case MODELO:
+                v.setModelo(valor);
+                break;
+            case COLOR:
+                v.setColor(valor);
+                break;
+            default:
+                v.setPropietario(valor);
+        }
+    }
+
+    /**
+     * Busca el campo por su nombre (el de la columna).
+     *
+     * @param nombre nombre del campo
+     * @return el campo o null si no es editable o no existe
+     */
+    public static CampoVehiculo desdeNombre(String nombre) {
+        for (CampoVehiculo campo : values()) {
+            if (campo.nombre.equals(nombre)) {
+                return campo;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.garaje.model;
+
+/**
+ * Resultado de la búsqueda parcial de placas.
+ */
+public class CoincidenciaPlaca {
+
+    private final int id;
+    private final String placa;
+    private final boolean contiene;
+    private final double similitud;
+
+    /**
+     * Constructor completo
+     *
+     * @param id identificador del vehículo
+     * @param placa placa tal como está registrada
+     * @param contiene true si la placa contiene el texto buscado (sin errores)
+     * @param similitud fracción de trigramas del texto buscado presentes en la placa (0 a 1)
+     */
+    public CoincidenciaPlaca(int id, String placa, boolean contiene, double similitud) {
+        this.id = id;
+        this.placa = placa;
+        this.contiene = contiene;
+        this.similitud = similitud;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getPlaca() {
+        return placa;
+    }
+
+    public boolean isContiene() {
+        return contiene;
+    }
+
+    public double getSimilitud() {
+        return similitud;
+    }
+}
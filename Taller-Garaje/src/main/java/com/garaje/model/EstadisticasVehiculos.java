@@ -0,0 +1,71 @@
+package com.garaje.model;
+
+import java.util.Map;
+
+/**
+ * Conteos de la flota por marca, color y año del modelo.
+ *
+ * Marca y color se agrupan normalizados (sin espacios externos y en
+ * mayúsculas), igual que en los filtros del listado.
+ */
+public class EstadisticasVehiculos {
+
+    private final long total;
+    private final Map<String, Long> porMarca;
+    private final Map<String, Long> porColor;
+    private final Map<String, Long> porAnio;
+    private final long sinAnio;
+    private final boolean exacto;
+    private final String reconciliadoEn;
+
+    /**
+     * Constructor completo
+     *
+     * @param total cantidad de vehículos
+     * @param porMarca cantidad por marca, ordenada por marca
+     * @param porColor cantidad por color, ordenada por color
+     * @param porAnio cantidad por año del modelo, ordenada por año
+     * @param sinAnio vehículos cuyo modelo no es un año
+     * @param exacto false si hubo escrituras que no se pudieron contar desde
+     *        la última reconciliación
+     * @param reconciliadoEn instante ISO-8601 de la última reconciliación o null
+     */
+    public EstadisticasVehiculos(long total, Map<String, Long> porMarca, Map<String, Long> porColor,
+            Map<String, Long> porAnio, long sinAnio, boolean exacto, String reconciliadoEn) {
+        this.total = total;
+        this.porMarca = porMarca;
+        this.porColor = porColor;
+        this.porAnio = porAnio;
+        this.sinAnio = sinAnio;
+        this.exacto = exacto;
+        this.reconciliadoEn = reconciliadoEn;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Long> getPorMarca() {
+        return porMarca;
+    }
+
+    public Map<String, Long> getPorColor() {
+        return porColor;
+    }
+
+    public Map<String, Long> getPorAnio() {
+        return porAnio;
+    }
+
+    public long getSinAnio() {
+        return sinAnio;
+    }
+
+    public boolean isExacto() {
+        return exacto;
+    }
+
+    public String getReconciliadoEn() {
+        return reconciliadoEn;
+    }
+}
@@ -0,0 +1,62 @@
+package com.garaje.model;
+
+/**
+ * Cambio en la flota publicado a las pantallas abiertas (ver CanalEventos).
+ */
+public class EventoVehiculo {
+
+    /**
+     * Tipos de cambio, con el nombre del evento que ve el navegador.
+     */
+    public enum Tipo {
+        AGREGADO("agregado"),
+        ACTUALIZADO("actualizado"),
+        ELIMINADO("eliminado");
+
+        private final String nombre;
+
+        Tipo(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    private final Tipo tipo;
+    private final long secuencia;
+    private final int id;
+    private final Vehiculo vehiculo;
+
+    /**
+     * Constructor completo
+     *
+     * @param tipo tipo de cambio
+     * @param secuencia número del evento, creciente desde el arranque
+     * @param id identificador del vehículo
+     * @param vehiculo datos tal como quedaron guardados (null si se eliminó)
+     */
+    public EventoVehiculo(Tipo tipo, long secuencia, int id, Vehiculo vehiculo) {
+        this.tipo = tipo;
+        this.secuencia = secuencia;
+        this.id = id;
+        this.vehiculo = vehiculo;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Vehiculo getVehiculo() {
+        return vehiculo;
+    }
+}
@@ -0,0 +1,154 @@
+package com.garaje.model;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Criterios de filtrado del listado de vehículos. Todos son opcionales y se
+ * combinan con "y":
+ *  - marca y color: igualdad sin distinguir mayúsculas.
+ *  - anioDesde / anioHasta: rango inclusivo sobre el año del modelo; los
+ *    vehículos cuyo modelo no es un año quedan fuera si se usa el rango.
+ *  - propietario: prefijo del nombre del propietario, sin distinguir mayúsculas.
+ */
+public class FiltroVehiculos {
+
+    private final String marca;
+    private final String color;
+    private final Integer anioDesde;
+    private final Integer anioHasta;
+    private final String propietario;
+
+    /**
+     * Constructor completo. Los textos vacíos se consideran ausentes.
+     *
+     * @param marca marca exacta o null
+     * @param color color exacto o null
+     * @param anioDesde año mínimo del modelo (inclusivo) o null
+     * @param anioHasta año máximo del modelo (inclusivo) o null
+     * @param propietario prefijo del propietario o null
+     */
+    public FiltroVehiculos(String marca, String color, Integer anioDesde, Integer anioHasta, String propietario) {
+        this.marca = limpiar(marca);
+        this.color = limpiar(color);
+        this.anioDesde = anioDesde;
+        this.anioHasta = anioHasta;
+        this.propietario = limpiar(propietario);
+    }
+
+    public String getMarca() {
+        return marca;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Integer getAnioDesde() {
+        return anioDesde;
+    }
+
+    public Integer getAnioHasta() {
+        return anioHasta;
+    }
+
+    public String getPropietario() {
+        return propietario;
+    }
+
+    /**
+     * @return true si no hay ningún criterio
+     */
+    public boolean isVacio() {
+        return marca == null && color == null && anioDesde == null && anioHasta == null && propietario == null;
+    }
+
+    /**
+     * @return true si se filtra por año del modelo
+     */
+    public boolean isConRangoAnios() {
+        return anioDesde != null || anioHasta != null;
+    }
+
+    /**
+     * Evalúa el filtro sobre un vehículo (misma semántica que el índice de
+     * facetas, usada cuando el índice no está disponible).
+     *
+     * @param v vehículo a evaluar
+     * @return true si cumple todos los criterios
+     */
+    public boolean coincide(Vehiculo v) {
+        if (marca != null && !marca.equals(normalizar(v.getMarca()))) {
+            return false;
+        }
+        if (color != null && !color.equals(normalizar(v.getColor()))) {
+            return false;
+        }
+        if (isConRangoAnios()) {
+            Integer anio = anioModelo(v.getModelo());
+            if (anio == null
+                    || (anioDesde != null && anio < anioDesde)
+                    || (anioHasta != null && anio > anioHasta)) {
+                return false;
+            }
+        }
+        return propietario == null || normalizar(v.getPropietario()).startsWith(propietario);
+    }
+
+    /**
+     * Parámetros del filtro (marca, color, anioDesde, anioHasta, propietario)
+     * listos para agregar a una URL, cada uno precedido por "&amp;" (vacío si
+     * no hay criterios). Sirve también para distinguir representaciones en el
+     * ETag.
+     *
+     * @return fragmento de query string
+     */
+    public String getConsulta() {
+        StringBuilder sb = new StringBuilder();
+        agregarParametro(sb, "marca", marca);
+        agregarParametro(sb, "color", color);
+        agregarParametro(sb, "anioDesde", anioDesde == null ? null : anioDesde.toString());
+        agregarParametro(sb, "anioHasta", anioHasta == null ? null : anioHasta.toString());
+        agregarParametro(sb, "propietario", propietario);
+        return sb.toString();
+    }
+
+    /**
+     * Normaliza un valor de faceta: sin espacios externos y en mayúsculas.
+     *
+     * @param texto valor a normalizar
+     * @return valor normalizado ("" si es null)
+     */
+    public static String normalizar(String texto) {
+        return texto == null ? "" : texto.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Interpreta el campo modelo como año.
+     *
+     * @param modelo campo modelo del vehículo
+     * @return año o null si el modelo no es numérico
+     */
+    public static Integer anioModelo(String modelo) {
+        if (modelo == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(modelo.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String limpiar(String texto) {
+        String normalizado = normalizar(texto);
+        return normalizado.isEmpty() ? null : normalizado;
+    }
+
+    private static void agregarParametro(StringBuilder sb, String nombre, String valor) {
+        if (valor != null) {
+            sb.append('&').append(nombre).append('=').append(URLEncoder.encode(valor, StandardCharsets.UTF_8));
+        }
+    }
+}
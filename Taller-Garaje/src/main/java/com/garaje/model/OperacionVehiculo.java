@@ -0,0 +1,107 @@
+package com.garaje.model;
+
+/**
+ * Una operación dentro de un lote de escrituras (ver
+ * VehiculoFacade.ejecutarLote()).
+ *
+ * Ejemplo JSON:
+ * {"operacion": "actualizar", "id": 7, "version": 3, "vehiculo": {...}}
+ */
+public class OperacionVehiculo {
+
+    /**
+     * Operaciones admitidas, con el nombre que se usa en el JSON.
+     */
+    public enum Tipo {
+        AGREGAR("agregar"),
+        ACTUALIZAR("actualizar"),
+        ELIMINAR("eliminar");
+
+        private final String nombre;
+
+        Tipo(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        /**
+         * @return el tipo con ese nombre (sin distinguir mayúsculas) o null
+         */
+        public static Tipo desdeNombre(String nombre) {
+            for (Tipo tipo : values()) {
+                if (tipo.nombre.equalsIgnoreCase(nombre == null ? "" : nombre.trim())) {
+                    return tipo;
+                }
+            }
+            return null;
+        }
+    }
+
+    private String operacion;
+    private Integer id;
+    private Integer version;
+    private Vehiculo vehiculo;
+
+    /**
+     * Constructor vacío (requerido por JavaBeans)
+     */
+    public OperacionVehiculo() {
+    }
+
+    /**
+     * Constructor completo
+     *
+     * @param operacion "agregar", "actualizar" o "eliminar"
+     * @param id vehículo a actualizar o eliminar (null al agregar)
+     * @param version versión esperada al actualizar (null para no verificarla)
+     * @param vehiculo datos a agregar o actualizar (null al eliminar)
+     */
+    public OperacionVehiculo(String operacion, Integer id, Integer version, Vehiculo vehiculo) {
+        this.operacion = operacion;
+        this.id = id;
+        this.version = version;
+        this.vehiculo = vehiculo;
+    }
+
+    /**
+     * @return tipo de la operación o null si el nombre no es válido
+     */
+    public Tipo tipo() {
+        return Tipo.desdeNombre(operacion);
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    public void setOperacion(String operacion) {
+        this.operacion = operacion;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public Vehiculo getVehiculo() {
+        return vehiculo;
+    }
+
+    public void setVehiculo(Vehiculo vehiculo) {
+        this.vehiculo = vehiculo;
+    }
+}
@@ -0,0 +1,74 @@
+package com.garaje.model;
+
+import java.util.List;
+
+/**
+ * Página de vehículos obtenida con paginación por clave (keyset).
+ *
+ * El cursor es el último id entregado en la página anterior; la siguiente
+ * página se pide con los vehículos cuyo id sea mayor que ese cursor.
+ */
+public class PaginaVehiculos {
+
+    private final List<Vehiculo> vehiculos;
+    private final int cursor;
+    private final int tamano;
+    private final Integer siguienteCursor;
+
+    /**
+     * Constructor completo
+     *
+     * @param vehiculos vehículos de la página, ordenados por id
+     * @param cursor id a partir del cual (exclusivo) se armó la página
+     * @param tamano tamaño de página solicitado
+     * @param siguienteCursor cursor de la siguiente página o null si no hay más
+     */
+    public PaginaVehiculos(List<Vehiculo> vehiculos, int cursor, int tamano, Integer siguienteCursor) {
+        this.vehiculos = vehiculos;
+        this.cursor = cursor;
+        this.tamano = tamano;
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    /**
+     * @return vehículos de la página (puede ser vacía)
+     */
+    public List<Vehiculo> getVehiculos() {
+        return vehiculos;
+    }
+
+    /**
+     * @return cursor con el que se pidió la página (0 para la primera)
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return tamaño de página solicitado
+     */
+    public int getTamano() {
+        return tamano;
+    }
+
+    /**
+     * @return cursor de la siguiente página o null si esta es la última
+     */
+    public Integer getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    /**
+     * @return true si existe una página siguiente
+     */
+    public boolean isHaySiguiente() {
+        return siguienteCursor != null;
+    }
+
+    /**
+     * @return true si esta es la primera página
+     */
+    public boolean isPrimera() {
+        return cursor <= 0;
+    }
+}
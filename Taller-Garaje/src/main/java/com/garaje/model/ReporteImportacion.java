@@ -0,0 +1,61 @@
+package com.garaje.model;
+
+import java.util.List;
+
+/**
+ * Reporte de una carga masiva de vehículos: totales y resultado por fila.
+ */
+public class ReporteImportacion {
+
+    private final List<ResultadoImportacion> filas;
+    private final int importados;
+    private final long milisegundos;
+
+    /**
+     * Constructor completo
+     *
+     * @param filas resultado de cada fila, en el orden de la carga
+     * @param importados cantidad de filas insertadas
+     * @param milisegundos duración total de la importación
+     */
+    public ReporteImportacion(List<ResultadoImportacion> filas, int importados, long milisegundos) {
+        this.filas = filas;
+        this.importados = importados;
+        this.milisegundos = milisegundos;
+    }
+
+    /**
+     * @return resultado de cada fila
+     */
+    public List<ResultadoImportacion> getFilas() {
+        return filas;
+    }
+
+    /**
+     * @return cantidad total de filas recibidas
+     */
+    public int getTotal() {
+        return filas.size();
+    }
+
+    /**
+     * @return cantidad de filas insertadas
+     */
+    public int getImportados() {
+        return importados;
+    }
+
+    /**
+     * @return cantidad de filas rechazadas
+     */
+    public int getRechazados() {
+        return filas.size() - importados;
+    }
+
+    /**
+     * @return duración total de la importación en milisegundos
+     */
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+}
@@ -0,0 +1,60 @@
+package com.garaje.model;
+
+import java.util.List;
+
+/**
+ * Reporte de un lote de escrituras: modo, totales y resultado por operación.
+ */
+public class ReporteLote {
+
+    private final List<ResultadoOperacion> operaciones;
+    private final boolean todoONada;
+    private final int confirmadas;
+    private final long milisegundos;
+
+    /**
+     * Constructor completo
+     *
+     * @param operaciones resultado de cada operación, en el orden del lote
+     * @param todoONada true si el lote se ejecutó en modo todo o nada
+     * @param confirmadas cantidad de operaciones confirmadas
+     * @param milisegundos duración total del lote
+     */
+    public ReporteLote(List<ResultadoOperacion> operaciones, boolean todoONada, int confirmadas,
+            long milisegundos) {
+        this.operaciones = operaciones;
+        this.todoONada = todoONada;
+        this.confirmadas = confirmadas;
+        this.milisegundos = milisegundos;
+    }
+
+    public List<ResultadoOperacion> getOperaciones() {
+        return operaciones;
+    }
+
+    public boolean isTodoONada() {
+        return todoONada;
+    }
+
+    /**
+     * @return cantidad total de operaciones recibidas
+     */
+    public int getTotal() {
+        return operaciones.size();
+    }
+
+    public int getConfirmadas() {
+        return confirmadas;
+    }
+
+    /**
+     * @return cantidad de operaciones rechazadas o revertidas
+     */
+    public int getRechazadas() {
+        return operaciones.size() - confirmadas;
+    }
+
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+}
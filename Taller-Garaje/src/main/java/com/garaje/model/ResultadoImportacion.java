@@ -0,0 +1,89 @@
+package com.garaje.model;
+
+/**
+ * Resultado de importar una fila dentro de una carga masiva de vehículos.
+ */
+public class ResultadoImportacion {
+
+    private int fila;
+    private String placa;
+    private boolean exito;
+    private String mensaje;
+
+    /**
+     * Constructor vacío (requerido por JavaBeans)
+     */
+    public ResultadoImportacion() {
+    }
+
+    /**
+     * Constructor completo
+     *
+     * @param fila número de fila en la carga (comienza en 1)
+     * @param placa placa de la fila, tal como llegó
+     * @param exito true si la fila se insertó
+     * @param mensaje detalle del resultado o motivo del rechazo
+     */
+    public ResultadoImportacion(int fila, String placa, boolean exito, String mensaje) {
+        this.fila = fila;
+        this.placa = placa;
+        this.exito = exito;
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * @return número de fila en la carga (comienza en 1)
+     */
+    public int getFila() {
+        return fila;
+    }
+
+    /**
+     * @param fila establece el número de fila
+     */
+    public void setFila(int fila) {
+        this.fila = fila;
+    }
+
+    /**
+     * @return placa de la fila
+     */
+    public String getPlaca() {
+        return placa;
+    }
+
+    /**
+     * @param placa establece la placa
+     */
+    public void setPlaca(String placa) {
+        this.placa = placa;
+    }
+
+    /**
+     * @return true si la fila se insertó
+     */
+    public boolean isExito() {
+        return exito;
+    }
+
+    /**
+     * @param exito establece si la fila se insertó
+     */
+    public void setExito(boolean exito) {
+        this.exito = exito;
+    }
+
+    /**
+     * @return detalle del resultado o motivo del rechazo
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * @param mensaje establece el detalle del resultado
+     */
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+}
@@ -0,0 +1,59 @@
+package com.garaje.model;
+
+/**
+ * Resultado de una operación dentro de un lote de escrituras.
+ */
+public class ResultadoOperacion {
+
+    private final int posicion;
+    private final String operacion;
+    private final boolean exito;
+    private final String mensaje;
+    private final Vehiculo vehiculo;
+
+    /**
+     * Constructor completo
+     *
+     * @param posicion posición de la operación en el lote (comienza en 1)
+     * @param operacion nombre de la operación, tal como llegó
+     * @param exito true si la operación quedó confirmada
+     * @param mensaje detalle del resultado o motivo del rechazo
+     * @param vehiculo vehículo tal como quedó (con id y versión) o null
+     */
+    public ResultadoOperacion(int posicion, String operacion, boolean exito, String mensaje, Vehiculo vehiculo) {
+        this.posicion = posicion;
+        this.operacion = operacion;
+        this.exito = exito;
+        this.mensaje = mensaje;
+        this.vehiculo = vehiculo;
+    }
+
+    /**
+     * @return posición de la operación en el lote (comienza en 1)
+     */
+    public int getPosicion() {
+        return posicion;
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    /**
+     * @return true si la operación quedó confirmada
+     */
+    public boolean isExito() {
+        return exito;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * @return vehículo tal como quedó (null si se eliminó o no se aplicó)
+     */
+    public Vehiculo getVehiculo() {
+        return vehiculo;
+    }
+}
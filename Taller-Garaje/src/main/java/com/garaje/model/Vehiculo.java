@@ -8,6 +8,8 @@ public class Vehiculo {
     private String modelo;
     private String color;
     private String propietario;
+    // Versión de la fila para el control de concurrencia optimista
+    private int version;
 
     /**
      * Constructor vacío (requerido por JavaBeans)
@@ -27,6 +29,15 @@ public class Vehiculo {
         this.color = color;
         this.propietario = propietario;
     }
+
+    /**
+     * Constructor completo con la versión de la fila
+     */
+    public Vehiculo(int id, String placa, String marca, String modelo,
+            String color, String propietario, int version) {
+        this(id, placa, marca, modelo, color, propietario);
+        this.version = version;
+    }
 // Getters y setters con JavaDoc en cada uno
 
     /**
@@ -113,4 +124,18 @@ public class Vehiculo {
         this.propietario
                 = propietario;
     }
+
+    /**
+     * @return versión de la fila (aumenta con cada actualización)
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @param version establece la versión de la fila
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
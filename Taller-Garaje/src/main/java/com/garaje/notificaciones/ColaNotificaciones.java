@@ -0,0 +1,265 @@
+package com.garaje.notificaciones;
+
+import com.garaje.config.Configuracion;
+import com.garaje.metrics.MetricaOperacion;
+import com.garaje.metrics.Metricas;
+import com.garaje.model.Vehiculo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Envío asíncrono de notificaciones (antes, los avisos de Ferrari se
+ * imprimían dentro de VehiculoFacade.agregar() y su demora se sumaba a cada
+ * alta).
+ *
+ * VehiculoFacade solo evalúa las reglas (garaje.notificaciones.reglas) y
+ * encola los avisos; si hay una transacción en curso se encolan cuando se
+ * confirma, de modo que una alta revertida no avisa. Un hilo aparte los
+ * envía al destino configurado (DestinoNotificaciones) en lotes de hasta
+ * garaje.notificaciones.maxLote, reintentando con espera exponencial.
+ *
+ * La cola tiene capacidad fija (garaje.notificaciones.capacidad): si el
+ * destino no da abasto, los avisos nuevos se descartan (quedan en el log y
+ * en garaje_notificaciones_descartadas_total) en lugar de frenar las altas.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ColaNotificaciones {
+
+    private static final Logger LOG = Logger.getLogger(ColaNotificaciones.class.getName());
+
+    static final String PROP_REGLAS = "garaje.notificaciones.reglas";
+    static final String PROP_DESTINO = "garaje.notificaciones.destino";
+    static final String PROP_CAPACIDAD = "garaje.notificaciones.capacidad";
+    static final String PROP_MAX_LOTE = "garaje.notificaciones.maxLote";
+    static final String PROP_REINTENTOS = "garaje.notificaciones.reintentos";
+    static final String PROP_ESPERA_INICIAL_MS = "garaje.notificaciones.esperaInicialMs";
+
+    // Tope de la espera entre reintentos
+    private static final long ESPERA_MAXIMA_MS = 30_000;
+
+    private static final MetricaOperacion M_ENVIAR = Metricas.operacion("notificaciones", "enviar");
+
+    // Nulo fuera del contenedor (benchmarks): se encola de inmediato
+    @Resource
+    private TransactionSynchronizationRegistry transacciones;
+
+    private final AtomicLong enviadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong reintentos = new AtomicLong();
+    private final AtomicLong fallidas = new AtomicLong();
+
+    private List<ReglaNotificacion> reglas;
+    private DestinoNotificaciones destino;
+    private ArrayBlockingQueue<Notificacion> cola;
+    private int maxLote;
+    private int maxReintentos;
+    private long esperaInicialMs;
+    private Thread trabajador;
+    private volatile boolean detenido;
+
+    @PostConstruct
+    void iniciar() {
+        reglas = ReglaNotificacion.desdeTexto(Configuracion.texto(PROP_REGLAS, "marca=Ferrari"));
+        destino = crearDestino(Configuracion.texto(PROP_DESTINO, "archivo"));
+        int capacidad = Math.max(1, Configuracion.entero(PROP_CAPACIDAD, 10_000));
+        cola = new ArrayBlockingQueue<>(capacidad);
+        maxLote = Math.max(1, Configuracion.entero(PROP_MAX_LOTE, 50));
+        maxReintentos = Math.max(0, Configuracion.entero(PROP_REINTENTOS, 5));
+        esperaInicialMs = Math.max(1, Configuracion.entero(PROP_ESPERA_INICIAL_MS, 200));
+
+        Metricas.indicador("garaje_notificaciones_en_cola", "gauge",
+                "Notificaciones esperando su envío.", cola::size);
+        Metricas.indicador("garaje_notificaciones_capacidad", "gauge",
+                "Capacidad de la cola de notificaciones.", () -> capacidad);
+        Metricas.indicador("garaje_notificaciones_enviadas_total", "counter",
+                "Notificaciones entregadas al destino.", enviadas::get);
+        Metricas.indicador("garaje_notificaciones_descartadas_total", "counter",
+                "Notificaciones descartadas porque la cola estaba llena.", descartadas::get);
+        Metricas.indicador("garaje_notificaciones_reintentos_total", "counter",
+                "Reintentos de envío de lotes de notificaciones.", reintentos::get);
+        Metricas.indicador("garaje_notificaciones_fallidas_total", "counter",
+                "Notificaciones abandonadas tras agotar los reintentos.", fallidas::get);
+
+        trabajador = Thread.ofVirtual().name("garaje-notificaciones").start(this::trabajar);
+    }
+
+    @PreDestroy
+    void detener() {
+        detenido = true;
+        trabajador.interrupt();
+        try {
+            trabajador.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // Último intento, sin reintentos, con lo que quedó en la cola
+        List<Notificacion> pendientes = new ArrayList<>();
+        cola.drainTo(pendientes);
+        if (!pendientes.isEmpty()) {
+            try {
+                destino.enviar(pendientes);
+            } catch (IOException | RuntimeException ex) {
+                LOG.log(Level.WARNING, "Se pierden " + pendientes.size() + " notificaciones al detener la aplicación", ex);
+            }
+        }
+    }
+
+    /**
+     * Evalúa las reglas para un vehículo agregado y encola un aviso por cada
+     * regla que cumple (al confirmarse la transacción en curso, si la hay).
+     *
+     * @param v vehículo tal como quedó guardado
+     * @return true si alguna regla generó una notificación
+     */
+    public boolean registrarAlta(Vehiculo v) {
+        List<Notificacion> avisos = null;
+        for (ReglaNotificacion regla : reglas) {
+            if (!regla.aplica(v)) {
+                continue;
+            }
+            if (avisos == null) {
+                avisos = new ArrayList<>(1);
+            }
+            // Copia: el llamador puede seguir modificando su objeto
+            avisos.add(new Notificacion(regla.getNombre(), new Vehiculo(v.getId(), v.getPlaca(), v.getMarca(),
+                    v.getModelo(), v.getColor(), v.getPropietario(), v.getVersion()), Instant.now()));
+        }
+        if (avisos == null) {
+            return false;
+        }
+        encolarAlConfirmar(avisos);
+        return true;
+    }
+
+    /**
+     * @return destino configurado (para pruebas y benchmarks con DestinoMemoria)
+     */
+    public DestinoNotificaciones getDestino() {
+        return destino;
+    }
+
+    private void encolarAlConfirmar(List<Notificacion> avisos) {
+        if (transacciones == null || transacciones.getTransactionKey() == null) {
+            encolar(avisos);
+            return;
+        }
+        transacciones.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado == Status.STATUS_COMMITTED) {
+                    encolar(avisos);
+                }
+            }
+        });
+    }
+
+    private void encolar(List<Notificacion> avisos) {
+        for (Notificacion aviso : avisos) {
+            if (!cola.offer(aviso)) {
+                descartadas.incrementAndGet();
+                LOG.log(Level.WARNING, "Cola de notificaciones llena; se descarta: {0}", aviso.getMensaje());
+            }
+        }
+    }
+
+    /**
+     * Bucle del hilo de envío: espera el primer aviso y envía junto con él
+     * los que ya estén en la cola.
+     */
+    private void trabajar() {
+        List<Notificacion> lote = new ArrayList<>(maxLote);
+        while (!detenido) {
+            try {
+                lote.add(cola.take());
+                cola.drainTo(lote, maxLote - 1);
+                entregar(lote);
+            } catch (InterruptedException ex) {
+                // Lo que no se entregó vuelve a la cola para el último intento de detener()
+                for (Notificacion aviso : lote) {
+                    cola.offer(aviso);
+                }
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Envía un lote, reintentando con espera exponencial (con variación
+     * aleatoria, para no reintentar todos a la vez contra un servicio caído).
+     */
+    private void entregar(List<Notificacion> lote) throws InterruptedException {
+        for (int intento = 0; ; intento++) {
+            long inicio = System.nanoTime();
+            try {
+                destino.enviar(lote);
+                M_ENVIAR.exito(inicio);
+                enviadas.addAndGet(lote.size());
+                return;
+            } catch (IOException | RuntimeException ex) {
+                M_ENVIAR.error(inicio);
+                if (intento >= maxReintentos) {
+                    fallidas.addAndGet(lote.size());
+                    LOG.log(Level.SEVERE, "Se abandonan " + lote.size() + " notificaciones tras "
+                            + (intento + 1) + " intentos", ex);
+                    for (Notificacion aviso : lote) {
+                        LOG.log(Level.WARNING, "Notificación no enviada: {0}", aviso.getMensaje());
+                    }
+                    lote.clear();
+                    return;
+                }
+                reintentos.incrementAndGet();
+                long espera = Math.min(ESPERA_MAXIMA_MS, esperaInicialMs << Math.min(intento, 20));
+                espera = espera / 2 + ThreadLocalRandom.current().nextLong(espera / 2 + 1);
+                LOG.log(Level.WARNING, "Falló el envío de notificaciones (intento {0}); se reintenta en {1} ms: {2}",
+                        new Object[]{intento + 1, espera, ex.getMessage()});
+                Thread.sleep(espera);
+            }
+        }
+    }
+
+    private static DestinoNotificaciones crearDestino(String nombre) {
+        switch (nombre.trim()) {
+            case "archivo":
+                return new DestinoArchivo();
+            case "memoria":
+                return new DestinoMemoria();
+            default:
+                try {
+                    return Class.forName(nombre.trim(), true, Thread.currentThread().getContextClassLoader())
+                            .asSubclass(DestinoNotificaciones.class)
+                            .getDeclaredConstructor()
+                            .newInstance();
+                } catch (ReflectiveOperationException | ClassCastException ex) {
+                    LOG.log(Level.SEVERE, "Destino de notificaciones inválido: " + nombre
+                            + "; se usa el archivo local", ex);
+                    return new DestinoArchivo();
+                }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.garaje.notificaciones;
+
+import com.garaje.config.Configuracion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino de reemplazo mientras no hay un servicio de correo o SMS: agrega
+ * cada aviso como una línea al archivo garaje.notificaciones.archivo (por
+ * defecto garaje-notificaciones.log en el directorio temporal).
+ */
+public class DestinoArchivo implements DestinoNotificaciones {
+
+    static final String PROP_ARCHIVO = "garaje.notificaciones.archivo";
+
+    private final Path archivo;
+
+    public DestinoArchivo() {
+        this(Paths.get(Configuracion.texto(PROP_ARCHIVO,
+                Paths.get(System.getProperty("java.io.tmpdir"), "garaje-notificaciones.log").toString())));
+    }
+
+    public DestinoArchivo(Path archivo) {
+        this.archivo = archivo;
+    }
+
+    @Override
+    public void enviar(List<Notificacion> lote) throws IOException {
+        // Una escritura por lote: el archivo se abre y se sincroniza una sola vez
+        try (BufferedWriter w = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            for (Notificacion notificacion : lote) {
+                w.write(notificacion.getInstante().toString());
+                w.write(' ');
+                w.write(notificacion.getMensaje());
+                w.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.garaje.notificaciones;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Destino en memoria para pruebas y benchmarks: conserva los últimos
+ * avisos recibidos en lugar de enviarlos.
+ */
+public class DestinoMemoria implements DestinoNotificaciones {
+
+    private static final int MAX_AVISOS = 1000;
+
+    private final ArrayDeque<Notificacion> recibidas = new ArrayDeque<>();
+    private long total;
+
+    @Override
+    public synchronized void enviar(List<Notificacion> lote) {
+        for (Notificacion notificacion : lote) {
+            if (recibidas.size() == MAX_AVISOS) {
+                recibidas.removeFirst();
+            }
+            recibidas.addLast(notificacion);
+        }
+        total += lote.size();
+    }
+
+    /**
+     * @return los últimos avisos recibidos, del más viejo al más nuevo
+     */
+    public synchronized List<Notificacion> getRecibidas() {
+        return new ArrayList<>(recibidas);
+    }
+
+    /**
+     * @return cantidad de avisos recibidos desde el arranque
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+}
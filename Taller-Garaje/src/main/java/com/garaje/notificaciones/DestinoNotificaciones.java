@@ -0,0 +1,27 @@
+package com.garaje.notificaciones;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Medio por el que salen las notificaciones (correo, SMS, archivo...).
+ *
+ * ColaNotificaciones lo llama desde un único hilo, con lotes de hasta
+ * garaje.notificaciones.maxLote avisos. Si lanza una excepción el lote
+ * completo se reintenta más tarde, así que un aviso puede llegar más de una
+ * vez.
+ *
+ * Se elige con garaje.notificaciones.destino: "archivo" (DestinoArchivo, por
+ * defecto), "memoria" (DestinoMemoria) o el nombre de una clase propia con
+ * constructor sin argumentos.
+ */
+public interface DestinoNotificaciones {
+
+    /**
+     * Envía un lote de notificaciones.
+     *
+     * @param lote avisos en el orden en que se generaron
+     * @throws IOException si el envío falla y debe reintentarse
+     */
+    void enviar(List<Notificacion> lote) throws IOException;
+}
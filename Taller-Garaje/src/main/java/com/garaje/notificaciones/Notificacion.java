@@ -0,0 +1,51 @@
+package com.garaje.notificaciones;
+
+import com.garaje.model.Vehiculo;
+
+import java.time.Instant;
+
+/**
+ * Aviso generado por una regla de notificación al registrar un vehículo.
+ */
+public class Notificacion {
+
+    private final String regla;
+    private final Vehiculo vehiculo;
+    private final Instant instante;
+
+    /**
+     * Constructor completo
+     *
+     * @param regla nombre de la regla que la generó (por ejemplo "marca=Ferrari")
+     * @param vehiculo copia de los datos del vehículo registrado
+     * @param instante momento del registro
+     */
+    public Notificacion(String regla, Vehiculo vehiculo, Instant instante) {
+        this.regla = regla;
+        this.vehiculo = vehiculo;
+        this.instante = instante;
+    }
+
+    public String getRegla() {
+        return regla;
+    }
+
+    public Vehiculo getVehiculo() {
+        return vehiculo;
+    }
+
+    public Instant getInstante() {
+        return instante;
+    }
+
+    /**
+     * @return texto del aviso, en una línea
+     */
+    public String getMensaje() {
+        return "Se ha registrado un nuevo vehículo " + vehiculo.getMarca()
+                + " (" + regla + "): placa " + vehiculo.getPlaca()
+                + ", modelo " + vehiculo.getModelo()
+                + ", color " + vehiculo.getColor()
+                + ", propietario " + vehiculo.getPropietario();
+    }
+}
@@ -0,0 +1,71 @@
+package com.garaje.notificaciones;
+
+import com.garaje.model.CampoVehiculo;
+import com.garaje.model.Vehiculo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Regla que dispara una notificación al registrar un vehículo cuyo campo
+ * tiene cierto valor (sin distinguir mayúsculas ni espacios externos).
+ *
+ * Las reglas se configuran en garaje.notificaciones.reglas como una lista
+ * "campo=valor" separada por ';', por ejemplo "marca=Ferrari;marca=Lamborghini".
+ */
+public final class ReglaNotificacion {
+
+    private static final Logger LOG = Logger.getLogger(ReglaNotificacion.class.getName());
+
+    private final CampoVehiculo campo;
+    private final String valor;
+
+    public ReglaNotificacion(CampoVehiculo campo, String valor) {
+        this.campo = campo;
+        this.valor = valor.trim();
+    }
+
+    /**
+     * @return true si el vehículo cumple la regla
+     */
+    public boolean aplica(Vehiculo v) {
+        String actual = campo.valor(v);
+        return actual != null && actual.trim().equalsIgnoreCase(valor);
+    }
+
+    /**
+     * @return la regla tal como se escribe en la configuración
+     */
+    public String getNombre() {
+        return campo.getNombre() + "=" + valor;
+    }
+
+    /**
+     * Interpreta la lista de reglas de la configuración. Las entradas mal
+     * escritas se ignoran con una advertencia.
+     *
+     * @param texto reglas "campo=valor" separadas por ';' (puede ser null)
+     * @return reglas válidas, en el orden escrito
+     */
+    public static List<ReglaNotificacion> desdeTexto(String texto) {
+        List<ReglaNotificacion> reglas = new ArrayList<>();
+        if (texto == null) {
+            return reglas;
+        }
+        for (String entrada : texto.split(";")) {
+            if (entrada.isBlank()) {
+                continue;
+            }
+            int igual = entrada.indexOf('=');
+            CampoVehiculo campo = igual < 0 ? null : CampoVehiculo.desdeNombre(entrada.substring(0, igual).trim());
+            if (campo == null || entrada.substring(igual + 1).isBlank()) {
+                LOG.log(Level.WARNING, "Regla de notificación inválida: {0}", entrada);
+                continue;
+            }
+            reglas.add(new ReglaNotificacion(campo, entrada.substring(igual + 1)));
+        }
+        return reglas;
+    }
+}
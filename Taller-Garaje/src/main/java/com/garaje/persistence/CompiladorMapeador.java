@@ -0,0 +1,22 @@
+package com.garaje.persistence;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Prepara un MapeadorFila para un ResultSet concreto, resolviendo una sola
+ * vez las posiciones de las columnas (findColumn) en lugar de buscarlas por
+ * nombre en cada fila.
+ *
+ * @param <T> tipo del objeto construido
+ */
+@FunctionalInterface
+public interface CompiladorMapeador<T> {
+
+    /**
+     * @param rs ResultSet recién ejecutado (antes de leer filas)
+     * @return mapeador para las filas de ese ResultSet
+     * @throws SQLException si falta alguna columna requerida
+     */
+    MapeadorFila<T> compilar(ResultSet rs) throws SQLException;
+}
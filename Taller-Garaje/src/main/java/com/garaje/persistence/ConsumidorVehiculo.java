@@ -0,0 +1,22 @@
+package com.garaje.persistence;
+
+import com.garaje.model.Vehiculo;
+import java.io.IOException;
+
+/**
+ * Recibe los vehículos fila por fila mientras se recorre un cursor JDBC.
+ *
+ * Permite procesar (por ejemplo, escribir en una respuesta HTTP) toda la
+ * tabla sin acumular los vehículos en memoria.
+ */
+@FunctionalInterface
+public interface ConsumidorVehiculo {
+
+    /**
+     * Procesa un vehículo leído de la base de datos.
+     *
+     * @param v vehículo de la fila actual
+     * @throws IOException si falla la escritura hacia el destino
+     */
+    void aceptar(Vehiculo v) throws IOException;
+}
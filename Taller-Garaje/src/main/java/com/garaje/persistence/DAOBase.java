@@ -0,0 +1,93 @@
+package com.garaje.persistence;
+
+import com.garaje.config.Configuracion;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base de los DAO JDBC: sentencias preparadas reutilizadas mientras el DAO
+ * está abierto (SentenciasPreparadas), lectura de filas con mapeadores compilados una vez
+ * por ResultSet y fetch size configurable.
+ *
+ * El DAO no es dueño de la conexión: close() cierra solo sus sentencias. Se
+ * usa en el mismo try-with-resources que la conexión:
+ *
+ *   try (Connection con = ds.getConnection(); VehiculoDAO dao = new VehiculoDAO(con)) { ... }
+ */
+public abstract class DAOBase implements AutoCloseable {
+
+    // Filas por viaje a la base de datos en los recorridos completos
+    static final String PROP_FETCH_SIZE = "garaje.jdbc.fetchSize";
+    private static final int FETCH_SIZE_POR_DEFECTO = 1000;
+
+    protected final Connection con;
+    protected final SentenciasPreparadas sentencias;
+
+    /**
+     * @param con conexión activa; el llamador la cierra
+     */
+    protected DAOBase(Connection con) {
+        this.con = con;
+        this.sentencias = new SentenciasPreparadas(con,
+                Configuracion.entero(SentenciasPreparadas.PROP_SENTENCIAS_POR_CONEXION, 32));
+    }
+
+    /**
+     * @return fetch size configurado para los recorridos (garaje.jdbc.fetchSize)
+     */
+    public static int fetchSizePorDefecto() {
+        return Math.max(1, Configuracion.entero(PROP_FETCH_SIZE, FETCH_SIZE_POR_DEFECTO));
+    }
+
+    /**
+     * Ejecuta la consulta y convierte todas las filas.
+     *
+     * @param ps sentencia con los parámetros asignados
+     * @param compilador mapeador de las filas
+     * @param capacidad filas esperadas (para dimensionar la lista)
+     * @return lista de objetos o lista vacía
+     */
+    protected static <T> List<T> lista(PreparedStatement ps, CompiladorMapeador<T> compilador, int capacidad)
+            throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            List<T> lista = new ArrayList<>(capacidad);
+            MapeadorFila<T> mapeador = compilador.compilar(rs);
+            while (rs.next()) {
+                lista.add(mapeador.mapear(rs));
+            }
+            return lista;
+        }
+    }
+
+    /**
+     * Ejecuta la consulta y convierte la primera fila.
+     *
+     * @return objeto de la primera fila o null si no hay filas
+     */
+    protected static <T> T primero(PreparedStatement ps, CompiladorMapeador<T> compilador) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? compilador.compilar(rs).mapear(rs) : null;
+        }
+    }
+
+    /**
+     * Ejecuta la consulta e indica si devuelve alguna fila.
+     */
+    protected static boolean hayFilas(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Cierra las sentencias del DAO; la conexión queda abierta.
+     */
+    @Override
+    public void close() throws SQLException {
+        sentencias.close();
+    }
+}
@@ -0,0 +1,76 @@
+package com.garaje.persistence;
+
+import com.garaje.metrics.MetricaOperacion;
+import com.garaje.metrics.Metricas;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Conteos agregados de la tabla vehiculos, para reconciliar las estadísticas
+ * que se mantienen en memoria.
+ */
+public class EstadisticasDAO extends DAOBase {
+
+    private static final MetricaOperacion M_CONTAR_POR = Metricas.operacion("dao", "contarPor");
+
+    /**
+     * Inicializa con una conexión JDBC ya creada.
+     *
+     * @param con conexión activa a MySQL; el llamador la cierra
+     */
+    public EstadisticasDAO(Connection con) {
+        super(con);
+    }
+
+    /**
+     * Cuenta los vehículos por marca (valor tal como está guardado).
+     *
+     * @return cantidad por marca
+     */
+    public Map<String, Long> contarPorMarca() throws SQLException {
+        return contarPor("SELECT marca, COUNT(*) FROM vehiculos GROUP BY marca");
+    }
+
+    /**
+     * Cuenta los vehículos por color (valor tal como está guardado).
+     *
+     * @return cantidad por color
+     */
+    public Map<String, Long> contarPorColor() throws SQLException {
+        return contarPor("SELECT color, COUNT(*) FROM vehiculos GROUP BY color");
+    }
+
+    /**
+     * Cuenta los vehículos por modelo (valor tal como está guardado; el
+     * llamador lo interpreta como año).
+     *
+     * @return cantidad por modelo
+     */
+    public Map<String, Long> contarPorModelo() throws SQLException {
+        return contarPor("SELECT modelo, COUNT(*) FROM vehiculos GROUP BY modelo");
+    }
+
+    private Map<String, Long> contarPor(String sql) throws SQLException {
+        long inicio = System.nanoTime();
+        Map<String, Long> conteos = new HashMap<>();
+        try {
+            PreparedStatement ps = sentencias.preparar(sql);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    conteos.merge(rs.getString(1), rs.getLong(2), Long::sum);
+                }
+            }
+        } catch (SQLException ex) {
+            M_CONTAR_POR.error(inicio);
+            System.err.println("Error al contar vehículos: "
+                    + ex.getMessage());
+            throw ex;
+        }
+        M_CONTAR_POR.exito(inicio);
+        return conteos;
+    }
+}
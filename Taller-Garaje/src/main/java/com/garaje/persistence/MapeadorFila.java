@@ -0,0 +1,23 @@
+package com.garaje.persistence;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Convierte la fila actual de un ResultSet en un objeto.
+ *
+ * Se obtiene de un CompiladorMapeador, que ya resolvió las posiciones de las
+ * columnas para ese ResultSet: mapear() solo lee por índice.
+ *
+ * @param <T> tipo del objeto construido
+ */
+@FunctionalInterface
+public interface MapeadorFila<T> {
+
+    /**
+     * @param rs ResultSet posicionado en la fila a convertir
+     * @return objeto con los datos de la fila
+     * @throws SQLException si falla la lectura de una columna
+     */
+    T mapear(ResultSet rs) throws SQLException;
+}
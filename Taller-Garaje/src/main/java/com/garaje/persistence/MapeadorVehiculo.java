@@ -0,0 +1,49 @@
+package com.garaje.persistence;
+
+import com.garaje.model.Vehiculo;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mapeador de filas de la tabla vehiculos. Las consultas deben proyectar
+ * COLUMNAS (en cualquier orden); las posiciones se resuelven al compilar.
+ */
+public final class MapeadorVehiculo implements MapeadorFila<Vehiculo> {
+
+    /** Proyección explícita de la tabla vehiculos. */
+    public static final String COLUMNAS = "id, placa, marca, modelo, color, propietario, version";
+
+    /** Compila un mapeador para cada ResultSet. */
+    public static final CompiladorMapeador<Vehiculo> COMPILADOR = MapeadorVehiculo::new;
+
+    private final int id;
+    private final int placa;
+    private final int marca;
+    private final int modelo;
+    private final int color;
+    private final int propietario;
+    private final int version;
+
+    private MapeadorVehiculo(ResultSet rs) throws SQLException {
+        id = rs.findColumn("id");
+        placa = rs.findColumn("placa");
+        marca = rs.findColumn("marca");
+        modelo = rs.findColumn("modelo");
+        color = rs.findColumn("color");
+        propietario = rs.findColumn("propietario");
+        version = rs.findColumn("version");
+    }
+
+    @Override
+    public Vehiculo mapear(ResultSet rs) throws SQLException {
+        return new Vehiculo(
+                rs.getInt(id),
+                rs.getString(placa),
+                rs.getString(marca),
+                rs.getString(modelo),
+                rs.getString(color),
+                rs.getString(propietario),
+                rs.getInt(version)
+        );
+    }
+}
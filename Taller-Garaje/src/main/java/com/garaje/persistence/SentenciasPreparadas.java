@@ -0,0 +1,118 @@
+package com.garaje.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché de sentencias preparadas de un DAO: la misma SQL se prepara una sola
+ * vez mientras el DAO esté abierto. Solo ahorra donde un mismo DAO ejecuta
+ * muchas sentencias: la importación masiva (un DAO para todos los bloques),
+ * los lotes de escrituras y la confirmación agrupada de altas.
+ *
+ * Las sentencias devueltas pertenecen a la caché: el llamador cierra sus
+ * ResultSet pero no la sentencia. Se guardan como máximo
+ * garaje.jdbc.sentenciasPorConexion (por defecto 32); la menos usada se
+ * cierra al superar el límite. close() cierra todas.
+ *
+ * Las operaciones de una fila (buscarPorId(), agregar(), actualizar(), ...)
+ * crean un DAO por llamada y no se benefician: para ellas la reutilización
+ * la da la caché de sentencias de la conexión física, que se configura en el
+ * pool (cachePrepStmts y useServerPrepStmts en la URL de Connector/J, ver el
+ * README, o statement-cache-size del pool de GlassFish).
+ *
+ * No es seguro para hilos, igual que la conexión.
+ */
+public final class SentenciasPreparadas implements AutoCloseable {
+
+    static final String PROP_SENTENCIAS_POR_CONEXION = "garaje.jdbc.sentenciasPorConexion";
+
+    private final Connection con;
+    private final int maximo;
+    private final Map<Clave, PreparedStatement> sentencias;
+
+    /**
+     * @param con conexión dueña de las sentencias
+     * @param maximo sentencias abiertas como máximo
+     */
+    public SentenciasPreparadas(Connection con, int maximo) {
+        this.con = con;
+        this.maximo = Math.max(1, maximo);
+        this.sentencias = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Devuelve la sentencia preparada para la SQL, sin parámetros ni lote
+     * pendientes.
+     *
+     * @param sql sentencia con parámetros ?
+     * @return sentencia lista para asignar parámetros
+     * @throws SQLException si la conexión no puede prepararla
+     */
+    public PreparedStatement preparar(String sql) throws SQLException {
+        return obtener(new Clave(sql, false));
+    }
+
+    /**
+     * Igual que preparar(), pero la sentencia devuelve las claves generadas
+     * (INSERT con AUTO_INCREMENT).
+     */
+    public PreparedStatement prepararConClaves(String sql) throws SQLException {
+        return obtener(new Clave(sql, true));
+    }
+
+    /**
+     * @return cantidad de sentencias abiertas en la caché
+     */
+    public int getTamano() {
+        return sentencias.size();
+    }
+
+    /**
+     * Cierra todas las sentencias. La conexión queda abierta.
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException primerError = null;
+        for (PreparedStatement ps : sentencias.values()) {
+            try {
+                ps.close();
+            } catch (SQLException ex) {
+                if (primerError == null) {
+                    primerError = ex;
+                }
+            }
+        }
+        sentencias.clear();
+        if (primerError != null) {
+            throw primerError;
+        }
+    }
+
+    private PreparedStatement obtener(Clave clave) throws SQLException {
+        PreparedStatement ps = sentencias.get(clave);
+        if (ps != null && !ps.isClosed()) {
+            ps.clearParameters();
+            ps.clearBatch();
+            return ps;
+        }
+        ps = clave.claves()
+                ? con.prepareStatement(clave.sql(), Statement.RETURN_GENERATED_KEYS)
+                : con.prepareStatement(clave.sql());
+        sentencias.put(clave, ps);
+        if (sentencias.size() > maximo) {
+            Iterator<PreparedStatement> masAntigua = sentencias.values().iterator();
+            PreparedStatement expulsada = masAntigua.next();
+            masAntigua.remove();
+            expulsada.close();
+        }
+        return ps;
+    }
+
+    private record Clave(String sql, boolean claves) {
+    }
+}
@@ -1,20 +1,94 @@
 package com.garaje.persistence;
 
+import com.garaje.metrics.MetricaOperacion;
+import com.garaje.metrics.Metricas;
+import com.garaje.model.CampoVehiculo;
+import com.garaje.model.CoincidenciaPlaca;
 import com.garaje.model.Vehiculo;
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 
-public class VehiculoDAO {
+/**
+ * Acceso a la tabla vehiculos. Reutiliza las sentencias preparadas mientras
+ * viva el DAO (ver DAOBase) y lee las filas con MapeadorVehiculo.
+ */
+public class VehiculoDAO extends DAOBase {
 
-    private final Connection con;
+    // Latencia y errores por consulta (se exponen en resources/metrics)
+    private static final MetricaOperacion M_LISTAR = Metricas.operacion("dao", "listar");
+    private static final MetricaOperacion M_LISTAR_DESDE = Metricas.operacion("dao", "listarDesde");
+    private static final MetricaOperacion M_RECORRER = Metricas.operacion("dao", "recorrer");
+    private static final MetricaOperacion M_BUSCAR_POR_ID = Metricas.operacion("dao", "buscarPorId");
+    private static final MetricaOperacion M_BUSCAR_POR_PLACA = Metricas.operacion("dao", "buscarPorPlaca");
+    private static final MetricaOperacion M_EXISTE_PLACA = Metricas.operacion("dao", "existePlaca");
+    private static final MetricaOperacion M_BUSCAR_PLACAS = Metricas.operacion("dao", "buscarPlacasQueContienen");
+    private static final MetricaOperacion M_PLACAS_EXISTENTES = Metricas.operacion("dao", "placasExistentes");
+    private static final MetricaOperacion M_AGREGAR_LOTE = Metricas.operacion("dao", "agregarLote");
+    private static final MetricaOperacion M_AGREGAR = Metricas.operacion("dao", "agregar");
+    private static final MetricaOperacion M_ACTUALIZAR = Metricas.operacion("dao", "actualizar");
+    private static final MetricaOperacion M_ACTUALIZAR_CAMPOS = Metricas.operacion("dao", "actualizarCampos");
+    private static final MetricaOperacion M_ELIMINAR = Metricas.operacion("dao", "eliminar");
+
+    private static final String INSERT_VEHICULO =
+            "INSERT INTO vehiculos (placa, marca, modelo, color, propietario) VALUES(?, ?, ?, ?, ?)";
+    private static final String SELECT_VEHICULOS = "SELECT " + MapeadorVehiculo.COLUMNAS + " FROM vehiculos";
+    private static final String SQL_LISTAR_DESDE = SELECT_VEHICULOS + " WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SQL_RECORRER = SELECT_VEHICULOS + " ORDER BY id";
+    private static final String SQL_BUSCAR_POR_ID = SELECT_VEHICULOS + " WHERE id=?";
+    private static final String SQL_BUSCAR_POR_PLACA = SELECT_VEHICULOS + " WHERE placa=?";
+    private static final String SQL_BUSCAR_PLACAS =
+            "SELECT id, placa FROM vehiculos WHERE placa LIKE ? ORDER BY placa LIMIT ?";
+    private static final String SQL_EXISTE_PLACA = "SELECT 1 FROM vehiculos WHERE placa=? LIMIT 1";
+    private static final String SQL_ACTUALIZAR = "UPDATE vehiculos SET placa=?, marca=?, modelo=?, color=?,"
+            + " propietario=?, version = version + 1 WHERE id=?";
+    private static final String SQL_ELIMINAR_SI_NO_ES_ADMINISTRADOR = "DELETE FROM vehiculos WHERE id=?"
+            + " AND (propietario IS NULL OR UPPER(propietario) <> 'ADMINISTRADOR')";
+    private static final String SQL_ELIMINAR = "DELETE FROM vehiculos WHERE id=?";
+
+    /**
+     * Consulta del DAO con valores de ejemplo para sus parámetros, para
+     * revisar su plan de ejecución (ver com.garaje.esquema.RevisorPlanes).
+     *
+     * @param nombre operación del DAO que la ejecuta
+     * @param sql sentencia tal como la prepara el DAO
+     * @param ejemplo un valor por parámetro, del tipo que usa el DAO
+     * @param recorreTabla true si recorrer toda la tabla es lo esperado
+     *        (listados completos, búsquedas por contenido)
+     */
+    public record Consulta(String nombre, String sql, List<Object> ejemplo, boolean recorreTabla) {
+    }
+
+    /**
+     * Sentencias de lectura, actualización y borrado que ejecuta el DAO (las
+     * de tamaño variable, con un representante). Las inserciones no se
+     * incluyen: no tienen plan que revisar.
+     */
+    public static List<Consulta> consultas() {
+        return List.of(
+                new Consulta("listar", SELECT_VEHICULOS, List.of(), true),
+                new Consulta("listarDesde", SQL_LISTAR_DESDE, List.of(0, 50), false),
+                new Consulta("recorrer", SQL_RECORRER, List.of(), true),
+                new Consulta("buscarPorId", SQL_BUSCAR_POR_ID, List.of(1), false),
+                new Consulta("buscarPorPlaca", SQL_BUSCAR_POR_PLACA, List.of("ABC123"), false),
+                new Consulta("buscarPlacasQueContienen", SQL_BUSCAR_PLACAS, List.of("%BC1%", 20), true),
+                new Consulta("existePlaca", SQL_EXISTE_PLACA, List.of("ABC123"), false),
+                new Consulta("placasExistentes", sqlPlacasExistentes(2), List.of("ABC123", "XYZ789"), false),
+                new Consulta("actualizar", SQL_ACTUALIZAR,
+                        List.of("ABC123", "Toyota", "2020", "Rojo", "Ana", 1), false),
+                new Consulta("actualizarCampos", sqlActualizarCampos(EnumSet.of(CampoVehiculo.COLOR)),
+                        List.of("Rojo", 1, 0), false),
+                new Consulta("eliminarSiNoEsAdministrador", SQL_ELIMINAR_SI_NO_ES_ADMINISTRADOR, List.of(1), false),
+                new Consulta("eliminar", SQL_ELIMINAR, List.of(1), false));
+    }
 
     /**
      * Inicializa con una conexión JDBC ya creada.
      *
-     * @param con conexión activa a MySQL
+     * @param con conexión activa a MySQL; el llamador la cierra
      */
     public VehiculoDAO(Connection con) {
-        this.con = con;
+        super(con);
     }
 
     /**
@@ -24,53 +98,182 @@ public class VehiculoDAO {
      * @throws SQLException si hay error de conexión BID.
      */
     public List<Vehiculo> listar() throws SQLException {
-        List<Vehiculo> lista = new ArrayList<>();
-        String sql = "SELECT * FROM vehiculos";
-        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
-            while (rs.next()) {
-                Vehiculo v = new Vehiculo(
-                        rs.getInt("id"),
-                        rs.getString("placa"),
-                        rs.getString("marca"),
-                        rs.getString("modelo"),
-                        rs.getString("color"),
-                        rs.getString("propietario")
-                );
-                lista.add(v);
-            }
+        long inicio = System.nanoTime();
+        List<Vehiculo> lista;
+        try {
+            PreparedStatement ps = sentencias.preparar(SELECT_VEHICULOS);
+            ps.setFetchSize(fetchSizePorDefecto());
+            lista = lista(ps, MapeadorVehiculo.COMPILADOR, 16);
         } catch (SQLException ex) {
 // Manejo de error: loggear el error y relanzar
+            M_LISTAR.error(inicio);
             System.err.println("Error al listar vehículos: "
                     + ex.getMessage());
             throw ex; // relanzar para manejar en capa superior
         }
+        M_LISTAR.exito(inicio);
+        return lista;
+    }
+
+    /**
+     * Lista una página de vehículos usando paginación por clave: devuelve los
+     * vehículos con id mayor que {@code despuesDeId}, ordenados por id. El
+     * costo depende del tamaño de la página y no del tamaño de la tabla.
+     *
+     * @param despuesDeId último id de la página anterior (0 para la primera)
+     * @param limite cantidad máxima de filas a devolver
+     * @return Lista de Vehiculo o lista vacía.
+     * @throws SQLException si hay error de conexión BID.
+     */
+    public List<Vehiculo> listarDesde(int despuesDeId, int limite) throws SQLException {
+        long inicio = System.nanoTime();
+        List<Vehiculo> lista;
+        try {
+            PreparedStatement ps = sentencias.preparar(SQL_LISTAR_DESDE);
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
+            lista = lista(ps, MapeadorVehiculo.COMPILADOR, limite);
+        } catch (SQLException ex) {
+            M_LISTAR_DESDE.error(inicio);
+            System.err.println("Error al listar página de vehículos: "
+                    + ex.getMessage());
+            throw ex;
+        }
+        M_LISTAR_DESDE.exito(inicio);
         return lista;
     }
 
+    /**
+     * Recorre todos los vehículos con un cursor de solo avance, entregando
+     * cada fila al consumidor sin acumularlas en memoria.
+     *
+     * Con MySQL Connector/J el streaming fila a fila solo se activa con un
+     * fetch size de Integer.MIN_VALUE; con otros drivers se usa el fetch size
+     * indicado.
+     *
+     * @param consumidor receptor de cada vehículo
+     * @param fetchSize filas que el driver trae por viaje a la base de datos
+     * @return cantidad de vehículos recorridos
+     * @throws SQLException si hay error de conexión BID.
+     * @throws IOException si el consumidor falla al escribir
+     */
+    public long recorrer(ConsumidorVehiculo consumidor, int fetchSize) throws SQLException, IOException {
+        long inicio = System.nanoTime();
+        long filas = 0;
+        try {
+            // Las sentencias de la conexión son TYPE_FORWARD_ONLY y CONCUR_READ_ONLY por defecto
+            PreparedStatement ps = sentencias.preparar(SQL_RECORRER);
+            ps.setFetchSize(esMySQL() ? Integer.MIN_VALUE : fetchSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                MapeadorFila<Vehiculo> mapeador = MapeadorVehiculo.COMPILADOR.compilar(rs);
+                while (rs.next()) {
+                    consumidor.aceptar(mapeador.mapear(rs));
+                    filas++;
+                }
+            }
+        } catch (SQLException ex) {
+            M_RECORRER.error(inicio);
+            System.err.println("Error al recorrer vehículos: "
+                    + ex.getMessage());
+            throw ex;
+        }
+        M_RECORRER.exito(inicio);
+        return filas;
+    }
+
+    /**
+     * Recorre todos los vehículos con el fetch size configurado
+     * (garaje.jdbc.fetchSize).
+     *
+     * @param consumidor receptor de cada vehículo
+     * @return cantidad de vehículos recorridos
+     * @throws SQLException si hay error de conexión BID.
+     * @throws IOException si el consumidor falla al escribir
+     */
+    public long recorrer(ConsumidorVehiculo consumidor) throws SQLException, IOException {
+        return recorrer(consumidor, fetchSizePorDefecto());
+    }
+
+    /**
+     * Indica si la conexión apunta a MySQL (para activar su modo streaming).
+     */
+    private boolean esMySQL() throws SQLException {
+        return con.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+
     /**
      * Busca un vehículo por ID.
      */
     public Vehiculo buscarPorId(int id) throws SQLException {
-        String sql = "SELECT * FROM vehiculos WHERE id=?";
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
+        long inicio = System.nanoTime();
+        Vehiculo encontrado;
+        try {
+            PreparedStatement ps = sentencias.preparar(SQL_BUSCAR_POR_ID);
             ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return new Vehiculo(
-                        rs.getInt("id"),
-                        rs.getString("placa"),
-                        rs.getString("marca"),
-                        rs.getString("modelo"),
-                        rs.getString("color"),
-                        rs.getString("propietario")
-                );
-            }
+            encontrado = primero(ps, MapeadorVehiculo.COMPILADOR);
         } catch (SQLException ex) {
+            M_BUSCAR_POR_ID.error(inicio);
             System.err.println("Error al buscar vehículo por id: "
                     + ex.getMessage());
             throw ex;
         }
-        return null;
+        M_BUSCAR_POR_ID.exito(inicio);
+        return encontrado;
+    }
+
+    /**
+     * Busca un vehículo por placa.
+     *
+     * @param placa placa a buscar
+     * @return Vehiculo encontrado o null si no existe
+     */
+    public Vehiculo buscarPorPlaca(String placa) throws SQLException {
+        long inicio = System.nanoTime();
+        Vehiculo encontrado;
+        try {
+            PreparedStatement ps = sentencias.preparar(SQL_BUSCAR_POR_PLACA);
+            ps.setString(1, placa);
+            encontrado = primero(ps, MapeadorVehiculo.COMPILADOR);
+        } catch (SQLException ex) {
+            M_BUSCAR_POR_PLACA.error(inicio);
+            System.err.println("Error al buscar vehículo por placa: "
+                    + ex.getMessage());
+            throw ex;
+        }
+        M_BUSCAR_POR_PLACA.exito(inicio);
+        return encontrado;
+    }
+
+    /**
+     * Busca las placas que contienen el fragmento indicado (LIKE), ordenadas
+     * por placa. Recorre la tabla: solo se usa si el índice de trigramas no
+     * está disponible.
+     *
+     * @param fragmento texto a buscar dentro de la placa
+     * @param limite cantidad máxima de resultados
+     * @return coincidencias (id y placa) o lista vacía
+     */
+    public List<CoincidenciaPlaca> buscarPlacasQueContienen(String fragmento, int limite) throws SQLException {
+        long inicio = System.nanoTime();
+        List<CoincidenciaPlaca> lista;
+        String patron = "%" + fragmento.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        try {
+            PreparedStatement ps = sentencias.preparar(SQL_BUSCAR_PLACAS);
+            ps.setString(1, patron);
+            ps.setInt(2, limite);
+            lista = lista(ps, rs -> {
+                int id = rs.findColumn("id");
+                int placa = rs.findColumn("placa");
+                return fila -> new CoincidenciaPlaca(fila.getInt(id), fila.getString(placa), true, 1.0);
+            }, limite);
+        } catch (SQLException ex) {
+            M_BUSCAR_PLACAS.error(inicio);
+            System.err.println("Error al buscar placas: "
+                    + ex.getMessage());
+            throw ex;
+        }
+        M_BUSCAR_PLACAS.exito(inicio);
+        return lista;
     }
 
     /**
@@ -80,73 +283,286 @@ public class VehiculoDAO {
      * @return true si existe, false si no
      */
     public boolean existePlaca(String placa) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM vehiculos WHERE placa=?";
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
+        long inicio = System.nanoTime();
+        boolean existe;
+        try {
+            // Basta encontrar una fila: no hace falta contarlas
+            PreparedStatement ps = sentencias.preparar(SQL_EXISTE_PLACA);
             ps.setString(1, placa);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
+            existe = hayFilas(ps);
         } catch (SQLException ex) {
+            M_EXISTE_PLACA.error(inicio);
             System.err.println("Error al verificar placa: "
                     + ex.getMessage());
             throw ex;
         }
-        return false;
+        M_EXISTE_PLACA.exito(inicio);
+        return existe;
+    }
+
+    /**
+     * Verifica en una sola consulta cuáles de las placas indicadas ya están
+     * registradas. Útil para validar lotes sin un viaje por placa.
+     *
+     * @param placas placas a buscar (no vacía)
+     * @return placas existentes, tal como están guardadas en la base de datos
+     */
+    public Set<String> placasExistentes(Collection<String> placas) throws SQLException {
+        Set<String> existentes = new HashSet<>();
+        if (placas.isEmpty()) {
+            return existentes;
+        }
+        long inicio = System.nanoTime();
+        try {
+            // Con bloques de tamaño fijo la misma SQL se repite y se reutiliza
+            PreparedStatement ps = sentencias.preparar(sqlPlacasExistentes(placas.size()));
+            int i = 1;
+            for (String placa : placas) {
+                ps.setString(i++, placa);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    existentes.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException ex) {
+            M_PLACAS_EXISTENTES.error(inicio);
+            System.err.println("Error al verificar placas del lote: "
+                    + ex.getMessage());
+            throw ex;
+        }
+        M_PLACAS_EXISTENTES.exito(inicio);
+        return existentes;
+    }
+
+    /**
+     * Inserta varios vehículos con un único batch JDBC y les asigna el id
+     * generado. No maneja la transacción: el llamador decide cuándo confirmar.
+     *
+     * @param vehiculos vehículos a insertar
+     */
+    public void agregarLote(List<Vehiculo> vehiculos) throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            PreparedStatement ps = sentencias.prepararConClaves(INSERT_VEHICULO);
+            for (Vehiculo v : vehiculos) {
+                ps.setString(1, v.getPlaca());
+                ps.setString(2, v.getMarca());
+                ps.setString(3, v.getModelo());
+                ps.setString(4, v.getColor());
+                ps.setString(5, v.getPropietario());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet claves = ps.getGeneratedKeys()) {
+                for (Vehiculo v : vehiculos) {
+                    if (!claves.next()) {
+                        break;
+                    }
+                    v.setId(claves.getInt(1));
+                    v.setVersion(0);
+                }
+            }
+        } catch (SQLException ex) {
+            M_AGREGAR_LOTE.error(inicio);
+            System.err.println("Error al agregar lote de vehículos: "
+                    + ex.getMessage());
+            throw ex;
+        }
+        M_AGREGAR_LOTE.exito(inicio);
     }
 
     /**
-     * Agrega un nuevo vehículo si la placa no existe. Lanzar SQLException si
-     * falla.
+     * Agrega un nuevo vehículo si la placa no existe y le asigna el id
+     * generado. Lanzar SQLException si falla.
      */
     public void agregar(Vehiculo v) throws SQLException {
-        String sql = "INSERT INTO vehiculos (placa, marca, modelo, color, propietario) VALUES( ?,  ?,  ?,  ?,  ?)";
-try (PreparedStatement ps = con.prepareStatement(sql)) {
+        long inicio = System.nanoTime();
+        try {
+            PreparedStatement ps = sentencias.prepararConClaves(INSERT_VEHICULO);
             ps.setString(1, v.getPlaca());
             ps.setString(2, v.getMarca());
             ps.setString(3, v.getModelo());
             ps.setString(4, v.getColor());
             ps.setString(5, v.getPropietario());
             ps.executeUpdate();
+            try (ResultSet claves = ps.getGeneratedKeys()) {
+                if (claves.next()) {
+                    v.setId(claves.getInt(1));
+                }
+                v.setVersion(0);
+            }
         } catch (SQLException ex) {
+            M_AGREGAR.error(inicio);
             System.err.println("Error al agregar vehículo: "
                     + ex.getMessage());
             throw ex;
         }
+        M_AGREGAR.exito(inicio);
     }
 
     /**
-     * Actualiza todos los datos de un vehículo existente por id.
+     * Actualiza todos los datos de un vehículo existente por id (sin verificar
+     * la versión) y aumenta su versión.
+     *
+     * @return filas afectadas (0 si el id no existe)
      */
-    public void actualizar(Vehiculo v) throws SQLException {
-        String sql = "UPDATE vehiculos SET placa=?, marca=?, modelo=?, color =  ? , propietario =  ? WHERE  id =  ? ";
-try (PreparedStatement ps = con.prepareStatement(sql)) {
+    public int actualizar(Vehiculo v) throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            PreparedStatement ps = sentencias.preparar(SQL_ACTUALIZAR);
             ps.setString(1, v.getPlaca());
             ps.setString(2, v.getMarca());
             ps.setString(3, v.getModelo());
             ps.setString(4, v.getColor());
             ps.setString(5, v.getPropietario());
             ps.setInt(6, v.getId());
-            ps.executeUpdate();
+            int filas = ps.executeUpdate();
+            M_ACTUALIZAR.exito(inicio);
+            return filas;
         } catch (SQLException ex) {
+            M_ACTUALIZAR.error(inicio);
             System.err.println("Error al actualizar vehículo: "
                     + ex.getMessage());
             throw ex;
         }
     }
 
+    /**
+     * Actualiza solo los campos indicados si la fila sigue en la versión
+     * esperada (concurrencia optimista) y aumenta su versión:
+     * UPDATE ... SET campos, version = version + 1 WHERE id=? AND version=?
+     *
+     * @param id identificador del vehículo
+     * @param version versión leída por el cliente
+     * @param cambios campos a escribir con su nuevo valor (no vacío)
+     * @return filas afectadas (0 si el id no existe o la versión cambió)
+     */
+    public int actualizarCampos(int id, int version, Map<CampoVehiculo, String> cambios) throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            PreparedStatement ps = sentencias.preparar(sqlActualizarCampos(cambios.keySet()));
+            int i = 1;
+            for (String valor : cambios.values()) {
+                ps.setString(i++, valor);
+            }
+            ps.setInt(i++, id);
+            ps.setInt(i, version);
+            int filas = ps.executeUpdate();
+            M_ACTUALIZAR_CAMPOS.exito(inicio);
+            return filas;
+        } catch (SQLException ex) {
+            M_ACTUALIZAR_CAMPOS.error(inicio);
+            System.err.println("Error al actualizar campos del vehículo: "
+                    + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    /**
+     * Borra un vehículo por id, aplicando en la misma sentencia la regla de que
+     * no se eliminan vehículos cuyo propietario es "Administrador".
+     *
+     * @return filas afectadas (0 si no existe o si es del Administrador)
+     */
+    public int eliminarSiNoEsAdministrador(int id) throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            PreparedStatement ps = sentencias.preparar(SQL_ELIMINAR_SI_NO_ES_ADMINISTRADOR);
+            ps.setInt(1, id);
+            int filas = ps.executeUpdate();
+            M_ELIMINAR.exito(inicio);
+            return filas;
+        } catch (SQLException ex) {
+            M_ELIMINAR.error(inicio);
+            System.err.println("Error al eliminar vehículo: "
+                    + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    /**
+     * SELECT placa ... WHERE placa IN (?, ?, ...) con la cantidad de
+     * parámetros indicada.
+     */
+    private static String sqlPlacasExistentes(int cantidad) {
+        StringBuilder sql = new StringBuilder("SELECT placa FROM vehiculos WHERE placa IN (");
+        for (int i = 0; i < cantidad; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    /**
+     * UPDATE de los campos indicados con verificación de versión.
+     */
+    private static String sqlActualizarCampos(Collection<CampoVehiculo> campos) {
+        StringBuilder sql = new StringBuilder("UPDATE vehiculos SET ");
+        for (CampoVehiculo campo : campos) {
+            sql.append(campo.getNombre()).append("=?, ");
+        }
+        return sql.append("version = version + 1 WHERE id=? AND version=?").toString();
+    }
+
+    /**
+     * Indica si el error corresponde a una restricción de integridad violada
+     * (SQLState clase 23), por ejemplo la clave única sobre placa.
+     *
+     * @param ex error devuelto por el driver
+     * @return true si es una violación de restricción
+     */
+    public static boolean esViolacionRestriccion(SQLException ex) {
+        String estado = ex.getSQLState();
+        return ex instanceof SQLIntegrityConstraintViolationException
+                || (estado != null && estado.startsWith("23"));
+    }
+
+    /**
+     * Indica si el error es una placa repetida: una violación de restricción
+     * cuyo mensaje nombra el índice único de placa. Otras restricciones
+     * (clave primaria, NOT NULL, ...) no se confunden con un duplicado.
+     *
+     * @param ex error devuelto por el driver
+     * @param indicePlaca nombre del índice único sobre placa (null si no hay)
+     * @return true si la placa ya existe
+     */
+    public static boolean esPlacaDuplicada(SQLException ex, String indicePlaca) {
+        if (indicePlaca == null || !esViolacionRestriccion(ex) || ex.getMessage() == null) {
+            return false;
+        }
+        // MySQL: "for key 'vehiculos.uk_vehiculos_placa'"; H2: "PUBLIC.UK_VEHICULOS_PLACA ON ...".
+        // Búsqueda sin regex ni copias: corre en cada alta rechazada por duplicado
+        String mensaje = ex.getMessage();
+        int largo = indicePlaca.length();
+        for (int i = 0; i + largo <= mensaje.length(); i++) {
+            if (mensaje.regionMatches(true, i, indicePlaca, 0, largo)
+                    && (i == 0 || !parteDeNombre(mensaje.charAt(i - 1)))
+                    && (i + largo == mensaje.length() || !parteDeNombre(mensaje.charAt(i + largo)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean parteDeNombre(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
     /**
      * Borra un vehículo por id.
      */
     public void eliminar(int id) throws SQLException {
-        String sql = "DELETE FROM vehiculos WHERE id=?";
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
+        long inicio = System.nanoTime();
+        try {
+            PreparedStatement ps = sentencias.preparar(SQL_ELIMINAR);
             ps.setInt(1, id);
             ps.executeUpdate();
         } catch (SQLException ex) {
+            M_ELIMINAR.error(inicio);
             System.err.println("Error al eliminar vehículo: "
                     + ex.getMessage());
             throw ex;
         }
+        M_ELIMINAR.exito(inicio);
     }
 }
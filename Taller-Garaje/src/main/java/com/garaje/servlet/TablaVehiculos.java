@@ -0,0 +1,66 @@
+package com.garaje.servlet;
+
+import com.garaje.cache.FragmentosFilas;
+import com.garaje.model.FiltroVehiculos;
+import com.garaje.model.PaginaVehiculos;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Cuerpo de la tabla del listado, listo para escribir desde vehicles.jsp con
+ * ${tabla.escribir(pageContext.out)}.
+ *
+ * Las filas salen de FragmentosFilas y el bloque de campos ocultos con la
+ * página y los filtros (el mismo que genera estado-listado.jspf) se arma una
+ * sola vez por petición. La respuesta se vacía al empezar la tabla y después
+ * de cada bloque de filas, para que el navegador reciba la cabecera y las
+ * primeras filas sin esperar a la página completa.
+ */
+public final class TablaVehiculos {
+
+    private final List<FragmentosFilas.Fragmento> filas;
+    private final String estado;
+    private final int filasPorBloque;
+
+    TablaVehiculos(List<FragmentosFilas.Fragmento> filas, PaginaVehiculos pagina, FiltroVehiculos filtro,
+            int filasPorBloque) {
+        this.filas = filas;
+        this.estado = estadoListado(pagina, filtro);
+        this.filasPorBloque = Math.max(1, filasPorBloque);
+    }
+
+    /**
+     * Escribe las filas vaciando la respuesta por bloques.
+     *
+     * @param out salida de la página (pageContext.out)
+     */
+    public void escribir(Writer out) throws IOException {
+        out.flush();
+        for (int i = 0; i < filas.size(); i++) {
+            filas.get(i).escribir(out, estado);
+            if ((i + 1) % filasPorBloque == 0) {
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Campos ocultos de estado-listado.jspf, con los valores escapados.
+     */
+    private static String estadoListado(PaginaVehiculos pagina, FiltroVehiculos filtro) {
+        return campo("cursor", Integer.toString(pagina.getCursor()))
+                + campo("size", Integer.toString(pagina.getTamano()))
+                + campo("filtroMarca", filtro.getMarca())
+                + campo("filtroColor", filtro.getColor())
+                + campo("filtroAnioDesde", filtro.getAnioDesde() == null ? null : filtro.getAnioDesde().toString())
+                + campo("filtroAnioHasta", filtro.getAnioHasta() == null ? null : filtro.getAnioHasta().toString())
+                + campo("filtroPropietario", filtro.getPropietario());
+    }
+
+    private static String campo(String nombre, String valor) {
+        return "            <input type=\"hidden\" name=\"" + nombre + "\" value=\""
+                + FragmentosFilas.escapar(valor) + "\"/>\n";
+    }
+}
@@ -1,36 +1,366 @@
 package com.garaje.servlet;
 
+import com.garaje.cache.FragmentosFilas;
+import com.garaje.cache.VersionFlota;
+import com.garaje.config.Configuracion;
 import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.CampoVehiculo;
+import com.garaje.model.FiltroVehiculos;
+import com.garaje.model.PaginaVehiculos;
 import com.garaje.model.Vehiculo;
 import com.garaje.exceptions.BusinessException;
 
+import jakarta.annotation.Resource;
 import jakarta.ejb.EJB;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Servlet para manejar operaciones CRUD de vehículos. Aplica reglas de negocio
  * desde el Facade y gestiona mensajes amigables.
+ *
+ * En modo asíncrono (garaje.servlet.asincrono=true, por defecto) el trabajo con
+ * el Facade se ejecuta en un hilo aparte y el hilo que recibió la petición
+ * queda libre mientras duran las consultas. Ese hilo sale del
+ * ManagedThreadFactory del servidor, porque el trabajo usa EJB, JTA y el
+ * DataSource; fuera del contenedor se usa un hilo virtual. La cantidad de
+ * peticiones que trabajan con la base de datos a la vez se limita con
+ * garaje.servlet.maxConcurrenciaBD; las demás esperan su turno hasta
+ * garaje.servlet.timeoutMs y, si no lo consiguen, reciben 503. Una vez
+ * empezada, la tarea siempre termina y responde ella misma (un POST ya
+ * confirmado nunca se contesta con 503). Antes de llegar aquí, FiltroAdmision
+ * rechaza con 503 lo que excede el límite adaptativo, por lo que esa espera
+ * solo se forma si maxConcurrenciaBD es menor que él.
+ *
+ * El listado lleva un ETag derivado de la versión de la flota (VersionFlota):
+ * si el navegador ya tiene la página vigente se responde 304 sin consultar la
+ * base de datos. Los POST siguen el patrón Post-Redirect-Get: el resultado se
+ * guarda en la sesión y se redirige al listado, que lo muestra una sola vez.
+ *
+ * Las filas de la tabla se toman ya renderizadas de FragmentosFilas y se
+ * envían en bloques de garaje.servlet.filasPorBloque (por defecto 20), ver
+ * TablaVehiculos.
  */
-@WebServlet("/vehicles")
+@WebServlet(urlPatterns = "/vehicles", asyncSupported = true)
 public class VehicleServlet extends HttpServlet {
 
+    private static final Logger LOG = Logger.getLogger(VehicleServlet.class.getName());
+
+    static final String PROP_ASINCRONO = "garaje.servlet.asincrono";
+    static final String PROP_MAX_CONCURRENCIA_BD = "garaje.servlet.maxConcurrenciaBD";
+    static final String PROP_TIMEOUT_MS = "garaje.servlet.timeoutMs";
+    static final String PROP_FILAS_POR_BLOQUE = "garaje.servlet.filasPorBloque";
+
+    // Segundos sugeridos al cliente para reintentar cuando se vence la espera
+    private static final String REINTENTAR_EN_SEGUNDOS = "2";
+
+    // Destino de las tareas que terminan mostrando el listado
+    private static final String VISTA = "/vehicles.jsp";
+
+    // Mensajes del último POST, pendientes de mostrar tras la redirección
+    private static final String FLASH_MENSAJE = "flashMensaje";
+    private static final String FLASH_ERROR = "flashError";
+
     @EJB
     private VehiculoFacade vehiculoFacade;
 
+    @EJB
+    private VersionFlota versionFlota;
+
+    @EJB
+    private FragmentosFilas fragmentosFilas;
+
+    // Hilos de trabajo con el contexto del contenedor (EJB, JTA, DataSource);
+    // nulo fuera del contenedor: se usan hilos virtuales
+    @Resource
+    private ManagedThreadFactory fabricaHilos;
+
+    // Nulo si el modo asíncrono está desactivado
+    private ExecutorService ejecutor;
+    private Semaphore permisosBD;
+    private long timeoutMs;
+
+    @Override
+    public void init() throws ServletException {
+        if (Configuracion.booleano(PROP_ASINCRONO, true)) {
+            ThreadFactory fabrica = fabricaHilos != null
+                    ? fabricaHilos
+                    : Thread.ofVirtual().name("garaje-vehicles-", 0).factory();
+            ejecutor = Executors.newThreadPerTaskExecutor(fabrica);
+            permisosBD = new Semaphore(Math.max(1, Configuracion.entero(PROP_MAX_CONCURRENCIA_BD, 32)), true);
+            timeoutMs = Math.max(1, Configuracion.entero(PROP_TIMEOUT_MS, 30_000));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (ejecutor != null) {
+            ejecutor.shutdown();
+        }
+    }
+
     /**
      * Maneja las solicitudes GET: listar o preparar edición.
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        Peticion peticion = new Peticion(request, false);
+        String etag = etagListado(peticion);
+        if (etag != null) {
+            response.setHeader("ETag", etag);
+            response.setHeader("Cache-Control", "private, no-cache");
+            if (coincideEtag(request.getHeader("If-None-Match"), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        atender(request, response, peticion, this::prepararGet);
+    }
+
+    /**
+     * Maneja las solicitudes POST: agregar, editar o eliminar.
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        atender(request, response, new Peticion(request, true), this::prepararPost);
+    }
+
+    /**
+     * ETag de la página del listado pedida, o null si la respuesta no es
+     * cacheable (edición o mensajes pendientes de un POST).
+     */
+    private String etagListado(Peticion request) {
+        if (request.getParameter("action") != null) {
+            return null;
+        }
+        HttpSession session = request.getSession();
+        if (session != null && (session.getAttribute(FLASH_MENSAJE) != null
+                || session.getAttribute(FLASH_ERROR) != null)) {
+            return null;
+        }
+        int cursor = Math.max(parametroEntero(request, "cursor", 0), 0);
+        int tamano = VehiculoFacade.normalizarTamanoPagina(
+                parametroEntero(request, "size", VehiculoFacade.TAMANO_PAGINA_POR_DEFECTO));
+        String variante = "c" + cursor + "s" + tamano + filtroDesde(request).getConsulta();
+        return "W/\"" + versionFlota.etiqueta(variante) + "\"";
+    }
+
+    /**
+     * Compara la cabecera If-None-Match con el ETag actual (comparación débil).
+     */
+    private static boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String actual = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*")) {
+                return true;
+            }
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals(actual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ejecuta la tarea y muestra vehicles.jsp o redirige, según el destino que
+     * devuelva. En modo asíncrono la tarea corre en un hilo de trabajo
+     * (respetando el límite de concurrencia con la base de datos) y la
+     * respuesta se completa desde ese hilo.
+     *
+     * El contenedor no vence la petición asíncrona: si lo hiciera mientras la
+     * tarea trabaja, la petición se reciclaría bajo sus pies y un alta ya
+     * confirmada se contestaría con 503. El plazo garaje.servlet.timeoutMs
+     * limita solo la espera por un permiso; una tarea empezada queda acotada
+     * por el timeout de la transacción y de las consultas.
+     */
+    private void atender(HttpServletRequest request, HttpServletResponse response,
+            Peticion peticion, Tarea tarea) throws ServletException, IOException {
+        if (ejecutor == null || !request.isAsyncSupported()) {
+            String destino = tarea.ejecutar(peticion);
+            if (VISTA.equals(destino)) {
+                peticion.copiarAtributos(request);
+                request.getRequestDispatcher(VISTA).forward(request, response);
+            } else {
+                redirigir(response, destino);
+            }
+            return;
+        }
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(0);
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        // El contenedor cierra la petición si se corta la conexión; desde
+        // entonces el hilo de trabajo no debe tocarla
+        AtomicBoolean terminado = new AtomicBoolean();
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                terminado.set(true);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        try {
+            ejecutor.execute(() -> responder(async, peticion, tarea, limite, terminado));
+        } catch (RejectedExecutionException ex) {
+            // El servlet se está deteniendo
+            if (terminado.compareAndSet(false, true)) {
+                rechazar(response);
+                async.complete();
+            }
+        }
+    }
+
+    /**
+     * Cuerpo del hilo de trabajo: ejecuta la tarea y responde, o responde 503
+     * si no consiguió permiso antes del límite. Como el contenedor no vence la
+     * petición, este método la cierra siempre, también si la tarea falla.
+     */
+    private void responder(AsyncContext async, Peticion peticion, Tarea tarea, long limite,
+            AtomicBoolean terminado) {
+        String destino;
+        try {
+            destino = ejecutarLimitado(tarea, peticion, limite, terminado);
+        } catch (RuntimeException ex) {
+            LOG.log(Level.SEVERE, null, ex);
+            if (terminado.compareAndSet(false, true)) {
+                try {
+                    ((HttpServletResponse) async.getResponse())
+                            .sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException | IllegalStateException e) {
+                    LOG.log(Level.FINE, "No se pudo responder 500", e);
+                } finally {
+                    async.complete();
+                }
+            }
+            return;
+        }
+        if (!terminado.compareAndSet(false, true)) {
+            return;
+        }
+        if (destino == null) {
+            try {
+                rechazar((HttpServletResponse) async.getResponse());
+            } catch (IOException ex) {
+                LOG.log(Level.FINE, "No se pudo responder 503", ex);
+            } finally {
+                async.complete();
+            }
+            return;
+        }
+        if (VISTA.equals(destino)) {
+            peticion.copiarAtributos(async.getRequest());
+            async.dispatch(VISTA);
+            return;
+        }
+        redirigir((HttpServletResponse) async.getResponse(), destino);
+        async.complete();
+    }
+
+    /**
+     * Ejecuta la tarea cuando hay un permiso libre para trabajar con la base de
+     * datos. Si el permiso no llega antes del límite, o la conexión se cortó
+     * mientras esperaba, no se ejecuta.
+     *
+     * @param limite instante (System.nanoTime) hasta el que se espera el permiso
+     * @return destino de la tarea o null si no se ejecutó
+     */
+    private String ejecutarLimitado(Tarea tarea, Peticion peticion, long limite, AtomicBoolean terminado) {
+        try {
+            if (!permisosBD.tryAcquire(limite - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            if (terminado.get()) {
+                return null;
+            }
+            return tarea.ejecutar(peticion);
+        } finally {
+            permisosBD.release();
+        }
+    }
+
+    /**
+     * Responde 503 cuando la petición no pudo atenderse a tiempo.
+     */
+    private static void rechazar(HttpServletResponse response) throws IOException {
+        if (!response.isCommitted()) {
+            response.setHeader("Retry-After", REINTENTAR_EN_SEGUNDOS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "El servidor está ocupado, intente nuevamente en unos segundos.");
+        }
+    }
+
+    /**
+     * Redirige con 303 (See Other) para que el navegador repita la petición
+     * como GET.
+     */
+    private static void redirigir(HttpServletResponse response, String destino) {
+        response.setStatus(HttpServletResponse.SC_SEE_OTHER);
+        response.setHeader("Location", destino);
+    }
+
+    /**
+     * Prepara la vista de listado: mensajes del último POST, página solicitada
+     * y, si corresponde, el vehículo a editar.
+     *
+     * @return siempre la vista del listado
+     */
+    private String prepararGet(Peticion request) {
+        HttpSession session = request.getSession();
+        if (session != null) {
+            moverFlash(session, FLASH_MENSAJE, request, "mensaje");
+            moverFlash(session, FLASH_ERROR, request, "error");
+        }
         try {
             String action = request.getParameter("action");
 
@@ -45,31 +375,33 @@ public class VehicleServlet extends HttpServlet {
                 }
             }
 
-            // Cargar lista completa siempre
-            request.setAttribute("vehicles", vehiculoFacade.listar());
-            request.getRequestDispatcher("/vehicles.jsp").forward(request, response);
+            // Cargar solo la página solicitada (cursor + tamaño)
+            cargarPagina(request);
 
         } catch (Exception ex) {
             request.setAttribute("error", "Error al cargar la página: " + ex.getMessage());
-            request.getRequestDispatcher("/vehicles.jsp").forward(request, response);
         }
+        return VISTA;
     }
 
     /**
-     * Maneja las solicitudes POST: agregar, editar o eliminar.
+     * Ejecuta la acción del formulario (agregar, editar o eliminar) y deja el
+     * resultado en la sesión para mostrarlo después de la redirección.
+     *
+     * @return URL del listado (o del formulario de edición si la
+     *         actualización falló)
      */
-    @Override
-    protected void doPost(HttpServletRequest request, HttpServletResponse response)
-            throws ServletException, IOException {
-
+    private String prepararPost(Peticion request) {
         String action = request.getParameter("action");
+        String mensaje = null;
+        String error = null;
 
         try {
             if ("delete".equals(action)) {
                 // Eliminar vehículo
                 int id = Integer.parseInt(request.getParameter("id"));
                 vehiculoFacade.eliminar(id);
-                request.setAttribute("mensaje", "🗑️ Vehículo eliminado correctamente.");
+                mensaje = "🗑️ Vehículo eliminado correctamente.";
 
             } else if ("update".equals(action)) {
                 // Actualizar vehículo existente
@@ -82,8 +414,18 @@ public class VehicleServlet extends HttpServlet {
                 vehiculo.setPlaca(request.getParameter("placa"));
                 vehiculo.setPropietario(request.getParameter("propietario"));
 
-                vehiculoFacade.actualizar(vehiculo);
-                request.setAttribute("mensaje", "✏️ Vehículo actualizado correctamente.");
+                String version = request.getParameter("version");
+                if (version != null && !version.isEmpty()) {
+                    // Solo se escribe si nadie más lo modificó desde que se abrió el formulario
+                    Map<CampoVehiculo, String> cambios = new EnumMap<>(CampoVehiculo.class);
+                    for (CampoVehiculo campo : CampoVehiculo.values()) {
+                        cambios.put(campo, campo.valor(vehiculo));
+                    }
+                    vehiculoFacade.actualizarParcial(id, Integer.parseInt(version), cambios);
+                } else {
+                    vehiculoFacade.actualizar(vehiculo);
+                }
+                mensaje = "✏️ Vehículo actualizado correctamente.";
 
             } else {
                 // Agregar nuevo vehículo 
@@ -94,32 +436,212 @@ public class VehicleServlet extends HttpServlet {
                 nuevoVehiculo.setPlaca(request.getParameter("placa"));
                 nuevoVehiculo.setPropietario(request.getParameter("propietario"));
 
-                vehiculoFacade.agregar(nuevoVehiculo);
-                // Si es Ferrari, mostrar mensaje especial
-                if ("Ferrari".equalsIgnoreCase(nuevoVehiculo.getMarca())) {
-                    request.setAttribute("mensaje", "🏎️ ¡Vehículo Ferrari agregado! Notificación enviada.");
+                String resultado = vehiculoFacade.agregar(nuevoVehiculo);
+                // Otro resultado indica que una regla de notificación se cumplió
+                if (VehiculoFacade.MENSAJE_AGREGADO.equals(resultado)) {
+                    mensaje = "✅ Vehículo agregado correctamente.";
                 } else {
-                    request.setAttribute("mensaje", "✅ Vehículo agregado correctamente.");
+                    mensaje = "🔔 " + resultado;
                 }
             }
 
         } catch (BusinessException be) {
-            request.setAttribute("error", "⚠️ " + be.getMessage());
+            error = "⚠️ " + be.getMessage();
         } catch (SQLException se) {
-            request.setAttribute("error", "❌ Error en base de datos: " + se.getMessage());
-            Logger.getLogger(VehicleServlet.class.getName()).log(Level.SEVERE, null, se);
+            error = "❌ Error en base de datos: " + se.getMessage();
+            LOG.log(Level.SEVERE, null, se);
         } catch (Exception e) {
-            request.setAttribute("error", "❌ Error inesperado: " + e.getMessage());
-            Logger.getLogger(VehicleServlet.class.getName()).log(Level.SEVERE, null, e);
+            error = "❌ Error inesperado: " + e.getMessage();
+            LOG.log(Level.SEVERE, null, e);
+        }
+
+        HttpSession session = request.getSession();
+        if (mensaje != null) {
+            session.setAttribute(FLASH_MENSAJE, mensaje);
+        }
+        if (error != null) {
+            session.setAttribute(FLASH_ERROR, error);
         }
 
-        // Recargar la lista actualizada
+        // Volver a la misma página del listado (o a la edición fallida)
+        StringBuilder destino = new StringBuilder(request.getContextPath()).append("/vehicles");
+        char separador = '?';
+        if (error != null && "update".equals(action) && request.getParameter("id") != null) {
+            destino.append("?action=edit&id=").append(parametroEntero(request, "id", 0));
+            separador = '&';
+        }
+        String cursor = request.getParameter("cursor");
+        if (cursor != null && !cursor.isEmpty()) {
+            destino.append(separador).append("cursor=").append(parametroEntero(request, "cursor", 0));
+            separador = '&';
+        }
+        String tamano = request.getParameter("size");
+        if (tamano != null && !tamano.isEmpty()) {
+            destino.append(separador).append("size=")
+                    .append(parametroEntero(request, "size", VehiculoFacade.TAMANO_PAGINA_POR_DEFECTO));
+            separador = '&';
+        }
+        String consulta = consultaFiltro(filtroDesde(request));
+        if (!consulta.isEmpty()) {
+            destino.append(separador).append(consulta, 1, consulta.length());
+        }
+        return destino.toString();
+    }
+
+    /**
+     * Pasa un mensaje pendiente de la sesión a la petición actual.
+     */
+    private static void moverFlash(HttpSession session, String clave, Peticion request, String atributo) {
+        Object valor = session.getAttribute(clave);
+        if (valor != null) {
+            session.removeAttribute(clave);
+            request.setAttribute(atributo, valor);
+        }
+    }
+
+    /**
+     * Carga en la petición la página de vehículos indicada por los parámetros
+     * "cursor" y "size", aplicando los filtros del listado. Valores ausentes o
+     * inválidos usan la primera página y el tamaño por defecto.
+     */
+    private void cargarPagina(Peticion request) throws SQLException {
+        int cursor = parametroEntero(request, "cursor", 0);
+        int tamano = parametroEntero(request, "size", VehiculoFacade.TAMANO_PAGINA_POR_DEFECTO);
+        FiltroVehiculos filtro = filtroDesde(request);
+
+        PaginaVehiculos pagina = vehiculoFacade.listarPagina(filtro, cursor, tamano);
+        request.setAttribute("filtro", filtro);
+        request.setAttribute("consultaFiltro", consultaFiltro(filtro));
+        request.setAttribute("pagina", pagina);
+        request.setAttribute("vehicles", pagina.getVehiculos());
+        request.setAttribute("tabla", new TablaVehiculos(fragmentosFilas.obtener(pagina.getVehiculos()),
+                pagina, filtro, Configuracion.entero(PROP_FILAS_POR_BLOQUE, 20)));
+    }
+
+    /**
+     * Arma el filtro del listado con los parámetros "filtroMarca",
+     * "filtroColor", "filtroAnioDesde", "filtroAnioHasta" y
+     * "filtroPropietario" (con prefijo para no confundirlos con los campos del
+     * formulario de alta).
+     */
+    private static FiltroVehiculos filtroDesde(Peticion request) {
+        return new FiltroVehiculos(
+                request.getParameter("filtroMarca"),
+                request.getParameter("filtroColor"),
+                parametroEnteroOpcional(request, "filtroAnioDesde"),
+                parametroEnteroOpcional(request, "filtroAnioHasta"),
+                request.getParameter("filtroPropietario"));
+    }
+
+    /**
+     * Parámetros del filtro para los enlaces del listado, cada uno precedido
+     * por "&" (vacío si no hay filtro).
+     */
+    private static String consultaFiltro(FiltroVehiculos filtro) {
+        StringBuilder sb = new StringBuilder();
+        agregarParametro(sb, "filtroMarca", filtro.getMarca());
+        agregarParametro(sb, "filtroColor", filtro.getColor());
+        agregarParametro(sb, "filtroAnioDesde", filtro.getAnioDesde());
+        agregarParametro(sb, "filtroAnioHasta", filtro.getAnioHasta());
+        agregarParametro(sb, "filtroPropietario", filtro.getPropietario());
+        return sb.toString();
+    }
+
+    private static void agregarParametro(StringBuilder sb, String nombre, Object valor) {
+        if (valor != null) {
+            sb.append('&').append(nombre).append('=')
+                    .append(URLEncoder.encode(valor.toString(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Lee un parámetro entero de la petición.
+     *
+     * @return el valor del parámetro o el valor por defecto si no es numérico
+     */
+    private static int parametroEntero(Peticion request, String nombre, int porDefecto) {
+        String valor = request.getParameter(nombre);
+        if (valor == null || valor.isEmpty()) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            return porDefecto;
+        }
+    }
+
+    /**
+     * Lee un parámetro entero opcional de la petición.
+     *
+     * @return el valor del parámetro o null si falta o no es numérico
+     */
+    private static Integer parametroEnteroOpcional(Peticion request, String nombre) {
+        String valor = request.getParameter(nombre);
+        if (valor == null || valor.isEmpty()) {
+            return null;
+        }
         try {
-            request.setAttribute("vehicles", vehiculoFacade.listar());
-        } catch (SQLException ex) {
-            Logger.getLogger(VehicleServlet.class.getName()).log(Level.SEVERE, null, ex);
+            return Integer.valueOf(valor.trim());
+        } catch (NumberFormatException e) {
+            return null;
         }
+    }
 
-        request.getRequestDispatcher("/vehicles.jsp").forward(request, response);
+    /**
+     * Trabajo de una petición; devuelve VISTA o la URL a la que redirigir.
+     */
+    @FunctionalInterface
+    private interface Tarea {
+
+        String ejecutar(Peticion request);
+    }
+
+    /**
+     * Lo que una tarea necesita de la petición, copiado en el hilo del
+     * contenedor antes de pasarla al hilo de trabajo (parámetros, ruta de la
+     * aplicación y sesión). Los atributos para la vista se acumulan aquí y se
+     * pasan a la petición solo al responder.
+     */
+    private static final class Peticion {
+
+        private final Map<String, String[]> parametros;
+        private final String contextPath;
+        private final HttpSession sesion;
+        private final Map<String, Object> atributos = new LinkedHashMap<>();
+
+        /**
+         * @param crearSesion true para crear la sesión si no existe (los POST
+         *                    siempre dejan un mensaje en ella)
+         */
+        Peticion(HttpServletRequest request, boolean crearSesion) {
+            this.parametros = Map.copyOf(request.getParameterMap());
+            this.contextPath = request.getContextPath();
+            this.sesion = request.getSession(crearSesion);
+        }
+
+        String getParameter(String nombre) {
+            String[] valores = parametros.get(nombre);
+            return valores == null || valores.length == 0 ? null : valores[0];
+        }
+
+        String getContextPath() {
+            return contextPath;
+        }
+
+        /**
+         * @return la sesión, o null si no existía y no se pidió crearla
+         */
+        HttpSession getSession() {
+            return sesion;
+        }
+
+        void setAttribute(String nombre, Object valor) {
+            atributos.put(nombre, valor);
+        }
+
+        void copiarAtributos(ServletRequest request) {
+            atributos.forEach(request::setAttribute);
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.garaje.validation;
+
+import java.util.Arrays;
+
+/**
+ * Colores de vehículo permitidos por las reglas de negocio.
+ */
+public enum ColorVehiculo {
+
+    ROJO("Rojo"),
+    BLANCO("Blanco"),
+    NEGRO("Negro"),
+    AZUL("Azul"),
+    GRIS("Gris");
+
+    private final String nombre;
+
+    ColorVehiculo(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * @return nombre del color tal como se guarda y se muestra
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Busca el color por su nombre exacto (distingue mayúsculas, igual que la
+     * lista de colores original).
+     *
+     * @param texto nombre del color
+     * @return el color o null si no es uno de los permitidos
+     */
+    public static ColorVehiculo desdeNombre(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        switch (texto) {
+            case "Rojo":
+                return ROJO;
+            case "Blanco":
+                return BLANCO;
+            case "Negro":
+                return NEGRO;
+            case "Azul":
+                return AZUL;
+            case "Gris":
+                return GRIS;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return los nombres permitidos con el formato "[Rojo, Blanco, ...]"
+     */
+    public static String listaNombres() {
+        return Arrays.toString(Arrays.stream(values()).map(ColorVehiculo::getNombre).toArray());
+    }
+}
@@ -0,0 +1,155 @@
+package com.garaje.validation;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Autómata de Aho–Corasick que detecta, en una sola pasada y sin distinguir
+ * mayúsculas, si un texto contiene alguno de un conjunto fijo de patrones.
+ *
+ * El autómata se compila una vez como tabla de transiciones completa. Un
+ * texto ASCII se recorre sin reservar memoria, pasando cada carácter a
+ * minúscula por separado. Fuera de ASCII, o con un idioma por defecto cuya
+ * minúscula de 'I' no es 'i' (turco, azerí), el resultado debe ser el mismo
+ * que buscar en texto.toLowerCase(), como hacía la validación original, y
+ * la minúscula de un carácter puede depender del idioma o de sus vecinos
+ * (la 'İ' pasa a "i" + punto combinante): en esos casos se recorre
+ * texto.toLowerCase().
+ */
+final class DetectorPatrones {
+
+    // Caracteres fuera de los patrones se mapean a esta columna
+    private static final int OTRO = 0;
+
+    private final int[] columnaPorCaracter = new int[128];
+    private final int columnas;
+    private final int[][] transiciones;
+    private final boolean[] terminal;
+
+    /**
+     * Compila el autómata para los patrones indicados (se comparan en
+     * minúsculas; deben ser ASCII).
+     *
+     * @param patrones patrones a detectar
+     */
+    DetectorPatrones(String... patrones) {
+        // Alfabeto: solo los caracteres que aparecen en los patrones
+        int siguienteColumna = 1;
+        int maxEstados = 1;
+        for (String patron : patrones) {
+            maxEstados += patron.length();
+            for (char c : patron.toLowerCase(Locale.ROOT).toCharArray()) {
+                if (c >= 128) {
+                    throw new IllegalArgumentException("Los patrones deben ser ASCII: " + patron);
+                }
+                if (columnaPorCaracter[c] == OTRO) {
+                    columnaPorCaracter[c] = siguienteColumna++;
+                }
+            }
+        }
+        columnas = siguienteColumna;
+
+        // Trie de patrones (-1 = sin transición)
+        int[][] trie = new int[maxEstados][columnas];
+        for (int[] fila : trie) {
+            Arrays.fill(fila, -1);
+        }
+        boolean[] fin = new boolean[maxEstados];
+        int estados = 1;
+        for (String patron : patrones) {
+            int estado = 0;
+            for (char c : patron.toLowerCase(Locale.ROOT).toCharArray()) {
+                int col = columnaPorCaracter[c];
+                if (trie[estado][col] < 0) {
+                    trie[estado][col] = estados++;
+                }
+                estado = trie[estado][col];
+            }
+            fin[estado] = true;
+        }
+
+        // Enlaces de falla en anchura, completando la tabla como autómata determinista
+        int[] falla = new int[estados];
+        int[] cola = new int[estados];
+        int cabeza = 0;
+        int ultimo = 0;
+        for (int col = 0; col < columnas; col++) {
+            int hijo = trie[0][col];
+            if (hijo < 0) {
+                trie[0][col] = 0;
+            } else {
+                falla[hijo] = 0;
+                cola[ultimo++] = hijo;
+            }
+        }
+        while (cabeza < ultimo) {
+            int estado = cola[cabeza++];
+            fin[estado] |= fin[falla[estado]];
+            for (int col = 0; col < columnas; col++) {
+                int hijo = trie[estado][col];
+                if (hijo < 0) {
+                    trie[estado][col] = trie[falla[estado]][col];
+                } else {
+                    falla[hijo] = trie[falla[estado]][col];
+                    cola[ultimo++] = hijo;
+                }
+            }
+        }
+
+        transiciones = Arrays.copyOf(trie, estados);
+        terminal = Arrays.copyOf(fin, estados);
+    }
+
+    /**
+     * @param texto texto a revisar (puede ser null)
+     * @return true si el texto contiene alguno de los patrones
+     */
+    boolean contieneAlguno(String texto) {
+        if (texto == null) {
+            return false;
+        }
+        Locale idioma = Locale.getDefault();
+        if (!minusculasAscii(idioma)) {
+            return recorrerMinusculas(texto.toLowerCase(idioma));
+        }
+        int estado = 0;
+        for (int i = 0, n = texto.length(); i < n; i++) {
+            char c = texto.charAt(i);
+            if (c >= 128) {
+                return recorrerMinusculas(texto.toLowerCase(idioma));
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            estado = transiciones[estado][columnaPorCaracter[c]];
+            if (terminal[estado]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Recorre un texto ya pasado a minúsculas.
+     */
+    private boolean recorrerMinusculas(String minusculas) {
+        int estado = 0;
+        for (int i = 0, n = minusculas.length(); i < n; i++) {
+            char c = minusculas.charAt(i);
+            estado = transiciones[estado][c < 128 ? columnaPorCaracter[c] : OTRO];
+            if (terminal[estado]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true si en ese idioma toLowerCase() de un texto ASCII es la
+     *         minúscula ASCII de cada carácter
+     */
+    private static boolean minusculasAscii(Locale idioma) {
+        String lengua = idioma.getLanguage();
+        return !"tr".equals(lengua) && !"az".equals(lengua);
+    }
+}
@@ -0,0 +1,327 @@
+package com.garaje.validation;
+
+import com.garaje.exceptions.BusinessException;
+import com.garaje.model.CampoVehiculo;
+import com.garaje.model.Vehiculo;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Motor de validación precompilado con las reglas de negocio de un vehículo.
+ *
+ * Reemplaza la cadena de métodos validar* de VehiculoFacade con el mismo
+ * orden de reglas y los mismos mensajes, pero sin reservar memoria en el
+ * caso válido con texto ASCII: los largos se miden sin trim(), el año se
+ * interpreta sin Integer.parseInt ni Calendar (el año mínimo se calcula una
+ * vez por año) y los patrones de SQL Injection se buscan con un único
+ * autómata en lugar de 18 contains() por campo. EquivalenciaValidacion, en
+ * el módulo de benchmarks, compara los mensajes con la cadena original.
+ *
+ * Es inmutable salvo por el año mínimo en caché, por lo que una sola
+ * instancia se comparte entre todos los hilos.
+ */
+public final class ValidadorVehiculo {
+
+    // Antigüedad máxima permitida en años
+    private static final int ANTIGUEDAD_MAXIMA = 20;
+
+    private static final String[] PATRONES_SOSPECHOSOS = {
+        "'", "\"", ";", "--", "/*", "*/", "xp_", "sp_", "exec", "execute",
+        "union", "select", "insert", "update", "delete", "drop", "create", "alter"
+    };
+
+    private static final String MENSAJE_COLOR = "El color debe ser uno de: " + ColorVehiculo.listaNombres();
+    private static final String MENSAJE_SQL_INJECTION =
+            "El campo contiene caracteres o patrones sospechosos que podrían indicar SQL Injection";
+
+    private static final ValidadorVehiculo INSTANCIA = new ValidadorVehiculo();
+
+    private final DetectorPatrones detector = new DetectorPatrones(PATRONES_SOSPECHOSOS);
+    private final ZoneId zona = ZoneId.systemDefault();
+
+    // Año mínimo vigente y su mensaje; se recalculan al cambiar de año
+    private volatile LimiteAnio limite;
+
+    private ValidadorVehiculo() {
+    }
+
+    /**
+     * @return instancia compartida del validador
+     */
+    public static ValidadorVehiculo getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Valida un vehículo.
+     *
+     * @param v vehículo a validar
+     * @throws BusinessException con el mensaje de la primera regla que falla
+     */
+    public void validar(Vehiculo v) throws BusinessException {
+        String error = primerError(v);
+        if (error != null) {
+            throw new BusinessException(error);
+        }
+    }
+
+    /**
+     * Valida un lote de vehículos sin lanzar excepciones.
+     *
+     * @param vehiculos vehículos a validar
+     * @return arreglo paralelo con el mensaje de error de cada vehículo o null si es válido
+     */
+    public String[] validarLote(List<Vehiculo> vehiculos) {
+        String[] errores = new String[vehiculos.size()];
+        for (int i = 0; i < errores.length; i++) {
+            errores[i] = primerError(vehiculos.get(i));
+        }
+        return errores;
+    }
+
+    /**
+     * Evalúa las reglas en el mismo orden que la validación original:
+     * campos obligatorios, propietario, largos mínimos, color, antigüedad y
+     * patrones de SQL Injection.
+     *
+     * @param v vehículo a validar
+     * @return mensaje de la primera regla que falla o null si es válido
+     */
+    public String primerError(Vehiculo v) {
+        if (v == null) {
+            return "El vehículo no puede ser nulo";
+        }
+        if (largoSinEspacios(v.getPlaca()) == 0) {
+            return "La placa es obligatoria";
+        }
+        if (largoSinEspacios(v.getMarca()) == 0) {
+            return "La marca es obligatoria";
+        }
+        if (largoSinEspacios(v.getModelo()) == 0) {
+            return "El modelo es obligatorio";
+        }
+        if (largoSinEspacios(v.getColor()) == 0) {
+            return "El color es obligatorio";
+        }
+        if (largoSinEspacios(v.getPropietario()) == 0) {
+            return "El propietario es obligatorio";
+        }
+        String error = errorPropietario(v.getPropietario());
+        if (error == null) {
+            error = errorMarca(v.getMarca());
+        }
+        if (error == null) {
+            error = errorLargoModelo(v.getModelo());
+        }
+        if (error == null) {
+            error = errorLargoPlaca(v.getPlaca());
+        }
+        if (error == null) {
+            error = errorColor(v.getColor());
+        }
+        if (error == null) {
+            error = errorAntiguedad(v.getModelo());
+        }
+        if (error == null && (sospechoso(v.getPlaca()) || sospechoso(v.getMarca()) || sospechoso(v.getModelo())
+                || sospechoso(v.getColor()) || sospechoso(v.getPropietario()))) {
+            error = MENSAJE_SQL_INJECTION;
+        }
+        return error;
+    }
+
+    /**
+     * Evalúa solo las reglas de un campo, para las actualizaciones parciales:
+     * obligatorio, la regla propia del campo y patrones de SQL Injection. Los
+     * mensajes son los mismos que en primerError().
+     *
+     * @param campo campo a validar
+     * @param valor nuevo valor del campo
+     * @return mensaje de la primera regla que falla o null si es válido
+     */
+    public String errorCampo(CampoVehiculo campo, String valor) {
+        if (largoSinEspacios(valor) == 0) {
+            return campo == CampoVehiculo.MARCA || campo == CampoVehiculo.PLACA
+                    ? "La " + campo.getNombre() + " es obligatoria"
+                    : "El " + campo.getNombre() + " es obligatorio";
+        }
+        String error;
+        switch (campo) {
+            case PLACA:
+                error = errorLargoPlaca(valor);
+                break;
+            case MARCA:
+                error = errorMarca(valor);
+                break;
+            case MODELO:
+                error = errorLargoModelo(valor);
+                if (error == null) {
+                    error = errorAntiguedad(valor);
+                }
+                break;
+            case COLOR:
+                error = errorColor(valor);
+                break;
+            default:
+                error = errorPropietario(valor);
+        }
+        if (error == null && sospechoso(valor)) {
+            error = MENSAJE_SQL_INJECTION;
+        }
+        return error;
+    }
+
+    /**
+     * @return mensaje de error del propietario o null si es válido
+     */
+    public String errorPropietario(String propietario) {
+        return largoSinEspacios(propietario) < 5 ? "El propietario debe tener al menos 5 caracteres" : null;
+    }
+
+    /**
+     * @return mensaje de error del largo de la marca o null si es válida
+     */
+    public String errorMarca(String marca) {
+        return largoSinEspacios(marca) < 3 ? "El marca debe tener al menos 3 caracteres" : null;
+    }
+
+    /**
+     * @return mensaje de error del largo del modelo o null si es válido
+     */
+    public String errorLargoModelo(String modelo) {
+        return largoSinEspacios(modelo) < 3 ? "El modelo debe tener al menos 3 caracteres" : null;
+    }
+
+    /**
+     * @return mensaje de error del largo de la placa o null si es válida
+     */
+    public String errorLargoPlaca(String placa) {
+        return largoSinEspacios(placa) < 3 ? "El placa debe tener al menos 3 caracteres" : null;
+    }
+
+    /**
+     * @return mensaje de error del color o null si es uno de los permitidos
+     */
+    public String errorColor(String color) {
+        return ColorVehiculo.desdeNombre(color) == null ? MENSAJE_COLOR : null;
+    }
+
+    /**
+     * Verifica que el modelo sea un año numérico con no más de 20 años de antigüedad.
+     *
+     * @return mensaje de error del modelo o null si es válido
+     */
+    public String errorAntiguedad(String modelo) {
+        if (modelo == null) {
+            return "El modelo es obligatorio";
+        }
+        long anio = interpretarEntero(modelo);
+        if (anio == Long.MIN_VALUE) {
+            return "El modelo debe ser un año válido (formato numérico)";
+        }
+        LimiteAnio vigente = limiteVigente();
+        return anio < vigente.anioMinimo ? vigente.mensaje : null;
+    }
+
+    /**
+     * @return true si el texto contiene algún patrón sospechoso de SQL Injection
+     */
+    public boolean sospechoso(String texto) {
+        return detector.contieneAlguno(texto);
+    }
+
+    /**
+     * @return año mínimo de modelo aceptado hoy
+     */
+    public int getAnioMinimo() {
+        return limiteVigente().anioMinimo;
+    }
+
+    private LimiteAnio limiteVigente() {
+        LimiteAnio actual = limite;
+        long ahora = System.currentTimeMillis();
+        if (actual == null || ahora >= actual.validoHasta) {
+            LocalDate hoy = LocalDate.now(zona);
+            long inicioSiguienteAnio = LocalDate.of(hoy.getYear() + 1, 1, 1)
+                    .atStartOfDay(zona).toInstant().toEpochMilli();
+            actual = new LimiteAnio(hoy.getYear() - ANTIGUEDAD_MAXIMA, inicioSiguienteAnio);
+            limite = actual;
+        }
+        return actual;
+    }
+
+    /**
+     * Largo del texto sin los espacios/controles de los extremos, igual que
+     * trim().length() pero sin crear una cadena nueva.
+     */
+    private static int largoSinEspacios(String texto) {
+        if (texto == null) {
+            return 0;
+        }
+        int inicio = 0;
+        int fin = texto.length();
+        while (inicio < fin && texto.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && texto.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        return fin - inicio;
+    }
+
+    /**
+     * Interpreta un entero con las mismas reglas que Integer.parseInt (signo
+     * opcional, solo dígitos, dentro del rango de int).
+     *
+     * @return el valor o Long.MIN_VALUE si no es un entero válido
+     */
+    private static long interpretarEntero(String texto) {
+        int n = texto.length();
+        if (n == 0) {
+            return Long.MIN_VALUE;
+        }
+        int i = 0;
+        boolean negativo = false;
+        char primero = texto.charAt(0);
+        if (primero == '-' || primero == '+') {
+            negativo = primero == '-';
+            if (n == 1) {
+                return Long.MIN_VALUE;
+            }
+            i = 1;
+        }
+        long valor = 0;
+        for (; i < n; i++) {
+            int digito = Character.digit(texto.charAt(i), 10);
+            if (digito < 0) {
+                return Long.MIN_VALUE;
+            }
+            valor = valor * 10 + digito;
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        if (negativo) {
+            return -valor;
+        }
+        return valor > Integer.MAX_VALUE ? Long.MIN_VALUE : valor;
+    }
+
+    /**
+     * Año mínimo permitido y su mensaje, válidos hasta el fin del año en curso.
+     */
+    private static final class LimiteAnio {
+
+        private final int anioMinimo;
+        private final String mensaje;
+        private final long validoHasta;
+
+        private LimiteAnio(int anioMinimo, long validoHasta) {
+            this.anioMinimo = anioMinimo;
+            this.validoHasta = validoHasta;
+            this.mensaje = "El modelo no puede tener más de " + ANTIGUEDAD_MAXIMA
+                    + " años de antigüedad. Año mínimo permitido: " + anioMinimo;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.cache.VersionFlota;
+import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.EstadisticasVehiculos;
+
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Estadísticas de la flota para el tablero: total de vehículos y conteos por
+ * marca, color y año del modelo. Se responden desde memoria, sin recorrer la
+ * tabla, y llevan el mismo ETag por versión de la flota que el listado.
+ *
+ * Ejemplo: GET resources/vehiculos/estadisticas
+ */
+@Path("vehiculos/estadisticas")
+public class EstadisticasResource {
+
+    @EJB
+    private VehiculoFacade vehiculoFacade;
+
+    @EJB
+    private VersionFlota versionFlota;
+
+    /**
+     * Devuelve los conteos actuales.
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response obtener(@Context Request request) {
+        // El ETag se toma antes de leer: nunca describe datos más nuevos que los enviados
+        EntityTag etag = new EntityTag(versionFlota.etiqueta("estadisticas"), true);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+
+        Response.ResponseBuilder noModificado = request.evaluatePreconditions(etag);
+        if (noModificado != null) {
+            return noModificado.cacheControl(cacheControl).build();
+        }
+        EstadisticasVehiculos estadisticas = vehiculoFacade.estadisticas();
+        return Response.ok(estadisticas).tag(etag).cacheControl(cacheControl).build();
+    }
+}
@@ -0,0 +1,210 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.model.Vehiculo;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Serialización de vehículos a NDJSON y CSV escribiendo directamente sobre
+ * un Writer, sin construir cadenas intermedias por fila, y lectura de CSV
+ * para la importación masiva.
+ */
+final class FormatoVehiculo {
+
+    /** Cabecera de columnas del formato CSV. */
+    static final String CABECERA_CSV = "id,placa,marca,modelo,color,propietario";
+
+    private FormatoVehiculo() {
+    }
+
+    /**
+     * Escribe el vehículo como un objeto JSON en una sola línea (NDJSON).
+     */
+    static void escribirJson(Writer w, Vehiculo v) throws IOException {
+        w.write("{\"id\":");
+        w.write(Integer.toString(v.getId()));
+        escribirCampoJson(w, "placa", v.getPlaca());
+        escribirCampoJson(w, "marca", v.getMarca());
+        escribirCampoJson(w, "modelo", v.getModelo());
+        escribirCampoJson(w, "color", v.getColor());
+        escribirCampoJson(w, "propietario", v.getPropietario());
+        w.write("}\n");
+    }
+
+    /**
+     * Escribe el vehículo como una línea CSV (RFC 4180).
+     */
+    static void escribirCsv(Writer w, Vehiculo v) throws IOException {
+        w.write(Integer.toString(v.getId()));
+        w.write(',');
+        escribirCampoCsv(w, v.getPlaca());
+        w.write(',');
+        escribirCampoCsv(w, v.getMarca());
+        w.write(',');
+        escribirCampoCsv(w, v.getModelo());
+        w.write(',');
+        escribirCampoCsv(w, v.getColor());
+        w.write(',');
+        escribirCampoCsv(w, v.getPropietario());
+        w.write("\r\n");
+    }
+
+    private static void escribirCampoJson(Writer w, String nombre, String valor) throws IOException {
+        w.write(",\"");
+        w.write(nombre);
+        w.write("\":");
+        if (valor == null) {
+            w.write("null");
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"':
+                    w.write("\\\"");
+                    break;
+                case '\\':
+                    w.write("\\\\");
+                    break;
+                case '\n':
+                    w.write("\\n");
+                    break;
+                case '\r':
+                    w.write("\\r");
+                    break;
+                case '\t':
+                    w.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        w.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        w.write(c);
+                    }
+            }
+        }
+        w.write('"');
+    }
+
+    private static void escribirCampoCsv(Writer w, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        boolean requiereComillas = false;
+        for (int i = 0; i < valor.length() && !requiereComillas; i++) {
+            char c = valor.charAt(i);
+            requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!requiereComillas) {
+            w.write(valor);
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                w.write('"');
+            }
+            w.write(c);
+        }
+        w.write('"');
+    }
+
+    /**
+     * Lee vehículos desde un CSV (RFC 4180) con cabecera. Las columnas se
+     * ubican por nombre; la columna "id" se ignora y las columnas faltantes
+     * quedan en null para que las reglas de negocio reporten la fila.
+     *
+     * @param r contenido CSV
+     * @return vehículos en el orden del archivo (sin la cabecera)
+     */
+    static List<Vehiculo> leerCsv(Reader entrada) throws IOException {
+        BufferedReader r = new BufferedReader(entrada);
+        List<Vehiculo> vehiculos = new ArrayList<>();
+        List<String> campos = new ArrayList<>();
+        if (!leerRegistroCsv(r, campos)) {
+            return vehiculos;
+        }
+        int colPlaca = -1, colMarca = -1, colModelo = -1, colColor = -1, colPropietario = -1;
+        for (int i = 0; i < campos.size(); i++) {
+            switch (campos.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "placa": colPlaca = i; break;
+                case "marca": colMarca = i; break;
+                case "modelo": colModelo = i; break;
+                case "color": colColor = i; break;
+                case "propietario": colPropietario = i; break;
+                default: break;
+            }
+        }
+        while (leerRegistroCsv(r, campos)) {
+            if (campos.size() == 1 && campos.get(0).isEmpty()) {
+                continue; // línea en blanco
+            }
+            Vehiculo v = new Vehiculo();
+            v.setPlaca(campo(campos, colPlaca));
+            v.setMarca(campo(campos, colMarca));
+            v.setModelo(campo(campos, colModelo));
+            v.setColor(campo(campos, colColor));
+            v.setPropietario(campo(campos, colPropietario));
+            vehiculos.add(v);
+        }
+        return vehiculos;
+    }
+
+    private static String campo(List<String> campos, int indice) {
+        return indice >= 0 && indice < campos.size() ? campos.get(indice) : null;
+    }
+
+    /**
+     * Lee un registro CSV completo (puede ocupar varias líneas si tiene
+     * campos entre comillas).
+     *
+     * @return false si se llegó al final sin leer ningún registro
+     */
+    private static boolean leerRegistroCsv(BufferedReader r, List<String> campos) throws IOException {
+        campos.clear();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        boolean leyoAlgo = false;
+        int c;
+        while ((c = r.read()) != -1) {
+            leyoAlgo = true;
+            if (entreComillas) {
+                if (c == '"') {
+                    r.mark(1);
+                    int siguiente = r.read();
+                    if (siguiente == '"') {
+                        actual.append('"');
+                    } else {
+                        entreComillas = false;
+                        if (siguiente != -1) {
+                            r.reset();
+                        }
+                    }
+                } else {
+                    actual.append((char) c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                actual.append((char) c);
+            }
+        }
+        if (!leyoAlgo) {
+            return false;
+        }
+        campos.add(actual.toString());
+        return true;
+    }
+}
@@ -0,0 +1,40 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.metrics.Metricas;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Métricas de la aplicación en el formato de texto de Prometheus: latencia
+ * (p50/p99/p999), throughput y errores por operación de la fachada, el DAO y
+ * el DataSource, más los indicadores de la caché y del índice de placas.
+ */
+@Path("metrics")
+public class MetricasResource {
+
+    /**
+     * Devuelve una instantánea de todas las métricas.
+     */
+    @GET
+    @Produces("text/plain; version=0.0.4; charset=utf-8")
+    public Response metricas() {
+        StreamingOutput salida = (OutputStream out) -> {
+            Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            Metricas.escribirPrometheus(w);
+            w.flush();
+        };
+        return Response.ok(salida)
+                .header("Cache-Control", "no-store")
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.eventos.CanalEventos;
+import com.garaje.eventos.DestinoEventos;
+import com.garaje.model.EventoVehiculo;
+
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Cambios de la flota en vivo (Server-Sent Events), para que vehicles.jsp
+ * actualice solo las filas afectadas en lugar de recargar el listado.
+ *
+ * Eventos: "agregado", "actualizado" (datos: el evento con el vehículo tal
+ * como quedó), "eliminado" (datos: el evento con el id) y "resincronizar"
+ * (se perdieron eventos: hay que volver a leer el listado). Cada evento
+ * lleva un id para que el navegador reconecte con Last-Event-ID.
+ *
+ * Ejemplo: GET resources/vehiculos/eventos
+ */
+@Path("vehiculos/eventos")
+public class VehiculoEventosResource {
+
+    // Espera sugerida al navegador antes de reconectar
+    private static final long REINTENTAR_EN_MS = 3000;
+
+    @EJB
+    private CanalEventos canal;
+
+    /**
+     * Abre el flujo de eventos; la respuesta queda abierta hasta que el
+     * cliente se desconecta.
+     *
+     * @param ultimoId último evento recibido, al reconectar
+     */
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void suscribir(@Context SseEventSink sink, @Context Sse sse,
+            @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String ultimoId) {
+        canal.suscribir(new DestinoSse(sink, sse), ultimoId);
+    }
+
+    /**
+     * Adapta un SseEventSink al canal de eventos.
+     */
+    private static final class DestinoSse implements DestinoEventos {
+
+        private final SseEventSink sink;
+        private final Sse sse;
+
+        DestinoSse(SseEventSink sink, Sse sse) {
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        @Override
+        public CompletionStage<?> enviar(String identificador, EventoVehiculo evento) {
+            return sink.send(sse.newEventBuilder()
+                    .id(identificador)
+                    .name(evento.getTipo().getNombre())
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(EventoVehiculo.class, evento)
+                    .reconnectDelay(REINTENTAR_EN_MS)
+                    .build());
+        }
+
+        @Override
+        public CompletionStage<?> resincronizar(String identificador) {
+            return sink.send(sse.newEventBuilder()
+                    .id(identificador)
+                    .name("resincronizar")
+                    .data("")
+                    .reconnectDelay(REINTENTAR_EN_MS)
+                    .build());
+        }
+
+        @Override
+        public CompletionStage<?> latido() {
+            return sink.send(sse.newEventBuilder().comment("latido").build());
+        }
+
+        @Override
+        public boolean isCerrado() {
+            return sink.isClosed();
+        }
+
+        @Override
+        public void cerrar() {
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.Vehiculo;
+import com.garaje.persistence.ConsumidorVehiculo;
+
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exportación completa de la flota en NDJSON o CSV.
+ *
+ * Las filas se escriben en la respuesta a medida que se leen del cursor JDBC,
+ * por lo que la memoria usada es constante y la respuesta viaja con
+ * transferencia chunked (no se conoce el Content-Length de antemano).
+ */
+@Path("vehiculos/export")
+public class VehiculoExportResource {
+
+    private static final Logger LOG = Logger.getLogger(VehiculoExportResource.class.getName());
+
+    // Tamaño del buffer de escritura hacia el cliente
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    @EJB
+    private VehiculoFacade vehiculoFacade;
+
+    /**
+     * Exporta la flota como JSON delimitado por saltos de línea.
+     */
+    @GET
+    @Path("ndjson")
+    @Produces("application/x-ndjson")
+    public Response exportarNdjson() {
+        return exportar(null, FormatoVehiculo::escribirJson, "vehiculos.ndjson");
+    }
+
+    /**
+     * Exporta la flota como CSV con cabecera.
+     */
+    @GET
+    @Path("csv")
+    @Produces("text/csv")
+    public Response exportarCsv() {
+        return exportar(FormatoVehiculo.CABECERA_CSV + "\r\n", FormatoVehiculo::escribirCsv, "vehiculos.csv");
+    }
+
+    private Response exportar(String cabecera, EscritorFila escritor, String nombreArchivo) {
+        StreamingOutput salida = (OutputStream out) -> {
+            Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), TAMANO_BUFFER);
+            if (cabecera != null) {
+                w.write(cabecera);
+            }
+            ConsumidorVehiculo consumidor = v -> escritor.escribir(w, v);
+            try {
+                vehiculoFacade.exportar(consumidor);
+            } catch (SQLException ex) {
+                // La respuesta ya comenzó: solo se puede cortar el stream
+                LOG.log(Level.SEVERE, "Error al exportar vehículos", ex);
+                throw new IOException("Error al exportar vehículos: " + ex.getMessage(), ex);
+            }
+            w.flush();
+        };
+        return Response.ok(salida)
+                .header("Content-Disposition", "attachment; filename=\"" + nombreArchivo + "\"")
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface EscritorFila {
+
+        void escribir(Writer w, Vehiculo v) throws IOException;
+    }
+}
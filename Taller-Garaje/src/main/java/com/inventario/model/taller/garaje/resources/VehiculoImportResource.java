@@ -0,0 +1,91 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.ReporteImportacion;
+import com.garaje.model.Vehiculo;
+
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.FormParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.EntityPart;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Importación masiva de vehículos (JSON, CSV o archivo CSV adjunto).
+ *
+ * Todas las variantes delegan en VehiculoFacade.importar(), que aplica las
+ * reglas de negocio por fila e inserta por bloques; la respuesta es el
+ * reporte con el resultado de cada fila.
+ */
+@Path("vehiculos/import")
+public class VehiculoImportResource {
+
+    private static final Logger LOG = Logger.getLogger(VehiculoImportResource.class.getName());
+
+    @EJB
+    private VehiculoFacade vehiculoFacade;
+
+    /**
+     * Importa un arreglo JSON de vehículos.
+     */
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importarJson(List<Vehiculo> vehiculos) {
+        if (vehiculos == null || vehiculos.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("La carga no contiene vehículos").type(MediaType.TEXT_PLAIN).build();
+        }
+        return importar(vehiculos);
+    }
+
+    /**
+     * Importa un CSV enviado como cuerpo de la petición.
+     */
+    @POST
+    @Consumes("text/csv")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importarCsv(InputStream cuerpo) throws IOException {
+        return importar(FormatoVehiculo.leerCsv(new InputStreamReader(cuerpo, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Importa un archivo CSV adjunto en un formulario (campo "archivo").
+     */
+    @POST
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importarArchivo(@FormParam("archivo") EntityPart archivo) throws IOException {
+        if (archivo == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Falta el archivo a importar (campo 'archivo')").type(MediaType.TEXT_PLAIN).build();
+        }
+        try (InputStream contenido = archivo.getContent()) {
+            return importar(FormatoVehiculo.leerCsv(new InputStreamReader(contenido, StandardCharsets.UTF_8)));
+        }
+    }
+
+    private Response importar(List<Vehiculo> vehiculos) {
+        try {
+            ReporteImportacion reporte = vehiculoFacade.importar(vehiculos);
+            return Response.ok(reporte).build();
+        } catch (SQLException se) {
+            LOG.log(Level.SEVERE, "Error al importar vehículos", se);
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity("Error en base de datos: " + se.getMessage()).type(MediaType.TEXT_PLAIN).build();
+        }
+    }
+}
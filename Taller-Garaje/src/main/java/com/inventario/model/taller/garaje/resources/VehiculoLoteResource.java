@@ -0,0 +1,81 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.OperacionVehiculo;
+import com.garaje.model.ReporteLote;
+
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lote de escrituras en una sola transacción: una secuencia de altas,
+ * actualizaciones y bajas que un cliente aplicaría una por una, con una sola
+ * conexión y un solo commit.
+ *
+ * Ejemplo: POST resources/vehiculos/lote?modo=mejor-esfuerzo
+ * [{"operacion": "agregar", "vehiculo": {...}},
+ *  {"operacion": "actualizar", "id": 7, "version": 3, "vehiculo": {...}},
+ *  {"operacion": "eliminar", "id": 9}]
+ *
+ * El modo por defecto es "todo-o-nada". La respuesta es el reporte con el
+ * resultado de cada operación (también si el lote se revirtió).
+ */
+@Path("vehiculos/lote")
+public class VehiculoLoteResource {
+
+    private static final Logger LOG = Logger.getLogger(VehiculoLoteResource.class.getName());
+
+    private static final String TODO_O_NADA = "todo-o-nada";
+    private static final String MEJOR_ESFUERZO = "mejor-esfuerzo";
+
+    @EJB
+    private VehiculoFacade vehiculoFacade;
+
+    /**
+     * Ejecuta el lote.
+     *
+     * @param modo "todo-o-nada" (por defecto) o "mejor-esfuerzo"
+     * @param operaciones operaciones en el orden en que deben aplicarse
+     */
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response ejecutar(@QueryParam("modo") @DefaultValue(TODO_O_NADA) String modo,
+            List<OperacionVehiculo> operaciones) {
+        if (!TODO_O_NADA.equals(modo) && !MEJOR_ESFUERZO.equals(modo)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Modo desconocido: " + modo + " (se admite " + TODO_O_NADA + " o " + MEJOR_ESFUERZO + ")")
+                    .type(MediaType.TEXT_PLAIN).build();
+        }
+        if (operaciones == null || operaciones.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("El lote no contiene operaciones").type(MediaType.TEXT_PLAIN).build();
+        }
+        if (operaciones.size() > VehiculoFacade.OPERACIONES_LOTE_MAXIMO) {
+            return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                    .entity("El lote admite hasta " + VehiculoFacade.OPERACIONES_LOTE_MAXIMO
+                            + " operaciones; para cargas masivas use vehiculos/import")
+                    .type(MediaType.TEXT_PLAIN).build();
+        }
+        try {
+            ReporteLote reporte = vehiculoFacade.ejecutarLote(operaciones, TODO_O_NADA.equals(modo));
+            return Response.ok(reporte).build();
+        } catch (SQLException se) {
+            LOG.log(Level.SEVERE, "Error al ejecutar el lote de operaciones", se);
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity("Error en base de datos: " + se.getMessage()).type(MediaType.TEXT_PLAIN).build();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.CoincidenciaPlaca;
+
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Búsqueda parcial de placas para el mostrador (autocompletado mientras se
+ * escribe). Ignora mayúsculas y separadores y tolera una letra equivocada.
+ *
+ * Ejemplo: GET resources/vehiculos/placas?q=abc1&amp;limit=10
+ */
+@Path("vehiculos/placas")
+public class VehiculoPlacasResource {
+
+    private static final Logger LOG = Logger.getLogger(VehiculoPlacasResource.class.getName());
+
+    @EJB
+    private VehiculoFacade vehiculoFacade;
+
+    /**
+     * Devuelve las placas más parecidas al texto, de mejor a peor.
+     *
+     * @param texto placa o fragmento
+     * @param limite resultados máximos (por defecto 10, máximo 50)
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response buscar(@QueryParam("q") String texto,
+            @QueryParam("limit") @DefaultValue("0") int limite) {
+        // Los resultados cambian con cada escritura y son baratos de calcular
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoStore(true);
+        try {
+            List<CoincidenciaPlaca> coincidencias = vehiculoFacade.buscarPlacas(texto, limite);
+            return Response.ok(coincidencias).cacheControl(cacheControl).build();
+        } catch (SQLException ex) {
+            LOG.log(Level.SEVERE, "Error al buscar placas", ex);
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity("Error en base de datos: " + ex.getMessage())
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.inventario.model.taller.garaje.resources;
+
+import com.garaje.cache.VersionFlota;
+import com.garaje.exceptions.BusinessException;
+import com.garaje.exceptions.ConflictoVersionException;
+import com.garaje.facade.VehiculoFacade;
+import com.garaje.model.CampoVehiculo;
+import com.garaje.model.FiltroVehiculos;
+import com.garaje.model.PaginaVehiculos;
+import com.garaje.model.Vehiculo;
+
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.PATCH;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Listado paginado de vehículos en JSON, con filtros opcionales por marca,
+ * color, rango de años del modelo y prefijo del propietario.
+ *
+ * Cada página lleva un ETag derivado de la versión de la flota; si el cliente
+ * envía If-None-Match con el ETag vigente se responde 304 sin consultar la
+ * base de datos.
+ *
+ * Cada vehículo se puede leer y modificar parcialmente en vehiculos/{id}: su
+ * ETag es la versión de la fila y el PATCH exige If-Match con ese ETag, de
+ * modo que una edición hecha sobre datos viejos se rechaza con 412 en lugar
+ * de pisar la de otro usuario.
+ */
+@Path("vehiculos")
+public class VehiculoResource {
+
+    private static final Logger LOG = Logger.getLogger(VehiculoResource.class.getName());
+
+    @EJB
+    private VehiculoFacade vehiculoFacade;
+
+    @EJB
+    private VersionFlota versionFlota;
+
+    // Tipo de contenido de JSON Merge Patch (RFC 7396)
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    /**
+     * Devuelve una página del listado (paginación por clave).
+     *
+     * @param cursor último id de la página anterior (0 para la primera)
+     * @param tamano tamaño de página
+     * @param marca marca exacta (opcional)
+     * @param color color exacto (opcional)
+     * @param anioDesde año mínimo del modelo, inclusivo (opcional)
+     * @param anioHasta año máximo del modelo, inclusivo (opcional)
+     * @param propietario prefijo del propietario (opcional)
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response listar(@QueryParam("cursor") @DefaultValue("0") int cursor,
+            @QueryParam("size") @DefaultValue("0") int tamano,
+            @QueryParam("marca") String marca,
+            @QueryParam("color") String color,
+            @QueryParam("anioDesde") Integer anioDesde,
+            @QueryParam("anioHasta") Integer anioHasta,
+            @QueryParam("propietario") String propietario,
+            @Context Request request) {
+        int desde = Math.max(cursor, 0);
+        int limite = VehiculoFacade.normalizarTamanoPagina(tamano);
+        FiltroVehiculos filtro = new FiltroVehiculos(marca, color, anioDesde, anioHasta, propietario);
+        // El ETag se toma antes de leer: nunca describe datos más nuevos que los enviados
+        String variante = "c" + desde + "s" + limite + filtro.getConsulta();
+        EntityTag etag = new EntityTag(versionFlota.etiqueta(variante), true);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+
+        Response.ResponseBuilder noModificado = request.evaluatePreconditions(etag);
+        if (noModificado != null) {
+            return noModificado.cacheControl(cacheControl).build();
+        }
+        try {
+            PaginaVehiculos pagina = vehiculoFacade.listarPagina(filtro, desde, limite);
+            return Response.ok(pagina).tag(etag).cacheControl(cacheControl).build();
+        } catch (SQLException ex) {
+            LOG.log(Level.SEVERE, "Error al listar vehículos", ex);
+            return errorBaseDatos(ex);
+        }
+    }
+
+    /**
+     * Devuelve un vehículo con su versión como ETag.
+     *
+     * @param id identificador del vehículo
+     */
+    @GET
+    @Path("{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response obtener(@PathParam("id") int id) {
+        try {
+            Vehiculo v = vehiculoFacade.buscarPorId(id);
+            if (v == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity("El vehículo con ID " + id + " no existe").type(MediaType.TEXT_PLAIN_TYPE).build();
+            }
+            return Response.ok(v).tag(etiquetaVersion(v.getVersion())).build();
+        } catch (SQLException ex) {
+            LOG.log(Level.SEVERE, "Error al buscar vehículo", ex);
+            return errorBaseDatos(ex);
+        }
+    }
+
+    /**
+     * Modifica solo los campos enviados (placa, marca, modelo, color,
+     * propietario) si el vehículo sigue en la versión indicada por If-Match.
+     *
+     * Respuestas: 200 con el vehículo actualizado y su nuevo ETag; 400 si el
+     * cuerpo trae campos no editables; 412 si la versión ya no es la vigente;
+     * 422 si falla una regla de negocio; 428 si falta If-Match.
+     *
+     * @param id identificador del vehículo
+     * @param ifMatch ETag leído por el cliente
+     * @param cuerpo campos a modificar con su nuevo valor
+     */
+    @PATCH
+    @Path("{id}")
+    @Consumes({MERGE_PATCH_JSON, MediaType.APPLICATION_JSON})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response actualizarParcial(@PathParam("id") int id,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            Map<String, String> cuerpo) {
+        Integer version = versionDesdeEtiqueta(ifMatch);
+        if (version == null) {
+            return Response.status(428)
+                    .entity("Se requiere If-Match con el ETag del vehículo").type(MediaType.TEXT_PLAIN_TYPE).build();
+        }
+        if (cuerpo == null || cuerpo.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("No se indicaron campos a modificar").type(MediaType.TEXT_PLAIN_TYPE).build();
+        }
+        Map<CampoVehiculo, String> cambios = new EnumMap<>(CampoVehiculo.class);
+        for (Map.Entry<String, String> entrada : cuerpo.entrySet()) {
+            CampoVehiculo campo = CampoVehiculo.desdeNombre(entrada.getKey());
+            if (campo == null) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("El campo '" + entrada.getKey() + "' no se puede modificar")
+                        .type(MediaType.TEXT_PLAIN_TYPE).build();
+            }
+            cambios.put(campo, entrada.getValue());
+        }
+        try {
+            Vehiculo v = vehiculoFacade.actualizarParcial(id, version, cambios);
+            return Response.ok(v).tag(etiquetaVersion(v.getVersion())).build();
+        } catch (ConflictoVersionException ex) {
+            return Response.status(Response.Status.PRECONDITION_FAILED)
+                    .tag(etiquetaVersion(ex.getVersionActual()))
+                    .entity(ex.getMessage()).type(MediaType.TEXT_PLAIN_TYPE).build();
+        } catch (BusinessException ex) {
+            return Response.status(422).entity(ex.getMessage()).type(MediaType.TEXT_PLAIN_TYPE).build();
+        } catch (SQLException ex) {
+            LOG.log(Level.SEVERE, "Error al actualizar vehículo", ex);
+            return errorBaseDatos(ex);
+        }
+    }
+
+    private static EntityTag etiquetaVersion(int version) {
+        return new EntityTag(Integer.toString(version));
+    }
+
+    /**
+     * Interpreta If-Match: un único ETag fuerte con la versión ("3").
+     *
+     * @return la versión o null si falta o no es válida
+     */
+    private static Integer versionDesdeEtiqueta(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.length() < 3 || valor.charAt(0) != '"' || valor.charAt(valor.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Integer.valueOf(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Response errorBaseDatos(SQLException ex) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .entity("Error en base de datos: " + ex.getMessage())
+                .type(MediaType.TEXT_PLAIN_TYPE)
+                .build();
+    }
+}
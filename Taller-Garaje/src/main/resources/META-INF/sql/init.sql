@@ -0,0 +1,20 @@
+-- Datos de ejemplo de la tabla vehiculos; los carga EsquemaBD al desplegar (garaje.esquema.datosEjemplo).
+-- El esquema lo crean las migraciones de MigradorEsquema. Una sentencia por línea.
+-- Los años de los modelos cumplen la regla de 20 años de antigüedad hasta 2035.
+-- Flotas grandes para pruebas de carga: GeneradorFlota (módulo Taller-Garaje-benchmarks).
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('ABC123', 'Chevrolet', '2018', 'Blanco', 'Ana Rodríguez Gómez');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('BCD234', 'Renault', '2020', 'Gris', 'Carlos Martínez Pérez');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('CDE345', 'Mazda', '2022', 'Rojo', 'María López Díaz');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('DEF456', 'Toyota', '2019', 'Negro', 'Juan Hernández Rojas');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('EFG567', 'Kia', '2023', 'Azul', 'Luisa Sánchez Moreno');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('FGH678', 'Nissan', '2016', 'Blanco', 'Andrés Ramírez Castro');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('GHI789', 'Hyundai', '2021', 'Gris', 'Camila Vargas Ortiz');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('HIJ890', 'Suzuki', '2017', 'Negro', 'Jorge Torres Suárez');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('IJK901', 'Ford', '2024', 'Rojo', 'Valentina Mejía Ríos');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('JKL012', 'Volkswagen', '2015', 'Blanco', 'Diego Restrepo Salazar');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('KLM123', 'Chevrolet', '2022', 'Gris', 'Transportes Andina S.A.S.');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('LMN234', 'Chevrolet', '2022', 'Blanco', 'Transportes Andina S.A.S.');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('MNO345', 'Renault', '2021', 'Blanco', 'Logística del Valle S.A.S.');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('NOP456', 'Toyota', '2025', 'Negro', 'Administrador');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('OPQ567', 'Mazda', '2019', 'Azul', 'Laura Guzmán Herrera');
+INSERT IGNORE INTO vehiculos (placa, marca, modelo, color, propietario) VALUES ('PQR678', 'Ferrari', '2023', 'Rojo', 'Felipe Medina Aguilar');
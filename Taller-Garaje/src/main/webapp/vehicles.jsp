@@ -245,6 +245,27 @@
                 transform: translateY(-1px);
                 box-shadow: 0 3px 8px rgba(0, 0, 0, 0.2);
             }
+            .filtros {
+                display: flex;
+                flex-wrap: wrap;
+                gap: 10px;
+                margin-bottom: 20px;
+            }
+            .filtros input, .filtros select {
+                padding: 8px 12px;
+                border: 2px solid #e0e6ed;
+                border-radius: 8px;
+            }
+            .pager {
+                display: flex;
+                justify-content: space-between;
+                align-items: center;
+                margin-top: 20px;
+                color: #7f8c8d;
+            }
+            .pager .btn {
+                text-decoration: none;
+            }
             .alert {
                 margin: 15px auto;
                 max-width: 800px;
@@ -263,6 +284,22 @@
                 color: #721c24;
                 border: 1px solid #f5c6cb;
             }
+            /* Aviso de cambios hechos por otros usuarios (eventos en vivo) */
+            .aviso-cambios {
+                display: none;
+                justify-content: space-between;
+                align-items: center;
+                gap: 10px;
+                margin-bottom: 20px;
+                padding: 10px 20px;
+                border-radius: 10px;
+                background-color: #fff3cd;
+                color: #856404;
+                border: 1px solid #ffeeba;
+            }
+            tr.fila-cambiada td {
+                background-color: #fff3cd;
+            }
         </style>
     </head>
     <body>
@@ -291,6 +328,8 @@
                             <form action="vehicles" method="post">
                                 <input type="hidden" name="action" value="update"/>
                                 <input type="hidden" name="id" value="${vehiculoEditar.id}"/>
+                                <input type="hidden" name="version" value="${vehiculoEditar.version}"/>
+                                <%@ include file="/WEB-INF/jspf/estado-listado.jspf" %>
 
                                 <div class="form-grid">
                                     <div class="form-group">
@@ -367,6 +406,31 @@
                 <!-- Lista de vehículos -->
                 <div class="table-section">
                     <h2>📋 Lista de Vehículos</h2>
+
+                    <!-- Filtros (marca, color, año del modelo, propietario) -->
+                    <form action="vehicles" method="get" class="filtros">
+                        <input type="hidden" name="size" value="${pagina.tamano}"/>
+                        <input type="text" name="filtroMarca" placeholder="Marca" value="<c:out value='${filtro.marca}'/>"/>
+                        <select name="filtroColor">
+                            <option value="">Todos los colores</option>
+                            <option value="Rojo" ${filtro.color == 'ROJO' ? 'selected' : ''}>Rojo</option>
+                            <option value="Blanco" ${filtro.color == 'BLANCO' ? 'selected' : ''}>Blanco</option>
+                            <option value="Negro" ${filtro.color == 'NEGRO' ? 'selected' : ''}>Negro</option>
+                            <option value="Azul" ${filtro.color == 'AZUL' ? 'selected' : ''}>Azul</option>
+                            <option value="Gris" ${filtro.color == 'GRIS' ? 'selected' : ''}>Gris</option>
+                        </select>
+                        <input type="number" name="filtroAnioDesde" placeholder="Año desde" value="${filtro.anioDesde}"/>
+                        <input type="number" name="filtroAnioHasta" placeholder="Año hasta" value="${filtro.anioHasta}"/>
+                        <input type="text" name="filtroPropietario" placeholder="Propietario (inicio)" value="<c:out value='${filtro.propietario}'/>"/>
+                        <button type="submit" class="btn btn-small">🔍 Filtrar</button>
+                        <c:if test="${not empty consultaFiltro}">
+                            <a href="vehicles?size=${pagina.tamano}" class="btn btn-small" style="background:#95a5a6;">✖️ Limpiar</a>
+                        </c:if>
+                    </form>
+                    <div id="aviso-cambios" class="aviso-cambios">
+                        <span></span>
+                        <button type="button" class="btn btn-small" onclick="location.reload()">🔄 Actualizar lista</button>
+                    </div>
                     <div class="table-container">
                         <c:choose>
                             <c:when test="${empty vehicles}">
@@ -389,37 +453,32 @@
                                         </tr>
                                     </thead>
                                     <tbody>
-                                        <c:forEach var="v" items="${vehicles}">
-                                            <tr>
-                                                <td>#${v.id}</td>
-                                                <td>${v.marca}</td>
-                                                <td>${v.modelo}</td>
-                                                <td>${v.color}</td>
-                                                <td>${v.placa}</td>
-                                                <td>${v.propietario}</td>
-                                                <td>
-                                                    <!-- Editar -->
-                                                    <form action="vehicles" method="get" style="display:inline;">
-                                                        <input type="hidden" name="action" value="edit"/>
-                                                        <input type="hidden" name="id" value="${v.id}"/>
-                                                        <button type="submit" class="btn-small" style="background:#f39c12;">✏️ Editar</button>
-                                                    </form>
-
-                                                    <!-- Eliminar -->
-                                                    <form action="vehicles" method="post" style="display:inline;" 
-                                                          onsubmit="return confirm('¿Estás seguro de eliminar este vehículo?');">
-                                                        <input type="hidden" name="action" value="delete"/>
-                                                        <input type="hidden" name="id" value="${v.id}"/>
-                                                        <button type="submit" class="btn-small" style="background:#e74c3c;">🗑️ Eliminar</button>
-                                                    </form>
-                                                </td>
-                                            </tr>
-                                        </c:forEach>
+                                        <%-- Filas ya renderizadas (FragmentosFilas), enviadas por bloques --%>
+                                        ${tabla.escribir(pageContext.out)}
                                     </tbody>
                                 </table>
                             </c:otherwise>
                         </c:choose>
                     </div>
+
+                    <!-- Paginación por clave: solo se navega hacia adelante o se vuelve al inicio -->
+                    <c:if test="${not empty pagina and (not pagina.primera or pagina.haySiguiente)}">
+                        <div class="pager">
+                            <c:choose>
+                                <c:when test="${not pagina.primera}">
+                                    <a href="vehicles?size=${pagina.tamano}<c:out value='${consultaFiltro}'/>" class="btn btn-small">⏮️ Primera página</a>
+                                </c:when>
+                                <c:otherwise><span></span></c:otherwise>
+                            </c:choose>
+                            <span>${pagina.vehiculos.size()} vehículos en esta página</span>
+                            <c:choose>
+                                <c:when test="${pagina.haySiguiente}">
+                                    <a href="vehicles?cursor=${pagina.siguienteCursor}&amp;size=${pagina.tamano}<c:out value='${consultaFiltro}'/>" class="btn btn-small">Siguiente ▶️</a>
+                                </c:when>
+                                <c:otherwise><span></span></c:otherwise>
+                            </c:choose>
+                        </div>
+                    </c:if>
                 </div>
             </div>
         </div>
@@ -429,6 +488,59 @@
                 const alerts = document.querySelectorAll('.alert');
                 alerts.forEach(a => a.style.display = 'none');
             }, 5000);
+
+            // Cambios de otros usuarios en vivo (resources/vehiculos/eventos): las filas
+            // visibles se actualizan o se quitan en su lugar; las altas y las pérdidas
+            // de eventos solo se avisan, para no mover la página mientras se usa
+            (() => {
+                if (!window.EventSource) {
+                    return;
+                }
+                const tabla = document.querySelector('.table-container tbody');
+                const aviso = document.getElementById('aviso-cambios');
+                const edicion = document.querySelector('form input[name="action"][value="update"]');
+                const idEditado = edicion ? edicion.form.querySelector('input[name="id"]').value : null;
+                let agregados = 0;
+
+                const avisar = mensaje => {
+                    aviso.querySelector('span').textContent = mensaje;
+                    aviso.style.display = 'flex';
+                };
+                const fila = id => tabla ? tabla.querySelector('tr[data-id="' + id + '"]') : null;
+
+                const fuente = new EventSource('resources/vehiculos/eventos');
+                fuente.addEventListener('actualizado', e => {
+                    const evento = JSON.parse(e.data);
+                    const tr = fila(evento.id);
+                    if (tr) {
+                        tr.querySelectorAll('td[data-campo]').forEach(td => {
+                            td.textContent = evento.vehiculo[td.dataset.campo] ?? '';
+                        });
+                        tr.classList.add('fila-cambiada');
+                        setTimeout(() => tr.classList.remove('fila-cambiada'), 2000);
+                    }
+                    if (String(evento.id) === idEditado) {
+                        avisar('Otro usuario modificó el vehículo que está editando; recárguelo antes de guardar.');
+                    }
+                });
+                fuente.addEventListener('eliminado', e => {
+                    const evento = JSON.parse(e.data);
+                    const tr = fila(evento.id);
+                    if (tr) {
+                        tr.remove();
+                    }
+                    if (String(evento.id) === idEditado) {
+                        avisar('El vehículo que está editando fue eliminado.');
+                    }
+                });
+                fuente.addEventListener('agregado', () => {
+                    agregados++;
+                    avisar(agregados === 1 ? 'Se agregó 1 vehículo.' : 'Se agregaron ' + agregados + ' vehículos.');
+                });
+                fuente.addEventListener('resincronizar', () => {
+                    avisar('Hubo cambios que esta pantalla no alcanzó a recibir.');
+                });
+            })();
         </script>
 
     </body>